@@ -20,13 +20,17 @@ package com.google.code.ssm.providers.elasticache;
 import java.net.SocketAddress;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
+import net.spy.memcached.CASResponse;
 import net.spy.memcached.CachedData;
+import net.spy.memcached.internal.BulkFuture;
 import net.spy.memcached.MemcachedClientIF;
 import net.spy.memcached.OperationTimeoutException;
 import net.spy.memcached.transcoders.Transcoder;
@@ -35,6 +39,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.google.code.ssm.providers.AbstractMemcacheClientWrapper;
+import com.google.code.ssm.providers.CASValue;
 import com.google.code.ssm.providers.CacheException;
 import com.google.code.ssm.providers.CacheTranscoder;
 import com.google.code.ssm.providers.CachedObject;
@@ -58,6 +63,61 @@ class MemcacheClientWrapper extends AbstractMemcacheClientWrapper {
         this.memcachedClient = memcachedClient;
     }
 
+    @Override
+    public Future<Boolean> asyncAdd(final String key, final int exp, final Object value) {
+        return memcachedClient.add(key, exp, value);
+    }
+
+    @Override
+    public <T> Future<Boolean> asyncAdd(final String key, final int exp, final T value, final CacheTranscoder transcoder) {
+        return memcachedClient.add(key, exp, value, this.<T> getTranscoder(transcoder));
+    }
+
+    @Override
+    public Future<Long> asyncDecr(final String key, final int by) {
+        return memcachedClient.asyncDecr(key, by);
+    }
+
+    @Override
+    public Future<Boolean> asyncDelete(final String key) {
+        return memcachedClient.delete(key);
+    }
+
+    @Override
+    public Future<Object> asyncGet(final String key) {
+        return memcachedClient.asyncGet(key);
+    }
+
+    @Override
+    public <T> Future<T> asyncGet(final String key, final CacheTranscoder transcoder) {
+        return memcachedClient.asyncGet(key, this.<T> getTranscoder(transcoder));
+    }
+
+    @Override
+    public Future<Map<String, Object>> asyncGetBulk(final Collection<String> keys) {
+        return memcachedClient.asyncGetBulk(keys);
+    }
+
+    @Override
+    public <T> Future<Map<String, T>> asyncGetBulk(final Collection<String> keys, final CacheTranscoder transcoder) {
+        return memcachedClient.asyncGetBulk(keys, this.<T> getTranscoder(transcoder));
+    }
+
+    @Override
+    public Future<Long> asyncIncr(final String key, final int by) {
+        return memcachedClient.asyncIncr(key, by);
+    }
+
+    @Override
+    public Future<Boolean> asyncSet(final String key, final int exp, final Object value) {
+        return memcachedClient.set(key, exp, value);
+    }
+
+    @Override
+    public <T> Future<Boolean> asyncSet(final String key, final int exp, final T value, final CacheTranscoder transcoder) {
+        return memcachedClient.set(key, exp, value, this.<T> getTranscoder(transcoder));
+    }
+
     @Override
     public boolean add(final String key, final int exp, final Object value) throws TimeoutException, CacheException {
         Future<Boolean> f = null;
@@ -89,6 +149,59 @@ class MemcacheClientWrapper extends AbstractMemcacheClientWrapper {
         }
     }
 
+    @Override
+    public Set<String> addBulk(final Map<String, ?> values, final int exp) throws TimeoutException, CacheException {
+        final Map<String, Future<Boolean>> futures = new HashMap<String, Future<Boolean>>();
+        for (final Map.Entry<String, ?> entry : values.entrySet()) {
+            futures.put(entry.getKey(), memcachedClient.add(entry.getKey(), exp, entry.getValue()));
+        }
+
+        return await(futures);
+    }
+
+    @Override
+    public <T> Set<String> addBulk(final Map<String, T> values, final int exp, final CacheTranscoder transcoder) throws TimeoutException,
+            CacheException {
+        final Transcoder<T> transcoderAdapter = getTranscoder(transcoder);
+        final Map<String, Future<Boolean>> futures = new HashMap<String, Future<Boolean>>();
+        for (final Map.Entry<String, T> entry : values.entrySet()) {
+            futures.put(entry.getKey(), memcachedClient.add(entry.getKey(), exp, entry.getValue(), transcoderAdapter));
+        }
+
+        return await(futures);
+    }
+
+    @Override
+    public boolean cas(final String key, final long cas, final int exp, final Object value) throws TimeoutException, CacheException {
+        try {
+            return memcachedClient.cas(key, cas, exp, value, memcachedClient.getTranscoder()) == CASResponse.OK;
+        } catch (RuntimeException e) {
+            if (translateException(e)) {
+                throw new CacheException(e);
+            } else if (e.getCause() instanceof TimeoutException) {
+                throw (TimeoutException) e.getCause();
+            }
+
+            throw e;
+        }
+    }
+
+    @Override
+    public <T> boolean cas(final String key, final long cas, final int exp, final T value, final CacheTranscoder transcoder)
+            throws TimeoutException, CacheException {
+        try {
+            return memcachedClient.cas(key, cas, exp, value, this.<T> getTranscoder(transcoder)) == CASResponse.OK;
+        } catch (RuntimeException e) {
+            if (translateException(e)) {
+                throw new CacheException(e);
+            } else if (e.getCause() instanceof TimeoutException) {
+                throw (TimeoutException) e.getCause();
+            }
+
+            throw e;
+        }
+    }
+
     @Override
     public long decr(final String key, final int by) throws TimeoutException, CacheException {
         try {
@@ -130,6 +243,22 @@ class MemcacheClientWrapper extends AbstractMemcacheClientWrapper {
         }
     }
 
+    @Override
+    public void delete(final Collection<String> keys) throws TimeoutException, CacheException {
+        if (keys == null || keys.isEmpty()) {
+            return;
+        }
+
+        final Map<String, Future<Boolean>> futures = new HashMap<String, Future<Boolean>>();
+        for (final String key : keys) {
+            if (key != null) {
+                futures.put(key, memcachedClient.delete(key));
+            }
+        }
+
+        await(futures);
+    }
+
     @Override
     public void flush() throws CacheException {
         try {
@@ -222,6 +351,47 @@ class MemcacheClientWrapper extends AbstractMemcacheClientWrapper {
         }
     }
 
+    @Override
+    public Map<String, Object> getBulk(final Collection<String> keys, final long timeout) throws TimeoutException, CacheException {
+        return getSome(memcachedClient.asyncGetBulk(keys), timeout);
+    }
+
+    @Override
+    public <T> Map<String, T> getBulk(final Collection<String> keys, final CacheTranscoder transcoder, final long timeout)
+            throws TimeoutException, CacheException {
+        return getSome(memcachedClient.asyncGetBulk(keys, this.<T> getTranscoder(transcoder)), timeout);
+    }
+
+    @Override
+    public CASValue<Object> gets(final String key) throws TimeoutException, CacheException {
+        try {
+            return toCASValue(memcachedClient.gets(key));
+        } catch (RuntimeException e) {
+            if (translateException(e)) {
+                throw new CacheException(e);
+            } else if (e.getCause() instanceof TimeoutException) {
+                throw (TimeoutException) e.getCause();
+            }
+
+            throw e;
+        }
+    }
+
+    @Override
+    public <T> CASValue<T> gets(final String key, final CacheTranscoder transcoder) throws TimeoutException, CacheException {
+        try {
+            return toCASValue(memcachedClient.gets(key, this.<T> getTranscoder(transcoder)));
+        } catch (RuntimeException e) {
+            if (translateException(e)) {
+                throw new CacheException(e);
+            } else if (e.getCause() instanceof TimeoutException) {
+                throw (TimeoutException) e.getCause();
+            }
+
+            throw e;
+        }
+    }
+
     @Override
     public long incr(final String key, final int by) throws TimeoutException, CacheException {
         try {
@@ -298,11 +468,78 @@ class MemcacheClientWrapper extends AbstractMemcacheClientWrapper {
         }
     }
 
+    @Override
+    public void setBulk(final Map<String, ?> values, final int exp) throws TimeoutException, CacheException {
+        final Map<String, Future<Boolean>> futures = new HashMap<String, Future<Boolean>>();
+        for (final Map.Entry<String, ?> entry : values.entrySet()) {
+            futures.put(entry.getKey(), memcachedClient.set(entry.getKey(), exp, entry.getValue()));
+        }
+
+        await(futures);
+    }
+
+    @Override
+    public <T> void setBulk(final Map<String, T> values, final int exp, final CacheTranscoder transcoder) throws TimeoutException,
+            CacheException {
+        final Transcoder<T> transcoderAdapter = getTranscoder(transcoder);
+        final Map<String, Future<Boolean>> futures = new HashMap<String, Future<Boolean>>();
+        for (final Map.Entry<String, T> entry : values.entrySet()) {
+            futures.put(entry.getKey(), memcachedClient.set(entry.getKey(), exp, entry.getValue(), transcoderAdapter));
+        }
+
+        await(futures);
+    }
+
+    @Override
+    public boolean touch(final String key, final int exp) throws TimeoutException, CacheException {
+        Future<Boolean> f = null;
+        try {
+            f = memcachedClient.touch(key, exp);
+            return f.get();
+        } catch (InterruptedException e) {
+            cancel(f);
+            throw new CacheException(e);
+        } catch (ExecutionException e) {
+            cancel(f);
+            throw new CacheException(e);
+        }
+    }
+
     @Override
     public void shutdown() {
         memcachedClient.shutdown();
     }
 
+    @Override
+    public Object getAndTouch(final String key, final int exp) throws TimeoutException, CacheException {
+        try {
+            return getValue(memcachedClient.getAndTouch(key, exp));
+        } catch (RuntimeException e) {
+            if (translateException(e)) {
+                throw new CacheException(e);
+            } else if (e.getCause() instanceof TimeoutException) {
+                throw (TimeoutException) e.getCause();
+            }
+
+            throw e;
+        }
+    }
+
+    @Override
+    public <T> T getAndTouch(final String key, final int exp, final CacheTranscoder transcoder) throws TimeoutException, CacheException {
+        try {
+            return getValue(memcachedClient.getAndTouch(key, exp, this.<T> getTranscoder(transcoder)));
+        } catch (RuntimeException e) {
+            if (translateException(e)) {
+                throw new CacheException(e);
+            } else if (e.getCause() instanceof TimeoutException) {
+                throw (TimeoutException) e.getCause();
+            }
+
+            throw e;
+        }
+    }
+
     @Override
     public CacheTranscoder getTranscoder() {
         return new TranscoderWrapper(memcachedClient.getTranscoder());
@@ -313,6 +550,14 @@ class MemcacheClientWrapper extends AbstractMemcacheClientWrapper {
         return memcachedClient;
     }
 
+    private <T> T getValue(final net.spy.memcached.CASValue<T> casValue) {
+        return (casValue != null) ? casValue.getValue() : null;
+    }
+
+    private <T> CASValue<T> toCASValue(final net.spy.memcached.CASValue<T> casValue) {
+        return (casValue != null) ? new CASValue<T>(casValue.getCas(), casValue.getValue()) : null;
+    }
+
     @SuppressWarnings("unchecked")
     private <T> Transcoder<T> getTranscoder(final CacheTranscoder transcoder) {
         Transcoder<T> transcoderAdapter = (Transcoder<T>) adapters.get(transcoder);
@@ -324,6 +569,53 @@ class MemcacheClientWrapper extends AbstractMemcacheClientWrapper {
         return transcoderAdapter;
     }
 
+    /**
+     * Waits for completion of all operations, failure of one operation doesn't stop waiting for others.
+     * 
+     * @return keys of successful operations
+     */
+    private Set<String> await(final Map<String, Future<Boolean>> futures) throws CacheException {
+        final Set<String> succeeded = new HashSet<String>();
+        CacheException exception = null;
+        for (final Map.Entry<String, Future<Boolean>> entry : futures.entrySet()) {
+            try {
+                if (entry.getValue().get()) {
+                    succeeded.add(entry.getKey());
+                }
+            } catch (InterruptedException e) {
+                for (final Future<Boolean> f : futures.values()) {
+                    cancel(f);
+                }
+                throw new CacheException(e);
+            } catch (ExecutionException e) {
+                if (exception == null) {
+                    exception = new CacheException(e);
+                }
+            }
+        }
+
+        if (exception != null) {
+            throw exception;
+        }
+
+        return succeeded;
+    }
+
+    /**
+     * Waits for values at most given time. Values of timed out operations are skipped.
+     * 
+     */
+    private <T> Map<String, T> getSome(final BulkFuture<Map<String, T>> future, final long timeout) throws CacheException {
+        try {
+            return future.getSome(timeout, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            cancel(future);
+            throw new CacheException(e);
+        } catch (ExecutionException e) {
+            throw new CacheException(e);
+        }
+    }
+
     private void cancel(final Future<?> f) {
         if (f != null) {
             f.cancel(true);
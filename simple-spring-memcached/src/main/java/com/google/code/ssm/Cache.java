@@ -21,9 +21,13 @@ package com.google.code.ssm;
 import java.net.SocketAddress;
 import java.util.Collection;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeoutException;
 
 import com.google.code.ssm.api.format.SerializationType;
+import com.google.code.ssm.providers.BulkGetCallback;
+import com.google.code.ssm.providers.CASValue;
 import com.google.code.ssm.providers.CacheException;
 
 /**
@@ -65,6 +69,117 @@ public interface Cache {
      */
     boolean isEnabled();
 
+    /**
+     * Adds object to cache if it doesn't exist without waiting for
+     * completion. Failure of the operation is reported by
+     * {@link Future#get()}.
+     * Invalidation of the key in near caches of other JVMs is published once
+     * completion is observed through the returned future ({@code get()} or
+     * {@code isDone()}).
+     * 
+     * @param key
+     * @param exp
+     * @param value
+     * @param serializationType
+     * @return future holding true if object has been added
+     * @since 3.6.0
+     */
+    Future<Boolean> asyncAdd(final String key, final int exp,
+            final Object value, final SerializationType serializationType);
+
+    /**
+     * Decrements counter without waiting for completion.
+     * 
+     * @param key
+     * @param by
+     * @return future holding new value of counter or -1 if counter doesn't
+     *         exist
+     * @since 3.6.0
+     */
+    Future<Long> asyncDecr(final String key, final int by);
+
+    /**
+     * Deletes value under given key without waiting for completion.
+     * Invalidation of the key in near caches of other JVMs is published once
+     * completion is observed through the returned future ({@code get()} or
+     * {@code isDone()}).
+     * 
+     * @param key
+     *            the key
+     * @return future holding true if value has been deleted
+     * @since 3.6.0
+     */
+    Future<Boolean> asyncDelete(final String key);
+
+    /**
+     * Gets value by key without waiting for completion. Value is read
+     * directly from memcached, near cache is not used.
+     * 
+     * @param key
+     *            the key
+     * @param serializationType
+     *            the type of serialisation to use
+     * @return future holding value associated with given key or null
+     * @since 3.6.0
+     */
+    Future<Object> asyncGet(final String key,
+            final SerializationType serializationType);
+
+    /**
+     * Gets values of given keys without waiting for completion. Values are
+     * read directly from memcached, near cache is not used.
+     * 
+     * @param keys
+     * @param serializationType
+     * @return future holding retrieved values, keys not present in the map
+     *         are cache misses
+     * @since 3.6.0
+     */
+    Future<Map<String, Object>> asyncGetBulk(final Collection<String> keys,
+            final SerializationType serializationType);
+
+    /**
+     * Increments counter without waiting for completion.
+     * 
+     * @param key
+     * @param by
+     * @return future holding new value of counter or -1 if counter doesn't
+     *         exist
+     * @since 3.6.0
+     */
+    Future<Long> asyncIncr(final String key, final int by);
+
+    /**
+     * Increments counter without waiting for completion. If counter doesn't
+     * exist it's initialized with default value.
+     * 
+     * @param key
+     * @param by
+     * @param def
+     *            the default value of counter
+     * @param exp
+     * @return future holding new value of counter
+     * @since 3.6.0
+     */
+    Future<Long> asyncIncr(final String key, final int by, final long def,
+            final int exp);
+
+    /**
+     * Stores key-value item in memcached without waiting for completion.
+     * Invalidation of the key in near caches of other JVMs is published once
+     * completion is observed through the returned future ({@code get()} or
+     * {@code isDone()}).
+     * 
+     * @param key
+     * @param exp
+     * @param value
+     * @param serializationType
+     * @return future holding true if item has been stored
+     * @since 3.6.0
+     */
+    Future<Boolean> asyncSet(final String key, final int exp,
+            final Object value, final SerializationType serializationType);
+
     /**
      * Add object to cache if it doesn't exist.
      * 
@@ -83,6 +198,103 @@ public interface Cache {
     <T> boolean addSilently(final String cacheKey, final int expiration,
             final Object value, final SerializationType serializationType);
 
+    /**
+     * Adds objects to cache if they don't exist. All operations are sent at
+     * once and the method waits for their completion only once.
+     * 
+     * @param values
+     *            the key-value items to add
+     * @param exp
+     * @param serializationType
+     * @return keys of objects that have been added (didn't exist in cache)
+     * @throws TimeoutException
+     * @throws CacheException
+     * @since 3.6.0
+     */
+    Set<String> addBulk(final Map<String, ?> values, final int exp,
+            final SerializationType serializationType)
+            throws TimeoutException, CacheException;
+
+    /**
+     * 
+     * @since 3.6.0
+     */
+    Set<String> addBulkSilently(final Map<String, ?> values,
+            final int expiration, final SerializationType serializationType);
+
+    /**
+     * Adds object to cache if it doesn't exist without waiting for server's
+     * response. Failures are only logged.
+     * 
+     * @param key
+     * @param exp
+     * @param value
+     * @param serializationType
+     * @since 3.6.0
+     */
+    <T> void addWithNoReply(final String key, final int exp,
+            final Object value, final SerializationType serializationType);
+
+    /**
+     * Adds objects to cache if they don't exist without waiting for server's
+     * responses. Failures are only logged.
+     * 
+     * @param values
+     *            the key-value items to add
+     * @param exp
+     * @param serializationType
+     * @since 3.6.0
+     */
+    void addBulkWithNoReply(final Map<String, ?> values, final int exp,
+            final SerializationType serializationType);
+
+    /**
+     * Stores value under given key only if the item hasn't been modified
+     * since it was retrieved by {@link #gets(String, SerializationType)}.
+     * 
+     * @param key
+     * @param cas
+     *            the CAS identifier of retrieved value
+     * @param exp
+     * @param value
+     * @param serializationType
+     * @return true if the value has been stored, false if the item has been
+     *         modified or doesn't exist
+     * @throws TimeoutException
+     * @throws CacheException
+     * @since 3.6.0
+     */
+    <T> boolean cas(final String key, final long cas, final int exp,
+            final Object value, final SerializationType serializationType)
+            throws TimeoutException, CacheException;
+
+    /**
+     * Atomically replaces value under given key with the result of the
+     * function applied to the current value. Optimistic concurrency is used:
+     * the current value is retrieved with its CAS identifier and the new
+     * value is stored only if the item hasn't been modified in the meantime
+     * (or is added if the item doesn't exist), otherwise the attempt is
+     * repeated.
+     * 
+     * @param key
+     * @param exp
+     * @param function
+     *            computes new value from the current one
+     * @param maxRetries
+     *            the maximum number of repeated attempts after concurrent
+     *            modification
+     * @param serializationType
+     * @return the stored value or null if the function returned null or the
+     *         value hasn't been stored within given number of attempts
+     * @throws TimeoutException
+     * @throws CacheException
+     * @since 3.6.0
+     */
+    <T> T compute(final String key, final int exp,
+            final ComputeFunction<T> function, final int maxRetries,
+            final SerializationType serializationType)
+            throws TimeoutException, CacheException;
+
     long decr(final String key, final int by) throws TimeoutException,
             CacheException;
 
@@ -106,6 +318,16 @@ public interface Cache {
     void delete(final Collection<String> keys) throws TimeoutException,
             CacheException;
 
+    /**
+     * Deletes value under given key without waiting for server's response.
+     * Failures are only logged.
+     * 
+     * @param key
+     *            the key
+     * @since 3.6.0
+     */
+    void deleteWithNoReply(final String key);
+
     /**
      * Flushes all data.
      * 
@@ -129,10 +351,78 @@ public interface Cache {
     <T> T get(final String key, final SerializationType serializationType)
             throws TimeoutException, CacheException;
 
+    /**
+     * Gets value together with its CAS identifier. Value is read directly
+     * from memcached, near cache is not used.
+     * 
+     * @param key
+     * @param serializationType
+     * @return value with CAS identifier or null if the key doesn't exist
+     * @throws TimeoutException
+     * @throws CacheException
+     * @since 3.6.0
+     */
+    <T> CASValue<T> gets(final String key,
+            final SerializationType serializationType)
+            throws TimeoutException, CacheException;
+
+    /**
+     * Gets value and updates its expiration time in one round trip. Value is
+     * read directly from memcached, near cache is not used. The xmemcached
+     * provider supports it only with {@link SerializationType#PROVIDER}, for
+     * other serialization types the value is retrieved and then touched in
+     * two round trips, which is not atomic.
+     * 
+     * @param key
+     * @param exp
+     *            new expire time
+     * @param serializationType
+     * @return value associated with given key or null
+     * @throws TimeoutException
+     * @throws CacheException
+     * @since 3.6.0
+     */
+    <T> T getAndTouch(final String key, final int exp,
+            final SerializationType serializationType)
+            throws TimeoutException, CacheException;
+
     Map<String, Object> getBulk(final Collection<String> keys,
             final SerializationType serializationType) throws TimeoutException,
             CacheException;
 
+    /**
+     * Gets values of given keys waiting for them at most given time. Values
+     * that haven't arrived before the deadline are treated as cache misses and
+     * aren't included in the result.
+     * 
+     * @param keys
+     * @param serializationType
+     * @param timeout
+     *            the maximum time to wait in milliseconds, if not positive the
+     *            operation timeout of the client is used
+     * @return values retrieved before the deadline
+     * @throws TimeoutException
+     * @throws CacheException
+     * @since 3.6.0
+     */
+    Map<String, Object> getBulk(final Collection<String> keys,
+            final SerializationType serializationType, final long timeout)
+            throws TimeoutException, CacheException;
+
+    /**
+     * Gets values of given keys asynchronously. The callback is notified when
+     * values are retrieved.
+     * 
+     * @param keys
+     * @param serializationType
+     * @param callback
+     *            the callback notified with retrieved values
+     * @since 3.6.0
+     */
+    void getBulk(final Collection<String> keys,
+            final SerializationType serializationType,
+            final BulkGetCallback<Object> callback);
+
     long incr(final String key, final int by, final long def)
             throws TimeoutException, CacheException;
 
@@ -161,6 +451,77 @@ public interface Cache {
     <T> void setSilently(final String cacheKey, final int expiration,
             final Object value, final SerializationType serializationType);
 
+    /**
+     * Stores all key-value items in memcached. All operations are sent at
+     * once and the method waits for their completion only once.
+     * 
+     * @param values
+     *            the key-value items to store
+     * @param exp
+     *            expire time
+     * @param serializationType
+     *            the type of serialisation to use
+     * @throws TimeoutException
+     * @throws CacheException
+     * @since 3.6.0
+     */
+    void setBulk(final Map<String, ?> values, final int exp,
+            final SerializationType serializationType)
+            throws TimeoutException, CacheException;
+
+    /**
+     * 
+     * @since 3.6.0
+     */
+    void setBulkSilently(final Map<String, ?> values, final int expiration,
+            final SerializationType serializationType);
+
+    /**
+     * Stores key-value item in memcached without waiting for server's
+     * response. Failures are only logged.
+     * 
+     * @param key
+     *            stored key
+     * @param exp
+     *            expire time
+     * @param value
+     *            stored data
+     * @param serializationType
+     *            the type of serialisation to use
+     * @since 3.6.0
+     */
+    <T> void setWithNoReply(final String key, final int exp,
+            final Object value, final SerializationType serializationType);
+
+    /**
+     * Stores all key-value items in memcached without waiting for server's
+     * responses. Failures are only logged.
+     * 
+     * @param values
+     *            the key-value items to store
+     * @param exp
+     *            expire time
+     * @param serializationType
+     *            the type of serialisation to use
+     * @since 3.6.0
+     */
+    void setBulkWithNoReply(final Map<String, ?> values, final int exp,
+            final SerializationType serializationType);
+
+    /**
+     * Updates expiration time of given key without transferring its value.
+     * 
+     * @param key
+     * @param exp
+     *            new expire time
+     * @return true if the key exists
+     * @throws TimeoutException
+     * @throws CacheException
+     * @since 3.6.0
+     */
+    boolean touch(final String key, final int exp) throws TimeoutException,
+            CacheException;
+
     /**
      * Gets counter from cache without incrementing.
      * 
@@ -172,6 +533,19 @@ public interface Cache {
     Long getCounter(final String cacheKey) throws TimeoutException,
             CacheException;
 
+    /**
+     * Gets counters from cache in one bulk operation without incrementing.
+     * 
+     * @param cacheKeys
+     * @return the values of counters, counters that don't exist are not
+     *         included
+     * @throws CacheException
+     * @throws TimeoutException
+     * @since 3.6.0
+     */
+    Map<String, Long> getCounters(final Collection<String> cacheKeys)
+            throws TimeoutException, CacheException;
+
     /**
      * Sets initial value of counter.
      * 
@@ -184,6 +558,117 @@ public interface Cache {
     void setCounter(final String cacheKey, final int expiration,
             final long value) throws TimeoutException, CacheException;
 
+    /**
+     * Increments randomly chosen shard of counter stored as given number of
+     * keys. The first shard is stored under the key of counter, so the
+     * counter with one shard is the same as not sharded counter. Shard that
+     * doesn't exist is initialized with the delta.
+     * 
+     * @param cacheKey
+     * @param by
+     * @param shards
+     *            the number of shards
+     * @return the new value of incremented shard
+     * @throws TimeoutException
+     * @throws CacheException
+     * @since 3.6.0
+     */
+    long incrSharded(final String cacheKey, final int by, final int shards)
+            throws TimeoutException, CacheException;
+
+    /**
+     * Decrements counter stored as given number of keys. Memcached cannot
+     * decrement a shard below 0, so decrements are accumulated in a separate
+     * set of shards (randomly chosen one is incremented) and subtracted on
+     * read. Counter with one shard is decremented directly.
+     * 
+     * @param cacheKey
+     * @param by
+     * @param shards
+     *            the number of shards
+     * @return the sum of decrements accumulated in the chosen shard or, if
+     *         there is only one shard, the new value of counter or -1 if it
+     *         doesn't exist
+     * @throws TimeoutException
+     * @throws CacheException
+     * @since 3.6.0
+     */
+    long decrSharded(final String cacheKey, final int by, final int shards)
+            throws TimeoutException, CacheException;
+
+    /**
+     * Gets value of counter stored as given number of keys in one bulk
+     * operation: the sum of all shards minus the sum of all decrement shards,
+     * but not lower than 0.
+     * 
+     * @param cacheKey
+     * @param shards
+     *            the number of shards
+     * @return the value of counter or null if the first shard doesn't exist
+     * @throws TimeoutException
+     * @throws CacheException
+     * @since 3.6.0
+     */
+    Long getShardedCounter(final String cacheKey, final int shards)
+            throws TimeoutException, CacheException;
+
+    /**
+     * Sets value of counter stored as given number of keys. The value is
+     * stored in the first shard, remaining shards and all decrement shards
+     * are reset to 0.
+     * 
+     * @param cacheKey
+     * @param expiration
+     * @param value
+     * @param shards
+     *            the number of shards
+     * @throws TimeoutException
+     * @throws CacheException
+     * @since 3.6.0
+     */
+    void setShardedCounter(final String cacheKey, final int expiration,
+            final long value, final int shards) throws TimeoutException,
+            CacheException;
+
+    /**
+     * Increments sliding window counter. The window is split into given
+     * number of time buckets, each bucket is stored under its own key that
+     * expires when the bucket leaves the window. The length of a bucket is
+     * window / buckets seconds rounded up.
+     * 
+     * @param cacheKey
+     * @param by
+     * @param window
+     *            the length of the window in seconds, the window extended
+     *            by one bucket cannot be longer than 30 days
+     * @param buckets
+     *            the number of buckets
+     * @return the new value of the current bucket
+     * @throws TimeoutException
+     * @throws CacheException
+     * @since 3.6.0
+     */
+    long windowIncr(final String cacheKey, final int by, final int window,
+            final int buckets) throws TimeoutException, CacheException;
+
+    /**
+     * Gets sum of all buckets of sliding window counter in one bulk
+     * operation.
+     * 
+     * @param cacheKey
+     * @param window
+     *            the length of the window in seconds
+     * @param buckets
+     *            the number of buckets
+     * @return the value of counter in the window, 0 if there was no
+     *         increment
+     * @throws TimeoutException
+     * @throws CacheException
+     * @since 3.6.0
+     */
+    long getWindowCounter(final String cacheKey, final int window,
+            final int buckets) throws TimeoutException, CacheException;
+
     /**
      * Shutdowns cache.
      */
@@ -42,7 +42,14 @@ import com.google.code.ssm.api.format.SerializationType;
 import com.google.code.ssm.config.AddressChangeListener;
 import com.google.code.ssm.config.AddressChangeNotifier;
 import com.google.code.ssm.config.AddressProvider;
+import com.google.code.ssm.hotkey.HotKeyConfiguration;
+import com.google.code.ssm.hotkey.HotKeyDetector;
 import com.google.code.ssm.mapper.JsonObjectMapper;
+import com.google.code.ssm.nearcache.InvalidationBroadcaster;
+import com.google.code.ssm.nearcache.NearCache;
+import com.google.code.ssm.nearcache.NearCacheConfiguration;
+import com.google.code.ssm.nearcache.OffHeapNearCache;
+import com.google.code.ssm.nearcache.TinyLfuNearCache;
 import com.google.code.ssm.providers.CacheClient;
 import com.google.code.ssm.providers.CacheClientFactory;
 import com.google.code.ssm.providers.CacheConfiguration;
@@ -97,6 +104,30 @@ public class CacheFactory implements AddressChangeListener, FactoryBean<Cache>,
     @Setter
     private boolean initializeTranscoders = true;
 
+    /**
+     * Configuration of in-process near cache (L1), if null near cache is not used.
+     * 
+     * @since 3.6.0
+     */
+    @Setter
+    private NearCacheConfiguration nearCacheConfiguration;
+
+    /**
+     * Propagates invalidations of near cache to other JVMs, used only if near cache is enabled.
+     * 
+     * @since 3.6.0
+     */
+    @Setter
+    private InvalidationBroadcaster invalidationBroadcaster;
+
+    /**
+     * Configuration of hot keys detection, if null hot keys are not replicated.
+     * 
+     * @since 3.6.0
+     */
+    @Setter
+    private HotKeyConfiguration hotKeyConfiguration;
+
     @Autowired
     private CacheBase cacheBase;
 
@@ -144,6 +175,9 @@ public class CacheFactory implements AddressChangeListener, FactoryBean<Cache>,
     @Override
     public void destroy() throws Exception {
         if (cache != null) {
+            if (nearCacheConfiguration != null && invalidationBroadcaster != null) {
+                invalidationBroadcaster.unregister(cacheName);
+            }
             LOGGER.info("Shutdowning cache {}", cacheName);
             cache.shutdown();
         }
@@ -198,8 +232,16 @@ public class CacheFactory implements AddressChangeListener, FactoryBean<Cache>,
         }
 
         List<InetSocketAddress> addrs = addressProvider.getAddresses();
+        NearCache nearCache = createNearCache();
+        InvalidationBroadcaster broadcaster = null;
+        if (nearCache != null && invalidationBroadcaster != null) {
+            invalidationBroadcaster.register(cacheName, nearCache);
+            broadcaster = invalidationBroadcaster;
+        }
         cache = new CacheImpl(cacheName, cacheAliases, createClient(addrs), defaultSerializationType, jsonTranscoder, javaTranscoder,
-                customTranscoder, new CacheProperties(configuration.isUseNameAsKeyPrefix(), configuration.getKeyPrefixSeparator()));
+                customTranscoder, new CacheProperties(configuration.isUseNameAsKeyPrefix(), configuration.getKeyPrefixSeparator(),
+                        configuration.getNegativeExpiration(), configuration.isNoReplyWrites()),
+                nearCache, broadcaster, (hotKeyConfiguration != null) ? new HotKeyDetector(hotKeyConfiguration) : null);
 
         return cache;
     }
@@ -208,6 +250,19 @@ public class CacheFactory implements AddressChangeListener, FactoryBean<Cache>,
         return cacheBase.isCacheDisabled();
     }
 
+    private NearCache createNearCache() {
+        if (nearCacheConfiguration == null) {
+            return null;
+        }
+
+        LOGGER.info("Near cache enabled for cache {}", cacheName);
+        if (nearCacheConfiguration.isOffHeap()) {
+            return new OffHeapNearCache(nearCacheConfiguration);
+        }
+
+        return new TinyLfuNearCache(nearCacheConfiguration);
+    }
+
     private CacheClient createClient(final List<InetSocketAddress> addrs) throws IOException {
         if (addrs == null || addrs.isEmpty()) {
             throw new IllegalArgumentException(String.format("No memcached addresses specified for cache %s", cacheName));
@@ -18,9 +18,19 @@
 package com.google.code.ssm;
 
 import java.net.SocketAddress;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import lombok.Getter;
 
@@ -29,6 +39,11 @@ import org.slf4j.LoggerFactory;
 import org.springframework.util.Assert;
 
 import com.google.code.ssm.api.format.SerializationType;
+import com.google.code.ssm.hotkey.HotKeyDetector;
+import com.google.code.ssm.nearcache.InvalidationBroadcaster;
+import com.google.code.ssm.nearcache.NearCache;
+import com.google.code.ssm.providers.BulkGetCallback;
+import com.google.code.ssm.providers.CASValue;
 import com.google.code.ssm.providers.CacheClient;
 import com.google.code.ssm.providers.CacheException;
 import com.google.code.ssm.providers.CacheTranscoder;
@@ -46,6 +61,18 @@ class CacheImpl implements Cache {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(CacheImpl.class);
 
+    // separates key of sharded counter and number of its shard
+    private static final String SHARD_SEPARATOR = "#";
+
+    // separates key of sharded counter and number of its decrement shard
+    private static final String DECREMENT_SHARD_SEPARATOR = "#-";
+
+    // separates key of sliding window counter and number of its time bucket
+    private static final String BUCKET_SEPARATOR = "@";
+
+    // memcached treats longer expiration as absolute unix time
+    private static final int MAX_RELATIVE_EXPIRATION = 60 * 60 * 24 * 30;
+
     @Getter
     private final String name;
 
@@ -63,13 +90,30 @@ class CacheImpl implements Cache {
 
     private final LongToStringTranscoder longToStringTranscoder = new LongToStringTranscoder();
 
+    // chooses shard of sharded counter to modify
+    private final Random shardRandom = new Random();
+
     private final CacheTranscoder customTranscoder;
 
     private volatile CacheClient cacheClient;
 
+    private final NearCache nearCache;
+
+    private final InvalidationBroadcaster invalidationBroadcaster;
+
+    private final HotKeyDetector hotKeyDetector;
+
     CacheImpl(final String name, final Collection<String> aliases, final CacheClient cacheClient,
             final SerializationType defaultSerializationType, final JsonTranscoder jsonTranscoder, final JavaTranscoder javaTranscoder,
             final CacheTranscoder customTranscoder, final CacheProperties properties) {
+        this(name, aliases, cacheClient, defaultSerializationType, jsonTranscoder, javaTranscoder, customTranscoder, properties, null, null,
+                null);
+    }
+
+    CacheImpl(final String name, final Collection<String> aliases, final CacheClient cacheClient,
+            final SerializationType defaultSerializationType, final JsonTranscoder jsonTranscoder, final JavaTranscoder javaTranscoder,
+            final CacheTranscoder customTranscoder, final CacheProperties properties, final NearCache nearCache,
+            final InvalidationBroadcaster invalidationBroadcaster, final HotKeyDetector hotKeyDetector) {
         Assert.hasText(name, "'name' must not be null, empty, or blank");
         Assert.notNull(aliases, "'aliases' cannot be null");
         Assert.notNull(cacheClient, "'cacheClient' cannot be null");
@@ -87,6 +131,9 @@ class CacheImpl implements Cache {
         this.javaTranscoder = javaTranscoder;
         this.customTranscoder = customTranscoder;
         this.properties = properties;
+        this.nearCache = nearCache;
+        this.invalidationBroadcaster = invalidationBroadcaster;
+        this.hotKeyDetector = hotKeyDetector;
     }
 
     @Override
@@ -95,48 +142,110 @@ class CacheImpl implements Cache {
     }
 
     @Override
+    public Future<Boolean> asyncAdd(final String cacheKey, final int expiration, final Object value,
+            final SerializationType serializationType) {
+        final CacheTranscoder transcoder = getClientTranscoder(serializationType);
+        invalidateBeforeAsyncWrite(cacheKey);
+        return invalidateOnCompletion(cacheKey, (transcoder == null) ? cacheClient.asyncAdd(cacheKey, expiration, value)
+                : cacheClient.asyncAdd(cacheKey, expiration, value, transcoder));
+    }
+
+    @Override
+    public Future<Long> asyncDecr(final String key, final int by) {
+        invalidateNearCache(key);
+        return cacheClient.asyncDecr(key, by);
+    }
+
+    @Override
+    public Future<Boolean> asyncDelete(final String cacheKey) {
+        invalidateBeforeAsyncWrite(cacheKey);
+        return invalidateOnCompletion(cacheKey, cacheClient.asyncDelete(cacheKey));
+    }
+
+    @Override
+    public Future<Object> asyncGet(final String cacheKey, final SerializationType serializationType) {
+        final CacheTranscoder transcoder = getClientTranscoder(serializationType);
+        return (transcoder == null) ? cacheClient.asyncGet(cacheKey) : cacheClient.<Object> asyncGet(cacheKey, transcoder);
+    }
+
+    @Override
+    public Future<Map<String, Object>> asyncGetBulk(final Collection<String> keys, final SerializationType serializationType) {
+        final CacheTranscoder transcoder = getClientTranscoder(serializationType);
+        return (transcoder == null) ? cacheClient.asyncGetBulk(keys) : cacheClient.<Object> asyncGetBulk(keys, transcoder);
+    }
+
+    @Override
+    public Future<Long> asyncIncr(final String key, final int by) {
+        invalidateNearCache(key);
+        return cacheClient.asyncIncr(key, by);
+    }
+
+    @Override
+    public Future<Long> asyncIncr(final String key, final int by, final long def, final int exp) {
+        invalidateNearCache(key);
+        return cacheClient.asyncIncr(key, by, def, exp);
+    }
+
+    @Override
+    public Future<Boolean> asyncSet(final String cacheKey, final int expiration, final Object value,
+            final SerializationType serializationType) {
+        final CacheTranscoder transcoder = getClientTranscoder(serializationType);
+        invalidateBeforeAsyncWrite(cacheKey);
+        return invalidateOnCompletion(cacheKey, (transcoder == null) ? cacheClient.asyncSet(cacheKey, expiration, value)
+                : cacheClient.asyncSet(cacheKey, expiration, value, transcoder));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
     public <T> T get(final String cacheKey, final SerializationType serializationType) throws TimeoutException, CacheException {
+        if (nearCache == null) {
+            return getFromClient(cacheKey, serializationType);
+        }
 
-        switch (getSerializationType(serializationType)) {
-        case JAVA:
-            return get(cacheKey, SerializationType.JAVA, javaTranscoder);
-        case JSON:
-            return get(cacheKey, SerializationType.JSON, jsonTranscoder);
-        case PROVIDER:
-            return get(cacheKey, SerializationType.PROVIDER, null);
-        case CUSTOM:
-            return get(cacheKey, SerializationType.CUSTOM, customTranscoder);
-        default:
-            throw new IllegalArgumentException(String.format("Serialization type %s is not supported", serializationType));
+        final CacheTranscoder transcoder = getTranscoder(serializationType);
+        T value = (T) nearCache.get(cacheKey, transcoder);
+        if (value == null) {
+            final long invalidationCount = nearCache.getInvalidationCount();
+            value = getFromClient(cacheKey, serializationType);
+            if (value != null) {
+                nearCache.putIfNotInvalidated(cacheKey, value, 0, transcoder, invalidationCount);
+            }
         }
 
+        return value;
     }
 
     @Override
     @SuppressWarnings("unchecked")
     public <T> void set(final String cacheKey, final int expiration, final Object value, final SerializationType serializationType)
             throws TimeoutException, CacheException {
+        if (nearCache == null) {
+            setInClient(cacheKey, expiration, (T) value, serializationType);
+            return;
+        }
 
-        switch (getSerializationType(serializationType)) {
-        case JAVA:
-            set(cacheKey, expiration, (T) value, SerializationType.JAVA, javaTranscoder);
-            break;
-        case JSON:
-            set(cacheKey, expiration, (T) value, SerializationType.JSON, jsonTranscoder);
-            break;
-        case PROVIDER:
-            set(cacheKey, expiration, (T) value, SerializationType.PROVIDER, null);
-            break;
-        case CUSTOM:
-            set(cacheKey, expiration, (T) value, SerializationType.CUSTOM, customTranscoder);
-            break;
-        default:
-            throw new IllegalArgumentException(String.format("Serialization type %s is not supported", serializationType));
+        try {
+            setInClient(cacheKey, expiration, (T) value, serializationType);
+        } catch (TimeoutException e) {
+            nearCache.invalidate(cacheKey);
+            throw e;
+        } catch (CacheException e) {
+            nearCache.invalidate(cacheKey);
+            throw e;
+        } finally {
+            // value in memcached could be changed even if operation failed
+            publishInvalidation(Collections.singleton(cacheKey));
         }
+        nearCache.put(cacheKey, value, expiration, getTranscoder(serializationType));
     }
 
     @Override
     public <T> void setSilently(final String cacheKey, final int expiration, final Object value, final SerializationType serializationType) {
+        if (properties.isNoReplyWrites()) {
+            setWithNoReply(cacheKey, expiration, value, serializationType);
+            return;
+        }
+
         try {
             set(cacheKey, expiration, value, serializationType);
         } catch (TimeoutException e) {
@@ -146,6 +255,36 @@ class CacheImpl implements Cache {
         }
     }
 
+    @Override
+    public <T> void setWithNoReply(final String cacheKey, final int expiration, final Object value,
+            final SerializationType serializationType) {
+        final CacheTranscoder transcoder = getClientTranscoder(serializationType);
+        try {
+            setWithNoReplyInClient(cacheKey, expiration, value, transcoder);
+        } catch (CacheException e) {
+            debug(e, "Cannot send set on key %s", cacheKey);
+            invalidateNearCache(cacheKey);
+            publishInvalidation(Collections.singleton(cacheKey));
+            return;
+        }
+
+        if (hotKeyDetector != null && hotKeyDetector.isHot(cacheKey)) {
+            final int replicaExpiration = hotKeyDetector.getReplicaExpiration(expiration);
+            for (String replicaKey : hotKeyDetector.getReplicaKeys(cacheKey)) {
+                try {
+                    setWithNoReplyInClient(replicaKey, replicaExpiration, value, transcoder);
+                } catch (CacheException e) {
+                    debug(e, "Cannot send set on replica %s", replicaKey);
+                }
+            }
+        }
+
+        if (nearCache != null) {
+            publishInvalidation(Collections.singleton(cacheKey));
+            nearCache.put(cacheKey, value, expiration, getTranscoder(serializationType));
+        }
+    }
+
     @Override
     public <T> boolean add(final String cacheKey, final int expiration, final Object value, final SerializationType serializationType)
             throws TimeoutException, CacheException {
@@ -168,11 +307,22 @@ class CacheImpl implements Cache {
             throw new IllegalArgumentException(String.format("Serialization type %s is not supported", serializationType));
         }
 
+        if (added && nearCache != null) {
+            nearCache.put(cacheKey, value, expiration, getTranscoder(serializationType));
+            publishInvalidation(Collections.singleton(cacheKey));
+        }
+
         return added;
     }
 
     @Override
     public <T> boolean addSilently(final String cacheKey, final int expiration, final Object value, final SerializationType serializationType) {
+        if (properties.isNoReplyWrites()) {
+            // result of the operation is unknown
+            addWithNoReply(cacheKey, expiration, value, serializationType);
+            return false;
+        }
+
         try {
             return add(cacheKey, expiration, value, serializationType);
         } catch (TimeoutException e) {
@@ -185,50 +335,341 @@ class CacheImpl implements Cache {
     }
 
     @Override
-    public Map<String, Object> getBulk(final Collection<String> keys, final SerializationType serializationType) throws TimeoutException,
-            CacheException {
+    public <T> void addWithNoReply(final String cacheKey, final int expiration, final Object value,
+            final SerializationType serializationType) {
+        final CacheTranscoder transcoder = getClientTranscoder(serializationType);
+        try {
+            if (transcoder == null) {
+                cacheClient.addWithNoReply(cacheKey, expiration, value);
+            } else {
+                cacheClient.addWithNoReply(cacheKey, expiration, value, transcoder);
+            }
+        } catch (CacheException e) {
+            debug(e, "Cannot send add to key %s", cacheKey);
+        }
+
+        // it's unknown whether the value has been added so the key cannot be kept in near cache
+        if (nearCache != null) {
+            nearCache.invalidate(cacheKey);
+            publishInvalidation(Collections.singleton(cacheKey));
+        }
+    }
+
+    @Override
+    public void setBulk(final Map<String, ?> values, final int expiration, final SerializationType serializationType)
+            throws TimeoutException, CacheException {
+        if (values.isEmpty()) {
+            return;
+        }
+
+        if (nearCache == null) {
+            setBulkInClient(values, expiration, serializationType);
+            return;
+        }
+
+        try {
+            setBulkInClient(values, expiration, serializationType);
+        } catch (TimeoutException e) {
+            nearCache.invalidateAll(values.keySet());
+            throw e;
+        } catch (CacheException e) {
+            nearCache.invalidateAll(values.keySet());
+            throw e;
+        } finally {
+            // values in memcached could be changed even if operation failed
+            publishInvalidation(values.keySet());
+        }
+
+        final CacheTranscoder transcoder = getTranscoder(serializationType);
+        for (Map.Entry<String, ?> entry : values.entrySet()) {
+            nearCache.put(entry.getKey(), entry.getValue(), expiration, transcoder);
+        }
+    }
+
+    @Override
+    public void setBulkSilently(final Map<String, ?> values, final int expiration, final SerializationType serializationType) {
+        if (properties.isNoReplyWrites()) {
+            setBulkWithNoReply(values, expiration, serializationType);
+            return;
+        }
+
+        try {
+            setBulk(values, expiration, serializationType);
+        } catch (TimeoutException e) {
+            warn(e, "Cannot set on keys %s", values.keySet());
+        } catch (CacheException e) {
+            warn(e, "Cannot set on keys %s", values.keySet());
+        }
+    }
+
+    @Override
+    public void setBulkWithNoReply(final Map<String, ?> values, final int expiration, final SerializationType serializationType) {
+        for (Map.Entry<String, ?> entry : values.entrySet()) {
+            setWithNoReply(entry.getKey(), expiration, entry.getValue(), serializationType);
+        }
+    }
+
+    @Override
+    public Set<String> addBulk(final Map<String, ?> values, final int expiration, final SerializationType serializationType)
+            throws TimeoutException, CacheException {
+        if (values.isEmpty()) {
+            return Collections.emptySet();
+        }
+
+        final Set<String> added;
 
         switch (getSerializationType(serializationType)) {
         case JAVA:
-            return getBulk(keys, SerializationType.JAVA, javaTranscoder);
+            added = addBulk(values, expiration, SerializationType.JAVA, javaTranscoder);
+            break;
         case JSON:
-            return getBulk(keys, SerializationType.JSON, jsonTranscoder);
+            added = addBulk(values, expiration, SerializationType.JSON, jsonTranscoder);
+            break;
         case PROVIDER:
-            return getBulk(keys, SerializationType.PROVIDER, null);
+            added = addBulk(values, expiration, SerializationType.PROVIDER, null);
+            break;
         case CUSTOM:
-            return getBulk(keys, SerializationType.CUSTOM, customTranscoder);
+            added = addBulk(values, expiration, SerializationType.CUSTOM, customTranscoder);
+            break;
         default:
             throw new IllegalArgumentException(String.format("Serialization type %s is not supported", serializationType));
         }
+
+        if (!added.isEmpty() && nearCache != null) {
+            final CacheTranscoder transcoder = getTranscoder(serializationType);
+            for (String cacheKey : added) {
+                nearCache.put(cacheKey, values.get(cacheKey), expiration, transcoder);
+            }
+            publishInvalidation(added);
+        }
+
+        return added;
+    }
+
+    @Override
+    public Set<String> addBulkSilently(final Map<String, ?> values, final int expiration, final SerializationType serializationType) {
+        if (properties.isNoReplyWrites()) {
+            // result of the operation is unknown
+            addBulkWithNoReply(values, expiration, serializationType);
+            return Collections.emptySet();
+        }
+
+        try {
+            return addBulk(values, expiration, serializationType);
+        } catch (TimeoutException e) {
+            warn(e, "Cannot add to keys %s", values.keySet());
+        } catch (CacheException e) {
+            warn(e, "Cannot add to keys %s", values.keySet());
+        }
+
+        return Collections.emptySet();
+    }
+
+    @Override
+    public void addBulkWithNoReply(final Map<String, ?> values, final int expiration, final SerializationType serializationType) {
+        for (Map.Entry<String, ?> entry : values.entrySet()) {
+            addWithNoReply(entry.getKey(), expiration, entry.getValue(), serializationType);
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> CASValue<T> gets(final String cacheKey, final SerializationType serializationType) throws TimeoutException, CacheException {
+        final CacheTranscoder transcoder = getClientTranscoder(serializationType);
+        return (transcoder == null) ? (CASValue<T>) cacheClient.gets(cacheKey) : cacheClient.<T> gets(cacheKey, transcoder);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T getAndTouch(final String cacheKey, final int expiration, final SerializationType serializationType)
+            throws TimeoutException, CacheException {
+        final CacheTranscoder transcoder = getClientTranscoder(serializationType);
+        return (transcoder == null) ? (T) cacheClient.getAndTouch(cacheKey, expiration) : cacheClient.<T> getAndTouch(cacheKey, expiration,
+                transcoder);
+    }
+
+    @Override
+    public Map<String, Object> getBulk(final Collection<String> keys, final SerializationType serializationType) throws TimeoutException,
+            CacheException {
+        return getBulk(keys, serializationType, 0);
+    }
+
+    @Override
+    public Map<String, Object> getBulk(final Collection<String> keys, final SerializationType serializationType, final long timeout)
+            throws TimeoutException, CacheException {
+        if (nearCache == null) {
+            return getBulkFromClient(keys, serializationType, timeout);
+        }
+
+        final CacheTranscoder transcoder = getTranscoder(serializationType);
+        final Map<String, Object> result = new HashMap<String, Object>();
+        final List<String> missedKeys = getFromNearCache(keys, transcoder, result);
+        if (!missedKeys.isEmpty()) {
+            final long invalidationCount = nearCache.getInvalidationCount();
+            final Map<String, Object> fromClient = getBulkFromClient(missedKeys, serializationType, timeout);
+            putToNearCache(fromClient, transcoder, invalidationCount);
+            result.putAll(fromClient);
+        }
+
+        return result;
+    }
+
+    @Override
+    public void getBulk(final Collection<String> keys, final SerializationType serializationType, final BulkGetCallback<Object> callback) {
+        if (nearCache == null) {
+            getBulkFromClient(keys, serializationType, callback);
+            return;
+        }
+
+        final CacheTranscoder transcoder = getTranscoder(serializationType);
+        final Map<String, Object> result = new HashMap<String, Object>();
+        final List<String> missedKeys = getFromNearCache(keys, transcoder, result);
+        if (missedKeys.isEmpty()) {
+            callback.onComplete(result);
+            return;
+        }
+
+        final long invalidationCount = nearCache.getInvalidationCount();
+        getBulkFromClient(missedKeys, serializationType, new BulkGetCallback<Object>() {
+
+            @Override
+            public void onComplete(final Map<String, Object> values) {
+                putToNearCache(values, transcoder, invalidationCount);
+                result.putAll(values);
+                callback.onComplete(result);
+            }
+
+            @Override
+            public void onFailure(final Exception e) {
+                callback.onFailure(e);
+            }
+
+        });
+    }
+
+    @Override
+    public <T> boolean cas(final String cacheKey, final long cas, final int expiration, final Object value,
+            final SerializationType serializationType) throws TimeoutException, CacheException {
+        final CacheTranscoder transcoder = getClientTranscoder(serializationType);
+        final boolean stored;
+        try {
+            stored = (transcoder == null) ? cacheClient.cas(cacheKey, cas, expiration, value) : cacheClient.cas(cacheKey, cas, expiration,
+                    value, transcoder);
+        } catch (TimeoutException e) {
+            // value in memcached could be changed even if operation failed
+            invalidateNearCache(cacheKey);
+            publishInvalidation(Collections.singleton(cacheKey));
+            throw e;
+        } catch (CacheException e) {
+            invalidateNearCache(cacheKey);
+            publishInvalidation(Collections.singleton(cacheKey));
+            throw e;
+        }
+
+        if (stored) {
+            invalidate(cacheKey);
+            if (nearCache != null) {
+                nearCache.put(cacheKey, value, expiration, getTranscoder(serializationType));
+            }
+        }
+
+        return stored;
+    }
+
+    @Override
+    public <T> T compute(final String cacheKey, final int expiration, final ComputeFunction<T> function, final int maxRetries,
+            final SerializationType serializationType) throws TimeoutException, CacheException {
+        Assert.notNull(function, "'function' cannot be null");
+
+        for (int attempt = 0; attempt <= maxRetries; attempt++) {
+            final CASValue<T> current = gets(cacheKey, serializationType);
+            final T newValue = function.apply((current != null) ? current.getValue() : null);
+            if (newValue == null) {
+                return null;
+            }
+
+            // item that doesn't exist is created by add to not overwrite value added concurrently
+            final boolean stored = (current != null) ? cas(cacheKey, current.getCas(), expiration, newValue, serializationType) : add(
+                    cacheKey, expiration, newValue, serializationType);
+            if (stored) {
+                return newValue;
+            }
+        }
+
+        LOGGER.debug("Value of key {} not computed, it has been concurrently modified {} times", cacheKey, maxRetries + 1);
+        return null;
     }
 
     @Override
     public long decr(final String key, final int by) throws TimeoutException, CacheException {
+        invalidateNearCache(key);
         return cacheClient.decr(key, by);
     }
 
     @Override
     public boolean delete(final String key) throws TimeoutException, CacheException {
-        return cacheClient.delete(key);
+        invalidateNearCache(key);
+        try {
+            deleteReplicas(Collections.singleton(key));
+            return cacheClient.delete(key);
+        } finally {
+            // published after the delete so other near caches cannot reload the old value
+            publishInvalidation(Collections.singleton(key));
+        }
     }
 
     @Override
     public void delete(final Collection<String> keys) throws TimeoutException, CacheException {
-        cacheClient.delete(keys);
+        if (nearCache != null) {
+            nearCache.invalidateAll(keys);
+        }
+        try {
+            deleteReplicas(keys);
+            cacheClient.delete(keys);
+        } finally {
+            publishInvalidation(keys);
+        }
+    }
+
+    @Override
+    public void deleteWithNoReply(final String key) {
+        invalidateNearCache(key);
+        final List<String> keys = new ArrayList<String>();
+        keys.add(key);
+        if (hotKeyDetector != null && hotKeyDetector.isHot(key)) {
+            keys.addAll(hotKeyDetector.getReplicaKeys(key));
+        }
+
+        for (String cacheKey : keys) {
+            try {
+                cacheClient.deleteWithNoReply(cacheKey);
+            } catch (CacheException e) {
+                debug(e, "Cannot send delete of key %s", cacheKey);
+            }
+        }
+        publishInvalidation(Collections.singleton(key));
     }
 
     @Override
     public void flush() throws TimeoutException, CacheException {
+        if (nearCache != null) {
+            nearCache.clear();
+            if (invalidationBroadcaster != null) {
+                invalidationBroadcaster.publishClear(name);
+            }
+        }
         cacheClient.flush();
     }
 
     @Override
     public long incr(final String key, final int by, final long def) throws TimeoutException, CacheException {
+        invalidateNearCache(key);
         return cacheClient.incr(key, by, def);
     }
 
     @Override
     public long incr(final String key, final int by, final long def, final int exp) throws TimeoutException, CacheException {
+        invalidateNearCache(key);
         return cacheClient.incr(key, by, def, exp);
     }
 
@@ -242,13 +683,97 @@ class CacheImpl implements Cache {
         return cacheClient.get(cacheKey, longToStringTranscoder);
     }
 
+    @Override
+    public Map<String, Long> getCounters(final Collection<String> cacheKeys) throws TimeoutException, CacheException {
+        return cacheClient.getBulk(cacheKeys, longToStringTranscoder);
+    }
+
     @Override
     public void setCounter(final String cacheKey, final int expiration, final long value) throws TimeoutException, CacheException {
+        invalidateNearCache(cacheKey);
         cacheClient.set(cacheKey, expiration, value, longToStringTranscoder);
     }
 
+    @Override
+    public long incrSharded(final String cacheKey, final int by, final int shards) throws TimeoutException, CacheException {
+        return incr(getShardKey(cacheKey, randomShard(shards)), by, by);
+    }
+
+    @Override
+    public long decrSharded(final String cacheKey, final int by, final int shards) throws TimeoutException, CacheException {
+        if (shards == 1) {
+            return decr(cacheKey, by);
+        }
+
+        // decrements are accumulated separately because memcached doesn't decrement below 0
+        return incr(getDecrementShardKey(cacheKey, randomShard(shards)), by, by);
+    }
+
+    @Override
+    public Long getShardedCounter(final String cacheKey, final int shards) throws TimeoutException, CacheException {
+        final List<String> shardKeys = getShardKeys(cacheKey, shards);
+        final List<String> decrementShardKeys = getDecrementShardKeys(cacheKey, shards);
+        final List<String> keys = new ArrayList<String>(shardKeys);
+        keys.addAll(decrementShardKeys);
+        final Map<String, Long> values = cacheClient.getBulk(keys, longToStringTranscoder);
+        if (values.get(cacheKey) == null) {
+            return null;
+        }
+
+        return Math.max(0, sum(values, shardKeys) - sum(values, decrementShardKeys));
+    }
+
+    @Override
+    public void setShardedCounter(final String cacheKey, final int expiration, final long value, final int shards)
+            throws TimeoutException, CacheException {
+        final List<String> shardKeys = getShardKeys(cacheKey, shards);
+        // reset remaining shards before setting the value, so concurrent readers don't see sum larger than the value
+        for (final String shardKey : shardKeys.subList(1, shardKeys.size())) {
+            setCounter(shardKey, expiration, 0);
+        }
+        for (final String shardKey : getDecrementShardKeys(cacheKey, shards)) {
+            setCounter(shardKey, expiration, 0);
+        }
+        setCounter(cacheKey, expiration, value);
+    }
+
+    @Override
+    public long windowIncr(final String cacheKey, final int by, final int window, final int buckets) throws TimeoutException,
+            CacheException {
+        final int bucketLength = getBucketLength(window, buckets);
+        final long bucket = currentBucket(bucketLength);
+        // the bucket expires not earlier than one bucket after leaving the window, the margin covers clock differences
+        return incr(getBucketKey(cacheKey, bucket), by, by, bucketLength * (buckets + 1));
+    }
+
+    @Override
+    public long getWindowCounter(final String cacheKey, final int window, final int buckets) throws TimeoutException, CacheException {
+        final long current = currentBucket(getBucketLength(window, buckets));
+        final List<String> bucketKeys = new ArrayList<String>(buckets);
+        for (long bucket = current - buckets + 1; bucket <= current; bucket++) {
+            bucketKeys.add(getBucketKey(cacheKey, bucket));
+        }
+
+        long sum = 0;
+        for (final Long value : cacheClient.<Long> getBulk(bucketKeys, longToStringTranscoder).values()) {
+            if (value != null) {
+                sum += value;
+            }
+        }
+
+        return sum;
+    }
+
+    @Override
+    public boolean touch(final String key, final int exp) throws TimeoutException, CacheException {
+        return cacheClient.touch(key, exp);
+    }
+
     @Override
     public void shutdown() {
+        if (nearCache != null) {
+            nearCache.clear();
+        }
         cacheClient.shutdown();
     }
 
@@ -269,6 +794,215 @@ class CacheImpl implements Cache {
         }
     }
 
+    private <T> T getFromClient(final String cacheKey, final SerializationType serializationType) throws TimeoutException, CacheException {
+        if (hotKeyDetector == null || !hotKeyDetector.record(cacheKey)) {
+            return getFromClientByType(cacheKey, serializationType);
+        }
+
+        // spread reads of hot key across the original key and its replicas
+        final String readKey = hotKeyDetector.getReadKey(cacheKey);
+        if (readKey.equals(cacheKey)) {
+            return getFromClientByType(cacheKey, serializationType);
+        }
+
+        T value = getFromClientByType(readKey, serializationType);
+        if (value == null) {
+            value = getFromClientByType(cacheKey, serializationType);
+            if (value != null) {
+                setReplica(readKey, hotKeyDetector.getReplicaExpiration(0), value, serializationType);
+            }
+        }
+
+        return value;
+    }
+
+    private <T> T getFromClientByType(final String cacheKey, final SerializationType serializationType) throws TimeoutException,
+            CacheException {
+        switch (getSerializationType(serializationType)) {
+        case JAVA:
+            return get(cacheKey, SerializationType.JAVA, javaTranscoder);
+        case JSON:
+            return get(cacheKey, SerializationType.JSON, jsonTranscoder);
+        case PROVIDER:
+            return get(cacheKey, SerializationType.PROVIDER, null);
+        case CUSTOM:
+            return get(cacheKey, SerializationType.CUSTOM, customTranscoder);
+        default:
+            throw new IllegalArgumentException(String.format("Serialization type %s is not supported", serializationType));
+        }
+    }
+
+    private <T> void setInClient(final String cacheKey, final int expiration, final T value, final SerializationType serializationType)
+            throws TimeoutException, CacheException {
+        setInClientByType(cacheKey, expiration, value, serializationType);
+
+        if (hotKeyDetector != null && hotKeyDetector.isHot(cacheKey)) {
+            final int replicaExpiration = hotKeyDetector.getReplicaExpiration(expiration);
+            for (String replicaKey : hotKeyDetector.getReplicaKeys(cacheKey)) {
+                setReplica(replicaKey, replicaExpiration, value, serializationType);
+            }
+        }
+    }
+
+    private void setBulkInClient(final Map<String, ?> values, final int expiration, final SerializationType serializationType)
+            throws TimeoutException, CacheException {
+        setBulkInClientByType(values, expiration, serializationType);
+
+        if (hotKeyDetector == null) {
+            return;
+        }
+
+        final Map<String, Object> replicas = new HashMap<String, Object>();
+        for (Map.Entry<String, ?> entry : values.entrySet()) {
+            if (hotKeyDetector.isHot(entry.getKey())) {
+                for (String replicaKey : hotKeyDetector.getReplicaKeys(entry.getKey())) {
+                    replicas.put(replicaKey, entry.getValue());
+                }
+            }
+        }
+
+        if (!replicas.isEmpty()) {
+            try {
+                setBulkInClientByType(replicas, hotKeyDetector.getReplicaExpiration(expiration), serializationType);
+            } catch (TimeoutException e) {
+                warn(e, "Cannot set replicas %s", replicas.keySet());
+            } catch (CacheException e) {
+                warn(e, "Cannot set replicas %s", replicas.keySet());
+            }
+        }
+    }
+
+    private void setBulkInClientByType(final Map<String, ?> values, final int expiration, final SerializationType serializationType)
+            throws TimeoutException, CacheException {
+        switch (getSerializationType(serializationType)) {
+        case JAVA:
+            setBulk(values, expiration, SerializationType.JAVA, javaTranscoder);
+            break;
+        case JSON:
+            setBulk(values, expiration, SerializationType.JSON, jsonTranscoder);
+            break;
+        case PROVIDER:
+            setBulk(values, expiration, SerializationType.PROVIDER, null);
+            break;
+        case CUSTOM:
+            setBulk(values, expiration, SerializationType.CUSTOM, customTranscoder);
+            break;
+        default:
+            throw new IllegalArgumentException(String.format("Serialization type %s is not supported", serializationType));
+        }
+    }
+
+    private <T> void setReplica(final String replicaKey, final int expiration, final T value, final SerializationType serializationType) {
+        // replica is only a copy of the value, don't wait for memcached response
+        try {
+            setWithNoReplyInClient(replicaKey, expiration, value, getClientTranscoder(serializationType));
+        } catch (CacheException e) {
+            debug(e, "Cannot send set on replica %s", replicaKey);
+        }
+    }
+
+    private void deleteReplicas(final Collection<String> cacheKeys) throws TimeoutException, CacheException {
+        if (hotKeyDetector == null) {
+            return;
+        }
+
+        final List<String> replicaKeys = new ArrayList<String>();
+        for (String cacheKey : cacheKeys) {
+            if (hotKeyDetector.isHot(cacheKey)) {
+                replicaKeys.addAll(hotKeyDetector.getReplicaKeys(cacheKey));
+            }
+        }
+
+        if (!replicaKeys.isEmpty()) {
+            cacheClient.delete(replicaKeys);
+        }
+    }
+
+    private <T> void setInClientByType(final String cacheKey, final int expiration, final T value,
+            final SerializationType serializationType) throws TimeoutException, CacheException {
+        switch (getSerializationType(serializationType)) {
+        case JAVA:
+            set(cacheKey, expiration, value, SerializationType.JAVA, javaTranscoder);
+            break;
+        case JSON:
+            set(cacheKey, expiration, value, SerializationType.JSON, jsonTranscoder);
+            break;
+        case PROVIDER:
+            set(cacheKey, expiration, value, SerializationType.PROVIDER, null);
+            break;
+        case CUSTOM:
+            set(cacheKey, expiration, value, SerializationType.CUSTOM, customTranscoder);
+            break;
+        default:
+            throw new IllegalArgumentException(String.format("Serialization type %s is not supported", serializationType));
+        }
+    }
+
+    private <T> void setWithNoReplyInClient(final String cacheKey, final int expiration, final T value, final CacheTranscoder transcoder)
+            throws CacheException {
+        if (transcoder == null) {
+            cacheClient.setWithNoReply(cacheKey, expiration, value);
+        } else {
+            cacheClient.setWithNoReply(cacheKey, expiration, value, transcoder);
+        }
+    }
+
+    private Map<String, Object> getBulkFromClient(final Collection<String> keys, final SerializationType serializationType,
+            final long timeout) throws TimeoutException, CacheException {
+        switch (getSerializationType(serializationType)) {
+        case JAVA:
+            return getBulk(keys, SerializationType.JAVA, javaTranscoder, timeout);
+        case JSON:
+            return getBulk(keys, SerializationType.JSON, jsonTranscoder, timeout);
+        case PROVIDER:
+            return getBulk(keys, SerializationType.PROVIDER, null, timeout);
+        case CUSTOM:
+            return getBulk(keys, SerializationType.CUSTOM, customTranscoder, timeout);
+        default:
+            throw new IllegalArgumentException(String.format("Serialization type %s is not supported", serializationType));
+        }
+    }
+
+    private void getBulkFromClient(final Collection<String> keys, final SerializationType serializationType,
+            final BulkGetCallback<Object> callback) {
+        switch (getSerializationType(serializationType)) {
+        case JAVA:
+            getBulk(keys, SerializationType.JAVA, javaTranscoder, callback);
+            break;
+        case JSON:
+            getBulk(keys, SerializationType.JSON, jsonTranscoder, callback);
+            break;
+        case PROVIDER:
+            getBulk(keys, SerializationType.PROVIDER, null, callback);
+            break;
+        case CUSTOM:
+            getBulk(keys, SerializationType.CUSTOM, customTranscoder, callback);
+            break;
+        default:
+            throw new IllegalArgumentException(String.format("Serialization type %s is not supported", serializationType));
+        }
+    }
+
+    private List<String> getFromNearCache(final Collection<String> keys, final CacheTranscoder transcoder, final Map<String, Object> result) {
+        final List<String> missedKeys = new ArrayList<String>();
+        for (String key : keys) {
+            final Object value = nearCache.get(key, transcoder);
+            if (value != null) {
+                result.put(key, value);
+            } else {
+                missedKeys.add(key);
+            }
+        }
+
+        return missedKeys;
+    }
+
+    private void putToNearCache(final Map<String, Object> values, final CacheTranscoder transcoder, final long invalidationCount) {
+        for (Map.Entry<String, Object> entry : values.entrySet()) {
+            nearCache.putIfNotInvalidated(entry.getKey(), entry.getValue(), 0, transcoder, invalidationCount);
+        }
+    }
+
     @SuppressWarnings("unchecked")
     private <T> T get(final String cacheKey, final SerializationType serializationType, final CacheTranscoder cacheTranscoder)
             throws TimeoutException, CacheException {
@@ -313,10 +1047,55 @@ class CacheImpl implements Cache {
         return cacheClient.add(cacheKey, expiration, value, cacheTranscoder);
     }
 
-    private Map<String, Object> getBulk(final Collection<String> keys, final SerializationType serializationType,
+    private void setBulk(final Map<String, ?> values, final int expiration, final SerializationType serializationType,
             final CacheTranscoder cacheTranscoder) throws TimeoutException, CacheException {
         if (SerializationType.PROVIDER.equals(serializationType)) {
-            return cacheClient.getBulk(keys);
+            cacheClient.setBulk(values, expiration);
+            return;
+        }
+
+        if (cacheTranscoder == null) {
+            throw new IllegalArgumentException(String.format("Cannot use %s serialization because dedicated cache transcoder is null!",
+                    serializationType));
+        }
+
+        cacheClient.setBulk(values, expiration, cacheTranscoder);
+    }
+
+    private Set<String> addBulk(final Map<String, ?> values, final int expiration, final SerializationType serializationType,
+            final CacheTranscoder cacheTranscoder) throws TimeoutException, CacheException {
+        if (SerializationType.PROVIDER.equals(serializationType)) {
+            return cacheClient.addBulk(values, expiration);
+        }
+
+        if (cacheTranscoder == null) {
+            throw new IllegalArgumentException(String.format("Cannot use %s serialization because dedicated cache transcoder is null!",
+                    serializationType));
+        }
+
+        return cacheClient.addBulk(values, expiration, cacheTranscoder);
+    }
+
+    private Map<String, Object> getBulk(final Collection<String> keys, final SerializationType serializationType,
+            final CacheTranscoder cacheTranscoder, final long timeout) throws TimeoutException, CacheException {
+        if (SerializationType.PROVIDER.equals(serializationType)) {
+            return (timeout > 0) ? cacheClient.getBulk(keys, timeout) : cacheClient.getBulk(keys);
+        }
+
+        if (cacheTranscoder == null) {
+            throw new IllegalArgumentException(String.format("Cannot use %s serialization because dedicated cache transcoder is null!",
+                    serializationType));
+        }
+
+        return (timeout > 0) ? cacheClient.<Object> getBulk(keys, cacheTranscoder, timeout) : cacheClient.<Object> getBulk(keys,
+                cacheTranscoder);
+    }
+
+    private void getBulk(final Collection<String> keys, final SerializationType serializationType, final CacheTranscoder cacheTranscoder,
+            final BulkGetCallback<Object> callback) {
+        if (SerializationType.PROVIDER.equals(serializationType)) {
+            cacheClient.getBulk(keys, callback);
+            return;
         }
 
         if (cacheTranscoder == null) {
@@ -324,19 +1103,174 @@ class CacheImpl implements Cache {
                     serializationType));
         }
 
-        return cacheClient.getBulk(keys, cacheTranscoder);
+        cacheClient.getBulk(keys, cacheTranscoder, callback);
+    }
+
+    private void invalidateNearCache(final String cacheKey) {
+        if (nearCache != null) {
+            nearCache.invalidate(cacheKey);
+        }
+    }
+
+    /**
+     * Invalidates copies of the key held outside of memcached after modification. Replicas of hot key are removed
+     * asynchronously, subsequent reads fall back to the original key and recreate them.
+     * 
+     */
+    private void invalidate(final String cacheKey) {
+        invalidateNearCache(cacheKey);
+        publishInvalidation(Collections.singleton(cacheKey));
+        deleteReplicasAsync(cacheKey);
+    }
+
+    /**
+     * Invalidates local copies of the key before asynchronous modification. Other near caches are invalidated when the
+     * modification completes, see {@link #invalidateOnCompletion(String, Future)}.
+     * 
+     */
+    private void invalidateBeforeAsyncWrite(final String cacheKey) {
+        invalidateNearCache(cacheKey);
+        deleteReplicasAsync(cacheKey);
+    }
+
+    private <T> Future<T> invalidateOnCompletion(final String cacheKey, final Future<T> future) {
+        if (nearCache == null && invalidationBroadcaster == null) {
+            return future;
+        }
+
+        return new InvalidatingFuture<T>(cacheKey, future);
+    }
+
+    private void deleteReplicasAsync(final String cacheKey) {
+        if (hotKeyDetector != null && hotKeyDetector.isHot(cacheKey)) {
+            for (String replicaKey : hotKeyDetector.getReplicaKeys(cacheKey)) {
+                cacheClient.asyncDelete(replicaKey);
+            }
+        }
+    }
+
+    private void publishInvalidation(final Collection<String> cacheKeys) {
+        if (invalidationBroadcaster != null) {
+            invalidationBroadcaster.publish(name, cacheKeys);
+        }
+    }
+
+    private CacheTranscoder getTranscoder(final SerializationType serializationType) {
+        switch (getSerializationType(serializationType)) {
+        case JAVA:
+            return javaTranscoder;
+        case JSON:
+            return jsonTranscoder;
+        case PROVIDER:
+            return cacheClient.getTranscoder();
+        case CUSTOM:
+            return customTranscoder;
+        default:
+            throw new IllegalArgumentException(String.format("Serialization type %s is not supported", serializationType));
+        }
+    }
+
+    /**
+     * 
+     * @return transcoder passed to the cache client or null if serialization of the provider is used
+     */
+    private CacheTranscoder getClientTranscoder(final SerializationType serializationType) {
+        final SerializationType type = getSerializationType(serializationType);
+        if (SerializationType.PROVIDER.equals(type)) {
+            return null;
+        }
+
+        final CacheTranscoder cacheTranscoder = getTranscoder(type);
+        if (cacheTranscoder == null) {
+            throw new IllegalArgumentException(String.format("Cannot use %s serialization because dedicated cache transcoder is null!",
+                    type));
+        }
+
+        return cacheTranscoder;
     }
 
     private SerializationType getSerializationType(final SerializationType serializationType) {
         return (serializationType != null) ? serializationType : defaultSerializationType;
     }
 
+    private int randomShard(final int shards) {
+        Assert.isTrue(shards > 0, "'shards' must be greater than 0");
+        return shardRandom.nextInt(shards);
+    }
+
+    /**
+     * 
+     * @return keys of all shards of counter, the first shard is stored under the key of counter
+     */
+    private List<String> getShardKeys(final String cacheKey, final int shards) {
+        Assert.isTrue(shards > 0, "'shards' must be greater than 0");
+        final List<String> shardKeys = new ArrayList<String>(shards);
+        for (int shard = 0; shard < shards; shard++) {
+            shardKeys.add(getShardKey(cacheKey, shard));
+        }
+
+        return shardKeys;
+    }
+
+    private String getShardKey(final String cacheKey, final int shard) {
+        return (shard == 0) ? cacheKey : cacheKey + SHARD_SEPARATOR + shard;
+    }
+
+    private List<String> getDecrementShardKeys(final String cacheKey, final int shards) {
+        Assert.isTrue(shards > 0, "'shards' must be greater than 0");
+        final List<String> shardKeys = new ArrayList<String>(shards);
+        for (int shard = 0; shard < shards; shard++) {
+            shardKeys.add(getDecrementShardKey(cacheKey, shard));
+        }
+
+        return shardKeys;
+    }
+
+    private String getDecrementShardKey(final String cacheKey, final int shard) {
+        return cacheKey + DECREMENT_SHARD_SEPARATOR + shard;
+    }
+
+    private long sum(final Map<String, Long> values, final List<String> keys) {
+        long sum = 0;
+        for (final String key : keys) {
+            final Long value = values.get(key);
+            if (value != null) {
+                sum += value;
+            }
+        }
+
+        return sum;
+    }
+
+    private int getBucketLength(final int window, final int buckets) {
+        Assert.isTrue(buckets > 0, "'buckets' must be greater than 0");
+        Assert.isTrue(window >= buckets, "'window' cannot be shorter than number of buckets");
+        final long bucketLength = ((long) window + buckets - 1) / buckets;
+        Assert.isTrue(bucketLength * (buckets + 1) <= MAX_RELATIVE_EXPIRATION, "'window' extended by one bucket cannot be longer than "
+                + MAX_RELATIVE_EXPIRATION + " seconds");
+        return (int) bucketLength;
+    }
+
+    private long currentBucket(final int bucketLength) {
+        return System.currentTimeMillis() / 1000 / bucketLength;
+    }
+
+    private String getBucketKey(final String cacheKey, final long bucket) {
+        return cacheKey + BUCKET_SEPARATOR + bucket;
+    }
+
     private void warn(final Exception e, final String format, final Object... args) {
         if (LOGGER.isWarnEnabled()) {
             LOGGER.warn(String.format(format, args), e);
         }
     }
 
+    private void debug(final Exception e, final String format, final Object... args) {
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug(String.format(format, args), e);
+        }
+    }
+
     private void validateTranscoder(final SerializationType serializationType, final CacheTranscoder cacheTranscoder,
             final String transcoderName) {
         if (defaultSerializationType == serializationType) {
@@ -345,4 +1279,84 @@ class CacheImpl implements Cache {
         }
     }
 
+    /**
+     * Future of asynchronous modification that invalidates the key in local near cache again and publishes the
+     * invalidation to other near caches once the modification completes. Values read from memcached before the
+     * modification landed cannot stay in near caches then. Plain futures don't support callbacks so completion is
+     * detected when the result is retrieved or {@link #isDone()} returns true.
+     * 
+     */
+    private final class InvalidatingFuture<T> implements Future<T> {
+
+        private final String cacheKey;
+
+        private final Future<T> future;
+
+        private final AtomicBoolean invalidated = new AtomicBoolean();
+
+        InvalidatingFuture(final String cacheKey, final Future<T> future) {
+            this.cacheKey = cacheKey;
+            this.future = future;
+        }
+
+        @Override
+        public boolean cancel(final boolean mayInterruptIfRunning) {
+            final boolean cancelled = future.cancel(mayInterruptIfRunning);
+            // the operation could be already sent to memcached
+            onCompletion();
+            return cancelled;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return future.isCancelled();
+        }
+
+        @Override
+        public boolean isDone() {
+            final boolean done = future.isDone();
+            if (done) {
+                onCompletion();
+            }
+            return done;
+        }
+
+        @Override
+        public T get() throws InterruptedException, ExecutionException {
+            final T result;
+            try {
+                result = future.get();
+            } catch (ExecutionException e) {
+                // value in memcached could be changed even if operation failed
+                onCompletion();
+                throw e;
+            }
+
+            onCompletion();
+            return result;
+        }
+
+        @Override
+        public T get(final long timeout, final TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+            final T result;
+            try {
+                result = future.get(timeout, unit);
+            } catch (ExecutionException e) {
+                onCompletion();
+                throw e;
+            }
+
+            onCompletion();
+            return result;
+        }
+
+        private void onCompletion() {
+            if (invalidated.compareAndSet(false, true)) {
+                invalidateNearCache(cacheKey);
+                publishInvalidation(Collections.singleton(cacheKey));
+            }
+        }
+
+    }
+
 }
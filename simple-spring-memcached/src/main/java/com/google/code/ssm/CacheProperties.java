@@ -47,4 +47,27 @@ public class CacheProperties {
      */
     private String keyPrefixSeparator = "#";
 
+    /**
+     * Default expiration of cached null results, -1 means that null results use the same expiration as other values.
+     * 
+     * @since 3.6.0
+     */
+    private int negativeExpiration = -1;
+
+    /**
+     * If true values populated by cache (read through results and null values) are written without waiting for server's
+     * response.
+     * 
+     * @since 3.6.0
+     */
+    private boolean noReplyWrites;
+
+    public CacheProperties(final boolean useNameAsKeyPrefix, final String keyPrefixSeparator) {
+        this(useNameAsKeyPrefix, keyPrefixSeparator, -1);
+    }
+
+    public CacheProperties(final boolean useNameAsKeyPrefix, final String keyPrefixSeparator, final int negativeExpiration) {
+        this(useNameAsKeyPrefix, keyPrefixSeparator, negativeExpiration, false);
+    }
+
 }
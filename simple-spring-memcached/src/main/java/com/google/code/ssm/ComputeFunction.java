@@ -0,0 +1,41 @@
+/*
+ * Copyright (c) 2015 Jakub Białek
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm;
+
+/**
+ * Computes new value of cached item from its current value, used by
+ * {@link Cache#compute(String, int, ComputeFunction, int, com.google.code.ssm.api.format.SerializationType)}. The
+ * function can be invoked more than once if the item is concurrently modified so it shouldn't have side effects.
+ * 
+ * @author Jakub Białek
+ * @since 3.6.0
+ * 
+ * @param <T>
+ *            the type of value
+ */
+public interface ComputeFunction<T> {
+
+    /**
+     * 
+     * @param currentValue
+     *            the current value or null if the item doesn't exist in cache
+     * @return new value to store or null if the item shouldn't be modified
+     */
+    T apply(T currentValue);
+
+}
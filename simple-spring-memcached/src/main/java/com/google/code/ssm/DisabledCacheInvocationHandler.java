@@ -20,12 +20,14 @@ package com.google.code.ssm;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
 import java.util.Collection;
+import java.util.concurrent.Callable;
+import java.util.concurrent.FutureTask;
 
 /**
  * 
  * Handle all invocations to disabled {@link Cache}. All methods except {@link Cache#getName()},
  * {@link Cache#getAliases()}, {@link Cache#isEnabled()}, {@link Cache#shutdown()} will throw
- * {@link IllegalStateException}.
+ * {@link IllegalStateException}. Asynchronous methods return future that fails with {@link IllegalStateException}.
  * 
  * @author Jakub Białek
  * @since 3.5.0
@@ -54,9 +56,26 @@ public class DisabledCacheInvocationHandler implements InvocationHandler {
             return false;
         } else if ("shutdown".equals(methodName)) {
             return null;
+        } else if (methodName.startsWith("async")) {
+            return failedFuture();
         }
 
-        throw new IllegalStateException(String.format("Cache with name %s and aliases %s is disabled", cacheName, cacheAliases));
+        throw createDisabledException();
+    }
+
+    private FutureTask<Object> failedFuture() {
+        final FutureTask<Object> future = new FutureTask<Object>(new Callable<Object>() {
+            @Override
+            public Object call() {
+                throw createDisabledException();
+            }
+        });
+        future.run();
+        return future;
+    }
+
+    private IllegalStateException createDisabledException() {
+        return new IllegalStateException(String.format("Cache with name %s and aliases %s is disabled", cacheName, cacheAliases));
     }
 
 }
@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) 2015 Jakub Białek
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeoutException;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.util.Assert;
+
+import com.google.code.ssm.providers.CacheException;
+
+/**
+ * Manages versions of namespaces. Version of namespace is a part of all cache keys in this namespace so incrementing
+ * the version invalidates all values in the namespace at once without flushing the whole cache. Values stored under
+ * old keys are no longer read and expire or are evicted by memcached.
+ * 
+ * Versions are stored as counters in memcached and cached locally. Cached version is refreshed after
+ * {@link #refreshInterval} so other JVMs use incremented version at latest after this time.
+ * 
+ * New version counter is initialized with the current time in milliseconds, so if counter is evicted from memcached the
+ * new version is still greater than all previously used versions.
+ * 
+ * @author Jakub Białek
+ * @since 3.6.0
+ * 
+ */
+public class NamespaceVersionManager implements InitializingBean {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(NamespaceVersionManager.class);
+
+    private static final String VERSION_KEY_PREFIX = "ssm-namespace-version:";
+
+    /**
+     * Cache used to store versions of namespaces.
+     */
+    @Setter
+    private Cache cache;
+
+    /**
+     * Versioned namespaces, keys of other namespaces don't contain version.
+     */
+    @Getter
+    private Set<String> namespaces = Collections.emptySet();
+
+    /**
+     * Time in milliseconds after locally cached version is read again from memcached.
+     */
+    @Getter
+    @Setter
+    private long refreshInterval = 1000;
+
+    private final ConcurrentMap<String, LocalVersion> versions = new ConcurrentHashMap<String, LocalVersion>();
+
+    @Override
+    public void afterPropertiesSet() throws Exception {
+        Assert.notNull(cache, "'cache' cannot be null");
+        Assert.isTrue(refreshInterval >= 0, "'refreshInterval' cannot be negative");
+    }
+
+    public void setNamespaces(final Set<String> namespaces) {
+        this.namespaces = new HashSet<String>(namespaces);
+    }
+
+    public boolean isVersioned(final String namespace) {
+        return namespaces.contains(namespace);
+    }
+
+    /**
+     * 
+     * @param namespace
+     *            the versioned namespace
+     * @return current version of namespace
+     * @throws IllegalStateException
+     *             if version cannot be read from memcached and it isn't cached locally
+     */
+    public long getVersion(final String namespace) {
+        final long now = now();
+        final LocalVersion localVersion = versions.get(namespace);
+        if (localVersion != null && now - localVersion.loadedAt < refreshInterval) {
+            return localVersion.version;
+        }
+
+        try {
+            final String key = getVersionKey(namespace);
+            Long version = cache.getCounter(key);
+            if (version == null) {
+                version = cache.incr(key, 0, now);
+            }
+
+            versions.put(namespace, new LocalVersion(version, now));
+            return version;
+        } catch (Exception e) {
+            if (localVersion == null) {
+                throw new IllegalStateException(String.format("Cannot read version of namespace %s", namespace), e);
+            }
+
+            LOGGER.warn(String.format("Cannot refresh version of namespace %s, cached version is used", namespace), e);
+            // don't try to refresh on each invocation when memcached is unavailable
+            versions.put(namespace, new LocalVersion(localVersion.version, now));
+            return localVersion.version;
+        }
+    }
+
+    /**
+     * Increments version of namespace and so invalidates all values stored in the namespace.
+     * 
+     * @param namespace
+     *            the versioned namespace
+     * @return new version of namespace
+     * @throws TimeoutException
+     * @throws CacheException
+     */
+    public long incrementVersion(final String namespace) throws TimeoutException, CacheException {
+        Assert.isTrue(isVersioned(namespace), String.format("Namespace %s isn't versioned", namespace));
+
+        final long now = now();
+        final long version = cache.incr(getVersionKey(namespace), 1, now);
+        versions.put(namespace, new LocalVersion(version, now));
+
+        return version;
+    }
+
+    long now() {
+        return System.currentTimeMillis();
+    }
+
+    private String getVersionKey(final String namespace) {
+        return VERSION_KEY_PREFIX + namespace;
+    }
+
+    private static final class LocalVersion {
+
+        private final long version;
+
+        private final long loadedAt;
+
+        private LocalVersion(final long version, final long loadedAt) {
+            this.version = version;
+            this.loadedAt = loadedAt;
+        }
+
+    }
+
+}
@@ -21,11 +21,20 @@ import java.net.SocketAddress;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
+import lombok.EqualsAndHashCode;
+
 import com.google.code.ssm.api.format.SerializationType;
+import com.google.code.ssm.providers.BulkGetCallback;
+import com.google.code.ssm.providers.CASValue;
 import com.google.code.ssm.providers.CacheException;
 
 /**
@@ -34,6 +43,7 @@ import com.google.code.ssm.providers.CacheException;
  * @since 3.3.0
  * 
  */
+@EqualsAndHashCode
 public class PrefixedCacheImpl implements Cache {
 
     private final Cache cache;
@@ -68,6 +78,46 @@ public class PrefixedCacheImpl implements Cache {
         return cache.getProperties();
     }
 
+    @Override
+    public Future<Boolean> asyncAdd(final String key, final int exp, final Object value, final SerializationType serializationType) {
+        return cache.asyncAdd(alterKey(key), exp, value, serializationType);
+    }
+
+    @Override
+    public Future<Long> asyncDecr(final String key, final int by) {
+        return cache.asyncDecr(alterKey(key), by);
+    }
+
+    @Override
+    public Future<Boolean> asyncDelete(final String key) {
+        return cache.asyncDelete(alterKey(key));
+    }
+
+    @Override
+    public Future<Object> asyncGet(final String key, final SerializationType serializationType) {
+        return cache.asyncGet(alterKey(key), serializationType);
+    }
+
+    @Override
+    public Future<Map<String, Object>> asyncGetBulk(final Collection<String> keys, final SerializationType serializationType) {
+        return new CacheNamesRemovingFuture(cache.asyncGetBulk(alterKeys(keys), serializationType));
+    }
+
+    @Override
+    public Future<Long> asyncIncr(final String key, final int by) {
+        return cache.asyncIncr(alterKey(key), by);
+    }
+
+    @Override
+    public Future<Long> asyncIncr(final String key, final int by, final long def, final int exp) {
+        return cache.asyncIncr(alterKey(key), by, def, exp);
+    }
+
+    @Override
+    public Future<Boolean> asyncSet(final String key, final int exp, final Object value, final SerializationType serializationType) {
+        return cache.asyncSet(alterKey(key), exp, value, serializationType);
+    }
+
     @Override
     public <T> boolean add(final String key, final int exp, final Object value, final SerializationType serializationType)
             throws TimeoutException, CacheException {
@@ -80,6 +130,39 @@ public class PrefixedCacheImpl implements Cache {
         return cache.addSilently(alterKey(cacheKey), expiration, value, serializationType);
     }
 
+    @Override
+    public Set<String> addBulk(final Map<String, ?> values, final int exp, final SerializationType serializationType)
+            throws TimeoutException, CacheException {
+        return removeCacheNames(cache.addBulk(alterKeys(values), exp, serializationType));
+    }
+
+    @Override
+    public Set<String> addBulkSilently(final Map<String, ?> values, final int expiration, final SerializationType serializationType) {
+        return removeCacheNames(cache.addBulkSilently(alterKeys(values), expiration, serializationType));
+    }
+
+    @Override
+    public <T> void addWithNoReply(final String key, final int exp, final Object value, final SerializationType serializationType) {
+        cache.addWithNoReply(alterKey(key), exp, value, serializationType);
+    }
+
+    @Override
+    public void addBulkWithNoReply(final Map<String, ?> values, final int exp, final SerializationType serializationType) {
+        cache.addBulkWithNoReply(alterKeys(values), exp, serializationType);
+    }
+
+    @Override
+    public <T> boolean cas(final String key, final long cas, final int exp, final Object value, final SerializationType serializationType)
+            throws TimeoutException, CacheException {
+        return cache.cas(alterKey(key), cas, exp, value, serializationType);
+    }
+
+    @Override
+    public <T> T compute(final String key, final int exp, final ComputeFunction<T> function, final int maxRetries,
+            final SerializationType serializationType) throws TimeoutException, CacheException {
+        return cache.compute(alterKey(key), exp, function, maxRetries, serializationType);
+    }
+
     @Override
     public long decr(final String key, final int by) throws TimeoutException, CacheException {
         return cache.decr(alterKey(key), by);
@@ -95,6 +178,11 @@ public class PrefixedCacheImpl implements Cache {
         cache.delete(alterKeys(keys));
     }
 
+    @Override
+    public void deleteWithNoReply(final String key) {
+        cache.deleteWithNoReply(alterKey(key));
+    }
+
     @Override
     public void flush() throws TimeoutException, CacheException {
         cache.flush();
@@ -105,6 +193,17 @@ public class PrefixedCacheImpl implements Cache {
         return cache.get(alterKey(key), serializationType);
     }
 
+    @Override
+    public <T> CASValue<T> gets(final String key, final SerializationType serializationType) throws TimeoutException, CacheException {
+        return cache.gets(alterKey(key), serializationType);
+    }
+
+    @Override
+    public <T> T getAndTouch(final String key, final int exp, final SerializationType serializationType) throws TimeoutException,
+            CacheException {
+        return cache.getAndTouch(alterKey(key), exp, serializationType);
+    }
+
     @Override
     public Map<String, Object> getBulk(final Collection<String> keys, final SerializationType serializationType) throws TimeoutException,
             CacheException {
@@ -112,6 +211,30 @@ public class PrefixedCacheImpl implements Cache {
         return removeCacheNames(results);
     }
 
+    @Override
+    public Map<String, Object> getBulk(final Collection<String> keys, final SerializationType serializationType, final long timeout)
+            throws TimeoutException, CacheException {
+        final Map<String, Object> results = cache.getBulk(alterKeys(keys), serializationType, timeout);
+        return removeCacheNames(results);
+    }
+
+    @Override
+    public void getBulk(final Collection<String> keys, final SerializationType serializationType, final BulkGetCallback<Object> callback) {
+        cache.getBulk(alterKeys(keys), serializationType, new BulkGetCallback<Object>() {
+
+            @Override
+            public void onComplete(final Map<String, Object> values) {
+                callback.onComplete(removeCacheNames(values));
+            }
+
+            @Override
+            public void onFailure(final Exception e) {
+                callback.onFailure(e);
+            }
+
+        });
+    }
+
     @Override
     public long incr(final String key, final int by, final long def) throws TimeoutException, CacheException {
         return cache.incr(alterKey(key), by, def);
@@ -138,16 +261,79 @@ public class PrefixedCacheImpl implements Cache {
         cache.setSilently(alterKey(cacheKey), expiration, value, serializationType);
     }
 
+    @Override
+    public void setBulk(final Map<String, ?> values, final int exp, final SerializationType serializationType) throws TimeoutException,
+            CacheException {
+        cache.setBulk(alterKeys(values), exp, serializationType);
+    }
+
+    @Override
+    public void setBulkSilently(final Map<String, ?> values, final int expiration, final SerializationType serializationType) {
+        cache.setBulkSilently(alterKeys(values), expiration, serializationType);
+    }
+
+    @Override
+    public <T> void setWithNoReply(final String key, final int exp, final Object value, final SerializationType serializationType) {
+        cache.setWithNoReply(alterKey(key), exp, value, serializationType);
+    }
+
+    @Override
+    public void setBulkWithNoReply(final Map<String, ?> values, final int exp, final SerializationType serializationType) {
+        cache.setBulkWithNoReply(alterKeys(values), exp, serializationType);
+    }
+
     @Override
     public Long getCounter(final String cacheKey) throws TimeoutException, CacheException {
         return cache.getCounter(alterKey(cacheKey));
     }
 
+    @Override
+    public Map<String, Long> getCounters(final Collection<String> cacheKeys) throws TimeoutException, CacheException {
+        return removeCacheNames(cache.getCounters(alterKeys(cacheKeys)));
+    }
+
     @Override
     public void setCounter(final String cacheKey, final int expiration, final long value) throws TimeoutException, CacheException {
         cache.setCounter(alterKey(cacheKey), expiration, value);
     }
 
+    @Override
+    public long incrSharded(final String cacheKey, final int by, final int shards) throws TimeoutException, CacheException {
+        return cache.incrSharded(alterKey(cacheKey), by, shards);
+    }
+
+    @Override
+    public long decrSharded(final String cacheKey, final int by, final int shards) throws TimeoutException, CacheException {
+        return cache.decrSharded(alterKey(cacheKey), by, shards);
+    }
+
+    @Override
+    public Long getShardedCounter(final String cacheKey, final int shards) throws TimeoutException, CacheException {
+        return cache.getShardedCounter(alterKey(cacheKey), shards);
+    }
+
+    @Override
+    public void setShardedCounter(final String cacheKey, final int expiration, final long value, final int shards)
+            throws TimeoutException, CacheException {
+        cache.setShardedCounter(alterKey(cacheKey), expiration, value, shards);
+    }
+
+    @Override
+    public long windowIncr(final String cacheKey, final int by, final int window, final int buckets) throws TimeoutException,
+            CacheException {
+        return cache.windowIncr(alterKey(cacheKey), by, window, buckets);
+    }
+
+    @Override
+    public long getWindowCounter(final String cacheKey, final int window, final int buckets) throws TimeoutException, CacheException {
+        return cache.getWindowCounter(alterKey(cacheKey), window, buckets);
+    }
+
+    @Override
+    public boolean touch(final String key, final int exp) throws TimeoutException, CacheException {
+        return cache.touch(alterKey(key), exp);
+    }
+
     @Override
     public void shutdown() {
         cache.shutdown();
@@ -171,9 +357,27 @@ public class PrefixedCacheImpl implements Cache {
         return alteredKeys;
     }
 
-    private Map<String, Object> removeCacheNames(final Map<String, Object> resultsWithCacheName) {
-        final Map<String, Object> results = new HashMap<String, Object>();
-        for (final Map.Entry<String, Object> entry : resultsWithCacheName.entrySet()) {
+    private Map<String, Object> alterKeys(final Map<String, ?> values) {
+        final Map<String, Object> alteredValues = new HashMap<String, Object>();
+        for (final Map.Entry<String, ?> entry : values.entrySet()) {
+            alteredValues.put(alterKey(entry.getKey()), entry.getValue());
+        }
+
+        return alteredValues;
+    }
+
+    private Set<String> removeCacheNames(final Set<String> keysWithCacheName) {
+        final Set<String> keys = new HashSet<String>();
+        for (final String key : keysWithCacheName) {
+            keys.add(key.substring((name + namePrefixSeparator).length()));
+        }
+
+        return keys;
+    }
+
+    private <T> Map<String, T> removeCacheNames(final Map<String, T> resultsWithCacheName) {
+        final Map<String, T> results = new HashMap<String, T>();
+        for (final Map.Entry<String, T> entry : resultsWithCacheName.entrySet()) {
             final String key = entry.getKey().substring((name + namePrefixSeparator).length());
             results.put(key, entry.getValue());
         }
@@ -181,4 +385,44 @@ public class PrefixedCacheImpl implements Cache {
         return results;
     }
 
+    /**
+     * Removes cache name from keys of values retrieved by the underlying future.
+     * 
+     */
+    private class CacheNamesRemovingFuture implements Future<Map<String, Object>> {
+
+        private final Future<Map<String, Object>> future;
+
+        CacheNamesRemovingFuture(final Future<Map<String, Object>> future) {
+            this.future = future;
+        }
+
+        @Override
+        public boolean cancel(final boolean mayInterruptIfRunning) {
+            return future.cancel(mayInterruptIfRunning);
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return future.isCancelled();
+        }
+
+        @Override
+        public boolean isDone() {
+            return future.isDone();
+        }
+
+        @Override
+        public Map<String, Object> get() throws InterruptedException, ExecutionException {
+            return removeCacheNames(future.get());
+        }
+
+        @Override
+        public Map<String, Object> get(final long timeout, final TimeUnit unit) throws InterruptedException, ExecutionException,
+                TimeoutException {
+            return removeCacheNames(future.get(timeout, unit));
+        }
+
+    }
+
 }
@@ -41,4 +41,41 @@ public class Settings {
      */
     private boolean disableCache = false;
 
+    /**
+     * Number of threads used by SSM to execute background tasks like early refresh of cached values.
+     * 
+     * @since 3.6.0
+     */
+    private int backgroundThreads = 2;
+
+    /**
+     * Maximum number of background tasks waiting for execution. If the queue is full new tasks are dropped.
+     * 
+     * @since 3.6.0
+     */
+    private int backgroundQueueSize = 1000;
+
+    /**
+     * Maximum number of threads used by SSM to get chunks of large bulk requests concurrently. If all threads are busy
+     * the chunk is fetched by the calling thread.
+     * 
+     * @since 3.6.0
+     */
+    private int bulkThreads = 4;
+
+    /**
+     * Maximum number of threads used by SSM to invoke intercepted methods concurrently for chunks of missed keys. If
+     * all threads are busy the method is invoked by the calling thread.
+     * 
+     * @since 3.6.0
+     */
+    private int invocationThreads = 4;
+
+    /**
+     * Interval in milliseconds between flushes of batched counters' deltas to cache.
+     * 
+     * @since 3.6.0
+     */
+    private long counterFlushInterval = 200;
+
 }
@@ -17,13 +17,10 @@
  */
 package com.google.code.ssm.aop;
 
-import java.lang.annotation.Annotation;
-import java.lang.reflect.Method;
-
 import org.slf4j.Logger;
 import org.springframework.core.Ordered;
 
-import com.google.code.ssm.api.RefreshCache;
+import com.google.code.ssm.aop.support.AdvicePlan;
 
 /**
  * @author Jakub Białek
@@ -50,25 +47,8 @@ public abstract class CacheAdvice implements Ordered {
         return cacheBase.isCacheDisabled();
     }
 
-    protected boolean refreshCache(Method targetMethod, Object[] args) {
-        if (targetMethod != null) {
-            Annotation[][] annotations = targetMethod.getParameterAnnotations();
-            for (int i = 0; i < annotations.length; i++) {
-                for (int j = 0; j < annotations[i].length; j++) {
-                    if (annotations[i][j].annotationType().equals(
-                            RefreshCache.class)) {
-                        Object obj = args[i];
-                        if(obj instanceof Boolean){
-                            return (Boolean)obj;
-                        }
-                        return false;
-                    }
-                }
-            }
-
-        }
-        return false;
-
+    protected boolean refreshCache(final AdvicePlan<?> plan, final Object[] args) {
+        return plan.isRefreshCache(args);
     }
 
     protected void warn(final Exception e, final String format,
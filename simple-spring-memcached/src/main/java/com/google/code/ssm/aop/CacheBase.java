@@ -18,32 +18,66 @@
 
 package com.google.code.ssm.aop;
 
+import java.lang.annotation.Annotation;
 import java.lang.reflect.Method;
 import java.security.InvalidParameterException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.aspectj.lang.JoinPoint;
 import org.aspectj.lang.Signature;
 import org.aspectj.lang.reflect.MethodSignature;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.beans.factory.NoSuchBeanDefinitionException;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.ApplicationContextAware;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.util.ClassUtils;
 
 import com.google.code.ssm.Cache;
+import com.google.code.ssm.NamespaceVersionManager;
 import com.google.code.ssm.PrefixedCacheImpl;
 import com.google.code.ssm.Settings;
+import com.google.code.ssm.aop.support.AdvicePlan;
 import com.google.code.ssm.aop.support.AnnotationData;
+import com.google.code.ssm.aop.support.AnnotationDataBuilder;
 import com.google.code.ssm.aop.support.BridgeMethodMappingStore;
 import com.google.code.ssm.aop.support.BridgeMethodMappingStoreImpl;
 import com.google.code.ssm.aop.support.CacheKeyBuilder;
 import com.google.code.ssm.aop.support.CacheKeyBuilderImpl;
+import com.google.code.ssm.aop.support.CompletionStageFutureAdapter;
+import com.google.code.ssm.aop.support.CounterBatcher;
+import com.google.code.ssm.aop.support.FutureAdapter;
 import com.google.code.ssm.aop.support.InvalidAnnotationException;
 import com.google.code.ssm.aop.support.PertinentNegativeNull;
+import com.google.code.ssm.aop.support.RefreshableValue;
+import com.google.code.ssm.api.InvalidateSingleCache;
+import com.google.code.ssm.api.ReadThroughAssignCache;
+import com.google.code.ssm.api.ReadThroughSingleCache;
+import com.google.code.ssm.api.UpdateAssignCache;
+import com.google.code.ssm.api.UpdateSingleCache;
 import com.google.code.ssm.api.format.Serialization;
 import com.google.code.ssm.api.format.SerializationType;
 import com.google.code.ssm.util.Utils;
@@ -54,23 +88,53 @@ import com.google.code.ssm.util.Utils;
  * @author Jakub Białek
  * 
  */
-public class CacheBase implements ApplicationContextAware, InitializingBean {
+public class CacheBase implements ApplicationContextAware, ApplicationListener<ContextClosedEvent>, InitializingBean, DisposableBean {
 
     public static final String DISABLE_CACHE_PROPERTY = "ssm.cache.disable";
 
     private static final Logger LOG = LoggerFactory.getLogger(CacheBase.class);
 
+    // annotations which advices cache values of futures returned by intercepted methods
+    private static final Set<Class<? extends Annotation>> FUTURE_AWARE_ANNOTATIONS = new HashSet<Class<? extends Annotation>>(
+            Arrays.<Class<? extends Annotation>> asList(ReadThroughSingleCache.class, ReadThroughAssignCache.class, UpdateSingleCache.class,
+                    UpdateAssignCache.class, InvalidateSingleCache.class));
+
     private CacheKeyBuilder cacheKeyBuilder = new CacheKeyBuilderImpl();
 
     private BridgeMethodMappingStore bridgeMethodMappingStore = new BridgeMethodMappingStoreImpl();
 
+    private List<FutureAdapter> futureAdapters = createDefaultFutureAdapters();
+
     // mapping cache zone <-> cache
     private final Map<String, Cache> caches = new HashMap<String, Cache>();
 
+    // mapping (target class, method, annotation) <-> advice plan
+    private final Map<AdvicePlanKey, AdvicePlan<?>> advicePlans = new ConcurrentHashMap<AdvicePlanKey, AdvicePlan<?>>();
+
     private Settings settings = new Settings();
 
+    private NamespaceVersionManager namespaceVersionManager;
+
     private ApplicationContext context;
 
+    // lazily created executor of background tasks
+    private ExecutorService backgroundExecutor;
+
+    private final AtomicLong droppedBackgroundTasks = new AtomicLong();
+
+    // lazily created executor of bulk operations' chunks
+    private ExecutorService bulkExecutor;
+
+    // lazily created executor of intercepted methods' invocations for chunks of missed keys
+    private ExecutorService invocationExecutor;
+
+    // lazily created batcher of counters' deltas and executor of its periodic flushes
+    private volatile CounterBatcher counterBatcher;
+
+    private ScheduledExecutorService counterFlushExecutor;
+
+    private boolean countersClosed;
+
     @Override
     public void afterPropertiesSet() throws Exception {
         for (Cache cache : context.getBeansOfType(Cache.class).values()) {
@@ -82,6 +146,44 @@ public class CacheBase implements ApplicationContextAware, InitializingBean {
         } catch (NoSuchBeanDefinitionException ex) {
             LOG.info("Cannot obtain custom SSM settings, default is used");
         }
+
+        try {
+            namespaceVersionManager = context.getBean(NamespaceVersionManager.class);
+            if (cacheKeyBuilder instanceof CacheKeyBuilderImpl) {
+                ((CacheKeyBuilderImpl) cacheKeyBuilder).setNamespaceVersionManager(namespaceVersionManager);
+            } else {
+                LOG.warn("Custom cache key builder is used, it has to support namespace versions by itself");
+            }
+        } catch (NoSuchBeanDefinitionException ex) {
+            LOG.debug("Namespace versions are not used");
+        }
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        synchronized (this) {
+            if (backgroundExecutor != null) {
+                backgroundExecutor.shutdown();
+            }
+            if (bulkExecutor != null) {
+                bulkExecutor.shutdown();
+            }
+            if (invocationExecutor != null) {
+                invocationExecutor.shutdown();
+            }
+        }
+
+        flushCounters();
+    }
+
+    /**
+     * Flushes pending counters' deltas when the context is closing, before caches are shut down.
+     * 
+     * @since 3.6.0
+     */
+    @Override
+    public void onApplicationEvent(final ContextClosedEvent event) {
+        flushCounters();
     }
 
     @Override
@@ -97,6 +199,15 @@ public class CacheBase implements ApplicationContextAware, InitializingBean {
         return this.cacheKeyBuilder;
     }
 
+    /**
+     * 
+     * @return the manager of namespace versions or null if namespace versions are not used
+     * @since 3.6.0
+     */
+    public NamespaceVersionManager getNamespaceVersionManager() {
+        return namespaceVersionManager;
+    }
+
     public BridgeMethodMappingStore getBridgeMethodMappingStore() {
         return bridgeMethodMappingStore;
     }
@@ -105,6 +216,48 @@ public class CacheBase implements ApplicationContextAware, InitializingBean {
         this.bridgeMethodMappingStore = bridgeMethodMappingStore;
     }
 
+    /**
+     * 
+     * @return adapters of futures returned by intercepted methods
+     * @since 3.6.0
+     */
+    public List<FutureAdapter> getFutureAdapters() {
+        return futureAdapters;
+    }
+
+    /**
+     * Sets adapters of futures returned by intercepted methods, i.e. to support futures from third party libraries.
+     * Adapters are checked in given order and the first one that supports method's return type is used. By default
+     * only {@code CompletionStage} is supported, plain {@link Future} cannot be observed without blocking a thread so
+     * methods returning it are rejected. Futures are handled only by {@code @ReadThroughSingleCache},
+     * {@code @ReadThroughAssignCache}, {@code @UpdateSingleCache}, {@code @UpdateAssignCache} and
+     * {@code @InvalidateSingleCache}.
+     * 
+     * @param futureAdapters
+     *            the adapters of futures
+     * @since 3.6.0
+     */
+    public void setFutureAdapters(final List<FutureAdapter> futureAdapters) {
+        this.futureAdapters = futureAdapters;
+    }
+
+    /**
+     * 
+     * @param returnType
+     *            the return type of intercepted method
+     * @return adapter of given future type or null if the type is not a supported future
+     * @since 3.6.0
+     */
+    public FutureAdapter getFutureAdapter(final Class<?> returnType) {
+        for (FutureAdapter futureAdapter : futureAdapters) {
+            if (futureAdapter.supports(returnType)) {
+                return futureAdapter;
+            }
+        }
+
+        return null;
+    }
+
     public Cache getCache(final AnnotationData data) {
         Cache cache = caches.get(data.getCacheName());
         if (cache == null) {
@@ -124,13 +277,36 @@ public class CacheBase implements ApplicationContextAware, InitializingBean {
                 && settings.isDisableCache();
     }
 
-    public Method getMethodToCache(final JoinPoint jp) throws NoSuchMethodException {
-        final Signature sig = jp.getSignature();
-        if (!(sig instanceof MethodSignature)) {
-            throw new InvalidAnnotationException("This annotation is only valid on a method.");
+    /**
+     * Gets precompiled advice plan of intercepted method. The plan is created only once per target class, method and
+     * annotation so reflection is not used on the hot path.
+     * 
+     * @param jp
+     *            the join point
+     * @param annotationClass
+     *            the class of SSM annotation handled by advice
+     * @return the advice plan
+     * @throws NoSuchMethodException
+     * @since 3.6.0
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends Annotation> AdvicePlan<T> getAdvicePlan(final JoinPoint jp, final Class<T> annotationClass)
+            throws NoSuchMethodException {
+        final MethodSignature msig = getMethodSignature(jp);
+        final AdvicePlanKey key = new AdvicePlanKey(jp.getTarget().getClass(), msig.getName(), msig.getParameterTypes(), annotationClass);
+
+        AdvicePlan<?> plan = advicePlans.get(key);
+        if (plan == null) {
+            // the same plan can be created concurrently by few threads, it doesn't matter which one will be stored
+            plan = createAdvicePlan(getMethodToCache(jp), annotationClass);
+            advicePlans.put(key, plan);
         }
 
-        final MethodSignature msig = (MethodSignature) sig;
+        return (AdvicePlan<T>) plan;
+    }
+
+    public Method getMethodToCache(final JoinPoint jp) throws NoSuchMethodException {
+        final MethodSignature msig = getMethodSignature(jp);
         final Object target = jp.getTarget();
 
         // cannot use msig.getMethod() because it can return the method where annotation was declared i.e. method in
@@ -166,8 +342,132 @@ public class CacheBase implements ApplicationContextAware, InitializingBean {
         return (o == null) ? PertinentNegativeNull.NULL : o;
     }
 
+    /**
+     * 
+     * @param data
+     *            the annotation data
+     * @param submission
+     *            the value stored in cache
+     * @return expiration of the submission, negative expiration if it's cached null result
+     */
+    protected int getExpiration(final AnnotationData data, final Object submission) {
+        return (submission instanceof PertinentNegativeNull) ? getNegativeExpiration(data) : data.getExpiration();
+    }
+
+    protected int getNegativeExpiration(final AnnotationData data) {
+        if (data.getNegativeExpiration() >= 0) {
+            return data.getNegativeExpiration();
+        }
+
+        final int cacheNegativeExpiration = getCache(data).getProperties().getNegativeExpiration();
+        return (cacheNegativeExpiration >= 0) ? cacheNegativeExpiration : data.getExpiration();
+    }
+
     protected Object getResult(final Object result) {
-        return (result instanceof PertinentNegativeNull) ? null : result;
+        final Object value = (result instanceof RefreshableValue) ? ((RefreshableValue) result).getValue() : result;
+        return (value instanceof PertinentNegativeNull) ? null : value;
+    }
+
+    /**
+     * Executes task in background. If there are too many background tasks waiting for execution the task is dropped.
+     * 
+     * @param task
+     *            the task to execute
+     * @return true if task has been accepted for execution, false if it has been dropped
+     * @since 3.6.0
+     */
+    public boolean executeInBackground(final Runnable task) {
+        try {
+            getBackgroundExecutor().execute(task);
+            return true;
+        } catch (RejectedExecutionException ex) {
+            droppedBackgroundTasks.incrementAndGet();
+            return false;
+        }
+    }
+
+    /**
+     * 
+     * @return number of background tasks dropped because of overload
+     * @since 3.6.0
+     */
+    public long getDroppedBackgroundTasks() {
+        return droppedBackgroundTasks.get();
+    }
+
+    /**
+     * Gets bounded executor of background tasks. If the queue of the executor is full then
+     * {@link RejectedExecutionException} is thrown when new task is submitted.
+     * 
+     * @return the executor of background tasks
+     * @since 3.6.0
+     */
+    protected synchronized ExecutorService getBackgroundExecutor() {
+        if (backgroundExecutor == null) {
+            final ThreadPoolExecutor executor = new ThreadPoolExecutor(settings.getBackgroundThreads(), settings.getBackgroundThreads(),
+                    60L, TimeUnit.SECONDS, new ArrayBlockingQueue<Runnable>(settings.getBackgroundQueueSize()),
+                    new BackgroundThreadFactory("ssm-background-"));
+            executor.allowCoreThreadTimeOut(true);
+            backgroundExecutor = executor;
+        }
+
+        return backgroundExecutor;
+    }
+
+    /**
+     * Gets executor of bulk operations' chunks. The executor doesn't queue tasks, if all threads are busy the task is
+     * executed by the submitting thread.
+     * 
+     * @return the executor of bulk operations' chunks
+     * @since 3.6.0
+     */
+    protected synchronized ExecutorService getBulkExecutor() {
+        if (bulkExecutor == null) {
+            bulkExecutor = new ThreadPoolExecutor(0, settings.getBulkThreads(), 60L, TimeUnit.SECONDS, new SynchronousQueue<Runnable>(),
+                    new BackgroundThreadFactory("ssm-bulk-"), new ThreadPoolExecutor.CallerRunsPolicy());
+        }
+
+        return bulkExecutor;
+    }
+
+    /**
+     * Gets executor of intercepted methods' invocations for chunks of missed keys. The executor doesn't queue tasks, if
+     * all threads are busy the task is executed by the submitting thread.
+     * 
+     * @return the executor of intercepted methods' invocations
+     * @since 3.6.0
+     */
+    protected synchronized ExecutorService getInvocationExecutor() {
+        if (invocationExecutor == null) {
+            invocationExecutor = new ThreadPoolExecutor(0, settings.getInvocationThreads(), 60L, TimeUnit.SECONDS,
+                    new SynchronousQueue<Runnable>(), new BackgroundThreadFactory("ssm-invocation-"),
+                    new ThreadPoolExecutor.CallerRunsPolicy());
+        }
+
+        return invocationExecutor;
+    }
+
+    /**
+     * Gets batcher of counters' deltas. The batcher is flushed periodically by background thread every
+     * {@link Settings#getCounterFlushInterval()} milliseconds and on shutdown, deltas added after shutdown are applied
+     * immediately.
+     * 
+     * @return the batcher of counters' deltas
+     * @since 3.6.0
+     */
+    public CounterBatcher getCounterBatcher() {
+        CounterBatcher batcher = counterBatcher;
+        if (batcher == null) {
+            synchronized (this) {
+                batcher = counterBatcher;
+                if (batcher == null) {
+                    batcher = createCounterBatcher();
+                    counterBatcher = batcher;
+                }
+            }
+        }
+
+        return batcher;
     }
 
     protected void verifyReturnTypeIsList(final Method method, final Class<?> annotationClass) {
@@ -231,6 +531,94 @@ public class CacheBase implements ApplicationContextAware, InitializingBean {
         }
     }
 
+    protected <T extends Annotation> AdvicePlan<T> createAdvicePlan(final Method method, final Class<T> annotationClass) {
+        final T annotation = method.getAnnotation(annotationClass);
+        final AnnotationData data = AnnotationDataBuilder.buildAnnotationData(annotation, annotationClass, method);
+        final FutureAdapter futureAdapter = getFutureAdapter(method.getReturnType());
+        verifyFutureSupport(method, annotationClass, futureAdapter);
+        return new AdvicePlan<T>(method, annotation, data, getSerializationType(method), futureAdapter);
+    }
+
+    /**
+     * Rejects methods returning futures that cannot be handled, such future would be cached as a value or its value
+     * would never be cached.
+     */
+    private void verifyFutureSupport(final Method method, final Class<?> annotationClass, final FutureAdapter futureAdapter) {
+        if (futureAdapter == null && !Future.class.isAssignableFrom(method.getReturnType())) {
+            return;
+        }
+
+        if (!FUTURE_AWARE_ANNOTATIONS.contains(annotationClass)) {
+            throw new InvalidAnnotationException(String.format("The annotation [%s] doesn't support methods returning futures. "
+                    + "[%s] does not fulfill this requirement.", annotationClass.getName(), method.toString()));
+        }
+
+        if (futureAdapter == null) {
+            throw new InvalidAnnotationException(String.format("The return type [%s] of [%s] is not supported, "
+                    + "only CompletionStage and futures handled by adapters set in CacheBase#setFutureAdapters can be returned.",
+                    method.getReturnType().getName(), method.toString()));
+        }
+    }
+
+    private List<FutureAdapter> createDefaultFutureAdapters() {
+        final List<FutureAdapter> adapters = new ArrayList<FutureAdapter>();
+        // plain futures are not supported, waiting for them would block SSM threads
+        if (ClassUtils.isPresent("java.util.concurrent.CompletableFuture", CacheBase.class.getClassLoader())) {
+            adapters.add(new CompletionStageFutureAdapter());
+        }
+
+        return adapters;
+    }
+
+    private CounterBatcher createCounterBatcher() {
+        final CounterBatcher batcher = new CounterBatcher();
+        if (countersClosed) {
+            // periodic flushes have been already stopped
+            batcher.close();
+            return batcher;
+        }
+
+        final ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, new BackgroundThreadFactory("ssm-counter-"));
+        executor.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    batcher.flush();
+                } catch (RuntimeException e) {
+                    LOG.warn("Cannot flush counters' deltas", e);
+                }
+            }
+        }, settings.getCounterFlushInterval(), settings.getCounterFlushInterval(), TimeUnit.MILLISECONDS);
+        counterFlushExecutor = executor;
+
+        return batcher;
+    }
+
+    private void flushCounters() {
+        final CounterBatcher batcher;
+        synchronized (this) {
+            countersClosed = true;
+            if (counterFlushExecutor != null) {
+                counterFlushExecutor.shutdown();
+            }
+            batcher = counterBatcher;
+        }
+
+        if (batcher != null) {
+            // deltas added after that are applied immediately
+            batcher.close();
+        }
+    }
+
+    private MethodSignature getMethodSignature(final JoinPoint jp) {
+        final Signature sig = jp.getSignature();
+        if (!(sig instanceof MethodSignature)) {
+            throw new InvalidAnnotationException("This annotation is only valid on a method.");
+        }
+
+        return (MethodSignature) sig;
+    }
+
     private Method findMethodFromTargetGivenNameAndParams(final Object target, final String name, final Class<?>[] parameters)
             throws NoSuchMethodException {
         Method method = target.getClass().getMethod(name, parameters);
@@ -239,4 +627,69 @@ public class CacheBase implements ApplicationContextAware, InitializingBean {
         return method;
     }
 
+    private static final class BackgroundThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger threadNumber = new AtomicInteger(1);
+
+        private final String namePrefix;
+
+        BackgroundThreadFactory(final String namePrefix) {
+            this.namePrefix = namePrefix;
+        }
+
+        @Override
+        public Thread newThread(final Runnable r) {
+            final Thread thread = new Thread(r, namePrefix + threadNumber.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        }
+
+    }
+
+    private static final class AdvicePlanKey {
+
+        private final Class<?> targetClass;
+
+        private final String methodName;
+
+        private final Class<?>[] parameterTypes;
+
+        private final Class<?> annotationClass;
+
+        private final int hashCode;
+
+        AdvicePlanKey(final Class<?> targetClass, final String methodName, final Class<?>[] parameterTypes,
+                final Class<?> annotationClass) {
+            this.targetClass = targetClass;
+            this.methodName = methodName;
+            this.parameterTypes = parameterTypes;
+            this.annotationClass = annotationClass;
+
+            int result = targetClass.hashCode();
+            result = 31 * result + methodName.hashCode();
+            result = 31 * result + Arrays.hashCode(parameterTypes);
+            this.hashCode = 31 * result + annotationClass.hashCode();
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof AdvicePlanKey)) {
+                return false;
+            }
+
+            final AdvicePlanKey other = (AdvicePlanKey) obj;
+            return targetClass == other.targetClass && annotationClass == other.annotationClass && methodName.equals(other.methodName)
+                    && Arrays.equals(parameterTypes, other.parameterTypes);
+        }
+
+    }
+
 }
@@ -18,8 +18,6 @@
 
 package com.google.code.ssm.aop;
 
-import java.lang.reflect.Method;
-
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
@@ -27,8 +25,8 @@ import org.aspectj.lang.annotation.Pointcut;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.code.ssm.aop.support.AdvicePlan;
 import com.google.code.ssm.aop.support.AnnotationData;
-import com.google.code.ssm.aop.support.AnnotationDataBuilder;
 import com.google.code.ssm.api.InvalidateAssignCache;
 
 /**
@@ -60,9 +58,8 @@ public class InvalidateAssignCacheAdvice extends CacheAdvice {
         // the crap outta it, but do not let it surface up past the AOP injection itself.
         String cacheKey = null;
         try {
-            final Method methodToCache = getCacheBase().getMethodToCache(pjp);
-            final InvalidateAssignCache annotation = methodToCache.getAnnotation(InvalidateAssignCache.class);
-            final AnnotationData data = AnnotationDataBuilder.buildAnnotationData(annotation, InvalidateAssignCache.class, methodToCache);
+            final AdvicePlan<InvalidateAssignCache> plan = getCacheBase().getAdvicePlan(pjp, InvalidateAssignCache.class);
+            final AnnotationData data = plan.getAnnotationData();
 
             cacheKey = getCacheBase().getCacheKeyBuilder().getAssignCacheKey(data);
 
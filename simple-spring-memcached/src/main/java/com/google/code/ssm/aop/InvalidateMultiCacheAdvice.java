@@ -21,6 +21,7 @@ package com.google.code.ssm.aop;
 import java.lang.reflect.Method;
 import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.TimeoutException;
 
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
@@ -29,10 +30,11 @@ import org.aspectj.lang.annotation.Pointcut;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.code.ssm.aop.support.AdvicePlan;
 import com.google.code.ssm.aop.support.AnnotationData;
-import com.google.code.ssm.aop.support.AnnotationDataBuilder;
 import com.google.code.ssm.aop.support.InvalidAnnotationException;
 import com.google.code.ssm.api.InvalidateMultiCache;
+import com.google.code.ssm.providers.CacheException;
 
 /**
  * 
@@ -61,12 +63,14 @@ public class InvalidateMultiCacheAdvice extends CacheAdvice {
         Collection<String> cacheKeys = null;
         final AnnotationData data;
         final Method methodToCache;
+        final boolean asyncDelete;
         try {
-            methodToCache = getCacheBase().getMethodToCache(pjp);
-            final InvalidateMultiCache annotation = methodToCache.getAnnotation(InvalidateMultiCache.class);
-            data = AnnotationDataBuilder.buildAnnotationData(annotation, InvalidateMultiCache.class, methodToCache);
+            final AdvicePlan<InvalidateMultiCache> plan = getCacheBase().getAdvicePlan(pjp, InvalidateMultiCache.class);
+            methodToCache = plan.getMethod();
+            data = plan.getAnnotationData();
+            asyncDelete = plan.getAnnotation().asyncDelete();
             if (!data.isReturnKeyIndex()) {
-                cacheKeys = getCacheBase().getCacheKeyBuilder().getCacheKeys(data, pjp.getArgs(), methodToCache.toString());
+                cacheKeys = getCacheBase().getCacheKeyBuilder().getCacheKeys(data, pjp.getArgs(), plan.getMethodDesc());
             }
         } catch (Exception ex) {
             warn(ex, "Caching on method %s aborted due to an error.", pjp.toShortString());
@@ -89,7 +93,11 @@ public class InvalidateMultiCacheAdvice extends CacheAdvice {
                 final List<Object> keyObjects = (List<Object>) result;
                 cacheKeys = getCacheBase().getCacheKeyBuilder().getCacheKeys(keyObjects, data.getNamespace());
             }
-            getCacheBase().getCache(data).delete(cacheKeys);
+            if (asyncDelete) {
+                scheduleDelete(pjp, data, cacheKeys);
+            } else {
+                getCacheBase().getCache(data).delete(cacheKeys);
+            }
         } catch (Exception ex) {
             warn(ex, "Caching on method %s aborted due to an error.", pjp.toShortString());
         }
@@ -97,6 +105,30 @@ public class InvalidateMultiCacheAdvice extends CacheAdvice {
 
     }
 
+    /**
+     * Removes keys from cache in background. If the queue of background tasks is full the keys are removed by the
+     * current thread.
+     * 
+     */
+    private void scheduleDelete(final ProceedingJoinPoint pjp, final AnnotationData data, final Collection<String> cacheKeys)
+            throws TimeoutException, CacheException {
+        final boolean scheduled = getCacheBase().executeInBackground(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    getCacheBase().getCache(data).delete(cacheKeys);
+                } catch (Exception ex) {
+                    warn(ex, "Caching on method %s aborted due to an error.", pjp.toShortString());
+                }
+            }
+        });
+
+        if (!scheduled) {
+            getLogger().debug("Too many background tasks, {} keys are removed synchronously", cacheKeys.size());
+            getCacheBase().getCache(data).delete(cacheKeys);
+        }
+    }
+
     @Override
     protected Logger getLogger() {
         return LOG;
@@ -27,8 +27,10 @@ import org.aspectj.lang.annotation.Pointcut;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.code.ssm.aop.support.AdvicePlan;
 import com.google.code.ssm.aop.support.AnnotationData;
-import com.google.code.ssm.aop.support.AnnotationDataBuilder;
+import com.google.code.ssm.aop.support.FutureAdapter;
+import com.google.code.ssm.aop.support.FutureAdapter.Callback;
 import com.google.code.ssm.api.InvalidateSingleCache;
 
 /**
@@ -59,12 +61,14 @@ public class InvalidateSingleCacheAdvice extends CacheAdvice {
         String cacheKey = null;
         final AnnotationData data;
         final Method methodToCache;
+        final FutureAdapter futureAdapter;
         try {
-            methodToCache = getCacheBase().getMethodToCache(pjp);
-            final InvalidateSingleCache annotation = methodToCache.getAnnotation(InvalidateSingleCache.class);
-            data = AnnotationDataBuilder.buildAnnotationData(annotation, InvalidateSingleCache.class, methodToCache);
+            final AdvicePlan<InvalidateSingleCache> plan = getCacheBase().getAdvicePlan(pjp, InvalidateSingleCache.class);
+            methodToCache = plan.getMethod();
+            data = plan.getAnnotationData();
+            futureAdapter = plan.getFutureAdapter();
             if (!data.isReturnKeyIndex()) {
-                cacheKey = getCacheBase().getCacheKeyBuilder().getCacheKey(data, pjp.getArgs(), methodToCache.toString());
+                cacheKey = getCacheBase().getCacheKeyBuilder().getCacheKey(data, pjp.getArgs(), plan.getMethodDesc());
             }
         } catch (Exception ex) {
             warn(ex, "Caching on method %s and key [%s] aborted due to an error.", pjp.toShortString(), cacheKey);
@@ -73,6 +77,47 @@ public class InvalidateSingleCacheAdvice extends CacheAdvice {
 
         final Object result = pjp.proceed();
 
+        if (futureAdapter != null) {
+            // invalidate only if the returned future completes successfully
+            if (result != null) {
+                final String key = cacheKey;
+                futureAdapter.onSuccess(result, new Callback() {
+                    @Override
+                    public void onSuccess(final Object value) {
+                        scheduleInvalidate(pjp, data, methodToCache, key, value);
+                    }
+                });
+            }
+            return result;
+        }
+
+        invalidate(pjp, data, methodToCache, cacheKey, result);
+        return result;
+    }
+
+    /**
+     * Removes key from cache in background, the thread that completed the future shouldn't be blocked by cache I/O. If
+     * the queue of background tasks is full the key is removed by the current thread.
+     * 
+     */
+    private void scheduleInvalidate(final ProceedingJoinPoint pjp, final AnnotationData data, final Method methodToCache,
+            final String cacheKey, final Object result) {
+        final boolean scheduled = getCacheBase().executeInBackground(new Runnable() {
+            @Override
+            public void run() {
+                invalidate(pjp, data, methodToCache, cacheKey, result);
+            }
+        });
+
+        if (!scheduled) {
+            getLogger().debug("Too many background tasks, key is removed synchronously");
+            invalidate(pjp, data, methodToCache, cacheKey, result);
+        }
+    }
+
+    private void invalidate(final ProceedingJoinPoint pjp, final AnnotationData data, final Method methodToCache, final String key,
+            final Object result) {
+        String cacheKey = key;
         // This is injected caching. If anything goes wrong in the caching, LOG
         // the crap outta it, but do not let it surface up past the AOP injection itself.
         try {
@@ -85,7 +130,6 @@ public class InvalidateSingleCacheAdvice extends CacheAdvice {
         } catch (Exception ex) {
             warn(ex, "Caching on method %s and key [%s] aborted due to an error.", pjp.toShortString(), cacheKey);
         }
-        return result;
     }
 
     @Override
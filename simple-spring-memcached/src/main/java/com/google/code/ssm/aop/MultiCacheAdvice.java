@@ -27,6 +27,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+import com.google.code.ssm.Cache;
 import com.google.code.ssm.aop.support.AnnotationData;
 import com.google.code.ssm.aop.support.PertinentNegativeNull;
 import com.google.code.ssm.api.ParameterValueKeyProvider;
@@ -41,12 +42,12 @@ import com.google.code.ssm.util.Utils;
  */
 abstract class MultiCacheAdvice extends CacheAdvice {
 
-    MapHolder createObjectIdCacheKeyMapping(final AnnotationData data, final Object[] args, final Method methodToCache) throws Exception {
+    MapHolder createObjectIdCacheKeyMapping(final AnnotationData data, final Object[] args, final String methodDesc) throws Exception {
         final MapHolder holder = new MapHolder();
-        List<String> cacheKeys = getCacheBase().getCacheKeyBuilder().getCacheKeys(data, args, methodToCache.toString());
+        List<String> cacheKeys = getCacheBase().getCacheKeyBuilder().getCacheKeys(data, args, methodDesc);
 
         @SuppressWarnings("unchecked")
-        List<Object> listObjects = (List<Object>) Utils.getMethodArg(data.getListIndexInMethodArgs(), args, methodToCache.toString());
+        List<Object> listObjects = (List<Object>) Utils.getMethodArg(data.getListIndexInMethodArgs(), args, methodDesc);
 
         Iterator<Object> listObjectsIter = listObjects.iterator();
         Iterator<String> cacheKeysIter = cacheKeys.iterator();
@@ -69,18 +70,93 @@ abstract class MultiCacheAdvice extends CacheAdvice {
 
     protected void addNullValues(final List<Object> missObjects, final MultiCacheCoordinator coord,
             final SerializationType serializationType) {
-        for (Object keyObject : missObjects) {
-            getCacheBase().getCache(coord.getAnnotationData()).addSilently(coord.getObj2Key().get(keyObject),
-                    coord.getAnnotationData().getExpiration(), PertinentNegativeNull.NULL, serializationType);
+        if (missObjects.isEmpty()) {
+            return;
+        }
+
+        final Cache cache = getCacheBase().getCache(coord.getAnnotationData());
+        final int expiration = getCacheBase().getNegativeExpiration(coord.getAnnotationData());
+        if (coord.isNoReplyWrite()) {
+            cache.addBulkWithNoReply(getNullValues(missObjects, coord), expiration, serializationType);
+        } else {
+            cache.addBulkSilently(getNullValues(missObjects, coord), expiration, serializationType);
         }
     }
 
     protected void setNullValues(final List<Object> missObjects, final MultiCacheCoordinator coord,
             final SerializationType serializationType) {
+        if (missObjects.isEmpty()) {
+            return;
+        }
+
+        final Cache cache = getCacheBase().getCache(coord.getAnnotationData());
+        final int expiration = getCacheBase().getNegativeExpiration(coord.getAnnotationData());
+        if (coord.isNoReplyWrite()) {
+            cache.setBulkWithNoReply(getNullValues(missObjects, coord), expiration, serializationType);
+        } else {
+            cache.setBulkSilently(getNullValues(missObjects, coord), expiration, serializationType);
+        }
+    }
+
+    /**
+     * Stores values in cache using one bulk operation per distinct expiration, null results can have different
+     * expiration than other values.
+     * 
+     * @param toCache
+     *            the values to store
+     * @param data
+     *            the annotation data
+     * @param serializationType
+     *            the type of serialization
+     * @since 3.6.0
+     */
+    protected void setValues(final Map<String, Object> toCache, final AnnotationData data, final SerializationType serializationType) {
+        setValues(toCache, data, serializationType, false);
+    }
+
+    /**
+     * Stores values in cache using one bulk operation per distinct expiration.
+     * 
+     * @param toCache
+     *            the values to store
+     * @param data
+     *            the annotation data
+     * @param serializationType
+     *            the type of serialization
+     * @param noReply
+     *            if true values are stored without waiting for server's responses
+     * @since 3.6.0
+     */
+    protected void setValues(final Map<String, Object> toCache, final AnnotationData data, final SerializationType serializationType,
+            final boolean noReply) {
+        final Map<Integer, Map<String, Object>> toCacheByExpiration = new HashMap<Integer, Map<String, Object>>();
+        for (final Map.Entry<String, Object> entry : toCache.entrySet()) {
+            final Integer expiration = getCacheBase().getExpiration(data, entry.getValue());
+            Map<String, Object> values = toCacheByExpiration.get(expiration);
+            if (values == null) {
+                values = new HashMap<String, Object>();
+                toCacheByExpiration.put(expiration, values);
+            }
+            values.put(entry.getKey(), entry.getValue());
+        }
+
+        final Cache cache = getCacheBase().getCache(data);
+        for (final Map.Entry<Integer, Map<String, Object>> entry : toCacheByExpiration.entrySet()) {
+            if (noReply) {
+                cache.setBulkWithNoReply(entry.getValue(), entry.getKey(), serializationType);
+            } else {
+                cache.setBulkSilently(entry.getValue(), entry.getKey(), serializationType);
+            }
+        }
+    }
+
+    private Map<String, Object> getNullValues(final List<Object> missObjects, final MultiCacheCoordinator coord) {
+        final Map<String, Object> nullValues = new HashMap<String, Object>();
         for (Object keyObject : missObjects) {
-            getCacheBase().getCache(coord.getAnnotationData()).setSilently(coord.getObj2Key().get(keyObject),
-                    coord.getAnnotationData().getExpiration(), PertinentNegativeNull.NULL, serializationType);
+            nullValues.put(coord.getObj2Key().get(keyObject), PertinentNegativeNull.NULL);
         }
+
+        return nullValues;
     }
 
     static class MapHolder {
@@ -109,6 +185,11 @@ abstract class MultiCacheAdvice extends CacheAdvice {
         private boolean addNullsToCache;
         private boolean generateKeysFromResult;
         private boolean skipNullsInResult;
+        private boolean asyncWrite;
+        private boolean noReplyWrite;
+        private int maxBatchSize;
+        private long getBulkTimeout;
+        private int invocationChunkSize;
 
         MultiCacheCoordinator(final Method method, final AnnotationData data) {
             this.method = method;
@@ -165,11 +246,30 @@ abstract class MultiCacheAdvice extends CacheAdvice {
         }
 
         public void setInitialKey2Result(final Map<String, Object> key2Result) {
+            addInitialKey2Result(key2Result);
+            initMissedObjects();
+        }
+
+        /**
+         * Adds values got from cache for a chunk of keys, after all chunks are added {@link #initMissedObjects()} has to
+         * be invoked.
+         * 
+         * @param key2Result
+         *            the values got from cache
+         * @since 3.6.0
+         */
+        public void addInitialKey2Result(final Map<String, Object> key2Result) {
             if (key2Result == null) {
                 throw new RuntimeException("There was an error retrieving cache values.");
             }
             this.key2Result.putAll(key2Result);
+        }
 
+        /**
+         * 
+         * @since 3.6.0
+         */
+        public void initMissedObjects() {
             final Set<Object> missObjectSet = new LinkedHashSet<Object>();
             for (final String key : this.key2Obj.keySet()) {
                 if (this.key2Result.get(key) == null) {
@@ -199,10 +299,24 @@ abstract class MultiCacheAdvice extends CacheAdvice {
          * @return array of method's arguments that contain only missed objects
          */
         public Object[] createModifiedArgumentList(final Object[] args) {
+            return createModifiedArgumentList(args, this.missedObjects);
+        }
+
+        /**
+         * Alters value of method's argument of type {@link List} annotated with {@link ParameterValueKeyProvider}. As a
+         * new value of annotated list argument given objects will be used.
+         * 
+         * @param args
+         * @param keyObjects
+         *            the objects to pass in annotated list argument
+         * @return array of method's arguments that contain only given objects
+         * @since 3.6.0
+         */
+        public Object[] createModifiedArgumentList(final Object[] args, final List<Object> keyObjects) {
             Object[] modifiedArgs = new Object[args.length];
             System.arraycopy(args, 0, modifiedArgs, 0, args.length);
             // instead of passing reference to missedObject list create a new list (copy)
-            modifiedArgs[data.getListIndexInMethodArgs()] = new ArrayList<Object>(this.missedObjects);
+            modifiedArgs[data.getListIndexInMethodArgs()] = new ArrayList<Object>(keyObjects);
             return modifiedArgs;
         }
 
@@ -214,6 +328,46 @@ abstract class MultiCacheAdvice extends CacheAdvice {
             return skipNullsInResult;
         }
 
+        public void setAsyncWrite(final boolean asyncWrite) {
+            this.asyncWrite = asyncWrite;
+        }
+
+        public boolean isAsyncWrite() {
+            return asyncWrite;
+        }
+
+        public void setNoReplyWrite(final boolean noReplyWrite) {
+            this.noReplyWrite = noReplyWrite;
+        }
+
+        public boolean isNoReplyWrite() {
+            return noReplyWrite;
+        }
+
+        public void setMaxBatchSize(final int maxBatchSize) {
+            this.maxBatchSize = maxBatchSize;
+        }
+
+        public int getMaxBatchSize() {
+            return maxBatchSize;
+        }
+
+        public void setGetBulkTimeout(final long getBulkTimeout) {
+            this.getBulkTimeout = getBulkTimeout;
+        }
+
+        public long getGetBulkTimeout() {
+            return getBulkTimeout;
+        }
+
+        public void setInvocationChunkSize(final int invocationChunkSize) {
+            this.invocationChunkSize = invocationChunkSize;
+        }
+
+        public int getInvocationChunkSize() {
+            return invocationChunkSize;
+        }
+
         protected List<Object> generateResultList(final boolean allowPartialResult) {
             final List<Object> results = new ArrayList<Object>();
             for (Object keyObject : listKeyObjects) {
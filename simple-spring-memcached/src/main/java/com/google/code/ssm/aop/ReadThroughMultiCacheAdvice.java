@@ -19,8 +19,17 @@
 package com.google.code.ssm.aop;
 
 import java.lang.reflect.Method;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
@@ -29,8 +38,9 @@ import org.aspectj.lang.annotation.Pointcut;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.code.ssm.Cache;
+import com.google.code.ssm.aop.support.AdvicePlan;
 import com.google.code.ssm.aop.support.AnnotationData;
-import com.google.code.ssm.aop.support.AnnotationDataBuilder;
 import com.google.code.ssm.api.ReadThroughMultiCache;
 import com.google.code.ssm.api.ReadThroughMultiCacheOption;
 import com.google.code.ssm.api.format.SerializationType;
@@ -70,27 +80,27 @@ public class ReadThroughMultiCacheAdvice extends MultiCacheAdvice {
         Object[] args = pjp.getArgs();
         try {
             // Get the target method being invoked, and make sure it returns the correct info.
-            final Method methodToCache = getCacheBase().getMethodToCache(pjp);
+            final AdvicePlan<ReadThroughMultiCache> plan = getCacheBase().getAdvicePlan(pjp, ReadThroughMultiCache.class);
+            final Method methodToCache = plan.getMethod();
             getCacheBase().verifyReturnTypeIsList(methodToCache, ReadThroughMultiCache.class);
 
             // Get the annotation associated with this method, and make sure the values are valid.
-            annotation = methodToCache.getAnnotation(ReadThroughMultiCache.class);
-            serializationType = getCacheBase().getSerializationType(methodToCache);
-            data = AnnotationDataBuilder.buildAnnotationData(annotation, ReadThroughMultiCache.class, methodToCache);
+            annotation = plan.getAnnotation();
+            serializationType = plan.getSerializationType();
+            data = plan.getAnnotationData();
             coord = new MultiCacheCoordinator(methodToCache, data);
             setMultiCacheOptions(coord, annotation.option());
 
             // Create key->object and object->key mappings.
-            coord.setHolder(createObjectIdCacheKeyMapping(data, args, coord.getMethod()));
+            coord.setHolder(createObjectIdCacheKeyMapping(data, args, plan.getMethodDesc()));
 
-            List<Object> listKeyObjects = (List<Object>) Utils.getMethodArg(data.getListIndexInMethodArgs(), args, coord.getMethod()
-                    .toString());
+            List<Object> listKeyObjects = (List<Object>) Utils.getMethodArg(data.getListIndexInMethodArgs(), args, plan.getMethodDesc());
             coord.setListKeyObjects(listKeyObjects);
 
-            if(!refreshCache(methodToCache,args)){
+            if (!refreshCache(plan, args)) {
                 // Get the full list of cache keys and ask the cache for the corresponding values.
-                coord.setInitialKey2Result(getCacheBase().getCache(data).getBulk(coord.getKey2Obj().keySet(), serializationType));
-    
+                getInitialResults(coord, serializationType);
+
                 // We've gotten all positive cache results back, so build up a results list and return it.
                 if (coord.getMissedObjects().isEmpty()) {
                     return coord.generateResultList();
@@ -105,6 +115,10 @@ public class ReadThroughMultiCacheAdvice extends MultiCacheAdvice {
             return pjp.proceed();
         }
 
+        if (coord.getInvocationChunkSize() > 0 && coord.getMissedObjects().size() > coord.getInvocationChunkSize()) {
+            return proceedInChunks(pjp, coord, serializationType);
+        }
+
         /*
          * Call the target method with the new subset of arguments. We are calling this outside of the try/catch block
          * in case there are some 'not our fault' problems with the target method. (Connection issues, etc...) Though,
@@ -116,7 +130,7 @@ public class ReadThroughMultiCacheAdvice extends MultiCacheAdvice {
             // there are no results
             if (results == null || results.isEmpty()) {
                 if (coord.isAddNullsToCache()) {
-                    addNullValues(coord.getMissedObjects(), coord, serializationType);
+                    addNullValues(coord, serializationType);
                 }
                 return coord.generatePartialResultList();
             }
@@ -137,25 +151,211 @@ public class ReadThroughMultiCacheAdvice extends MultiCacheAdvice {
         coord.setGenerateKeysFromResult(options.generateKeysFromResult());
         coord.setAddNullsToCache(options.addNullsToCache());
         coord.setSkipNullsInResult(options.skipNullsInResult());
+        coord.setAsyncWrite(options.asyncWrite());
+        coord.setNoReplyWrite(options.noReplyWrite());
+        coord.setMaxBatchSize(options.maxBatchSize());
+        coord.setGetBulkTimeout(options.getBulkTimeout());
+        coord.setInvocationChunkSize(options.invocationChunkSize());
+    }
+
+    private void getInitialResults(final MultiCacheCoordinator coord, final SerializationType serializationType) throws Exception {
+        final Cache cache = getCacheBase().getCache(coord.getAnnotationData());
+        final Set<String> cacheKeys = coord.getKey2Obj().keySet();
+        if (coord.getMaxBatchSize() <= 0 || cacheKeys.size() <= coord.getMaxBatchSize()) {
+            coord.setInitialKey2Result(cache.getBulk(cacheKeys, serializationType, coord.getGetBulkTimeout()));
+            return;
+        }
+
+        final List<List<String>> chunks = Utils.partition(cacheKeys, coord.getMaxBatchSize());
+        final List<Future<Map<String, Object>>> futures = new ArrayList<Future<Map<String, Object>>>(chunks.size() - 1);
+        try {
+            for (final List<String> chunk : chunks.subList(1, chunks.size())) {
+                futures.add(getCacheBase().getBulkExecutor().submit(new Callable<Map<String, Object>>() {
+                    @Override
+                    public Map<String, Object> call() throws Exception {
+                        return cache.getBulk(chunk, serializationType, coord.getGetBulkTimeout());
+                    }
+                }));
+            }
+
+            // the first chunk is got by the current thread, results of other chunks are added as soon as they arrive
+            coord.addInitialKey2Result(cache.getBulk(chunks.get(0), serializationType, coord.getGetBulkTimeout()));
+            for (final Future<Map<String, Object>> future : futures) {
+                coord.addInitialKey2Result(getChunkResult(future));
+            }
+        } finally {
+            for (final Future<Map<String, Object>> future : futures) {
+                future.cancel(true);
+            }
+        }
+
+        coord.initMissedObjects();
+    }
+
+    private Map<String, Object> getChunkResult(final Future<Map<String, Object>> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof Exception) {
+                throw (Exception) ex.getCause();
+            }
+            throw ex;
+        }
+    }
+
+    /**
+     * Invokes intercepted method concurrently for chunks of missed objects, the first chunk is handled by the current
+     * thread.
+     */
+    private Object proceedInChunks(final ProceedingJoinPoint pjp, final MultiCacheCoordinator coord,
+            final SerializationType serializationType) throws Throwable {
+        final List<List<Object>> chunks = Utils.partition(coord.getMissedObjects(), coord.getInvocationChunkSize());
+        final List<Future<ChunkResult>> futures = new ArrayList<Future<ChunkResult>>(chunks.size() - 1);
+        final List<ChunkResult> chunkResults = new ArrayList<ChunkResult>(chunks.size());
+        try {
+            for (final List<Object> chunk : chunks.subList(1, chunks.size())) {
+                futures.add(getCacheBase().getInvocationExecutor().submit(new Callable<ChunkResult>() {
+                    @Override
+                    public ChunkResult call() throws Exception {
+                        try {
+                            return proceedChunk(pjp, chunk, coord, serializationType);
+                        } catch (Exception e) {
+                            throw e;
+                        } catch (Error e) {
+                            throw e;
+                        } catch (Throwable t) {
+                            throw new UndeclaredThrowableException(t);
+                        }
+                    }
+                }));
+            }
+
+            chunkResults.add(proceedChunk(pjp, chunks.get(0), coord, serializationType));
+            for (final Future<ChunkResult> future : futures) {
+                chunkResults.add(getInvocationResult(future));
+            }
+        } finally {
+            for (final Future<ChunkResult> future : futures) {
+                future.cancel(true);
+            }
+        }
+
+        try {
+            // results of chunks that cannot be correlated with keys are returned unsorted
+            final List<Object> unsortedResults = new ArrayList<Object>();
+            for (final ChunkResult chunkResult : chunkResults) {
+                if (chunkResult.key2Result == null) {
+                    unsortedResults.addAll(chunkResult.results);
+                    // objects of the chunk may have data, nulls must not be cached for them
+                    coord.getMissedObjects().removeAll(chunkResult.chunk);
+                    continue;
+                }
+
+                for (final Map.Entry<String, Object> entry : chunkResult.key2Result.entrySet()) {
+                    coord.getKey2Result().put(entry.getKey(), entry.getValue());
+                    coord.getMissedObjects().remove(coord.getKey2Obj().get(entry.getKey()));
+                }
+            }
+
+            if (coord.isAddNullsToCache()) {
+                addNullValues(coord, serializationType);
+            }
+
+            unsortedResults.addAll(coord.generatePartialResultList());
+            return unsortedResults;
+        } catch (Exception ex) {
+            warn(ex, "Caching on %s aborted due to an error. The underlying method will be called twice.", pjp.toShortString());
+            // invoke underlying method again using unmodified arguments array
+            return pjp.proceed(pjp.getArgs());
+        }
+    }
+
+    /**
+     * Invokes intercepted method for given chunk of missed objects and stores the results in cache.
+     */
+    @SuppressWarnings("unchecked")
+    private ChunkResult proceedChunk(final ProceedingJoinPoint pjp, final List<Object> chunk, final MultiCacheCoordinator coord,
+            final SerializationType serializationType) throws Throwable {
+        List<Object> results = (List<Object>) pjp.proceed(coord.createModifiedArgumentList(pjp.getArgs(), chunk));
+        if (results == null) {
+            results = Collections.emptyList();
+        }
+
+        // This is injected caching. If anything goes wrong in the caching, LOG
+        // the crap outta it, but do not let it surface up past the AOP injection itself.
+        try {
+            final Map<String, Object> key2Result = getChunkKey2Result(results, chunk, coord);
+            if (key2Result != null) {
+                setValues(key2Result, coord, serializationType);
+            }
+            return new ChunkResult(chunk, results, key2Result);
+        } catch (Exception ex) {
+            warn(ex, "Caching of chunk on %s aborted due to an error.", pjp.toShortString());
+            return new ChunkResult(chunk, results, null);
+        }
+    }
+
+    /**
+     * 
+     * @return the results mapped by cache keys or null if the results cannot be correlated with the keys
+     */
+    private Map<String, Object> getChunkKey2Result(final List<Object> results, final List<Object> chunk,
+            final MultiCacheCoordinator coord) throws Exception {
+        final Map<String, Object> key2Result = new LinkedHashMap<String, Object>();
+        if (results.isEmpty()) {
+            return key2Result;
+        }
+
+        if (coord.isGenerateKeysFromResult()) {
+            for (final Object resultObject : results) {
+                key2Result.put(getCacheBase().getCacheKeyBuilder().getCacheKey(resultObject, coord.getAnnotationData().getNamespace()),
+                        resultObject);
+            }
+            return key2Result;
+        }
+
+        if (results.size() != chunk.size()) {
+            getLogger().warn(
+                    "Did not receive a correlated amount of data from the target method: {}. "
+                            + "Result list will be unsorted and won't respect the order of the keys passed in argument.",
+                    coord.getMethod().getName());
+            return null;
+        }
+
+        final Iterator<Object> chunkIter = chunk.iterator();
+        for (final Object resultObject : results) {
+            key2Result.put(coord.getObj2Key().get(chunkIter.next()), getCacheBase().getSubmission(resultObject));
+        }
+        return key2Result;
+    }
+
+    private ChunkResult getInvocationResult(final Future<ChunkResult> future) throws Throwable {
+        try {
+            return future.get();
+        } catch (ExecutionException ex) {
+            throw ex.getCause();
+        }
     }
 
     private List<?> generateByKeysFromResult(final List<Object> results, final MultiCacheCoordinator coord,
             final SerializationType serializationType) throws Exception {
         if (!results.isEmpty()) {
             final AnnotationData data = coord.getAnnotationData();
+            final Map<String, Object> toCache = new LinkedHashMap<String, Object>();
             String cacheKey;
 
             for (Object resultObject : results) {
                 cacheKey = getCacheBase().getCacheKeyBuilder().getCacheKey(resultObject, data.getNamespace());
-                getCacheBase().getCache(coord.getAnnotationData()).setSilently(cacheKey, data.getExpiration(), resultObject,
-                        serializationType);
+                toCache.put(cacheKey, resultObject);
                 coord.getMissedObjects().remove(coord.getKey2Obj().get(cacheKey));
                 coord.getKey2Result().put(cacheKey, resultObject);
             }
+
+            setValues(toCache, coord, serializationType);
         }
 
         if (coord.isAddNullsToCache()) {
-            addNullValues(coord.getMissedObjects(), coord, serializationType);
+            addNullValues(coord, serializationType);
         }
 
         return coord.generatePartialResultList();
@@ -172,23 +372,81 @@ public class ReadThroughMultiCacheAdvice extends MultiCacheAdvice {
             return results;
         }
 
+        final Map<String, Object> toCache = new LinkedHashMap<String, Object>();
         Iterator<Object> misssedObjectsIter = coord.getMissedObjects().iterator();
         for (Object resultObject : results) {
             resultObject = getCacheBase().getSubmission(resultObject);
             Object keyObject = misssedObjectsIter.next();
             String cacheKey = coord.getObj2Key().get(keyObject);
-            getCacheBase().getCache(coord.getAnnotationData()).setSilently(cacheKey, coord.getAnnotationData().getExpiration(),
-                    resultObject, serializationType);
+            toCache.put(cacheKey, resultObject);
             coord.getKey2Result().put(cacheKey, resultObject);
 
         }
 
+        setValues(toCache, coord, serializationType);
         return coord.generateResultList();
     }
 
+    private void setValues(final Map<String, Object> toCache, final MultiCacheCoordinator coord,
+            final SerializationType serializationType) {
+        if (!coord.isAsyncWrite()) {
+            setValues(toCache, coord.getAnnotationData(), serializationType, coord.isNoReplyWrite());
+            return;
+        }
+
+        writeInBackground(new Runnable() {
+            @Override
+            public void run() {
+                setValues(toCache, coord.getAnnotationData(), serializationType, coord.isNoReplyWrite());
+            }
+        }, toCache.size());
+    }
+
+    private void addNullValues(final MultiCacheCoordinator coord, final SerializationType serializationType) {
+        if (!coord.isAsyncWrite()) {
+            addNullValues(coord.getMissedObjects(), coord, serializationType);
+            return;
+        }
+
+        if (coord.getMissedObjects().isEmpty()) {
+            return;
+        }
+
+        // the background write cannot see later modifications of missed objects
+        final List<Object> missedObjects = new ArrayList<Object>(coord.getMissedObjects());
+        writeInBackground(new Runnable() {
+            @Override
+            public void run() {
+                addNullValues(missedObjects, coord, serializationType);
+            }
+        }, missedObjects.size());
+    }
+
+    private void writeInBackground(final Runnable write, final int keys) {
+        if (!getCacheBase().executeInBackground(write)) {
+            getLogger().debug("Write of {} keys dropped, too many background tasks", keys);
+        }
+    }
+
     @Override
     protected Logger getLogger() {
         return LOG;
     }
 
+    private static class ChunkResult {
+
+        private final List<Object> chunk;
+
+        private final List<Object> results;
+
+        private final Map<String, Object> key2Result;
+
+        ChunkResult(final List<Object> chunk, final List<Object> results, final Map<String, Object> key2Result) {
+            this.chunk = chunk;
+            this.results = results;
+            this.key2Result = key2Result;
+        }
+
+    }
+
 }
@@ -19,13 +19,24 @@
 package com.google.code.ssm.aop;
 
 import java.lang.annotation.Annotation;
-import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeoutException;
 
 import org.aspectj.lang.ProceedingJoinPoint;
 
+import com.google.code.ssm.Cache;
+import com.google.code.ssm.aop.support.AdvicePlan;
 import com.google.code.ssm.aop.support.AnnotationData;
-import com.google.code.ssm.aop.support.AnnotationDataBuilder;
+import com.google.code.ssm.aop.support.FutureAdapter;
+import com.google.code.ssm.aop.support.FutureAdapter.Callback;
+import com.google.code.ssm.aop.support.InvocationCoalescer;
+import com.google.code.ssm.aop.support.InvocationCoalescer.Invocation;
+import com.google.code.ssm.aop.support.RefreshableValue;
 import com.google.code.ssm.api.format.SerializationType;
+import com.google.code.ssm.providers.CacheException;
 
 /**
  * 
@@ -40,6 +51,11 @@ abstract class SingleReadCacheAdvice<T extends Annotation> extends CacheAdvice {
 
     private final Class<T> annotationClass;
 
+    private final InvocationCoalescer coalescer = new InvocationCoalescer();
+
+    // (cache name, cache key) pairs with early refresh in progress
+    private final ConcurrentMap<List<String>, Boolean> refreshing = new ConcurrentHashMap<List<String>, Boolean>();
+
     protected SingleReadCacheAdvice(final Class<T> annotationClass) {
         this.annotationClass = annotationClass;
     }
@@ -51,40 +67,167 @@ abstract class SingleReadCacheAdvice<T extends Annotation> extends CacheAdvice {
         }
         // This is injected caching. If anything goes wrong in the caching, LOG
         // the crap outta it, but do not let it surface up past the AOP injection itself.
-        final T annotation;
         final AnnotationData data;
         final SerializationType serializationType;
+        final FutureAdapter futureAdapter;
         String cacheKey = null;
         try {
-            final Method methodToCache = getCacheBase().getMethodToCache(pjp);
-            getCacheBase().verifyReturnTypeIsNoVoid(methodToCache, annotationClass);
-            annotation = methodToCache.getAnnotation(annotationClass);
-            serializationType = getCacheBase().getSerializationType(methodToCache);
-            data = AnnotationDataBuilder.buildAnnotationData(annotation, annotationClass, methodToCache);
-            cacheKey = getCacheKey(data, pjp.getArgs(), methodToCache.toString());
-            if(!refreshCache(methodToCache,pjp.getArgs())){
-                final Object result = getCacheBase().getCache(data).get(cacheKey, serializationType);
+            final AdvicePlan<T> plan = getCacheBase().getAdvicePlan(pjp, annotationClass);
+            getCacheBase().verifyReturnTypeIsNoVoid(plan.getMethod(), annotationClass);
+            serializationType = plan.getSerializationType();
+            futureAdapter = plan.getFutureAdapter();
+            data = plan.getAnnotationData();
+            cacheKey = getCacheKey(data, pjp.getArgs(), plan.getMethodDesc());
+            if (!refreshCache(plan, pjp.getArgs())) {
+                final Object result = get(data, cacheKey, serializationType);
                 if (result != null) {
                     getLogger().debug("Cache hit.");
-                    return getCacheBase().getResult(result);
+                    if (data.isEarlyRefresh() && result instanceof RefreshableValue
+                            && ((RefreshableValue) result).isRefreshTime(data.getEarlyRefreshBeta())) {
+                        scheduleRefresh(pjp, data, cacheKey, serializationType, futureAdapter);
+                    }
+                    final Object value = getCacheBase().getResult(result);
+                    return (futureAdapter != null) ? futureAdapter.completed(value) : value;
                 }
             }
         } catch (Exception ex) {
             warn(ex, "Caching on method %s and key [%s] aborted due to an error.", pjp.toShortString(), cacheKey);
             return pjp.proceed();
         }
-     
+
+        if (data.isCoalesceMisses()) {
+            final String key = cacheKey;
+            return coalescer.invoke(data.getCacheName(), cacheKey, data.getCoalesceTimeout(), new Invocation() {
+                @Override
+                public Object invoke() throws Throwable {
+                    return proceedAndCache(pjp, data, key, serializationType, futureAdapter, data.isAsyncWrite());
+                }
+            });
+        }
+
+        return proceedAndCache(pjp, data, cacheKey, serializationType, futureAdapter, data.isAsyncWrite());
+    }
+
+    /**
+     * Invokes intercepted method and stores its result in cache. If the method returns a future the value is stored in
+     * background once the future completes successfully.
+     * 
+     */
+    protected Object proceedAndCache(final ProceedingJoinPoint pjp, final AnnotationData data, final String cacheKey,
+            final SerializationType serializationType, final FutureAdapter futureAdapter, final boolean asyncWrite) throws Throwable {
+        final long start = System.currentTimeMillis();
         final Object result = pjp.proceed();
 
+        if (futureAdapter != null) {
+            if (result != null) {
+                futureAdapter.onSuccess(result, new Callback() {
+                    @Override
+                    public void onSuccess(final Object value) {
+                        // the thread that completed the future shouldn't be blocked by cache I/O
+                        cacheResult(pjp, data, cacheKey, serializationType, value, start, true);
+                    }
+                });
+            }
+            return result;
+        }
+
+        cacheResult(pjp, data, cacheKey, serializationType, result, start, asyncWrite);
+        return result;
+    }
+
+    private void cacheResult(final ProceedingJoinPoint pjp, final AnnotationData data, final String cacheKey,
+            final SerializationType serializationType, final Object result, final long start, final boolean asyncWrite) {
         // This is injected caching. If anything goes wrong in the caching, LOG
         // the crap outta it, but do not let it surface up past the AOP injection itself.
         try {
-            final Object submission = getCacheBase().getSubmission(result);
-            getCacheBase().getCache(data).set(cacheKey, data.getExpiration(), submission, serializationType);
+            Object submission = getCacheBase().getSubmission(result);
+            final int expiration = getCacheBase().getExpiration(data, submission);
+            if (data.isEarlyRefresh()) {
+                submission = RefreshableValue.of(submission, System.currentTimeMillis() - start, expiration);
+            }
+            if (asyncWrite) {
+                scheduleWrite(pjp, data, cacheKey, expiration, submission, serializationType);
+            } else {
+                store(data, cacheKey, expiration, submission, serializationType);
+            }
         } catch (Exception ex) {
             warn(ex, "Caching on method %s and key [%s] aborted due to an error.", pjp.toShortString(), cacheKey);
         }
-        return result;
+    }
+
+    private Object get(final AnnotationData data, final String cacheKey, final SerializationType serializationType)
+            throws TimeoutException, CacheException {
+        final Cache cache = getCacheBase().getCache(data);
+        if (data.isSlidingExpiration()) {
+            return cache.getAndTouch(cacheKey, data.getExpiration(), serializationType);
+        }
+
+        return cache.get(cacheKey, serializationType);
+    }
+
+    private void store(final AnnotationData data, final String cacheKey, final int expiration, final Object submission,
+            final SerializationType serializationType) throws TimeoutException, CacheException {
+        final Cache cache = getCacheBase().getCache(data);
+        if (data.isNoReplyWrite() || cache.getProperties().isNoReplyWrites()) {
+            cache.setWithNoReply(cacheKey, expiration, submission, serializationType);
+        } else {
+            cache.set(cacheKey, expiration, submission, serializationType);
+        }
+    }
+
+    /**
+     * Encodes and stores value in cache in background. If the queue of background tasks is full the value is not
+     * stored.
+     * 
+     */
+    protected void scheduleWrite(final ProceedingJoinPoint pjp, final AnnotationData data, final String cacheKey, final int expiration,
+            final Object submission, final SerializationType serializationType) {
+        final boolean scheduled = getCacheBase().executeInBackground(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    store(data, cacheKey, expiration, submission, serializationType);
+                } catch (Exception ex) {
+                    warn(ex, "Caching on method %s and key [%s] aborted due to an error.", pjp.toShortString(), cacheKey);
+                }
+            }
+        });
+
+        if (!scheduled) {
+            getLogger().debug("Write of key [{}] dropped, too many background tasks", cacheKey);
+        }
+    }
+
+    /**
+     * Recomputes cached value in background. Only one refresh of given key can be in progress, if the queue of
+     * background tasks is full the refresh is skipped.
+     * 
+     */
+    protected void scheduleRefresh(final ProceedingJoinPoint pjp, final AnnotationData data, final String cacheKey,
+            final SerializationType serializationType, final FutureAdapter futureAdapter) {
+        final List<String> refreshKey = Arrays.asList(data.getCacheName(), cacheKey);
+        if (refreshing.putIfAbsent(refreshKey, Boolean.TRUE) != null) {
+            return;
+        }
+
+        final boolean scheduled = getCacheBase().executeInBackground(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    // already in background thread so store the value synchronously
+                    proceedAndCache(pjp, data, cacheKey, serializationType, futureAdapter, false);
+                } catch (Throwable ex) {
+                    getLogger().warn(String.format("Early refresh on method %s and key [%s] failed.", pjp.toShortString(), cacheKey), ex);
+                } finally {
+                    refreshing.remove(refreshKey);
+                }
+            }
+        });
+
+        if (!scheduled) {
+            refreshing.remove(refreshKey);
+            getLogger().debug("Early refresh of key [{}] skipped, too many background tasks", cacheKey);
+        }
     }
 
     protected abstract String getCacheKey(final AnnotationData data, final Object[] args, final String methodDesc) throws Exception;
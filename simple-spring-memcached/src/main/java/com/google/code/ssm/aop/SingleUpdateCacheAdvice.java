@@ -19,12 +19,12 @@
 package com.google.code.ssm.aop;
 
 import java.lang.annotation.Annotation;
-import java.lang.reflect.Method;
 
 import org.aspectj.lang.JoinPoint;
 
+import com.google.code.ssm.aop.support.AdvicePlan;
 import com.google.code.ssm.aop.support.AnnotationData;
-import com.google.code.ssm.aop.support.AnnotationDataBuilder;
+import com.google.code.ssm.aop.support.FutureAdapter.Callback;
 import com.google.code.ssm.api.format.SerializationType;
 
 /**
@@ -53,22 +53,64 @@ abstract class SingleUpdateCacheAdvice<T extends Annotation> extends CacheAdvice
         // For Update*Cache, an AfterReturning aspect is fine. We will only
         // apply our caching after the underlying method completes successfully, and we will have
         // the same access to the method params.
+        final AdvicePlan<T> plan;
+        try {
+            plan = getCacheBase().getAdvicePlan(jp, annotationClass);
+        } catch (Exception ex) {
+            warn(ex, "Caching on method %s aborted due to an error.", jp.toShortString());
+            return;
+        }
+
+        if (plan.getFutureAdapter() != null) {
+            // update cache only if the returned future completes successfully
+            if (retVal != null) {
+                plan.getFutureAdapter().onSuccess(retVal, new Callback() {
+                    @Override
+                    public void onSuccess(final Object value) {
+                        scheduleUpdate(jp, plan, value);
+                    }
+                });
+            }
+            return;
+        }
+
+        update(jp, plan, retVal);
+    }
+
+    /**
+     * Updates cache in background, the thread that completed the future shouldn't be blocked by cache I/O. If the
+     * queue of background tasks is full the cache is updated by the current thread.
+     * 
+     */
+    private void scheduleUpdate(final JoinPoint jp, final AdvicePlan<T> plan, final Object value) {
+        final boolean scheduled = getCacheBase().executeInBackground(new Runnable() {
+            @Override
+            public void run() {
+                update(jp, plan, value);
+            }
+        });
+
+        if (!scheduled) {
+            getLogger().debug("Too many background tasks, cache is updated synchronously");
+            update(jp, plan, value);
+        }
+    }
+
+    private void update(final JoinPoint jp, final AdvicePlan<T> plan, final Object retVal) {
         String cacheKey = null;
         try {
-            final Method methodToCache = getCacheBase().getMethodToCache(jp);
-            final T annotation = methodToCache.getAnnotation(annotationClass);
-            final AnnotationData data = AnnotationDataBuilder.buildAnnotationData(annotation, annotationClass, methodToCache);
+            final AnnotationData data = plan.getAnnotationData();
 
             if (data.isReturnKeyIndex()) {
                 cacheKey = getCacheBase().getCacheKeyBuilder().getCacheKey(retVal, data.getNamespace());
             } else {
-                cacheKey = getCacheKey(data, jp.getArgs(), methodToCache.toString());
+                cacheKey = getCacheKey(data, jp.getArgs(), plan.getMethodDesc());
             }
 
-            final Object dataObject = getCacheBase().<Object> getUpdateData(data, methodToCache, jp.getArgs(), retVal);
-            final SerializationType serializationType = getCacheBase().getSerializationType(methodToCache);
+            final Object dataObject = getCacheBase().<Object> getUpdateData(data, plan.getMethod(), jp.getArgs(), retVal);
+            final SerializationType serializationType = plan.getSerializationType();
             final Object submission = getCacheBase().getSubmission(dataObject);
-            getCacheBase().getCache(data).set(cacheKey, data.getExpiration(), submission, serializationType);
+            getCacheBase().getCache(data).set(cacheKey, getCacheBase().getExpiration(data, submission), submission, serializationType);
         } catch (Exception ex) {
             warn(ex, "Caching on method %s and key [%s] aborted due to an error.", jp.toShortString(), cacheKey);
         }
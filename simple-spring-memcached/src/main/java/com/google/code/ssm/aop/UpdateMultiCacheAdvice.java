@@ -33,8 +33,8 @@ import org.aspectj.lang.annotation.Pointcut;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.code.ssm.aop.support.AdvicePlan;
 import com.google.code.ssm.aop.support.AnnotationData;
-import com.google.code.ssm.aop.support.AnnotationDataBuilder;
 import com.google.code.ssm.aop.support.InvalidAnnotationException;
 import com.google.code.ssm.api.UpdateMultiCache;
 import com.google.code.ssm.api.UpdateMultiCacheOption;
@@ -67,11 +67,12 @@ public class UpdateMultiCacheAdvice extends MultiCacheAdvice {
         // apply our caching after the underlying method completes successfully, and we will have
         // the same access to the method params.
         try {
-            final Method methodToCache = getCacheBase().getMethodToCache(jp);
-            final UpdateMultiCache annotation = methodToCache.getAnnotation(UpdateMultiCache.class);
-            final AnnotationData data = AnnotationDataBuilder.buildAnnotationData(annotation, UpdateMultiCache.class, methodToCache);
+            final AdvicePlan<UpdateMultiCache> plan = getCacheBase().getAdvicePlan(jp, UpdateMultiCache.class);
+            final Method methodToCache = plan.getMethod();
+            final UpdateMultiCache annotation = plan.getAnnotation();
+            final AnnotationData data = plan.getAnnotationData();
             final List<Object> dataList = getCacheBase().<List<Object>> getUpdateData(data, methodToCache, jp.getArgs(), retVal);
-            final SerializationType serializationType = getCacheBase().getSerializationType(methodToCache);
+            final SerializationType serializationType = plan.getSerializationType();
             final MultiCacheCoordinator coord = new MultiCacheCoordinator(methodToCache, data);
             coord.setAddNullsToCache(annotation.option().addNullsToCache());
 
@@ -83,10 +84,10 @@ public class UpdateMultiCacheAdvice extends MultiCacheAdvice {
                 cacheKeys = getCacheBase().getCacheKeyBuilder().getCacheKeys(keyObjects, data.getNamespace());
             } else {
                 // Create key->object and object->key mappings.
-                coord.setHolder(createObjectIdCacheKeyMapping(coord.getAnnotationData(), jp.getArgs(), coord.getMethod()));
+                coord.setHolder(createObjectIdCacheKeyMapping(coord.getAnnotationData(), jp.getArgs(), plan.getMethodDesc()));
                 @SuppressWarnings("unchecked")
                 List<Object> listKeyObjects = (List<Object>) Utils.getMethodArg(data.getListIndexInMethodArgs(), jp.getArgs(),
-                        methodToCache.toString());
+                        plan.getMethodDesc());
                 coord.setListKeyObjects(listKeyObjects);
                 // keySet is sorted
                 cacheKeys = new ArrayList<String>(coord.getKey2Obj().keySet());
@@ -134,16 +135,14 @@ public class UpdateMultiCacheAdvice extends MultiCacheAdvice {
                     "The key generation objects, and the resulting objects do not match in size for [%s].", methodToCache.toString()));
         }
 
+        final Map<String, Object> toCache = new HashMap<String, Object>();
         Iterator<Object> returnListIter = returnList.iterator();
         Iterator<String> cacheKeyIter = cacheKeys.iterator();
-        String cacheKey;
-        Object result, cacheObject;
         while (returnListIter.hasNext()) {
-            result = returnListIter.next();
-            cacheKey = cacheKeyIter.next();
-            cacheObject = getCacheBase().getSubmission(result);
-            getCacheBase().getCache(data).setSilently(cacheKey, data.getExpiration(), cacheObject, serializationType);
+            toCache.put(cacheKeyIter.next(), getCacheBase().getSubmission(returnListIter.next()));
         }
+
+        setValues(toCache, data, serializationType);
     }
 
     private void updateCacheWithMissed(final List<Object> dataUpdateContents, final MultiCacheCoordinator coord,
@@ -151,15 +150,17 @@ public class UpdateMultiCacheAdvice extends MultiCacheAdvice {
         if (!dataUpdateContents.isEmpty()) {
             List<String> cacheKeys = getCacheBase().getCacheKeyBuilder().getCacheKeys(dataUpdateContents,
                     coord.getAnnotationData().getNamespace());
+            final Map<String, Object> toCache = new HashMap<String, Object>();
             String cacheKey;
 
             Iterator<String> iter = cacheKeys.iterator();
             for (Object resultObject : dataUpdateContents) {
                 cacheKey = iter.next();
-                getCacheBase().getCache(coord.getAnnotationData()).setSilently(cacheKey, coord.getAnnotationData().getExpiration(),
-                        resultObject, serializationType);
+                toCache.put(cacheKey, resultObject);
                 coord.getMissedObjects().remove(coord.getKey2Obj().get(cacheKey));
             }
+            getCacheBase().getCache(coord.getAnnotationData()).setBulkSilently(toCache, coord.getAnnotationData().getExpiration(),
+                    serializationType);
         }
 
         if (option.overwriteNoNulls()) {
@@ -17,8 +17,6 @@
 
 package com.google.code.ssm.aop.counter;
 
-import java.lang.reflect.Method;
-
 import org.aspectj.lang.JoinPoint;
 import org.aspectj.lang.annotation.AfterReturning;
 import org.aspectj.lang.annotation.Aspect;
@@ -26,8 +24,8 @@ import org.aspectj.lang.annotation.Pointcut;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.code.ssm.aop.support.AdvicePlan;
 import com.google.code.ssm.aop.support.AnnotationData;
-import com.google.code.ssm.aop.support.AnnotationDataBuilder;
 import com.google.code.ssm.api.counter.DecrementCounterInCache;
 
 /**
@@ -58,11 +56,17 @@ public class DecrementCounterInCacheAdvice extends CounterInCacheBase {
         String cacheKey = null;
         DecrementCounterInCache annotation;
         try {
-            Method methodToCache = getCacheBase().getMethodToCache(jp);
-            annotation = methodToCache.getAnnotation(DecrementCounterInCache.class);
-            AnnotationData data = AnnotationDataBuilder.buildAnnotationData(annotation, DecrementCounterInCache.class, methodToCache);
-            cacheKey = getCacheBase().getCacheKeyBuilder().getCacheKey(data, jp.getArgs(), methodToCache.toString());
-            getCacheBase().getCache(data).decr(cacheKey, 1);
+            AdvicePlan<DecrementCounterInCache> plan = getCacheBase().getAdvicePlan(jp, DecrementCounterInCache.class);
+            annotation = plan.getAnnotation();
+            AnnotationData data = plan.getAnnotationData();
+            cacheKey = getCacheBase().getCacheKeyBuilder().getCacheKey(data, jp.getArgs(), plan.getMethodDesc());
+            if (annotation.batched()) {
+                getCacheBase().getCounterBatcher().add(getCacheBase().getCache(data), cacheKey, -1);
+            } else if (annotation.shards() > 1) {
+                getCacheBase().getCache(data).decrSharded(cacheKey, 1, annotation.shards());
+            } else {
+                getCacheBase().getCache(data).decr(cacheKey, 1);
+            }
         } catch (Exception ex) {
             warn(ex, "Decrementing counter [%s] via %s aborted due to an error.", cacheKey, jp.toShortString());
         }
@@ -26,8 +26,8 @@ import org.aspectj.lang.annotation.Pointcut;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.code.ssm.aop.support.AdvicePlan;
 import com.google.code.ssm.aop.support.AnnotationData;
-import com.google.code.ssm.aop.support.AnnotationDataBuilder;
 import com.google.code.ssm.api.counter.ReadCounterFromCache;
 
 /**
@@ -60,12 +60,14 @@ public class ReadCounterFromCacheAdvice extends CounterInCacheBase {
         ReadCounterFromCache annotation;
         AnnotationData data;
         try {
-            Method methodToCache = getCacheBase().getMethodToCache(pjp);
+            AdvicePlan<ReadCounterFromCache> plan = getCacheBase().getAdvicePlan(pjp, ReadCounterFromCache.class);
+            Method methodToCache = plan.getMethod();
             verifyMethodSignature(methodToCache);
-            annotation = methodToCache.getAnnotation(ReadCounterFromCache.class);
-            data = AnnotationDataBuilder.buildAnnotationData(annotation, ReadCounterFromCache.class, methodToCache);
-            cacheKey = getCacheBase().getCacheKeyBuilder().getCacheKey(data, pjp.getArgs(), methodToCache.toString());
-            Long result = getCacheBase().getCache(data).getCounter(cacheKey);
+            annotation = plan.getAnnotation();
+            data = plan.getAnnotationData();
+            cacheKey = getCacheBase().getCacheKeyBuilder().getCacheKey(data, pjp.getArgs(), plan.getMethodDesc());
+            Long result = (annotation.shards() > 1) ? getCacheBase().getCache(data).getShardedCounter(cacheKey, annotation.shards())
+                    : getCacheBase().getCache(data).getCounter(cacheKey);
 
             if (result != null) {
                 getLogger().debug("Cache hit.");
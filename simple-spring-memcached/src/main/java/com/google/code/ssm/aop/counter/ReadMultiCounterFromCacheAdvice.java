@@ -0,0 +1,214 @@
+/*
+ * Copyright (c) 2015 Jakub Białek
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.aop.counter;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Pointcut;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.code.ssm.Cache;
+import com.google.code.ssm.aop.support.AdvicePlan;
+import com.google.code.ssm.aop.support.AnnotationData;
+import com.google.code.ssm.api.counter.ReadMultiCounterFromCache;
+import com.google.code.ssm.util.Utils;
+
+/**
+ * 
+ * @author Jakub Białek
+ * @since 3.6.0
+ * 
+ */
+@Aspect
+public class ReadMultiCounterFromCacheAdvice extends CounterInCacheBase {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ReadMultiCounterFromCacheAdvice.class);
+
+    @Pointcut("@annotation(com.google.code.ssm.api.counter.ReadMultiCounterFromCache)")
+    public void readMultiCounter() {
+        /* pointcut definition */
+    }
+
+    @Around("readMultiCounter()")
+    @SuppressWarnings("unchecked")
+    public Object readCounters(final ProceedingJoinPoint pjp) throws Throwable {
+        if (isDisabled()) {
+            getLogger().info("Cache disabled");
+            return pjp.proceed();
+        }
+
+        // This is injected caching. If anything goes wrong in the caching, LOG
+        // the crap outta it, but do not let it surface up past the AOP injection itself.
+        final ReadMultiCounterFromCache annotation;
+        final AnnotationData data;
+        final Method methodToCache;
+        final List<Object> keyObjects;
+        final Map<Object, String> obj2Key = new LinkedHashMap<Object, String>();
+        final Map<String, Long> key2Counter = new HashMap<String, Long>();
+        final List<Object> missedObjects = new ArrayList<Object>();
+        final Object[] args = pjp.getArgs();
+        final Object[] modifiedArgs;
+        try {
+            AdvicePlan<ReadMultiCounterFromCache> plan = getCacheBase().getAdvicePlan(pjp, ReadMultiCounterFromCache.class);
+            methodToCache = plan.getMethod();
+            verifyMethodSignature(methodToCache);
+            annotation = plan.getAnnotation();
+            data = plan.getAnnotationData();
+
+            keyObjects = (List<Object>) Utils.getMethodArg(data.getListIndexInMethodArgs(), args, plan.getMethodDesc());
+            final Iterator<String> cacheKeysIter = getCacheBase().getCacheKeyBuilder().getCacheKeys(data, args, plan.getMethodDesc())
+                    .iterator();
+            for (Object keyObject : keyObjects) {
+                final String cacheKey = cacheKeysIter.next();
+                if (!obj2Key.containsKey(keyObject)) {
+                    obj2Key.put(keyObject, cacheKey);
+                }
+            }
+
+            key2Counter.putAll(getCacheBase().getCache(data).getCounters(new LinkedHashSet<String>(obj2Key.values())));
+            for (Map.Entry<Object, String> entry : obj2Key.entrySet()) {
+                if (key2Counter.get(entry.getValue()) == null) {
+                    missedObjects.add(entry.getKey());
+                }
+            }
+
+            if (missedObjects.isEmpty()) {
+                getLogger().debug("Cache hit.");
+                return generateResultList(methodToCache, keyObjects, obj2Key, key2Counter);
+            }
+
+            // the method is invoked only for missed counters, do not modify directly argument array from join point
+            modifiedArgs = new Object[args.length];
+            System.arraycopy(args, 0, modifiedArgs, 0, args.length);
+            modifiedArgs[data.getListIndexInMethodArgs()] = new ArrayList<Object>(missedObjects);
+        } catch (Exception ex) {
+            warn(ex, "Caching on method %s aborted due to an error.", pjp.toShortString());
+            return pjp.proceed();
+        }
+
+        final List<Object> results = (List<Object>) pjp.proceed(modifiedArgs);
+
+        // This is injected caching. If anything goes wrong in the caching, LOG
+        // the crap outta it, but do not let it surface up past the AOP injection itself.
+        try {
+            if (results == null || results.size() != missedObjects.size()) {
+                getLogger().warn("Did not receive a correlated amount of data from the target method: {}. "
+                        + "The underlying method will be called twice.", methodToCache.getName());
+                return pjp.proceed(args);
+            }
+
+            final Map<String, Long> toInit = new LinkedHashMap<String, Long>();
+            final Iterator<Object> missedObjectsIter = missedObjects.iterator();
+            for (Object result : results) {
+                final String cacheKey = obj2Key.get(missedObjectsIter.next());
+                if (checkData(result, pjp)) {
+                    toInit.put(cacheKey, ((Number) result).longValue());
+                }
+            }
+
+            initCounters(getCacheBase().getCache(data), toInit, annotation.expiration());
+            key2Counter.putAll(toInit);
+            return generateResultList(methodToCache, keyObjects, obj2Key, key2Counter);
+        } catch (Exception ex) {
+            warn(ex, "Caching on %s aborted due to an error. The underlying method will be called twice.", pjp.toShortString());
+            return pjp.proceed(args);
+        }
+    }
+
+    protected void verifyMethodSignature(final Method methodToCache) {
+        final Class<?> elementType = getElementType(methodToCache);
+        if (!List.class.isAssignableFrom(methodToCache.getReturnType()) || elementType != null && !isReturnTypeSupported(elementType)) {
+            throw new RuntimeException(String.format("Wrong method return type %s", methodToCache.toString()));
+        }
+    }
+
+    protected Number convertResult(final Method method, final long result) {
+        if (Integer.class.equals(getElementType(method))) {
+            return (int) result;
+        } else {
+            return result;
+        }
+    }
+
+    @Override
+    protected Logger getLogger() {
+        return LOG;
+    }
+
+    /**
+     * Initializes all counters in one batch, requests are sent before waiting for any response.
+     */
+    private void initCounters(final Cache cache, final Map<String, Long> toInit, final int expiration) {
+        final Map<String, Future<Long>> futures = new LinkedHashMap<String, Future<Long>>();
+        for (Map.Entry<String, Long> entry : toInit.entrySet()) {
+            // tricky way to initialize counter
+            futures.put(entry.getKey(), cache.asyncIncr(entry.getKey(), 0, entry.getValue(), expiration));
+        }
+
+        for (Map.Entry<String, Future<Long>> entry : futures.entrySet()) {
+            try {
+                entry.getValue().get();
+            } catch (InterruptedException ex) {
+                warn(ex, "Initialization of counter [%s] aborted due to an error.", entry.getKey());
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException ex) {
+                warn(ex, "Initialization of counter [%s] aborted due to an error.", entry.getKey());
+            }
+        }
+    }
+
+    private List<Number> generateResultList(final Method method, final List<Object> keyObjects, final Map<Object, String> obj2Key,
+            final Map<String, Long> key2Counter) {
+        final List<Number> results = new ArrayList<Number>(keyObjects.size());
+        for (Object keyObject : keyObjects) {
+            final Long counter = key2Counter.get(obj2Key.get(keyObject));
+            results.add((counter == null) ? null : convertResult(method, counter));
+        }
+
+        return results;
+    }
+
+    private Class<?> getElementType(final Method method) {
+        final Type returnType = method.getGenericReturnType();
+        if (returnType instanceof ParameterizedType) {
+            final Type elementType = ((ParameterizedType) returnType).getActualTypeArguments()[0];
+            if (elementType instanceof Class) {
+                return (Class<?>) elementType;
+            }
+        }
+
+        return null;
+    }
+
+}
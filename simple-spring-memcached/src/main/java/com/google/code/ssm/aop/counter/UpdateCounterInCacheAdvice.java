@@ -17,8 +17,6 @@
 
 package com.google.code.ssm.aop.counter;
 
-import java.lang.reflect.Method;
-
 import org.aspectj.lang.JoinPoint;
 import org.aspectj.lang.annotation.AfterReturning;
 import org.aspectj.lang.annotation.Aspect;
@@ -26,8 +24,8 @@ import org.aspectj.lang.annotation.Pointcut;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.code.ssm.aop.support.AdvicePlan;
 import com.google.code.ssm.aop.support.AnnotationData;
-import com.google.code.ssm.aop.support.AnnotationDataBuilder;
 import com.google.code.ssm.api.counter.UpdateCounterInCache;
 
 /**
@@ -59,15 +57,19 @@ public class UpdateCounterInCacheAdvice extends CounterInCacheBase {
         String cacheKey = null;
         UpdateCounterInCache annotation;
         try {
-            Method methodToCache = getCacheBase().getMethodToCache(jp);
-            annotation = methodToCache.getAnnotation(UpdateCounterInCache.class);
-            AnnotationData data = AnnotationDataBuilder.buildAnnotationData(annotation, UpdateCounterInCache.class, methodToCache);
-            cacheKey = getCacheBase().getCacheKeyBuilder().getCacheKey(data, jp.getArgs(), methodToCache.toString());
+            AdvicePlan<UpdateCounterInCache> plan = getCacheBase().getAdvicePlan(jp, UpdateCounterInCache.class);
+            annotation = plan.getAnnotation();
+            AnnotationData data = plan.getAnnotationData();
+            cacheKey = getCacheBase().getCacheKeyBuilder().getCacheKey(data, jp.getArgs(), plan.getMethodDesc());
 
-            Object dataObject = getCacheBase().getUpdateData(data, methodToCache, jp.getArgs(), retVal);
+            Object dataObject = getCacheBase().getUpdateData(data, plan.getMethod(), jp.getArgs(), retVal);
             if (checkData(dataObject, jp)) {
                 long value = ((Number) dataObject).longValue();
-                getCacheBase().getCache(data).setCounter(cacheKey, annotation.expiration(), value);
+                if (annotation.shards() > 1) {
+                    getCacheBase().getCache(data).setShardedCounter(cacheKey, annotation.expiration(), value, annotation.shards());
+                } else {
+                    getCacheBase().getCache(data).setCounter(cacheKey, annotation.expiration(), value);
+                }
             }
         } catch (Exception ex) {
             warn(ex, "Updating counter [%s] in cache via %s aborted due to an error.", cacheKey, jp.toShortString());
@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2015 Jakub Białek
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.aop.support;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.security.InvalidParameterException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.google.code.ssm.api.CacheKeyMethod;
+
+/**
+ * Key provider that resolves a key accessor only once per class of key object. Objects of classes that don't define
+ * {@link CacheKeyMethod} (including {@link String}, {@link Long}, {@link Integer} and enums) are converted to key
+ * using direct {@link Object#toString()} call, no reflection is involved. Reflection is used only for methods annotated
+ * by {@link CacheKeyMethod}, in such case the access check is suppressed once when accessor is created.
+ * 
+ * @author Jakub Białek
+ * @since 3.6.0
+ * 
+ */
+public class AccessorKeyProvider extends DefaultKeyProvider {
+
+    private static final KeyAccessor STRING_ACCESSOR = new KeyAccessor() {
+        @Override
+        public String getKey(final Object keyObject) {
+            return (String) keyObject;
+        }
+    };
+
+    private static final KeyAccessor TO_STRING_ACCESSOR = new KeyAccessor() {
+        @Override
+        public String getKey(final Object keyObject) {
+            return keyObject.toString();
+        }
+    };
+
+    private final Map<Class<?>, KeyAccessor> accessors = new ConcurrentHashMap<Class<?>, KeyAccessor>();
+
+    public AccessorKeyProvider() {
+        accessors.put(String.class, STRING_ACCESSOR);
+        accessors.put(Long.class, TO_STRING_ACCESSOR);
+        accessors.put(Integer.class, TO_STRING_ACCESSOR);
+    }
+
+    @Override
+    public void setMethodStore(final CacheKeyMethodStore methodStore) {
+        super.setMethodStore(methodStore);
+        accessors.keySet().retainAll(Arrays.asList(String.class, Long.class, Integer.class));
+    }
+
+    @Override
+    public String generateKey(final Object keyObject) {
+        if (keyObject == null) {
+            throw new InvalidParameterException("keyObject must be defined");
+        }
+
+        final String objectId;
+        try {
+            objectId = getKeyAccessor(keyObject.getClass()).getKey(keyObject);
+        } catch (RuntimeException ex) {
+            throw ex;
+        } catch (Exception ex) {
+            throw new RuntimeException(ex);
+        }
+
+        if (objectId == null || objectId.length() < 1) {
+            throw new RuntimeException("Got an empty key value from " + keyObject.getClass().getName());
+        }
+
+        return objectId;
+    }
+
+    KeyAccessor getKeyAccessor(final Class<?> keyClass) throws NoSuchMethodException {
+        KeyAccessor accessor = accessors.get(keyClass);
+        if (accessor == null) {
+            accessor = createKeyAccessor(keyClass);
+            accessors.put(keyClass, accessor);
+        }
+
+        return accessor;
+    }
+
+    private KeyAccessor createKeyAccessor(final Class<?> keyClass) throws NoSuchMethodException {
+        final Method keyMethod = getMethodStore().getKeyMethod(keyClass);
+        if (CacheKeyMethodStoreImpl.DEFAULT_KEY_METHOD_NAME.equals(keyMethod.getName()) && keyMethod.getParameterTypes().length == 0) {
+            return TO_STRING_ACCESSOR;
+        }
+
+        return new MethodKeyAccessor(keyMethod);
+    }
+
+    interface KeyAccessor {
+
+        String getKey(final Object keyObject) throws Exception;
+
+    }
+
+    private static class MethodKeyAccessor implements KeyAccessor {
+
+        private final Method method;
+
+        MethodKeyAccessor(final Method method) {
+            this.method = method;
+            try {
+                method.setAccessible(true);
+            } catch (SecurityException ex) {
+                // access check cannot be suppressed, method will be invoked with access check
+            }
+        }
+
+        @Override
+        public String getKey(final Object keyObject) throws Exception {
+            try {
+                return (String) method.invoke(keyObject, (Object[]) null);
+            } catch (InvocationTargetException ex) {
+                if (ex.getCause() instanceof Exception) {
+                    throw (Exception) ex.getCause();
+                }
+                throw ex;
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2015 Jakub Białek
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.aop.support;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+
+import lombok.Getter;
+
+import com.google.code.ssm.api.RefreshCache;
+import com.google.code.ssm.api.format.SerializationType;
+
+/**
+ * Immutable, precompiled metadata of an intercepted method. All data required by cache advices that can be resolved
+ * using reflection (target method, cache annotation, annotation data, serialization type, index of {@link RefreshCache}
+ * parameter, adapter of returned future) is computed once per target class and method and reused on each invocation.
+ * 
+ * @author Jakub Białek
+ * @since 3.6.0
+ * 
+ * @param <T>
+ *            the type of SSM annotation
+ */
+@Getter
+public class AdvicePlan<T extends Annotation> {
+
+    public static final int NO_REFRESH_CACHE_INDEX = -1;
+
+    private final Method method;
+
+    private final T annotation;
+
+    private final AnnotationData annotationData;
+
+    private final SerializationType serializationType;
+
+    private final int refreshCacheIndex;
+
+    /**
+     * Cached result of {@link Method#toString()}, used as method description in cache key generation and error
+     * messages.
+     */
+    private final String methodDesc;
+
+    /**
+     * Adapter of future returned by the method, null if the method doesn't return a supported future.
+     */
+    private final FutureAdapter futureAdapter;
+
+    public AdvicePlan(final Method method, final T annotation, final AnnotationData annotationData,
+            final SerializationType serializationType) {
+        this(method, annotation, annotationData, serializationType, null);
+    }
+
+    public AdvicePlan(final Method method, final T annotation, final AnnotationData annotationData,
+            final SerializationType serializationType, final FutureAdapter futureAdapter) {
+        this.method = method;
+        this.annotation = annotation;
+        this.annotationData = annotationData;
+        this.serializationType = serializationType;
+        this.refreshCacheIndex = findRefreshCacheIndex(method);
+        this.methodDesc = method.toString();
+        this.futureAdapter = futureAdapter;
+    }
+
+    /**
+     * Checks if cached value should be refreshed during this invocation. It's true only if method has a parameter
+     * annotated by {@link RefreshCache} and value of this parameter is {@link Boolean#TRUE}.
+     * 
+     * @param args
+     *            the arguments of intercepted method
+     * @return true if value should not be read from cache but refreshed
+     */
+    public boolean isRefreshCache(final Object[] args) {
+        if (refreshCacheIndex == NO_REFRESH_CACHE_INDEX) {
+            return false;
+        }
+
+        final Object obj = args[refreshCacheIndex];
+        return obj instanceof Boolean && (Boolean) obj;
+    }
+
+    private static int findRefreshCacheIndex(final Method method) {
+        final Annotation[][] annotations = method.getParameterAnnotations();
+        for (int i = 0; i < annotations.length; i++) {
+            for (final Annotation annotation : annotations[i]) {
+                if (RefreshCache.class.equals(annotation.annotationType())) {
+                    return i;
+                }
+            }
+        }
+
+        return NO_REFRESH_CACHE_INDEX;
+    }
+
+}
@@ -45,9 +45,17 @@ public class AnnotationData {
     private int listIndexInKeys = DEFAULT_INTEGER;
     private int listIndexInMethodArgs = DEFAULT_INTEGER;
     private int expiration = 0;
+    private int negativeExpiration = -1;
     private String className = "";
     private String assignedKey = "";
     private String cacheName = AnnotationConstants.DEFAULT_CACHE_NAME;
+    private boolean coalesceMisses;
+    private long coalesceTimeout;
+    private boolean earlyRefresh;
+    private double earlyRefreshBeta;
+    private boolean asyncWrite;
+    private boolean noReplyWrite;
+    private boolean slidingExpiration;
 
     public boolean isReturnDataIndex() {
         return dataIndex == RETURN_INDEX;
@@ -30,6 +30,8 @@ import com.google.code.ssm.aop.support.builder.ExpirationBuilder;
 import com.google.code.ssm.aop.support.builder.KeyIndexesBuilder;
 import com.google.code.ssm.aop.support.builder.ListKeyIndexBuilder;
 import com.google.code.ssm.aop.support.builder.NamespaceBuilder;
+import com.google.code.ssm.aop.support.builder.NegativeExpirationBuilder;
+import com.google.code.ssm.aop.support.builder.ReadThroughOptionBuilder;
 
 /**
  * 
@@ -41,7 +43,8 @@ public class AnnotationDataBuilder {
 
     // order is important because some builders require other to prepare annotation data
     private static final AbstractDataBuilder[] BUILDERS = { new ClassNameBuilder(), new CacheNameBuilder(), new KeyIndexesBuilder(),
-            new DataIndexBuilder(), new ExpirationBuilder(), new NamespaceBuilder(), new AssignedKeyBuilder(), new ListKeyIndexBuilder() };
+            new DataIndexBuilder(), new ExpirationBuilder(), new NamespaceBuilder(), new AssignedKeyBuilder(), new ListKeyIndexBuilder(),
+            new ReadThroughOptionBuilder(), new NegativeExpirationBuilder() };
 
     private AnnotationDataBuilder() {
 
@@ -21,6 +21,7 @@ import java.security.InvalidParameterException;
 import java.util.ArrayList;
 import java.util.List;
 
+import com.google.code.ssm.NamespaceVersionManager;
 import com.google.code.ssm.util.Utils;
 
 /**
@@ -35,7 +36,11 @@ public class CacheKeyBuilderImpl implements CacheKeyBuilder { // NO_UCD
 
     private static final String ID_SEPARATOR = "/";
 
-    private KeyProvider defaultKeyProvider = new DefaultKeyProvider();
+    private static final String VERSION_SEPARATOR = "@";
+
+    private KeyProvider defaultKeyProvider = new AccessorKeyProvider();
+
+    private NamespaceVersionManager namespaceVersionManager;
 
     public void setDefaultKeyProvider(final KeyProvider defaultKeyProvider) {
         this.defaultKeyProvider = defaultKeyProvider;
@@ -45,6 +50,21 @@ public class CacheKeyBuilderImpl implements CacheKeyBuilder { // NO_UCD
         return this.defaultKeyProvider;
     }
 
+    /**
+     * 
+     * @param namespaceVersionManager
+     *            the manager of namespace versions, if set current version of versioned namespace is added to the
+     *            namespace in cache keys
+     * @since 3.6.0
+     */
+    public void setNamespaceVersionManager(final NamespaceVersionManager namespaceVersionManager) {
+        this.namespaceVersionManager = namespaceVersionManager;
+    }
+
+    public NamespaceVersionManager getNamespaceVersionManager() {
+        return this.namespaceVersionManager;
+    }
+
     @Override
     public String getCacheKey(final AnnotationData data, final Object[] args, final String methodDesc) throws Exception {
         final Object[] keysObjects = Utils.getMethodArgs(data.getKeyIndexes(), args, methodDesc);
@@ -60,15 +80,16 @@ public class CacheKeyBuilderImpl implements CacheKeyBuilder { // NO_UCD
      */
     @Override
     public String getCacheKey(final Object keyObject, final String namespace) {
-        return namespace + SEPARATOR + defaultKeyProvider.generateKey(keyObject);
+        return getVersionedNamespace(namespace) + SEPARATOR + defaultKeyProvider.generateKey(keyObject);
     }
 
     @Override
     public List<String> getCacheKeys(final List<Object> keyObjects, final String namespace) throws Exception {
         final List<String> results = new ArrayList<String>();
+        final String versionedNamespace = getVersionedNamespace(namespace);
         for (final Object object : keyObjects) {
             final String objectId = defaultKeyProvider.generateKey(object);
-            results.add(getCacheKey(objectId, namespace));
+            results.add(versionedNamespace + SEPARATOR + objectId);
         }
 
         return results;
@@ -80,17 +101,23 @@ public class CacheKeyBuilderImpl implements CacheKeyBuilder { // NO_UCD
         final List<Object> listObjects = (List<Object>) args[data.getListIndexInMethodArgs()];
         final List<String> cacheKeys = new ArrayList<String>(listObjects.size());
         final Object[] keyObjects = Utils.getMethodArgs(data.getKeyIndexes(), args, methodDesc);
+        final String namespace = getVersionedNamespace(data.getNamespace());
 
-        Object[] keys = new Object[keyObjects.length];
-        System.arraycopy(keyObjects, 0, keys, 0, keys.length);
+        // ids of key objects other than list element are the same for all cache keys so generate them only once
+        final String[] objectIds = new String[keyObjects.length];
+        for (int i = 0; i < keyObjects.length; i++) {
+            if (i != data.getListIndexInKeys()) {
+                objectIds[i] = defaultKeyProvider.generateKey(keyObjects[i]);
+            }
+        }
 
         for (final Object obj : listObjects) {
             if (obj == null) {
                 throw new InvalidParameterException("One of the passed in key objects is null");
             }
 
-            keys[data.getListIndexInKeys()] = obj;
-            cacheKeys.add(getCacheKey(keys, data.getNamespace()));
+            objectIds[data.getListIndexInKeys()] = defaultKeyProvider.generateKey(obj);
+            cacheKeys.add(buildCacheKey(objectIds, namespace));
         }
 
         return cacheKeys;
@@ -101,7 +128,7 @@ public class CacheKeyBuilderImpl implements CacheKeyBuilder { // NO_UCD
         if (data == null || data.getAssignedKey() == null || data.getAssignedKey().length() < 1) {
             throw new InvalidParameterException("Ids for objects in the cache must be at least 1 character long.");
         }
-        return data.getNamespace() + SEPARATOR + data.getAssignedKey();
+        return getVersionedNamespace(data.getNamespace()) + SEPARATOR + data.getAssignedKey();
     }
 
     private String getCacheKey(final Object[] keyObjects, final String namespace) {
@@ -110,7 +137,15 @@ public class CacheKeyBuilderImpl implements CacheKeyBuilder { // NO_UCD
         }
 
         final String[] objectIds = defaultKeyProvider.generateKeys(keyObjects);
-        return buildCacheKey(objectIds, namespace);
+        return buildCacheKey(objectIds, getVersionedNamespace(namespace));
+    }
+
+    private String getVersionedNamespace(final String namespace) {
+        if (namespaceVersionManager == null || !namespaceVersionManager.isVersioned(namespace)) {
+            return namespace;
+        }
+
+        return namespace + VERSION_SEPARATOR + namespaceVersionManager.getVersion(namespace);
     }
 
     /**
@@ -0,0 +1,56 @@
+/*
+ * Copyright (c) 2015 Jakub Białek
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.aop.support;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Consumer;
+
+/**
+ * Adapts {@link CompletableFuture} and {@link CompletionStage} returned by intercepted methods. Callback is invoked by
+ * the thread that completes the future so it shouldn't block. Requires Java 8, used only if {@link CompletableFuture}
+ * is available at runtime.
+ * 
+ * @author Jakub Białek
+ * @since 3.6.0
+ * 
+ */
+public class CompletionStageFutureAdapter implements FutureAdapter {
+
+    @Override
+    public boolean supports(final Class<?> returnType) {
+        return CompletableFuture.class.equals(returnType) || CompletionStage.class.equals(returnType);
+    }
+
+    @Override
+    public Object completed(final Object value) {
+        return CompletableFuture.completedFuture(value);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void onSuccess(final Object future, final Callback callback) {
+        ((CompletionStage<Object>) future).thenAccept(new Consumer<Object>() {
+            @Override
+            public void accept(final Object value) {
+                callback.onSuccess(value);
+            }
+        });
+    }
+
+}
@@ -0,0 +1,219 @@
+/*
+ * Copyright (c) 2015 Jakub Białek
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.aop.support;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.code.ssm.Cache;
+import com.google.code.ssm.providers.CacheException;
+
+/**
+ * Accumulates deltas of counters in memory and applies them to cache on {@link #flush()}. All increments and
+ * decrements of a cache are sent at once and responses are awaited only after that, so each counter costs one
+ * pipelined operation per flush instead of one round trip per modification. Deltas that cannot be applied because of
+ * an error are lost. After {@link #close()} deltas are applied to cache immediately.
+ * 
+ * @author Jakub Białek
+ * @since 3.6.0
+ * 
+ */
+public class CounterBatcher {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CounterBatcher.class);
+
+    private final ConcurrentMap<Cache, ConcurrentMap<String, Delta>> deltas = new ConcurrentHashMap<Cache, ConcurrentMap<String, Delta>>();
+
+    // when set nothing flushes the batcher periodically anymore, so each delta is flushed by the caller
+    private volatile boolean closed;
+
+    /**
+     * Adds delta to the counter, the delta is applied to cache on next flush or immediately if the batcher is closed.
+     * 
+     * @param cache
+     *            the cache of counter
+     * @param cacheKey
+     *            the key of counter
+     * @param delta
+     *            the positive (increment) or negative (decrement) delta
+     */
+    public void add(final Cache cache, final String cacheKey, final long delta) {
+        addDelta(cache, cacheKey, delta);
+        if (closed) {
+            flush();
+        }
+    }
+
+    /**
+     * Closes the batcher and applies all accumulated deltas to cache. Deltas added later are applied at once.
+     */
+    public void close() {
+        closed = true;
+        flush();
+    }
+
+    private void addDelta(final Cache cache, final String cacheKey, final long delta) {
+        ConcurrentMap<String, Delta> cacheDeltas = deltas.get(cache);
+        if (cacheDeltas == null) {
+            final ConcurrentMap<String, Delta> newCacheDeltas = new ConcurrentHashMap<String, Delta>();
+            cacheDeltas = deltas.putIfAbsent(cache, newCacheDeltas);
+            if (cacheDeltas == null) {
+                cacheDeltas = newCacheDeltas;
+            }
+        }
+
+        while (true) {
+            Delta current = cacheDeltas.get(cacheKey);
+            if (current == null) {
+                final Delta newDelta = new Delta();
+                current = cacheDeltas.putIfAbsent(cacheKey, newDelta);
+                if (current == null) {
+                    current = newDelta;
+                }
+            }
+
+            if (current.add(delta)) {
+                return;
+            }
+
+            // the delta has been drained by concurrent flush, a new one is needed
+            cacheDeltas.remove(cacheKey, current);
+        }
+    }
+
+    /**
+     * Applies all accumulated deltas to cache and waits for results. Counter that doesn't exist is initialized with
+     * positive delta, negative delta of such counter is dropped.
+     */
+    public synchronized void flush() {
+        for (Map.Entry<Cache, ConcurrentMap<String, Delta>> entry : deltas.entrySet()) {
+            final Map<String, Long> drained = drain(entry.getValue());
+            if (!drained.isEmpty()) {
+                flush(entry.getKey(), drained);
+            }
+        }
+    }
+
+    private Map<String, Long> drain(final ConcurrentMap<String, Delta> cacheDeltas) {
+        final Map<String, Long> drained = new HashMap<String, Long>();
+        for (Map.Entry<String, Delta> entry : cacheDeltas.entrySet()) {
+            cacheDeltas.remove(entry.getKey(), entry.getValue());
+            final long delta = entry.getValue().drain();
+            if (delta != 0) {
+                drained.put(entry.getKey(), delta);
+            }
+        }
+
+        return drained;
+    }
+
+    private void flush(final Cache cache, final Map<String, Long> drained) {
+        // send all operations before waiting for any response
+        final Map<String, Future<Long>> results = new HashMap<String, Future<Long>>();
+        // deltas actually sent, larger deltas are capped and the rest is left for next flush
+        final Map<String, Integer> sent = new HashMap<String, Integer>();
+        for (Map.Entry<String, Long> entry : drained.entrySet()) {
+            final String cacheKey = entry.getKey();
+            final int by = toInt(cache, cacheKey, entry.getValue());
+            sent.put(cacheKey, by);
+            try {
+                results.put(cacheKey, (entry.getValue() > 0) ? cache.asyncIncr(cacheKey, by) : cache.asyncDecr(cacheKey, by));
+            } catch (RuntimeException e) {
+                warn(e, "Cannot apply delta %s to counter %s", entry.getValue(), cacheKey);
+            }
+        }
+
+        for (Map.Entry<String, Future<Long>> entry : results.entrySet()) {
+            final String cacheKey = entry.getKey();
+            final long delta = drained.get(cacheKey);
+            final int by = sent.get(cacheKey);
+            try {
+                if (entry.getValue().get() == -1 && delta > 0) {
+                    // counter doesn't exist, initialize it with the sent delta
+                    cache.incr(cacheKey, by, by);
+                }
+            } catch (InterruptedException e) {
+                warn(e, "Cannot apply delta %s to counter %s", delta, cacheKey);
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException e) {
+                warn(e, "Cannot apply delta %s to counter %s", delta, cacheKey);
+            } catch (TimeoutException e) {
+                warn(e, "Cannot apply delta %s to counter %s", delta, cacheKey);
+            } catch (CacheException e) {
+                warn(e, "Cannot apply delta %s to counter %s", delta, cacheKey);
+            } catch (RuntimeException e) {
+                warn(e, "Cannot apply delta %s to counter %s", delta, cacheKey);
+            }
+        }
+    }
+
+    /**
+     * Memcached accepts 32-bit deltas, the rest of larger delta is left for next flush.
+     * 
+     */
+    private int toInt(final Cache cache, final String cacheKey, final long delta) {
+        final long by = Math.min(Math.abs(delta), Integer.MAX_VALUE);
+        if (by < Math.abs(delta)) {
+            addDelta(cache, cacheKey, (delta > 0) ? delta - by : delta + by);
+        }
+
+        return (int) by;
+    }
+
+    private void warn(final Exception e, final String format, final Object... args) {
+        if (LOG.isWarnEnabled()) {
+            LOG.warn(String.format(format, args), e);
+        }
+    }
+
+    private static final class Delta {
+
+        // marks delta that has been drained and cannot be modified anymore
+        private static final long DRAINED = Long.MIN_VALUE;
+
+        private final AtomicLong value = new AtomicLong();
+
+        boolean add(final long delta) {
+            while (true) {
+                final long current = value.get();
+                if (current == DRAINED) {
+                    return false;
+                }
+                if (value.compareAndSet(current, current + delta)) {
+                    return true;
+                }
+            }
+        }
+
+        long drain() {
+            return value.getAndSet(DRAINED);
+        }
+
+    }
+
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2015 Jakub Białek
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.aop.support;
+
+/**
+ * Adapts asynchronous results (futures) returned by intercepted methods. If intercepted method returns a future the
+ * value held by the future is cached instead of the future itself: on cache hit an already completed future is
+ * returned, on cache miss the future returned by the method is passed to the caller and the value is stored in cache
+ * once the future completes.
+ * 
+ * @author Jakub Białek
+ * @since 3.6.0
+ * 
+ */
+public interface FutureAdapter {
+
+    /**
+     * 
+     * @param returnType
+     *            the return type of intercepted method
+     * @return true if this adapter handles given return type
+     */
+    boolean supports(Class<?> returnType);
+
+    /**
+     * 
+     * @param value
+     *            the value read from cache
+     * @return already completed future holding given value
+     */
+    Object completed(Object value);
+
+    /**
+     * Registers callback invoked when given future completes successfully. The callback is not invoked if the future
+     * completes exceptionally or is cancelled.
+     * 
+     * @param future
+     *            the future returned by intercepted method
+     * @param callback
+     *            the callback
+     */
+    void onSuccess(Object future, Callback callback);
+
+    /**
+     * Callback notified with the value of successfully completed future.
+     * 
+     */
+    public static interface Callback {
+
+        void onSuccess(Object value);
+
+    }
+
+}
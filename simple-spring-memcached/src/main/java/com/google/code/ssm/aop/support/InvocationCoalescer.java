@@ -0,0 +1,167 @@
+/*
+ * Copyright (c) 2015 Jakub Białek
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.aop.support;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Coalesces concurrent invocations for the same cache key. The first caller (leader) executes the invocation, callers
+ * that arrive while the invocation is in progress wait for its outcome and share the same result or exception. If the
+ * leader doesn't finish in the given time the waiting caller executes the invocation on its own.
+ * 
+ * @author Jakub Białek
+ * @since 3.6.0
+ * 
+ */
+public class InvocationCoalescer {
+
+    private static final Logger LOG = LoggerFactory.getLogger(InvocationCoalescer.class);
+
+    private final ConcurrentMap<CallKey, Call> calls = new ConcurrentHashMap<CallKey, Call>();
+
+    /**
+     * Executes invocation or joins the one already in progress for the same cache name and key.
+     * 
+     * @param cacheName
+     *            the name of the cache
+     * @param cacheKey
+     *            the cache key
+     * @param timeout
+     *            maximum time in milliseconds to wait for in-flight invocation
+     * @param invocation
+     *            the invocation to execute
+     * @return the result of invocation
+     * @throws Throwable
+     */
+    public Object invoke(final String cacheName, final String cacheKey, final long timeout, final Invocation invocation)
+            throws Throwable {
+        final CallKey key = new CallKey(cacheName, cacheKey);
+        final Call call = new Call();
+        final Call inFlight = calls.putIfAbsent(key, call);
+        if (inFlight != null) {
+            if (inFlight.await(timeout)) {
+                LOG.debug("Shared result of in-flight invocation for key [{}]", cacheKey);
+                return inFlight.getResult();
+            }
+
+            LOG.debug("Timeout while waiting for in-flight invocation for key [{}]", cacheKey);
+            return invocation.invoke();
+        }
+
+        try {
+            final Object result = invocation.invoke();
+            call.setResult(result);
+            return result;
+        } catch (Throwable ex) {
+            call.setThrowable(ex);
+            throw ex;
+        } finally {
+            calls.remove(key, call);
+            call.done();
+        }
+    }
+
+    int getInFlightCount() {
+        return calls.size();
+    }
+
+    /**
+     * Invocation that can be coalesced.
+     * 
+     */
+    public static interface Invocation {
+
+        Object invoke() throws Throwable;
+
+    }
+
+    private static final class Call {
+
+        private final CountDownLatch latch = new CountDownLatch(1);
+
+        private volatile Object result;
+
+        private volatile Throwable throwable;
+
+        boolean await(final long timeout) throws InterruptedException {
+            return latch.await(timeout, TimeUnit.MILLISECONDS);
+        }
+
+        Object getResult() throws Throwable {
+            if (throwable != null) {
+                throw throwable;
+            }
+
+            return result;
+        }
+
+        void setResult(final Object result) {
+            this.result = result;
+        }
+
+        void setThrowable(final Throwable throwable) {
+            this.throwable = throwable;
+        }
+
+        void done() {
+            latch.countDown();
+        }
+
+    }
+
+    private static final class CallKey {
+
+        private final String cacheName;
+
+        private final String cacheKey;
+
+        private final int hashCode;
+
+        CallKey(final String cacheName, final String cacheKey) {
+            this.cacheName = cacheName;
+            this.cacheKey = cacheKey;
+            this.hashCode = 31 * cacheName.hashCode() + cacheKey.hashCode();
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof CallKey)) {
+                return false;
+            }
+
+            final CallKey other = (CallKey) obj;
+            return cacheKey.equals(other.cacheKey) && cacheName.equals(other.cacheName);
+        }
+
+    }
+
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2015 Jakub Białek
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.aop.support;
+
+import java.io.Serializable;
+
+import lombok.Data;
+
+/**
+ * Wrapper around cached value that additionally holds the time needed to compute the value and its logical expiration
+ * time. It allows to refresh the value before it expires using probabilistic early recomputation (XFetch).
+ * 
+ * @author Jakub Białek
+ * @since 3.6.0
+ * 
+ */
+@Data
+public class RefreshableValue implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    // max relative expiration (30 days in seconds), memcached treats greater values as unix time
+    private static final int MAX_RELATIVE_EXPIRATION = 60 * 60 * 24 * 30;
+
+    /**
+     * Logical expiration time of value that never expires and so is never recomputed early.
+     */
+    public static final long NO_EXPIRY = Long.MAX_VALUE;
+
+    /**
+     * Wrapped value.
+     */
+    private Object value;
+
+    /**
+     * Time in milliseconds needed to compute the value.
+     */
+    private long computeTime;
+
+    /**
+     * Logical expiration time of the value in milliseconds since epoch or {@link #NO_EXPIRY}.
+     */
+    private long expiry;
+
+    public RefreshableValue() {
+
+    }
+
+    public RefreshableValue(final Object value, final long computeTime, final long expiry) {
+        this.value = value;
+        this.computeTime = computeTime;
+        this.expiry = expiry;
+    }
+
+    /**
+     * Creates wrapper for value that will be stored in cache with given expiration.
+     * 
+     * @param value
+     *            the value to wrap
+     * @param computeTime
+     *            time in milliseconds needed to compute the value
+     * @param expiration
+     *            the expiration passed to memcached, number of seconds from now, unix time or 0 if value never
+     *            expires
+     * @return the wrapper
+     */
+    public static RefreshableValue of(final Object value, final long computeTime, final int expiration) {
+        if (expiration <= 0) {
+            return new RefreshableValue(value, computeTime, NO_EXPIRY);
+        }
+
+        final long now = System.currentTimeMillis();
+        final long expiry = expiration > MAX_RELATIVE_EXPIRATION ? expiration * 1000L : now + expiration * 1000L;
+        return new RefreshableValue(value, computeTime, expiry);
+    }
+
+    /**
+     * Checks if value should be recomputed now. The probability of early recomputation grows as the logical expiration
+     * time approaches, values that are expensive to compute are recomputed earlier.
+     * 
+     * @param beta
+     *            the beta factor, values greater than 1.0 favor earlier recomputation
+     * @return true if value should be recomputed
+     */
+    public boolean isRefreshTime(final double beta) {
+        return isRefreshTime(beta, System.currentTimeMillis(), 1.0 - Math.random());
+    }
+
+    boolean isRefreshTime(final double beta, final long now, final double random) {
+        if (expiry == NO_EXPIRY) {
+            return false;
+        }
+
+        return now - computeTime * beta * Math.log(random) >= expiry;
+    }
+
+}
@@ -68,7 +68,7 @@ public class KeyIndexesBuilder extends AbstractDataBuilder {
 
     @Override
     protected boolean support(Class<? extends Annotation> expectedAnnotationClass) {
-        return !isType(expectedAnnotationClass, Type.ASSIGN);
+        return !isType(expectedAnnotationClass, Type.ASSIGN) && !isType(expectedAnnotationClass, Type.NAMESPACE);
     }
 
     private Collection<Integer> getKeyIndexes(final Method targetMethod) {
@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2015 Jakub Białek
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.aop.support.builder;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+
+import com.google.code.ssm.aop.support.AnnotationData;
+import com.google.code.ssm.api.CacheOperation.Type;
+import com.google.code.ssm.api.counter.ReadCounterFromCache;
+import com.google.code.ssm.api.counter.ReadMultiCounterFromCache;
+import com.google.code.ssm.api.counter.UpdateCounterInCache;
+
+/**
+ * 
+ * @author Jakub Białek
+ * @since 3.6.0
+ * 
+ */
+public class NegativeExpirationBuilder extends AbstractDataBuilder {
+
+    @Override
+    protected void build(final AnnotationData data, final Annotation annotation, final Class<? extends Annotation> expectedAnnotationClass,
+            final Method targetMethod) throws Exception {
+        final Integer negativeExpiration = invokeMethod(annotation, expectedAnnotationClass, "negativeExpiration");
+        if (negativeExpiration < -1) {
+            throwException("Negative expiration for annotation [%s] must be -1 or greater on [%s]", expectedAnnotationClass, targetMethod);
+        }
+        data.setNegativeExpiration(negativeExpiration);
+    }
+
+    @Override
+    protected boolean support(final Class<? extends Annotation> expectedAnnotationClass) {
+        return (isType(expectedAnnotationClass, Type.READ) || isType(expectedAnnotationClass, Type.UPDATE))
+                && !ReadCounterFromCache.class.equals(expectedAnnotationClass) && !ReadMultiCounterFromCache.class.equals(expectedAnnotationClass)
+                && !UpdateCounterInCache.class.equals(expectedAnnotationClass);
+    }
+
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2015 Jakub Białek
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.aop.support.builder;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+
+import com.google.code.ssm.aop.support.AnnotationData;
+import com.google.code.ssm.api.CacheOperation.Type;
+import com.google.code.ssm.api.ReadThroughCacheOption;
+import com.google.code.ssm.api.counter.ReadCounterFromCache;
+
+/**
+ * 
+ * @author Jakub Białek
+ * @since 3.6.0
+ * 
+ */
+public class ReadThroughOptionBuilder extends AbstractDataBuilder {
+
+    @Override
+    protected void build(final AnnotationData data, final Annotation annotation, final Class<? extends Annotation> expectedAnnotationClass,
+            final Method targetMethod) throws Exception {
+        final ReadThroughCacheOption option = invokeMethod(annotation, expectedAnnotationClass, "option");
+        if (option.coalesceMisses() && option.coalesceTimeout() <= 0) {
+            throwException("Coalesce timeout for annotation [%s] must be greater than 0 on [%s]", expectedAnnotationClass, targetMethod);
+        }
+
+        if (option.earlyRefresh() && data.getExpiration() <= 0) {
+            throwException("Early refresh for annotation [%s] requires expiration greater than 0 on [%s]", expectedAnnotationClass,
+                    targetMethod);
+        }
+        if (option.earlyRefresh() && option.earlyRefreshBeta() <= 0) {
+            throwException("Early refresh beta for annotation [%s] must be greater than 0 on [%s]", expectedAnnotationClass, targetMethod);
+        }
+        if (option.slidingExpiration() && data.getExpiration() <= 0) {
+            throwException("Sliding expiration for annotation [%s] requires expiration greater than 0 on [%s]", expectedAnnotationClass,
+                    targetMethod);
+        }
+
+        data.setCoalesceMisses(option.coalesceMisses());
+        data.setCoalesceTimeout(option.coalesceTimeout());
+        data.setEarlyRefresh(option.earlyRefresh());
+        data.setEarlyRefreshBeta(option.earlyRefreshBeta());
+        data.setAsyncWrite(option.asyncWrite());
+        data.setNoReplyWrite(option.noReplyWrite());
+        data.setSlidingExpiration(option.slidingExpiration());
+    }
+
+    @Override
+    protected boolean support(final Class<? extends Annotation> expectedAnnotationClass) {
+        return isType(expectedAnnotationClass, Type.READ) && !isType(expectedAnnotationClass, Type.MULTI)
+                && !ReadCounterFromCache.class.equals(expectedAnnotationClass);
+    }
+
+}
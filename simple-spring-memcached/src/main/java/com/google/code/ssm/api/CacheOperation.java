@@ -51,7 +51,8 @@ public @interface CacheOperation {
     public static enum Type {
         ASSIGN, SINGLE, MULTI, //
         READ, UPDATE, INVALIDATE, //
-        INCDEC;
+        INCDEC, //
+        NAMESPACE;
     }
 
 }
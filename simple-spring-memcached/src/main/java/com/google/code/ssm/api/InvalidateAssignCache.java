@@ -29,6 +29,9 @@ import java.lang.annotation.Target;
  * {@link #assignedKey()} key. These annotation is useful when you know that a value has been made stale and you want to
  * force it to refresh on the next time it is referenced in a {@link ReadThroughAssignCache} method.
  * 
+ * Methods returning futures ({@code CompletionStage}, {@link java.util.concurrent.Future}) are not supported by this
+ * annotation, they are rejected with {@link com.google.code.ssm.aop.support.InvalidAnnotationException}.
+ * 
  * @author Nelson Carpentier
  * @since 1.0.0
  * 
@@ -29,6 +29,9 @@ import java.lang.annotation.Target;
  * useful when you know that a value has been made stale and you want to force it to refresh on the next time it is
  * referenced in a {@link ReadThroughMultiCache} method.
  * 
+ * Methods returning futures ({@code CompletionStage}, {@link java.util.concurrent.Future}) are not supported by this
+ * annotation, they are rejected with {@link com.google.code.ssm.aop.support.InvalidAnnotationException}.
+ * 
  * @author Nelson Carpentier
  * @since 1.0.0
  * 
@@ -46,4 +49,14 @@ public @interface InvalidateMultiCache {
      */
     String namespace() default AnnotationConstants.DEFAULT_STRING;
 
+    /**
+     * If true then keys are removed from cache by SSM background thread and the result of intercepted method is
+     * returned without waiting for the removal. If there are too many pending background tasks the keys are removed
+     * synchronously, so invalidation is never dropped.
+     * 
+     * @return true if keys should be removed from cache asynchronously
+     * @since 3.6.0
+     */
+    boolean asyncDelete() default false;
+
 }
@@ -0,0 +1,49 @@
+/*
+ * Copyright (c) 2015 Jakub Białek
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.api;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 
+ * This annotation invalidates all values in the {@link #namespace()} after the method finishes by incrementing version
+ * of the namespace. The namespace has to be versioned in {@link com.google.code.ssm.NamespaceVersionManager}.
+ * 
+ * Methods returning futures ({@code CompletionStage}, {@link java.util.concurrent.Future}) are not supported by this
+ * annotation, they are rejected with {@link com.google.code.ssm.aop.support.InvalidAnnotationException}.
+ * 
+ * @author Jakub Białek
+ * @since 3.6.0
+ * 
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+@CacheOperation({CacheOperation.Type.INVALIDATE, CacheOperation.Type.NAMESPACE})
+public @interface InvalidateNamespace {
+
+    /**
+     * The versioned namespace to invalidate. This value must be assigned.
+     * 
+     * @return the namespace
+     */
+    String namespace() default AnnotationConstants.DEFAULT_STRING;
+
+}
@@ -66,4 +66,23 @@ public @interface ReadThroughAssignCache {
      */
     int expiration() default 0;
 
+    /**
+     * Expiration of cached null result ({@link com.google.code.ssm.aop.support.PertinentNegativeNull}), usually shorter
+     * than {@link #expiration()} so missing data is looked up again soon. The value is processed in the same way as
+     * {@link #expiration()}. If -1 the default negative expiration of the cache is used or, if it isn't set, the
+     * {@link #expiration()}.
+     * 
+     * @return expiration of cached null result
+     * @since 3.6.0
+     */
+    int negativeExpiration() default -1;
+
+    /**
+     * Additional cache options.
+     * 
+     * @return additional options
+     * @since 3.6.0
+     */
+    ReadThroughCacheOption option() default @ReadThroughCacheOption();
+
 }
@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2015 Jakub Białek
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.api;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Additional options of {@link ReadThroughSingleCache} and {@link ReadThroughAssignCache}.
+ * 
+ * @author Jakub Białek
+ * @since 3.6.0
+ * 
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.ANNOTATION_TYPE)
+public @interface ReadThroughCacheOption {
+
+    /**
+     * If true then concurrent cache misses on the same key within one JVM are coalesced. Only the first caller invokes
+     * the intercepted method and stores its result in cache, other callers wait for that invocation and share its
+     * result (or exception). It prevents a stampede of identical invocations when a hot key expires.
+     * 
+     */
+    boolean coalesceMisses() default false;
+
+    /**
+     * Maximum time in milliseconds a caller waits for coalesced in-flight invocation. If the time elapses the caller
+     * invokes the intercepted method on its own. Used only if {@link #coalesceMisses()} is true.
+     * 
+     */
+    long coalesceTimeout() default 1000;
+
+    /**
+     * If true then cached value is stored together with the time needed to compute it and its logical expiration
+     * time. On cache hit the value may be recomputed in background slightly before it expires (probabilistic early
+     * recomputation, XFetch) while the current value is still returned. Values stored with expiration 0 (e.g. nulls
+     * with negative expiration 0) never expire and are not recomputed early.
+     * 
+     * The refresh invokes the intercepted method in SSM background thread, so thread bound context of the caller
+     * (transaction, security context, other thread locals) is not available there. Do not use this option on methods
+     * that depend on such context.
+     * 
+     */
+    boolean earlyRefresh() default false;
+
+    /**
+     * The beta factor of early recomputation, values greater than 1.0 favor earlier recomputation, values less than
+     * 1.0 favor later. Used only if {@link #earlyRefresh()} is true.
+     * 
+     */
+    double earlyRefreshBeta() default 1.0;
+
+    /**
+     * If true then after cache miss the result of intercepted method is returned to the caller immediately, the
+     * result is encoded and stored in cache by SSM background thread. If there are too many pending background tasks
+     * the result is not stored in cache.
+     * 
+     */
+    boolean asyncWrite() default false;
+
+    /**
+     * If true then after cache miss the result of intercepted method is stored in cache without waiting for server's
+     * response. Failures of such write are only logged. Regardless of this option all writes populating the cache are
+     * sent without waiting for response if the cache has no reply writes enabled in its configuration.
+     * 
+     */
+    boolean noReplyWrite() default false;
+
+    /**
+     * If true then each cache hit extends expiration of the cached value by {@code expiration} seconds, the value is
+     * retrieved and touched in one round trip (get and touch). Requires expiration greater than 0.
+     * 
+     */
+    boolean slidingExpiration() default false;
+
+}
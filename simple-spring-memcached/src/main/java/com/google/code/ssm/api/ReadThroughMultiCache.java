@@ -24,6 +24,9 @@ import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 
 /**
+ * 
+ * Methods returning futures ({@code CompletionStage}, {@link java.util.concurrent.Future}) are not supported by this
+ * annotation, they are rejected with {@link com.google.code.ssm.aop.support.InvalidAnnotationException}.
  * 
  * @author Nelson Carpentier
  * @author Jakub Białek
@@ -59,6 +62,17 @@ public @interface ReadThroughMultiCache {
      */
     int expiration() default 0;
 
+    /**
+     * Expiration of cached null result ({@link com.google.code.ssm.aop.support.PertinentNegativeNull}), usually shorter
+     * than {@link #expiration()} so missing data is looked up again soon. The value is processed in the same way as
+     * {@link #expiration()}. If -1 the default negative expiration of the cache is used or, if it isn't set, the
+     * {@link #expiration()}.
+     * 
+     * @return expiration of cached null result
+     * @since 3.6.0
+     */
+    int negativeExpiration() default -1;
+
     /**
      * Additional cache options.
      * 
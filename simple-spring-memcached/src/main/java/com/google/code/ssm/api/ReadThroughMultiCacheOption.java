@@ -62,4 +62,54 @@ public @interface ReadThroughMultiCacheOption {
      */
     boolean skipNullsInResult() default false;
 
+    /**
+     * If true then after cache miss the result of intercepted method is returned to the caller immediately, objects
+     * from result are encoded and stored in cache by SSM background thread. If there are too many pending background
+     * tasks objects are not stored in cache. Nulls added to cache (see {@link #addNullsToCache()}) are also stored in
+     * background.
+     * 
+     * @since 3.6.0
+     */
+    boolean asyncWrite() default false;
+
+    /**
+     * If true then after cache miss objects from result (and nulls if {@link #addNullsToCache()} is true) are stored in
+     * cache without waiting for server's responses. Failures of such writes are only logged.
+     * 
+     * @since 3.6.0
+     */
+    boolean noReplyWrite() default false;
+
+    /**
+     * If greater than 0 then cache keys are split into chunks of at most this size and the chunks are got from cache
+     * concurrently. It bounds size of a single bulk get and lets responses from slow servers overlap. If 0 then all
+     * keys are got by one bulk get.
+     * 
+     * @since 3.6.0
+     */
+    int maxBatchSize() default 0;
+
+    /**
+     * If greater than 0 then SSM waits at most this number of milliseconds for values from cache. Values that haven't
+     * arrived before the deadline are treated as cache misses and got from the intercepted method, so one slow server
+     * doesn't abort caching of all keys. If 0 then operation timeout of the cache client is used.
+     * 
+     * @since 3.6.0
+     */
+    long getBulkTimeout() default 0;
+
+    /**
+     * If greater than 0 and more objects are missed in cache then missed objects are split into chunks of at most this
+     * size and the intercepted method is invoked concurrently for each chunk. Values of a chunk are stored in cache as
+     * soon as the invocation for the chunk completes. If 0 then the intercepted method is invoked once for all missed
+     * objects.
+     * 
+     * Invocations for other chunks than the first one are executed by SSM threads, so thread bound context of the
+     * caller (transaction, security context, other thread locals) is not available there. Do not use this option on
+     * methods that depend on such context.
+     * 
+     * @since 3.6.0
+     */
+    int invocationChunkSize() default 0;
+
 }
@@ -29,6 +29,9 @@ import com.google.code.ssm.api.CacheOperation;
  * 
  * Increments by 1 single counter under given key. If counter doesn't exist it will be initialized with value 1.
  * 
+ * Methods returning futures ({@code CompletionStage}, {@link java.util.concurrent.Future}) are not supported by this
+ * annotation, they are rejected with {@link com.google.code.ssm.aop.support.InvalidAnnotationException}.
+ * 
  * @author Jakub Białek
  * @since 2.0.0
  * 
@@ -46,4 +49,24 @@ public @interface IncrementCounterInCache {
      */
     String namespace() default AnnotationConstants.DEFAULT_STRING;
 
+    /**
+     * If true then the counter is not incremented immediately, deltas are accumulated in memory and applied to cache
+     * periodically in one batch (see Settings#counterFlushInterval). Pending deltas can be lost if the application
+     * stops abruptly.
+     * 
+     * @return true if modifications of the counter should be batched
+     * @since 3.6.0
+     */
+    boolean batched() default false;
+
+    /**
+     * Number of keys the counter is spread across. Each increment modifies randomly chosen shard, so the load of hot
+     * counter is distributed over many memcached nodes. Deltas of batched counter are applied to the first shard. All
+     * annotations of the same counter must use the same number of shards.
+     * 
+     * @return the number of shards of the counter
+     * @since 3.6.0
+     */
+    int shards() default 1;
+
 }
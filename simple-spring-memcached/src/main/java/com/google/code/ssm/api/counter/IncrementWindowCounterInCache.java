@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2015 Jakub Białek
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.api.counter;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import com.google.code.ssm.api.AnnotationConstants;
+import com.google.code.ssm.api.CacheOperation;
+
+/**
+ * 
+ * Increments by 1 sliding window counter under given key. The window is split into time buckets stored under separate
+ * keys that expire automatically, the value of the counter in the window can be read using
+ * {@link com.google.code.ssm.Cache#getWindowCounter(String, int, int)}.
+ * 
+ * Methods returning futures ({@code CompletionStage}, {@link java.util.concurrent.Future}) are not supported by this
+ * annotation, they are rejected with {@link com.google.code.ssm.aop.support.InvalidAnnotationException}.
+ * 
+ * @author Jakub Białek
+ * @since 3.6.0
+ * 
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+@CacheOperation({CacheOperation.Type.INCDEC, CacheOperation.Type.SINGLE})
+public @interface IncrementWindowCounterInCache {
+
+    /**
+     * A namespace that is added to the key as it is stored in the distributed cache. This allows differing object that
+     * may have the same ID to coexist. This value must be assigned.
+     * 
+     * @return the namespace for the objects cached in the given method.
+     */
+    String namespace() default AnnotationConstants.DEFAULT_STRING;
+
+    /**
+     * The length of the window in seconds, the window extended by one bucket cannot be longer than 30 days.
+     * 
+     * @return the length of the window
+     */
+    int window();
+
+    /**
+     * Number of time buckets the window is split into. More buckets make the window slide more smoothly but reading
+     * the counter fetches more keys.
+     * 
+     * @return the number of buckets
+     */
+    int buckets() default 10;
+
+}
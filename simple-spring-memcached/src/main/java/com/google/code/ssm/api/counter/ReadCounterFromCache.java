@@ -30,6 +30,9 @@ import com.google.code.ssm.api.CacheOperation;
  * Reads counter value from cache. If counter doesn't exist intercepted method is executed and return value is used to
  * initialize counter. Annotated method must return one of int, {@link Integer}, long or {@link Long}.
  * 
+ * Methods returning futures ({@code CompletionStage}, {@link java.util.concurrent.Future}) are not supported by this
+ * annotation, they are rejected with {@link com.google.code.ssm.aop.support.InvalidAnnotationException}.
+ * 
  * @author Jakub Białek
  * @since 2.0.0
  * 
@@ -63,4 +66,13 @@ public @interface ReadCounterFromCache {
      */
     int expiration() default 0;
 
+    /**
+     * Number of keys the counter is spread across, the value of the counter is the sum of all shards read in one bulk
+     * operation. All annotations of the same counter must use the same number of shards.
+     * 
+     * @return the number of shards of the counter
+     * @since 3.6.0
+     */
+    int shards() default 1;
+
 }
@@ -33,6 +33,9 @@ import com.google.code.ssm.api.ReturnDataUpdateContent;
  * value from method parameter annotated with {@link ParameterDataUpdateContent}. The value used to update counter must
  * be of type int, {@link Integer}, long or {@link Long}.
  * 
+ * Methods returning futures ({@code CompletionStage}, {@link java.util.concurrent.Future}) are not supported by this
+ * annotation, they are rejected with {@link com.google.code.ssm.aop.support.InvalidAnnotationException}.
+ * 
  * @author Jakub Białek
  * @since 2.0.0
  * 
@@ -66,4 +69,13 @@ public @interface UpdateCounterInCache {
      */
     int expiration() default 0;
 
+    /**
+     * Number of keys the counter is spread across, the value is stored in the first shard and remaining shards are
+     * reset. All annotations of the same counter must use the same number of shards.
+     * 
+     * @return the number of shards of the counter
+     * @since 3.6.0
+     */
+    int shards() default 1;
+
 }
@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2015 Jakub Białek
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.hotkey;
+
+import lombok.Data;
+
+/**
+ * Configuration of hot keys detection and replication.
+ * 
+ * @author Jakub Białek
+ * @since 3.6.0
+ * 
+ */
+@Data
+public class HotKeyConfiguration {
+
+    /**
+     * Maximum number of tracked most frequently read keys.
+     */
+    private int capacity = 1024;
+
+    /**
+     * Number of reads per second after which the key is considered hot.
+     */
+    private int threshold = 1000;
+
+    /**
+     * Length of window in milliseconds in which reads are counted. Key stays hot until the end of the next window.
+     */
+    private long window = 1000;
+
+    /**
+     * Number of additional copies of hot key stored under suffixed keys.
+     */
+    private int replicas = 3;
+
+    /**
+     * Maximum expiration in seconds of replicas, it's the max time when replica can return stale value after the
+     * original key is changed by other client or by this client after the key stopped being hot.
+     */
+    private int replicaExpiration = 10;
+
+}
@@ -0,0 +1,208 @@
+/*
+ * Copyright (c) 2015 Jakub Białek
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.hotkey;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.util.Assert;
+
+/**
+ * Detects keys read more often than configured threshold using {@link SpaceSavingSketch}. Reads are counted in fixed
+ * time windows, a key becomes hot as soon as its count in the current window reaches the threshold and stays hot until
+ * the end of the next window. To reduce contention keys are tracked in independently locked stripes.
+ * 
+ * Hot key has replicas stored under suffixed keys, as replica keys differ they are usually stored on different
+ * memcached servers and reads of the hot key are spread across the original key and its replicas.
+ * 
+ * @author Jakub Białek
+ * @since 3.6.0
+ * 
+ */
+public class HotKeyDetector {
+
+    private static final int MAX_STRIPES = 16;
+
+    private static final int MIN_STRIPE_CAPACITY = 16;
+
+    // max length of memcached key
+    private static final int MAX_KEY_LENGTH = 250;
+
+    private static final String REPLICA_SEPARATOR = "#replica";
+
+    private final Stripe[] stripes;
+
+    private final int stripeMask;
+
+    private final long threshold;
+
+    private final long window;
+
+    private final int replicas;
+
+    private final int replicaExpiration;
+
+    private final AtomicInteger nextReplica = new AtomicInteger();
+
+    public HotKeyDetector(final HotKeyConfiguration configuration) {
+        Assert.notNull(configuration, "'configuration' cannot be null");
+        Assert.isTrue(configuration.getCapacity() > 0, "'capacity' must be greater than 0");
+        Assert.isTrue(configuration.getThreshold() > 0, "'threshold' must be greater than 0");
+        Assert.isTrue(configuration.getWindow() > 0, "'window' must be greater than 0");
+        Assert.isTrue(configuration.getReplicas() > 0, "'replicas' must be greater than 0");
+        Assert.isTrue(configuration.getReplicaExpiration() > 0, "'replicaExpiration' must be greater than 0");
+
+        int stripeCount = 1;
+        while (stripeCount < MAX_STRIPES && stripeCount * 2 * MIN_STRIPE_CAPACITY <= configuration.getCapacity()) {
+            stripeCount <<= 1;
+        }
+
+        stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe(configuration.getCapacity() / stripeCount);
+        }
+        stripeMask = stripeCount - 1;
+        window = configuration.getWindow();
+        threshold = Math.max(1, configuration.getThreshold() * window / 1000);
+        replicas = configuration.getReplicas();
+        replicaExpiration = configuration.getReplicaExpiration();
+    }
+
+    /**
+     * Records read of the key.
+     * 
+     * @param key
+     *            the cache key
+     * @return true if the key is hot
+     */
+    public boolean record(final String key) {
+        return stripeFor(key).record(key, now());
+    }
+
+    public boolean isHot(final String key) {
+        return stripeFor(key).isHot(key, now());
+    }
+
+    /**
+     * Chooses key used to read the hot key, subsequent invocations return the original key and all its replica keys in
+     * turn.
+     * 
+     * @param key
+     *            the hot key
+     * @return the original key or one of the replica keys
+     */
+    public String getReadKey(final String key) {
+        final int replica = (nextReplica.getAndIncrement() & Integer.MAX_VALUE) % (replicas + 1);
+        return (replica == 0 || !canReplicate(key)) ? key : getReplicaKey(key, replica);
+    }
+
+    /**
+     * 
+     * @param key
+     *            the hot key
+     * @return keys of all replicas of the key or empty list if key is too long to be replicated
+     */
+    public List<String> getReplicaKeys(final String key) {
+        final List<String> replicaKeys = new ArrayList<String>(replicas);
+        if (canReplicate(key)) {
+            for (int i = 1; i <= replicas; i++) {
+                replicaKeys.add(getReplicaKey(key, i));
+            }
+        }
+
+        return replicaKeys;
+    }
+
+    /**
+     * 
+     * @param expiration
+     *            the expiration of the original key
+     * @return expiration of replicas
+     */
+    public int getReplicaExpiration(final int expiration) {
+        // 0 means never expire, greater values than 30 days are unix time so use always short expiration
+        return (expiration > 0 && expiration < replicaExpiration) ? expiration : replicaExpiration;
+    }
+
+    long now() {
+        return System.currentTimeMillis();
+    }
+
+    private boolean canReplicate(final String key) {
+        return key.length() + REPLICA_SEPARATOR.length() + String.valueOf(replicas).length() <= MAX_KEY_LENGTH;
+    }
+
+    private String getReplicaKey(final String key, final int replica) {
+        return key + REPLICA_SEPARATOR + replica;
+    }
+
+    private Stripe stripeFor(final String key) {
+        final int h = key.hashCode() * 0x9e3779b9;
+        return stripes[(h ^ (h >>> 16)) & stripeMask];
+    }
+
+    private final class Stripe {
+
+        private final SpaceSavingSketch sketch;
+
+        // hot key -> time until key is hot
+        private final Map<String, Long> hotKeys = new HashMap<String, Long>();
+
+        private long windowStart;
+
+        private Stripe(final int capacity) {
+            sketch = new SpaceSavingSketch(Math.max(1, capacity));
+        }
+
+        private synchronized boolean record(final String key, final long now) {
+            if (now - windowStart >= window) {
+                rotate(now);
+            }
+
+            if (sketch.add(key) >= threshold) {
+                hotKeys.put(key, windowStart + 2 * window);
+                return true;
+            }
+
+            return isHot(key, now);
+        }
+
+        private synchronized boolean isHot(final String key, final long now) {
+            final Long hotUntil = hotKeys.get(key);
+            return hotUntil != null && hotUntil > now;
+        }
+
+        private void rotate(final long now) {
+            sketch.clear();
+            windowStart = now;
+
+            final Iterator<Long> iterator = hotKeys.values().iterator();
+            while (iterator.hasNext()) {
+                if (iterator.next() <= now) {
+                    iterator.remove();
+                }
+            }
+        }
+
+    }
+
+}
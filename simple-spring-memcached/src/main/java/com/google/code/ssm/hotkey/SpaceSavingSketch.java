@@ -0,0 +1,198 @@
+/*
+ * Copyright (c) 2015 Jakub Białek
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.hotkey;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Space-saving sketch (stream summary) estimating counts of the most frequent keys in a stream using fixed number of
+ * counters. If all counters are in use a new key takes over the counter with the minimal count, so estimated count of
+ * a key is never less than its real count. Counters are kept in buckets of the same count so all operations take
+ * constant time.
+ * 
+ * This class is not thread safe.
+ * 
+ * @author Jakub Białek
+ * @since 3.6.0
+ * 
+ */
+final class SpaceSavingSketch {
+
+    private final int capacity;
+
+    private final Map<String, Counter> counters;
+
+    // bucket with the lowest count, buckets are linked in ascending order of counts
+    private Bucket minBucket;
+
+    SpaceSavingSketch(final int capacity) {
+        this.capacity = capacity;
+        this.counters = new HashMap<String, Counter>(capacity * 2);
+    }
+
+    /**
+     * Records occurrence of the key.
+     * 
+     * @param key
+     *            the key
+     * @return estimated number of occurrences of the key
+     */
+    long add(final String key) {
+        Counter counter = counters.get(key);
+        if (counter != null) {
+            increment(counter);
+            return counter.count;
+        }
+
+        if (counters.size() < capacity) {
+            counter = new Counter(key);
+            counters.put(key, counter);
+            attachNew(counter);
+            return counter.count;
+        }
+
+        // take over counter with the minimal count
+        counter = minBucket.head;
+        counters.remove(counter.key);
+        counter.key = key;
+        counters.put(key, counter);
+        increment(counter);
+        return counter.count;
+    }
+
+    long estimate(final String key) {
+        final Counter counter = counters.get(key);
+        return (counter != null) ? counter.count : 0;
+    }
+
+    int size() {
+        return counters.size();
+    }
+
+    void clear() {
+        counters.clear();
+        minBucket = null;
+    }
+
+    private void attachNew(final Counter counter) {
+        counter.count = 1;
+        if (minBucket == null || minBucket.count != 1) {
+            final Bucket bucket = new Bucket(1);
+            bucket.next = minBucket;
+            if (minBucket != null) {
+                minBucket.prev = bucket;
+            }
+            minBucket = bucket;
+        }
+        minBucket.attach(counter);
+    }
+
+    private void increment(final Counter counter) {
+        final Bucket bucket = counter.bucket;
+        counter.count++;
+
+        Bucket target = bucket.next;
+        if (target == null || target.count != counter.count) {
+            target = new Bucket(counter.count);
+            target.prev = bucket;
+            target.next = bucket.next;
+            if (bucket.next != null) {
+                bucket.next.prev = target;
+            }
+            bucket.next = target;
+        }
+
+        bucket.detach(counter);
+        target.attach(counter);
+
+        if (bucket.head == null) {
+            removeBucket(bucket);
+        }
+    }
+
+    private void removeBucket(final Bucket bucket) {
+        if (bucket.prev != null) {
+            bucket.prev.next = bucket.next;
+        } else {
+            minBucket = bucket.next;
+        }
+        if (bucket.next != null) {
+            bucket.next.prev = bucket.prev;
+        }
+    }
+
+    private static final class Counter {
+
+        private String key;
+
+        private long count;
+
+        private Bucket bucket;
+
+        private Counter prev;
+
+        private Counter next;
+
+        private Counter(final String key) {
+            this.key = key;
+        }
+
+    }
+
+    private static final class Bucket {
+
+        private final long count;
+
+        private Counter head;
+
+        private Bucket prev;
+
+        private Bucket next;
+
+        private Bucket(final long count) {
+            this.count = count;
+        }
+
+        private void attach(final Counter counter) {
+            counter.bucket = this;
+            counter.prev = null;
+            counter.next = head;
+            if (head != null) {
+                head.prev = counter;
+            }
+            head = counter;
+        }
+
+        private void detach(final Counter counter) {
+            if (counter.prev != null) {
+                counter.prev.next = counter.next;
+            } else {
+                head = counter.next;
+            }
+            if (counter.next != null) {
+                counter.next.prev = counter.prev;
+            }
+            counter.bucket = null;
+            counter.prev = null;
+            counter.next = null;
+        }
+
+    }
+
+}
@@ -0,0 +1,256 @@
+/*
+ * Copyright (c) 2015 Jakub Białek
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.nearcache;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Base class of invalidation broadcasters independent of the transport. Published invalidations are collected and
+ * sent periodically as a single compact message. If too many keys of one cache are published in the same batch, the
+ * whole near cache of this cache is invalidated instead. Messages carry id of the sender so invalidations published by
+ * this broadcaster are ignored when received back.
+ * 
+ * Subclasses send encoded messages to other JVMs and pass messages received from other JVMs to
+ * {@link #receive(byte[])}.
+ * 
+ * @author Jakub Białek
+ * @since 3.6.0
+ * 
+ */
+public abstract class AbstractInvalidationBroadcaster implements InvalidationBroadcaster {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AbstractInvalidationBroadcaster.class);
+
+    private final String senderId = UUID.randomUUID().toString();
+
+    private final ConcurrentMap<String, NearCache> nearCaches = new ConcurrentHashMap<String, NearCache>();
+
+    private final Object lock = new Object();
+
+    private Map<String, Set<String>> pendingKeys = new HashMap<String, Set<String>>();
+
+    private Set<String> pendingClears = new HashSet<String>();
+
+    private ScheduledExecutorService executor;
+
+    /**
+     * Interval in milliseconds between sending batches of invalidations.
+     */
+    @Getter
+    @Setter
+    private long batchInterval = 20;
+
+    /**
+     * Maximum number of keys of single cache in one batch, if more keys are published all keys of the cache are
+     * invalidated.
+     */
+    @Getter
+    @Setter
+    private int maxKeysPerCache = 1000;
+
+    public void start() throws Exception {
+        executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(final Runnable runnable) {
+                final Thread thread = new Thread(runnable, "ssm-invalidation-broadcaster");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        executor.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                flush();
+            }
+        }, batchInterval, batchInterval, TimeUnit.MILLISECONDS);
+    }
+
+    public void shutdown() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+        flush();
+    }
+
+    @Override
+    public void register(final String cacheName, final NearCache nearCache) {
+        nearCaches.put(cacheName, nearCache);
+    }
+
+    @Override
+    public void unregister(final String cacheName) {
+        nearCaches.remove(cacheName);
+    }
+
+    @Override
+    public void publish(final String cacheName, final Collection<String> keys) {
+        synchronized (lock) {
+            if (pendingClears.contains(cacheName)) {
+                return;
+            }
+
+            Set<String> cacheKeys = pendingKeys.get(cacheName);
+            if (cacheKeys == null) {
+                cacheKeys = new LinkedHashSet<String>();
+                pendingKeys.put(cacheName, cacheKeys);
+            }
+            cacheKeys.addAll(keys);
+
+            if (cacheKeys.size() > maxKeysPerCache) {
+                pendingKeys.remove(cacheName);
+                pendingClears.add(cacheName);
+            }
+        }
+    }
+
+    @Override
+    public void publishClear(final String cacheName) {
+        synchronized (lock) {
+            pendingKeys.remove(cacheName);
+            pendingClears.add(cacheName);
+        }
+    }
+
+    /**
+     * Sends encoded message to other JVMs.
+     * 
+     * @param message
+     *            the encoded invalidations
+     * @throws Exception
+     */
+    protected abstract void send(final byte[] message) throws Exception;
+
+    /**
+     * Applies invalidations received from other JVM to registered near caches.
+     * 
+     * @param message
+     *            the encoded invalidations
+     */
+    protected void receive(final byte[] message) {
+        try {
+            final DataInputStream input = new DataInputStream(new ByteArrayInputStream(message));
+            if (senderId.equals(input.readUTF())) {
+                return;
+            }
+
+            final int entries = input.readInt();
+            for (int i = 0; i < entries; i++) {
+                final String cacheName = input.readUTF();
+                final boolean clear = input.readBoolean();
+                final int keyCount = input.readInt();
+                final List<String> keys = new ArrayList<String>(keyCount);
+                for (int j = 0; j < keyCount; j++) {
+                    keys.add(input.readUTF());
+                }
+
+                final NearCache nearCache = nearCaches.get(cacheName);
+                if (nearCache == null) {
+                    continue;
+                }
+
+                if (clear) {
+                    nearCache.clear();
+                } else {
+                    nearCache.invalidateAll(keys);
+                }
+            }
+        } catch (IOException e) {
+            LOGGER.warn("Cannot decode invalidation message", e);
+        }
+    }
+
+    /**
+     * Invalidates all registered near caches. Should be invoked when some invalidations could be lost, e.g. after
+     * reconnection.
+     */
+    protected void clearAll() {
+        for (NearCache nearCache : nearCaches.values()) {
+            nearCache.clear();
+        }
+    }
+
+    void flush() {
+        final Map<String, Set<String>> keys;
+        final Set<String> clears;
+        synchronized (lock) {
+            if (pendingKeys.isEmpty() && pendingClears.isEmpty()) {
+                return;
+            }
+
+            keys = pendingKeys;
+            clears = pendingClears;
+            pendingKeys = new HashMap<String, Set<String>>();
+            pendingClears = new HashSet<String>();
+        }
+
+        try {
+            send(encode(keys, clears));
+        } catch (Exception e) {
+            LOGGER.warn("Cannot send invalidation message", e);
+        }
+    }
+
+    private byte[] encode(final Map<String, Set<String>> keys, final Set<String> clears) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final DataOutputStream output = new DataOutputStream(bytes);
+        output.writeUTF(senderId);
+        output.writeInt(keys.size() + clears.size());
+        for (Map.Entry<String, Set<String>> entry : keys.entrySet()) {
+            output.writeUTF(entry.getKey());
+            output.writeBoolean(false);
+            output.writeInt(entry.getValue().size());
+            for (String key : entry.getValue()) {
+                output.writeUTF(key);
+            }
+        }
+        for (String cacheName : clears) {
+            output.writeUTF(cacheName);
+            output.writeBoolean(true);
+            output.writeInt(0);
+        }
+        output.flush();
+
+        return bytes.toByteArray();
+    }
+
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2015 Jakub Białek
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.nearcache;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.util.Assert;
+
+import com.google.code.ssm.providers.CacheTranscoder;
+
+/**
+ * Base class of near caches, handles expiration of values and counts invalidations.
+ * 
+ * @author Jakub Białek
+ * @since 3.6.0
+ * 
+ */
+public abstract class AbstractNearCache implements NearCache {
+
+    // max relative expiration (30 days in seconds), memcached treats greater values as unix time
+    private static final int MAX_RELATIVE_EXPIRATION = 60 * 60 * 24 * 30;
+
+    private final long timeToLive;
+
+    private final AtomicLong invalidationCount = new AtomicLong();
+
+    protected AbstractNearCache(final long timeToLive) {
+        this.timeToLive = timeToLive;
+    }
+
+    @Override
+    public void putIfNotInvalidated(final String key, final Object value, final int expiration, final CacheTranscoder transcoder,
+            final long invalidationCount) {
+        put(key, value, expiration, transcoder);
+        // the count is incremented before removal so either the concurrent invalidation is seen here or it removes the
+        // value put above
+        if (this.invalidationCount.get() != invalidationCount) {
+            remove(key);
+        }
+    }
+
+    @Override
+    public void invalidate(final String key) {
+        invalidationCount.incrementAndGet();
+        remove(key);
+    }
+
+    @Override
+    public void invalidateAll(final Collection<String> keys) {
+        invalidationCount.incrementAndGet();
+        for (String key : keys) {
+            remove(key);
+        }
+    }
+
+    @Override
+    public void clear() {
+        invalidationCount.incrementAndGet();
+        removeAll();
+    }
+
+    @Override
+    public long getInvalidationCount() {
+        return invalidationCount.get();
+    }
+
+    /**
+     * Calculates time when value stored now should be removed from near cache. It's the time to live of near cache
+     * capped by the expiration of value in memcached.
+     * 
+     * @param now
+     *            the current time in milliseconds
+     * @param expiration
+     *            the expiration of value in memcached, number of seconds from now, unix time or 0 if value never
+     *            expires
+     * @return the expiration time in milliseconds
+     */
+    protected long getExpiresAt(final long now, final int expiration) {
+        final long expiresAt = now + timeToLive;
+        if (expiration <= 0) {
+            return expiresAt;
+        }
+
+        final long memcachedExpiresAt = expiration > MAX_RELATIVE_EXPIRATION ? expiration * 1000L : now + expiration * 1000L;
+        return Math.min(expiresAt, memcachedExpiresAt);
+    }
+
+    protected abstract void remove(String key);
+
+    protected abstract void removeAll();
+
+    protected static long getTimeToLive(final NearCacheConfiguration configuration) {
+        Assert.notNull(configuration, "'configuration' cannot be null");
+        return configuration.getTimeToLive();
+    }
+
+    protected static int hash(final String key) {
+        final int h = key.hashCode() * 0x9e3779b9;
+        return h ^ (h >>> 16);
+    }
+
+    long now() {
+        return System.currentTimeMillis();
+    }
+
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright (c) 2015 Jakub Białek
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.nearcache;
+
+import java.util.Collection;
+
+/**
+ * Propagates invalidations of near caches between JVMs. Cache publishes keys changed locally and the broadcaster
+ * invalidates them in near caches of the same cache registered in other JVMs. Invalidations published by given JVM
+ * shouldn't be applied in the same JVM. Implementation must be thread safe and may batch published invalidations.
+ * 
+ * @author Jakub Białek
+ * @since 3.6.0
+ * 
+ */
+public interface InvalidationBroadcaster {
+
+    /**
+     * Registers near cache which should receive invalidations published for the cache.
+     * 
+     * @param cacheName
+     *            the name of cache
+     * @param nearCache
+     *            the near cache of the cache
+     */
+    void register(String cacheName, NearCache nearCache);
+
+    void unregister(String cacheName);
+
+    /**
+     * Publishes invalidation of given keys.
+     * 
+     * @param cacheName
+     *            the name of cache
+     * @param keys
+     *            the changed keys
+     */
+    void publish(String cacheName, Collection<String> keys);
+
+    /**
+     * Publishes invalidation of all keys of the cache.
+     * 
+     * @param cacheName
+     *            the name of cache
+     */
+    void publishClear(String cacheName);
+
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2015 Jakub Białek
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.nearcache;
+
+import java.util.Collection;
+
+import com.google.code.ssm.providers.CacheTranscoder;
+
+/**
+ * In-process cache (L1) kept in front of memcached. It holds values recently read from or written to memcached so
+ * subsequent reads of the same keys don't require a network round trip. Implementation must be thread safe.
+ * 
+ * Implementations may keep values as objects or in encoded form, in the latter case the transcoder passed to
+ * {@link #get(String, CacheTranscoder)} and {@link #put(String, Object, int, CacheTranscoder)} is used.
+ * 
+ * @author Jakub Białek
+ * @since 3.6.0
+ * 
+ */
+public interface NearCache {
+
+    /**
+     * 
+     * @param key
+     *            the cache key
+     * @param transcoder
+     *            the transcoder used to decode the value
+     * @return the value or null if there is no valid value under the key
+     */
+    Object get(String key, CacheTranscoder transcoder);
+
+    /**
+     * Puts value under the given key.
+     * 
+     * @param key
+     *            the cache key
+     * @param value
+     *            the value
+     * @param expiration
+     *            the expiration of value in memcached, number of seconds from now, unix time or 0 if value never
+     *            expires
+     * @param transcoder
+     *            the transcoder used to encode the value
+     */
+    void put(String key, Object value, int expiration, CacheTranscoder transcoder);
+
+    /**
+     * Puts value read from memcached under the given key unless the near cache has been invalidated or cleared since
+     * the read started. Otherwise the value could be older than the invalidation and would be kept in near cache until
+     * it expires.
+     * 
+     * @param key
+     *            the cache key
+     * @param value
+     *            the value read from memcached
+     * @param expiration
+     *            the expiration of value in memcached, number of seconds from now, unix time or 0 if value never
+     *            expires
+     * @param transcoder
+     *            the transcoder used to encode the value
+     * @param invalidationCount
+     *            the result of {@link #getInvalidationCount()} obtained before the read started
+     */
+    void putIfNotInvalidated(String key, Object value, int expiration, CacheTranscoder transcoder, long invalidationCount);
+
+    void invalidate(String key);
+
+    void invalidateAll(Collection<String> keys);
+
+    void clear();
+
+    /**
+     * 
+     * @return number of invalidations and clears of this near cache so far
+     */
+    long getInvalidationCount();
+
+    /**
+     * 
+     * @return number of values stored in near cache
+     */
+    long size();
+
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2015 Jakub Białek
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.nearcache;
+
+import lombok.Data;
+
+/**
+ * Configuration of in-process near cache.
+ * 
+ * @author Jakub Białek
+ * @since 3.6.0
+ * 
+ */
+@Data
+public class NearCacheConfiguration {
+
+    /**
+     * Maximum number of values stored in near cache.
+     */
+    private int maxEntries = 10000;
+
+    /**
+     * Maximum total weight of values stored in near cache, 0 means that weight is not limited. Weight of each value is
+     * calculated using {@link #weigher}.
+     */
+    private long maxWeight = 0;
+
+    /**
+     * Calculates weight of values, if null each value has weight 1.
+     */
+    private Weigher weigher;
+
+    /**
+     * Time in milliseconds after value is removed from near cache. The value is also removed if it expires in
+     * memcached.
+     */
+    private long timeToLive = 5000;
+
+    /**
+     * If true values are stored encoded outside of the java heap in {@link OffHeapNearCache}, weight of values is then
+     * the size of encoded value and {@link #maxWeight} and {@link #weigher} are not used.
+     */
+    private boolean offHeap;
+
+    /**
+     * Maximum size in bytes of memory allocated outside of the java heap if {@link #offHeap} is true.
+     */
+    private long offHeapCapacity = 64 * 1024 * 1024;
+
+    /**
+     * Size in bytes of single block of off heap memory, values with encoded size greater than slab size aren't stored.
+     */
+    private int slabSize = 1024 * 1024;
+
+}
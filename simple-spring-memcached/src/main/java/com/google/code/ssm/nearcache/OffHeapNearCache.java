@@ -0,0 +1,364 @@
+/*
+ * Copyright (c) 2015 Jakub Białek
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.nearcache;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+import org.springframework.util.Assert;
+
+import com.google.code.ssm.providers.CacheTranscoder;
+import com.google.code.ssm.providers.CachedObject;
+import com.google.code.ssm.providers.CachedObjectImpl;
+
+/**
+ * Near cache which keeps encoded values outside of the java heap so even large near cache doesn't increase GC pauses.
+ * 
+ * Memory is allocated lazily in direct buffers (slabs) of the same size. Values are encoded using transcoder of the
+ * cache and appended to the current slab, when the slab is full the next one is used. If all slabs are in use the
+ * oldest one is reused and all values stored in it are evicted (FIFO eviction). Location of values is tracked in the
+ * open addressing index built on primitive arrays, so the cache doesn't create on-heap object per value.
+ * 
+ * To reduce contention the cache is divided into independently locked segments.
+ * 
+ * Values are decoded on each hit so callers always receive new instance. Values without transcoder and values which
+ * encoded size is greater than the slab size are not stored.
+ * 
+ * @author Jakub Białek
+ * @since 3.6.0
+ * 
+ */
+public class OffHeapNearCache extends AbstractNearCache {
+
+    private static final Charset CHARSET = Charset.forName("UTF-8");
+
+    private static final int MAX_SEGMENTS = 16;
+
+    // key length, flags, data length and expiration time
+    private static final int RECORD_HEADER_SIZE = 4 + 4 + 4 + 8;
+
+    private final Segment[] segments;
+
+    private final int segmentMask;
+
+    public OffHeapNearCache(final NearCacheConfiguration configuration) {
+        super(getTimeToLive(configuration));
+        Assert.isTrue(configuration.getMaxEntries() > 0, "'maxEntries' must be greater than 0");
+        Assert.isTrue(configuration.getTimeToLive() > 0, "'timeToLive' must be greater than 0");
+        Assert.isTrue(configuration.getSlabSize() > RECORD_HEADER_SIZE, "'slabSize' is too small");
+        Assert.isTrue(configuration.getOffHeapCapacity() >= configuration.getSlabSize(),
+                "'offHeapCapacity' cannot be less than 'slabSize'");
+
+        final long slabCount = configuration.getOffHeapCapacity() / configuration.getSlabSize();
+        Assert.isTrue(slabCount <= Integer.MAX_VALUE, "'offHeapCapacity' is too big for given 'slabSize'");
+
+        // each segment should have at least two slabs so evicting one doesn't clear the whole segment
+        int segmentCount = 1;
+        while (segmentCount < MAX_SEGMENTS && segmentCount * 2 * 2 <= slabCount
+                && segmentCount * 2 <= configuration.getMaxEntries()) {
+            segmentCount <<= 1;
+        }
+
+        segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment((int) (slabCount / segmentCount), configuration.getSlabSize(), configuration.getMaxEntries()
+                    / segmentCount);
+        }
+        segmentMask = segmentCount - 1;
+    }
+
+    @Override
+    public Object get(final String key, final CacheTranscoder transcoder) {
+        if (transcoder == null) {
+            return null;
+        }
+
+        final int hash = hash(key);
+        final CachedObject cachedObject = segmentFor(hash).get(key.getBytes(CHARSET), hash, now());
+        return (cachedObject != null) ? transcoder.decode(cachedObject) : null;
+    }
+
+    @Override
+    public void put(final String key, final Object value, final int expiration, final CacheTranscoder transcoder) {
+        final int hash = hash(key);
+        if (transcoder == null) {
+            segmentFor(hash).invalidate(key.getBytes(CHARSET), hash);
+            return;
+        }
+
+        final long now = now();
+        final CachedObject cachedObject = transcoder.encode(value);
+        segmentFor(hash).put(key.getBytes(CHARSET), hash, cachedObject, getExpiresAt(now, expiration));
+    }
+
+    @Override
+    protected void remove(final String key) {
+        final int hash = hash(key);
+        segmentFor(hash).invalidate(key.getBytes(CHARSET), hash);
+    }
+
+    @Override
+    protected void removeAll() {
+        for (Segment segment : segments) {
+            segment.clear();
+        }
+    }
+
+    @Override
+    public long size() {
+        long size = 0;
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+
+        return size;
+    }
+
+    private Segment segmentFor(final int hash) {
+        return segments[(hash >>> 16) & segmentMask];
+    }
+
+    private static final class Segment {
+
+        private final ByteBuffer[] slabs;
+
+        // number of values stored in each slab
+        private final int[] slabEntries;
+
+        private final int slabSize;
+
+        private final int maxEntries;
+
+        // location of value in slabs: (slab index + 1) << 32 | offset, 0 means empty slot
+        private final long[] slots;
+
+        private final int[] hashes;
+
+        private final int mask;
+
+        private int count;
+
+        private int currentSlab;
+
+        private int position;
+
+        Segment(final int slabCount, final int slabSize, final int maxEntries) {
+            this.slabs = new ByteBuffer[slabCount];
+            this.slabEntries = new int[slabCount];
+            this.slabSize = slabSize;
+            this.maxEntries = Math.max(1, maxEntries);
+
+            // keep load factor of index below 0.5
+            int capacity = 2;
+            while (capacity < this.maxEntries * 2) {
+                capacity <<= 1;
+            }
+            slots = new long[capacity];
+            hashes = new int[capacity];
+            mask = capacity - 1;
+        }
+
+        synchronized CachedObject get(final byte[] key, final int hash, final long now) {
+            final int index = indexOf(key, hash);
+            if (index < 0) {
+                return null;
+            }
+
+            final ByteBuffer slab = slabs[slabOf(slots[index])];
+            final int offset = offsetOf(slots[index]);
+            if (slab.getLong(offset + 12) <= now) {
+                remove(index);
+                return null;
+            }
+
+            final int flags = slab.getInt(offset + 4);
+            final byte[] data = new byte[slab.getInt(offset + 8)];
+            slab.position(offset + RECORD_HEADER_SIZE + key.length);
+            slab.get(data);
+
+            return new CachedObjectImpl(flags, data);
+        }
+
+        synchronized void put(final byte[] key, final int hash, final CachedObject value, final long expiresAt) {
+            final int recordSize = RECORD_HEADER_SIZE + key.length + value.getData().length;
+            int index = indexOf(key, hash);
+            if (recordSize > slabSize) {
+                if (index >= 0) {
+                    remove(index);
+                }
+                return;
+            }
+
+            if (index < 0 && count >= maxEntries) {
+                evictOldestSlab();
+            }
+
+            if (slabs[currentSlab] == null) {
+                slabs[currentSlab] = ByteBuffer.allocateDirect(slabSize);
+            } else if (position + recordSize > slabSize) {
+                nextSlab();
+            }
+
+            // previous value could be evicted together with slab
+            index = indexOf(key, hash);
+            if (index >= 0) {
+                slabEntries[slabOf(slots[index])]--;
+            } else {
+                index = freeSlot(hash);
+                hashes[index] = hash;
+                count++;
+            }
+
+            final ByteBuffer slab = slabs[currentSlab];
+            slab.putInt(position, key.length);
+            slab.putInt(position + 4, value.getFlags());
+            slab.putInt(position + 8, value.getData().length);
+            slab.putLong(position + 12, expiresAt);
+            slab.position(position + RECORD_HEADER_SIZE);
+            slab.put(key);
+            slab.put(value.getData());
+
+            slots[index] = ((long) (currentSlab + 1) << 32) | position;
+            slabEntries[currentSlab]++;
+            position += recordSize;
+        }
+
+        synchronized void invalidate(final byte[] key, final int hash) {
+            final int index = indexOf(key, hash);
+            if (index >= 0) {
+                remove(index);
+            }
+        }
+
+        synchronized void clear() {
+            Arrays.fill(slots, 0L);
+            Arrays.fill(slabEntries, 0);
+            count = 0;
+            currentSlab = 0;
+            position = 0;
+        }
+
+        synchronized int size() {
+            return count;
+        }
+
+        private void nextSlab() {
+            currentSlab = (currentSlab + 1) % slabs.length;
+            position = 0;
+            if (slabs[currentSlab] == null) {
+                slabs[currentSlab] = ByteBuffer.allocateDirect(slabSize);
+            } else if (slabEntries[currentSlab] > 0) {
+                evictSlab(currentSlab);
+            }
+        }
+
+        private void evictOldestSlab() {
+            for (int i = 1; i <= slabs.length; i++) {
+                final int slab = (currentSlab + i) % slabs.length;
+                if (slabEntries[slab] > 0) {
+                    evictSlab(slab);
+                    if (slab == currentSlab) {
+                        position = 0;
+                    }
+                    return;
+                }
+            }
+        }
+
+        private void evictSlab(final int slab) {
+            for (int i = 0; i < slots.length && slabEntries[slab] > 0; i++) {
+                // removal shifts next values back so the same slot has to be checked again
+                while (slots[i] != 0 && slabOf(slots[i]) == slab) {
+                    remove(i);
+                }
+            }
+        }
+
+        private int indexOf(final byte[] key, final int hash) {
+            int index = hash & mask;
+            while (slots[index] != 0) {
+                if (hashes[index] == hash && keyEquals(slots[index], key)) {
+                    return index;
+                }
+                index = (index + 1) & mask;
+            }
+
+            return -1;
+        }
+
+        private int freeSlot(final int hash) {
+            int index = hash & mask;
+            while (slots[index] != 0) {
+                index = (index + 1) & mask;
+            }
+
+            return index;
+        }
+
+        private boolean keyEquals(final long location, final byte[] key) {
+            final ByteBuffer slab = slabs[slabOf(location)];
+            final int offset = offsetOf(location);
+            if (slab.getInt(offset) != key.length) {
+                return false;
+            }
+
+            for (int i = 0; i < key.length; i++) {
+                if (slab.get(offset + RECORD_HEADER_SIZE + i) != key[i]) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+
+        // removes value from index using backward shift deletion (no tombstones)
+        private void remove(final int index) {
+            slabEntries[slabOf(slots[index])]--;
+            count--;
+
+            int free = index;
+            int current = index;
+            while (true) {
+                current = (current + 1) & mask;
+                if (slots[current] == 0) {
+                    break;
+                }
+
+                final int ideal = hashes[current] & mask;
+                final boolean canMove = (free <= current) ? (ideal <= free || ideal > current) : (ideal <= free && ideal > current);
+                if (canMove) {
+                    slots[free] = slots[current];
+                    hashes[free] = hashes[current];
+                    free = current;
+                }
+            }
+            slots[free] = 0;
+        }
+
+        private static int slabOf(final long location) {
+            return (int) (location >>> 32) - 1;
+        }
+
+        private static int offsetOf(final long location) {
+            return (int) location;
+        }
+
+    }
+
+}
@@ -0,0 +1,338 @@
+/*
+ * Copyright (c) 2015 Jakub Białek
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.nearcache;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.util.Assert;
+
+import com.google.code.ssm.providers.CacheTranscoder;
+
+/**
+ * Near cache bounded by number and total weight of values with W-TinyLFU eviction policy. New values land in small
+ * LRU window, values evicted from the window compete with values from main segmented LRU (probation and protected
+ * parts) and only the more frequently used one is retained. Access frequency is estimated by {@link FrequencySketch}.
+ * 
+ * To reduce contention the cache is divided into independently locked segments.
+ * 
+ * Values are stored and returned by reference (transcoders are not used), they shouldn't be modified by callers.
+ * 
+ * @author Jakub Białek
+ * @since 3.6.0
+ * 
+ */
+public class TinyLfuNearCache extends AbstractNearCache {
+
+    private static final int MAX_SEGMENTS = 16;
+
+    private static final int MIN_SEGMENT_ENTRIES = 64;
+
+    private final Segment[] segments;
+
+    private final int segmentMask;
+
+    private final Weigher weigher;
+
+    public TinyLfuNearCache(final NearCacheConfiguration configuration) {
+        super(getTimeToLive(configuration));
+        Assert.isTrue(configuration.getMaxEntries() > 0, "'maxEntries' must be greater than 0");
+        Assert.isTrue(configuration.getMaxWeight() >= 0, "'maxWeight' cannot be negative");
+        Assert.isTrue(configuration.getTimeToLive() > 0, "'timeToLive' must be greater than 0");
+
+        int segmentCount = 1;
+        while (segmentCount < MAX_SEGMENTS && segmentCount * 2 * MIN_SEGMENT_ENTRIES <= configuration.getMaxEntries()) {
+            segmentCount <<= 1;
+        }
+
+        final int segmentMaxEntries = configuration.getMaxEntries() / segmentCount;
+        final long segmentMaxWeight = configuration.getMaxWeight() > 0 ? Math.max(1, configuration.getMaxWeight() / segmentCount)
+                : Long.MAX_VALUE;
+
+        segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment(segmentMaxEntries, segmentMaxWeight);
+        }
+        segmentMask = segmentCount - 1;
+        weigher = configuration.getWeigher();
+    }
+
+    @Override
+    public Object get(final String key, final CacheTranscoder transcoder) {
+        final int hash = hash(key);
+        return segmentFor(hash).get(key, hash, now());
+    }
+
+    @Override
+    public void put(final String key, final Object value, final int expiration, final CacheTranscoder transcoder) {
+        final long now = now();
+        final int hash = hash(key);
+        final int weight = (weigher != null) ? weigher.weigh(key, value) : 1;
+        Assert.isTrue(weight >= 0, "Weight cannot be negative");
+
+        segmentFor(hash).put(key, hash, value, weight, getExpiresAt(now, expiration));
+    }
+
+    @Override
+    protected void remove(final String key) {
+        final int hash = hash(key);
+        segmentFor(hash).invalidate(key);
+    }
+
+    @Override
+    protected void removeAll() {
+        for (Segment segment : segments) {
+            segment.clear();
+        }
+    }
+
+    @Override
+    public long size() {
+        long size = 0;
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+
+        return size;
+    }
+
+    private Segment segmentFor(final int hash) {
+        return segments[(hash >>> 16) & segmentMask];
+    }
+
+    private static final class Segment {
+
+        private static final int WINDOW_PERCENT = 1;
+
+        private static final int PROTECTED_PERCENT = 80;
+
+        private final Map<String, Node> data = new HashMap<String, Node>();
+
+        private final FrequencySketch sketch;
+
+        private final AccessQueue window = new AccessQueue();
+
+        private final AccessQueue probation = new AccessQueue();
+
+        private final AccessQueue protectedQueue = new AccessQueue();
+
+        private final int maxEntries;
+
+        private final long maxWeight;
+
+        private final long maxWindowWeight;
+
+        private final long maxProtectedWeight;
+
+        private long weight;
+
+        Segment(final int maxEntries, final long maxWeight) {
+            this.maxEntries = Math.max(1, maxEntries);
+            this.maxWeight = maxWeight;
+            this.sketch = new FrequencySketch(this.maxEntries);
+
+            final long capacity = (maxWeight == Long.MAX_VALUE) ? this.maxEntries : maxWeight;
+            this.maxWindowWeight = Math.max(1, capacity * WINDOW_PERCENT / 100);
+            this.maxProtectedWeight = (capacity - maxWindowWeight) * PROTECTED_PERCENT / 100;
+        }
+
+        synchronized Object get(final String key, final int hash, final long now) {
+            sketch.increment(hash);
+            final Node node = data.get(key);
+            if (node == null) {
+                return null;
+            }
+
+            if (node.expiresAt <= now) {
+                remove(node);
+                return null;
+            }
+
+            onAccess(node);
+            return node.value;
+        }
+
+        synchronized void put(final String key, final int hash, final Object value, final int nodeWeight, final long expiresAt) {
+            sketch.increment(hash);
+            Node node = data.get(key);
+            if (node == null) {
+                node = new Node(key, hash, value, nodeWeight, expiresAt);
+                data.put(key, node);
+                window.add(node);
+                weight += nodeWeight;
+            } else {
+                node.queue.weight += nodeWeight - node.weight;
+                weight += nodeWeight - node.weight;
+                node.weight = nodeWeight;
+                node.value = value;
+                node.expiresAt = expiresAt;
+                onAccess(node);
+            }
+
+            evict();
+        }
+
+        synchronized void invalidate(final String key) {
+            final Node node = data.get(key);
+            if (node != null) {
+                remove(node);
+            }
+        }
+
+        synchronized void clear() {
+            data.clear();
+            window.clear();
+            probation.clear();
+            protectedQueue.clear();
+            weight = 0;
+        }
+
+        synchronized int size() {
+            return data.size();
+        }
+
+        private void onAccess(final Node node) {
+            if (node.queue == probation) {
+                // promote to protected part, demote the least recently used protected values if it's full
+                probation.remove(node);
+                protectedQueue.add(node);
+                while (protectedQueue.weight > maxProtectedWeight && protectedQueue.first() != node) {
+                    final Node demoted = protectedQueue.first();
+                    protectedQueue.remove(demoted);
+                    probation.add(demoted);
+                }
+            } else {
+                node.queue.moveToTail(node);
+            }
+        }
+
+        private void evict() {
+            // values evicted from window become candidates (the most recently added values in probation)
+            while (window.weight > maxWindowWeight && window.first() != null) {
+                final Node candidate = window.first();
+                window.remove(candidate);
+                probation.add(candidate);
+            }
+
+            while (data.size() > maxEntries || weight > maxWeight) {
+                final Node victim = probation.first();
+                if (victim == null) {
+                    remove(protectedQueue.first() != null ? protectedQueue.first() : window.first());
+                    continue;
+                }
+
+                final Node candidate = probation.last();
+                if (candidate == victim || sketch.frequency(candidate.hash) > sketch.frequency(victim.hash)) {
+                    remove(victim);
+                } else {
+                    remove(candidate);
+                }
+            }
+        }
+
+        private void remove(final Node node) {
+            data.remove(node.key);
+            node.queue.remove(node);
+            weight -= node.weight;
+        }
+
+    }
+
+    private static final class Node {
+
+        private final String key;
+
+        private final int hash;
+
+        private Object value;
+
+        private int weight;
+
+        private long expiresAt;
+
+        private AccessQueue queue;
+
+        private Node prev;
+
+        private Node next;
+
+        Node(final String key, final int hash, final Object value, final int weight, final long expiresAt) {
+            this.key = key;
+            this.hash = hash;
+            this.value = value;
+            this.weight = weight;
+            this.expiresAt = expiresAt;
+        }
+
+    }
+
+    /**
+     * Doubly linked list of nodes ordered from the least to the most recently used.
+     * 
+     */
+    private static final class AccessQueue {
+
+        private final Node head = new Node(null, 0, null, 0, 0);
+
+        private long weight;
+
+        AccessQueue() {
+            head.prev = head;
+            head.next = head;
+        }
+
+        Node first() {
+            return head.next == head ? null : head.next;
+        }
+
+        Node last() {
+            return head.prev == head ? null : head.prev;
+        }
+
+        void add(final Node node) {
+            node.prev = head.prev;
+            node.next = head;
+            head.prev.next = node;
+            head.prev = node;
+            node.queue = this;
+            weight += node.weight;
+        }
+
+        void remove(final Node node) {
+            node.prev.next = node.next;
+            node.next.prev = node.prev;
+            node.prev = null;
+            node.next = null;
+            node.queue = null;
+            weight -= node.weight;
+        }
+
+        void moveToTail(final Node node) {
+            remove(node);
+            add(node);
+        }
+
+        void clear() {
+            head.prev = head;
+            head.next = head;
+            weight = 0;
+        }
+
+    }
+
+}
@@ -18,6 +18,13 @@
 package com.google.code.ssm.providers;
 
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 import java.util.concurrent.TimeoutException;
 
 /**
@@ -28,6 +35,202 @@ import java.util.concurrent.TimeoutException;
  */
 public abstract class AbstractMemcacheClientWrapper implements CacheClient {
 
+    /**
+     * Adds the item synchronously and returns completed future.
+     */
+    @Override
+    public Future<Boolean> asyncAdd(final String key, final int exp, final Object value) {
+        return execute(new Callable<Boolean>() {
+            @Override
+            public Boolean call() throws Exception {
+                return add(key, exp, value);
+            }
+        });
+    }
+
+    /**
+     * Adds the item synchronously and returns completed future.
+     */
+    @Override
+    public <T> Future<Boolean> asyncAdd(final String key, final int exp, final T value, final CacheTranscoder transcoder) {
+        return execute(new Callable<Boolean>() {
+            @Override
+            public Boolean call() throws Exception {
+                return add(key, exp, value, transcoder);
+            }
+        });
+    }
+
+    /**
+     * Decrements the counter synchronously and returns completed future.
+     */
+    @Override
+    public Future<Long> asyncDecr(final String key, final int by) {
+        return execute(new Callable<Long>() {
+            @Override
+            public Long call() throws Exception {
+                return decr(key, by);
+            }
+        });
+    }
+
+    /**
+     * Deletes the value synchronously and returns completed future.
+     */
+    @Override
+    public Future<Boolean> asyncDelete(final String key) {
+        return execute(new Callable<Boolean>() {
+            @Override
+            public Boolean call() throws Exception {
+                return delete(key);
+            }
+        });
+    }
+
+    /**
+     * Gets the value synchronously and returns completed future.
+     */
+    @Override
+    public Future<Object> asyncGet(final String key) {
+        return execute(new Callable<Object>() {
+            @Override
+            public Object call() throws Exception {
+                return get(key);
+            }
+        });
+    }
+
+    /**
+     * Gets the value synchronously and returns completed future.
+     */
+    @Override
+    public <T> Future<T> asyncGet(final String key, final CacheTranscoder transcoder) {
+        return execute(new Callable<T>() {
+            @Override
+            public T call() throws Exception {
+                return AbstractMemcacheClientWrapper.this.<T> get(key, transcoder);
+            }
+        });
+    }
+
+    /**
+     * Gets the values synchronously and returns completed future.
+     */
+    @Override
+    public Future<Map<String, Object>> asyncGetBulk(final Collection<String> keys) {
+        return execute(new Callable<Map<String, Object>>() {
+            @Override
+            public Map<String, Object> call() throws Exception {
+                return getBulk(keys);
+            }
+        });
+    }
+
+    /**
+     * Gets the values synchronously and returns completed future.
+     */
+    @Override
+    public <T> Future<Map<String, T>> asyncGetBulk(final Collection<String> keys, final CacheTranscoder transcoder) {
+        return execute(new Callable<Map<String, T>>() {
+            @Override
+            public Map<String, T> call() throws Exception {
+                return AbstractMemcacheClientWrapper.this.<T> getBulk(keys, transcoder);
+            }
+        });
+    }
+
+    /**
+     * Increments the counter synchronously and returns completed future.
+     */
+    @Override
+    public Future<Long> asyncIncr(final String key, final int by) {
+        return execute(new Callable<Long>() {
+            @Override
+            public Long call() throws Exception {
+                return incr(key, by);
+            }
+        });
+    }
+
+    /**
+     * Increments or initializes the counter synchronously and returns completed future.
+     */
+    @Override
+    public Future<Long> asyncIncr(final String key, final int by, final long def, final int exp) {
+        return execute(new Callable<Long>() {
+            @Override
+            public Long call() throws Exception {
+                return incr(key, by, def, exp);
+            }
+        });
+    }
+
+    /**
+     * Stores the item synchronously and returns completed future.
+     */
+    @Override
+    public Future<Boolean> asyncSet(final String key, final int exp, final Object value) {
+        return execute(new Callable<Boolean>() {
+            @Override
+            public Boolean call() throws Exception {
+                return set(key, exp, value);
+            }
+        });
+    }
+
+    /**
+     * Stores the item synchronously and returns completed future.
+     */
+    @Override
+    public <T> Future<Boolean> asyncSet(final String key, final int exp, final T value, final CacheTranscoder transcoder) {
+        return execute(new Callable<Boolean>() {
+            @Override
+            public Boolean call() throws Exception {
+                return set(key, exp, value, transcoder);
+            }
+        });
+    }
+
+    /**
+     * Sends the operation asynchronously and doesn't wait for its completion.
+     */
+    @Override
+    public void addWithNoReply(final String key, final int exp, final Object value) throws CacheException {
+        asyncAdd(key, exp, value);
+    }
+
+    /**
+     * Sends the operation asynchronously and doesn't wait for its completion.
+     */
+    @Override
+    public <T> void addWithNoReply(final String key, final int exp, final T value, final CacheTranscoder transcoder) throws CacheException {
+        asyncAdd(key, exp, value, transcoder);
+    }
+
+    /**
+     * Sends the operation asynchronously and doesn't wait for its completion.
+     */
+    @Override
+    public void deleteWithNoReply(final String key) throws CacheException {
+        asyncDelete(key);
+    }
+
+    /**
+     * Sends the operation asynchronously and doesn't wait for its completion.
+     */
+    @Override
+    public void setWithNoReply(final String key, final int exp, final Object value) throws CacheException {
+        asyncSet(key, exp, value);
+    }
+
+    /**
+     * Sends the operation asynchronously and doesn't wait for its completion.
+     */
+    @Override
+    public <T> void setWithNoReply(final String key, final int exp, final T value, final CacheTranscoder transcoder) throws CacheException {
+        asyncSet(key, exp, value, transcoder);
+    }
+
     @Override
     public void delete(final Collection<String> keys) throws TimeoutException, CacheException {
         if (keys == null || keys.isEmpty()) {
@@ -42,4 +245,122 @@ public abstract class AbstractMemcacheClientWrapper implements CacheClient {
 
     }
 
+    @Override
+    public Set<String> addBulk(final Map<String, ?> values, final int exp) throws TimeoutException, CacheException {
+        final Set<String> added = new HashSet<String>();
+        for (final Map.Entry<String, ?> entry : values.entrySet()) {
+            if (add(entry.getKey(), exp, entry.getValue())) {
+                added.add(entry.getKey());
+            }
+        }
+
+        return added;
+    }
+
+    @Override
+    public <T> Set<String> addBulk(final Map<String, T> values, final int exp, final CacheTranscoder transcoder) throws TimeoutException,
+            CacheException {
+        final Set<String> added = new HashSet<String>();
+        for (final Map.Entry<String, T> entry : values.entrySet()) {
+            if (add(entry.getKey(), exp, entry.getValue(), transcoder)) {
+                added.add(entry.getKey());
+            }
+        }
+
+        return added;
+    }
+
+    @Override
+    public void setBulk(final Map<String, ?> values, final int exp) throws TimeoutException, CacheException {
+        for (final Map.Entry<String, ?> entry : values.entrySet()) {
+            set(entry.getKey(), exp, entry.getValue());
+        }
+    }
+
+    @Override
+    public <T> void setBulk(final Map<String, T> values, final int exp, final CacheTranscoder transcoder) throws TimeoutException,
+            CacheException {
+        for (final Map.Entry<String, T> entry : values.entrySet()) {
+            set(entry.getKey(), exp, entry.getValue(), transcoder);
+        }
+    }
+
+    /**
+     * Waits for values as long as operation timeout of the client, if the timeout is exceeded all keys are treated as
+     * cache misses.
+     */
+    @Override
+    public Map<String, Object> getBulk(final Collection<String> keys, final long timeout) throws TimeoutException, CacheException {
+        try {
+            return getBulk(keys);
+        } catch (TimeoutException e) {
+            return Collections.emptyMap();
+        }
+    }
+
+    /**
+     * Waits for values as long as operation timeout of the client, if the timeout is exceeded all keys are treated as
+     * cache misses.
+     */
+    @Override
+    public <T> Map<String, T> getBulk(final Collection<String> keys, final CacheTranscoder transcoder, final long timeout)
+            throws TimeoutException, CacheException {
+        try {
+            return getBulk(keys, transcoder);
+        } catch (TimeoutException e) {
+            return Collections.emptyMap();
+        }
+    }
+
+    /**
+     * Gets values synchronously and notifies the callback in the current thread.
+     */
+    @Override
+    public void getBulk(final Collection<String> keys, final BulkGetCallback<Object> callback) {
+        final Map<String, Object> values;
+        try {
+            values = getBulk(keys);
+        } catch (TimeoutException e) {
+            callback.onFailure(e);
+            return;
+        } catch (CacheException e) {
+            callback.onFailure(e);
+            return;
+        }
+
+        callback.onComplete(values);
+    }
+
+    /**
+     * Gets values synchronously and notifies the callback in the current thread.
+     */
+    @Override
+    public <T> void getBulk(final Collection<String> keys, final CacheTranscoder transcoder, final BulkGetCallback<T> callback) {
+        final Map<String, T> values;
+        try {
+            values = getBulk(keys, transcoder);
+        } catch (TimeoutException e) {
+            callback.onFailure(e);
+            return;
+        } catch (CacheException e) {
+            callback.onFailure(e);
+            return;
+        }
+
+        callback.onComplete(values);
+    }
+
+    /**
+     * Executes the operation in the current thread, exception thrown by the operation is reported by returned future.
+     * 
+     * @param operation
+     *            the operation to execute
+     * @return completed future holding result of the operation
+     */
+    protected <T> Future<T> execute(final Callable<T> operation) {
+        final FutureTask<T> future = new FutureTask<T>(operation);
+        future.run();
+        return future;
+    }
+
 }
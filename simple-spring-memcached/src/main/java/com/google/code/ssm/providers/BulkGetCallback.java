@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) 2015 Jakub Białek
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.google.code.ssm.providers;
+
+import java.util.Map;
+
+/**
+ * Receives result of asynchronous bulk get operation.
+ * 
+ * @author Jakub Białek
+ * @since 3.6.0
+ * 
+ * @param <T>
+ *            the type of values
+ */
+public interface BulkGetCallback<T> {
+
+    /**
+     * Invoked with values retrieved from cache. Keys not present in the map are cache misses.
+     * 
+     * @param values
+     *            the retrieved values
+     */
+    void onComplete(Map<String, T> values);
+
+    /**
+     * Invoked if values cannot be retrieved from cache.
+     * 
+     * @param e
+     *            the cause of failure
+     */
+    void onFailure(Exception e);
+
+}
@@ -20,6 +20,8 @@ package com.google.code.ssm.providers;
 import java.net.SocketAddress;
 import java.util.Collection;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeoutException;
 
 /**
@@ -30,11 +32,216 @@ import java.util.concurrent.TimeoutException;
  */
 public interface CacheClient {
 
+    /**
+     * Adds key-value item if it doesn't exist in memcached without waiting for completion. Failure of the operation is
+     * reported by {@link Future#get()}.
+     * 
+     * @param key
+     *            the key
+     * @param exp
+     *            expire time
+     * @param value
+     *            the value
+     * @return future holding true if the item has been added
+     * @since 3.6.0
+     */
+    Future<Boolean> asyncAdd(final String key, final int exp, final Object value);
+
+    /**
+     * 
+     * @since 3.6.0
+     */
+    <T> Future<Boolean> asyncAdd(final String key, final int exp, final T value, final CacheTranscoder transcoder);
+
+    /**
+     * Decrements counter without waiting for completion.
+     * 
+     * @param key
+     *            the key of counter
+     * @param by
+     *            the delta
+     * @return future holding the new value of counter or -1 if the counter doesn't exist
+     * @since 3.6.0
+     */
+    Future<Long> asyncDecr(final String key, final int by);
+
+    /**
+     * Deletes value under given key without waiting for completion.
+     * 
+     * @param key
+     *            the key
+     * @return future holding true if the value has been deleted
+     * @since 3.6.0
+     */
+    Future<Boolean> asyncDelete(final String key);
+
+    /**
+     * Gets value of given key without waiting for completion.
+     * 
+     * @param key
+     *            the key
+     * @return future holding the value or null if there is no such key
+     * @since 3.6.0
+     */
+    Future<Object> asyncGet(final String key);
+
+    /**
+     * 
+     * @since 3.6.0
+     */
+    <T> Future<T> asyncGet(final String key, final CacheTranscoder transcoder);
+
+    /**
+     * Gets values of given keys without waiting for completion.
+     * 
+     * @param keys
+     *            the keys
+     * @return future holding retrieved values, keys not present in the map are cache misses
+     * @since 3.6.0
+     */
+    Future<Map<String, Object>> asyncGetBulk(final Collection<String> keys);
+
+    /**
+     * 
+     * @since 3.6.0
+     */
+    <T> Future<Map<String, T>> asyncGetBulk(final Collection<String> keys, final CacheTranscoder transcoder);
+
+    /**
+     * Increments counter without waiting for completion.
+     * 
+     * @param key
+     *            the key of counter
+     * @param by
+     *            the delta
+     * @return future holding the new value of counter or -1 if the counter doesn't exist
+     * @since 3.6.0
+     */
+    Future<Long> asyncIncr(final String key, final int by);
+
+    /**
+     * Increments counter without waiting for completion. If counter doesn't exist it's initialized with default value.
+     * 
+     * @param key
+     *            the key of counter
+     * @param by
+     *            the delta
+     * @param def
+     *            the default value of counter
+     * @param exp
+     *            expire time of counter
+     * @return future holding the new value of counter
+     * @since 3.6.0
+     */
+    Future<Long> asyncIncr(final String key, final int by, final long def, final int exp);
+
+    /**
+     * Stores key-value item in memcached without waiting for completion.
+     * 
+     * @param key
+     *            the key
+     * @param exp
+     *            expire time
+     * @param value
+     *            the value
+     * @return future holding true if the item has been stored
+     * @since 3.6.0
+     */
+    Future<Boolean> asyncSet(final String key, final int exp, final Object value);
+
+    /**
+     * 
+     * @since 3.6.0
+     */
+    <T> Future<Boolean> asyncSet(final String key, final int exp, final T value, final CacheTranscoder transcoder);
+
     boolean add(final String key, final int exp, final Object value) throws TimeoutException, CacheException;
 
     <T> boolean add(final String key, final int exp, final T value, final CacheTranscoder transcoder) throws TimeoutException,
             CacheException;
 
+    /**
+     * Adds all key-value items that don't exist in memcached. All operations are sent at once and the method waits for
+     * their completion only once.
+     * 
+     * @param values
+     *            the key-value items to add
+     * @param exp
+     *            expire time
+     * @return keys of items that have been added
+     * @throws TimeoutException
+     * @throws CacheException
+     * @since 3.6.0
+     */
+    Set<String> addBulk(final Map<String, ?> values, final int exp) throws TimeoutException, CacheException;
+
+    /**
+     * Adds all key-value items that don't exist in memcached. All operations are sent at once and the method waits for
+     * their completion only once.
+     * 
+     * @param <T>
+     * @param values
+     *            the key-value items to add
+     * @param exp
+     *            expire time
+     * @param transcoder
+     *            the transcoder to use
+     * @return keys of items that have been added
+     * @throws TimeoutException
+     * @throws CacheException
+     * @since 3.6.0
+     */
+    <T> Set<String> addBulk(final Map<String, T> values, final int exp, final CacheTranscoder transcoder) throws TimeoutException,
+            CacheException;
+
+    /**
+     * Adds key-value item if it doesn't exist in memcached without waiting for server's response. Result of the
+     * operation isn't reported.
+     * 
+     * @param key
+     *            the key
+     * @param exp
+     *            expire time
+     * @param value
+     *            the value
+     * @throws CacheException
+     *             if the operation cannot be sent
+     * @since 3.6.0
+     */
+    void addWithNoReply(final String key, final int exp, final Object value) throws CacheException;
+
+    /**
+     * 
+     * @since 3.6.0
+     */
+    <T> void addWithNoReply(final String key, final int exp, final T value, final CacheTranscoder transcoder) throws CacheException;
+
+    /**
+     * Stores value under given key only if the item hasn't been modified since it was retrieved with given CAS
+     * identifier.
+     * 
+     * @param key
+     *            the key
+     * @param cas
+     *            the CAS identifier returned by {@link #gets(String)}
+     * @param exp
+     *            expire time
+     * @param value
+     *            the new value
+     * @return true if the value has been stored, false if the item has been modified or doesn't exist
+     * @throws TimeoutException
+     * @throws CacheException
+     * @since 3.6.0
+     */
+    boolean cas(final String key, final long cas, final int exp, final Object value) throws TimeoutException, CacheException;
+
+    /**
+     * 
+     * @since 3.6.0
+     */
+    <T> boolean cas(final String key, final long cas, final int exp, final T value, final CacheTranscoder transcoder)
+            throws TimeoutException, CacheException;
+
     long decr(final String key, final int by) throws TimeoutException, CacheException;
 
     long decr(final String key, final int by, final long def) throws TimeoutException, CacheException;
@@ -58,6 +265,17 @@ public interface CacheClient {
      */
     void delete(final Collection<String> keys) throws TimeoutException, CacheException;
 
+    /**
+     * Deletes value under given key without waiting for server's response. Result of the operation isn't reported.
+     * 
+     * @param key
+     *            the key
+     * @throws CacheException
+     *             if the operation cannot be sent
+     * @since 3.6.0
+     */
+    void deleteWithNoReply(final String key) throws CacheException;
+
     /**
      * Flushes all data.
      * 
@@ -118,6 +336,65 @@ public interface CacheClient {
 
     <T> Map<String, T> getBulk(final Collection<String> keys, final CacheTranscoder transcoder) throws TimeoutException, CacheException;
 
+    /**
+     * Gets values of given keys waiting for them at most given time. Values that haven't arrived before the deadline
+     * are treated as cache misses and aren't included in the result.
+     * 
+     * @param keys
+     *            the keys
+     * @param timeout
+     *            the maximum time to wait in milliseconds
+     * @return values retrieved before the deadline
+     * @throws TimeoutException
+     * @throws CacheException
+     * @since 3.6.0
+     */
+    Map<String, Object> getBulk(final Collection<String> keys, final long timeout) throws TimeoutException, CacheException;
+
+    /**
+     * 
+     * @since 3.6.0
+     */
+    <T> Map<String, T> getBulk(final Collection<String> keys, final CacheTranscoder transcoder, final long timeout)
+            throws TimeoutException, CacheException;
+
+    /**
+     * Gets values of given keys asynchronously. The callback is notified when values are retrieved.
+     * 
+     * @param keys
+     *            the keys
+     * @param callback
+     *            the callback notified with retrieved values
+     * @since 3.6.0
+     */
+    void getBulk(final Collection<String> keys, final BulkGetCallback<Object> callback);
+
+    /**
+     * 
+     * @since 3.6.0
+     */
+    <T> void getBulk(final Collection<String> keys, final CacheTranscoder transcoder, final BulkGetCallback<T> callback);
+
+    /**
+     * Gets value and updates its expiration time in one operation.
+     * 
+     * @param key
+     *            the key
+     * @param exp
+     *            new expire time
+     * @return value associated with given key or null
+     * @throws TimeoutException
+     * @throws CacheException
+     * @since 3.6.0
+     */
+    Object getAndTouch(final String key, final int exp) throws TimeoutException, CacheException;
+
+    /**
+     * 
+     * @since 3.6.0
+     */
+    <T> T getAndTouch(final String key, final int exp, final CacheTranscoder transcoder) throws TimeoutException, CacheException;
+
     /**
      * Gets default transcoder.
      * 
@@ -125,6 +402,24 @@ public interface CacheClient {
      */
     CacheTranscoder getTranscoder();
 
+    /**
+     * Gets value together with its CAS identifier.
+     * 
+     * @param key
+     *            the key
+     * @return value with CAS identifier or null if the key doesn't exist
+     * @throws TimeoutException
+     * @throws CacheException
+     * @since 3.6.0
+     */
+    CASValue<Object> gets(final String key) throws TimeoutException, CacheException;
+
+    /**
+     * 
+     * @since 3.6.0
+     */
+    <T> CASValue<T> gets(final String key, final CacheTranscoder transcoder) throws TimeoutException, CacheException;
+
     long incr(final String key, final int by) throws TimeoutException, CacheException;
 
     long incr(final String key, final int by, final long def) throws TimeoutException, CacheException;
@@ -152,6 +447,74 @@ public interface CacheClient {
     <T> boolean set(final String key, final int exp, final T value, final CacheTranscoder transcoder) throws TimeoutException,
             CacheException;
 
+    /**
+     * Stores all key-value items in memcached. All operations are sent at once and the method waits for their
+     * completion only once.
+     * 
+     * @param values
+     *            the key-value items to store
+     * @param exp
+     *            expire time
+     * @throws TimeoutException
+     * @throws CacheException
+     * @since 3.6.0
+     */
+    void setBulk(final Map<String, ?> values, final int exp) throws TimeoutException, CacheException;
+
+    /**
+     * Stores all key-value items in memcached. All operations are sent at once and the method waits for their
+     * completion only once.
+     * 
+     * @param <T>
+     * @param values
+     *            the key-value items to store
+     * @param exp
+     *            expire time
+     * @param transcoder
+     *            the transcoder to use
+     * @throws TimeoutException
+     * @throws CacheException
+     * @since 3.6.0
+     */
+    <T> void setBulk(final Map<String, T> values, final int exp, final CacheTranscoder transcoder) throws TimeoutException,
+            CacheException;
+
+    /**
+     * Stores key-value item in memcached without waiting for server's response. Result of the operation isn't
+     * reported.
+     * 
+     * @param key
+     *            the key
+     * @param exp
+     *            expire time
+     * @param value
+     *            the value
+     * @throws CacheException
+     *             if the operation cannot be sent
+     * @since 3.6.0
+     */
+    void setWithNoReply(final String key, final int exp, final Object value) throws CacheException;
+
+    /**
+     * 
+     * @since 3.6.0
+     */
+    <T> void setWithNoReply(final String key, final int exp, final T value, final CacheTranscoder transcoder) throws CacheException;
+
+    /**
+     * Updates expiration time of given key without transferring its value.
+     * 
+     * @param key
+     *            the key
+     * @param exp
+     *            new expire time
+     * @return true if the key exists
+     * @throws TimeoutException
+     * @throws CacheException
+     * @since 3.6.0
+     */
+    boolean touch(final String key, final int exp) throws TimeoutException, CacheException;
+
     /**
      * Shutdowns memcached client.
      */
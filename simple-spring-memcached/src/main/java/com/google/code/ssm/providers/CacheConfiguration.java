@@ -50,4 +50,20 @@ public class CacheConfiguration {
      */
     private String keyPrefixSeparator = "#";
 
+    /**
+     * Default expiration of cached null results used if annotation doesn't define own negative expiration. If -1 null
+     * results are cached with the same expiration as other values.
+     * 
+     * @since 3.6.0
+     */
+    private int negativeExpiration = -1;
+
+    /**
+     * If true values populated by cache (read through results and null values) are written without waiting for server's
+     * response, failures of such writes are only logged.
+     * 
+     * @since 3.6.0
+     */
+    private boolean noReplyWrites;
+
 }
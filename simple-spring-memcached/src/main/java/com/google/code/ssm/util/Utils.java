@@ -19,8 +19,10 @@ package com.google.code.ssm.util;
 
 import java.lang.reflect.Method;
 import java.security.InvalidParameterException;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.List;
 
 /**
  * 
@@ -59,6 +61,34 @@ public class Utils {
         return selectedArgs;
     }
 
+    /**
+     * Splits elements into consecutive chunks, each chunk except the last one has exactly given size.
+     * 
+     * @param elements
+     *            the elements to split
+     * @param size
+     *            the maximum size of a chunk
+     * @return the list of chunks
+     * @since 3.6.0
+     */
+    public static <T> List<List<T>> partition(final Collection<T> elements, final int size) {
+        if (size <= 0) {
+            throw new InvalidParameterException(String.format("Chunk size %s is invalid", size));
+        }
+
+        final List<List<T>> chunks = new ArrayList<List<T>>((elements.size() + size - 1) / size);
+        List<T> chunk = null;
+        for (final T element : elements) {
+            if (chunk == null || chunk.size() == size) {
+                chunk = new ArrayList<T>(size);
+                chunks.add(chunk);
+            }
+            chunk.add(element);
+        }
+
+        return chunks;
+    }
+
     public static Class<?>[] getMethodParameterTypes(final Collection<Integer> indexes, final Method method) {
         Class<?>[] selectedParameterTypes = new Class<?>[indexes.size()];
         Class<?>[] methodParameterTypes = method.getParameterTypes();
@@ -18,6 +18,7 @@
 package com.google.code.ssm;
 
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.when;
 import static org.mockito.Mockito.verify;
@@ -25,6 +26,7 @@ import static org.mockito.Mockito.never;
 import static org.mockito.Matchers.eq;
 
 import java.util.List;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeoutException;
 
 import org.junit.Before;
@@ -146,4 +148,16 @@ public class CacheFactoryDisabledTest {
         cache.getAvailableServers();
     }
 
+    @Test
+    public void asyncGetShouldReturnFailedFuture() throws InterruptedException {
+        try {
+            cache.asyncGet("key1", null).get();
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+            return;
+        }
+
+        throw new AssertionError("ExecutionException expected");
+    }
+
 }
@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2015 Jakub Białek
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import com.google.code.ssm.api.format.SerializationType;
+import com.google.code.ssm.hotkey.HotKeyConfiguration;
+import com.google.code.ssm.hotkey.HotKeyDetector;
+import com.google.code.ssm.providers.CacheClient;
+import com.google.code.ssm.providers.CacheException;
+import com.google.code.ssm.transcoders.JavaTranscoder;
+import com.google.code.ssm.transcoders.JsonTranscoder;
+import com.google.code.ssm.util.ImmutableSet;
+
+/**
+ * 
+ * @author Jakub Białek
+ * 
+ */
+public class CacheImplHotKeyTest {
+
+    private CacheClient cacheClient;
+
+    private Cache cache;
+
+    @Before
+    public void setUp() {
+        cacheClient = Mockito.mock(CacheClient.class);
+        final HotKeyConfiguration configuration = new HotKeyConfiguration();
+        configuration.setThreshold(2);
+        configuration.setReplicas(1);
+        configuration.setReplicaExpiration(10);
+        cache = new CacheImpl("someCache", ImmutableSet.of("alias1"), cacheClient, SerializationType.PROVIDER,
+                Mockito.mock(JsonTranscoder.class), Mockito.mock(JavaTranscoder.class), null, new CacheProperties(), null, null,
+                new HotKeyDetector(configuration));
+    }
+
+    @Test
+    public void shouldReadHotKeyFromReplicas() throws TimeoutException, CacheException {
+        Mockito.when(cacheClient.get("key1")).thenReturn("value1");
+
+        for (int i = 0; i < 6; i++) {
+            assertEquals("value1", cache.get("key1", SerializationType.PROVIDER));
+        }
+
+        // replica was empty so it was filled from the original key
+        Mockito.verify(cacheClient, Mockito.atLeastOnce()).get("key1#replica1");
+        Mockito.verify(cacheClient, Mockito.atLeastOnce()).setWithNoReply("key1#replica1", 10, "value1");
+    }
+
+    @Test
+    public void shouldWriteAndDeleteReplicasOfHotKey() throws TimeoutException, CacheException {
+        cache.get("key1", SerializationType.PROVIDER);
+        cache.get("key1", SerializationType.PROVIDER);
+
+        cache.set("key1", 60, "value1", SerializationType.PROVIDER);
+        cache.delete("key1");
+
+        Mockito.verify(cacheClient).set("key1", 60, "value1");
+        // replicas are written without waiting for response
+        Mockito.verify(cacheClient).setWithNoReply("key1#replica1", 10, "value1");
+        Mockito.verify(cacheClient, Mockito.never()).set("key1#replica1", 10, "value1");
+        Mockito.verify(cacheClient).delete(Arrays.asList("key1#replica1"));
+        Mockito.verify(cacheClient).delete("key1");
+    }
+
+    @Test
+    public void shouldNotReplicateColdKey() throws TimeoutException, CacheException {
+        cache.get("key1", SerializationType.PROVIDER);
+        cache.set("key1", 60, "value1", SerializationType.PROVIDER);
+        cache.delete("key1");
+
+        Mockito.verify(cacheClient).get("key1");
+        Mockito.verify(cacheClient).set("key1", 60, "value1");
+        Mockito.verify(cacheClient).delete("key1");
+        Mockito.verifyNoMoreInteractions(Mockito.ignoreStubs(cacheClient));
+    }
+
+}
@@ -0,0 +1,303 @@
+/*
+ * Copyright (c) 2015 Jakub Białek
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InOrder;
+import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import com.google.code.ssm.api.format.SerializationType;
+import com.google.code.ssm.nearcache.InvalidationBroadcaster;
+import com.google.code.ssm.nearcache.NearCache;
+import com.google.code.ssm.nearcache.NearCacheConfiguration;
+import com.google.code.ssm.nearcache.TinyLfuNearCache;
+import com.google.code.ssm.providers.BulkGetCallback;
+import com.google.code.ssm.providers.CacheClient;
+import com.google.code.ssm.providers.CacheException;
+import com.google.code.ssm.test.Point;
+import com.google.code.ssm.transcoders.JavaTranscoder;
+import com.google.code.ssm.transcoders.JsonTranscoder;
+import com.google.code.ssm.util.ImmutableSet;
+
+/**
+ * 
+ * @author Jakub Białek
+ * 
+ */
+public class CacheImplNearCacheTest {
+
+    private CacheClient cacheClient;
+
+    private NearCache nearCache;
+
+    private InvalidationBroadcaster invalidationBroadcaster;
+
+    private Cache cache;
+
+    @Before
+    public void setUp() {
+        cacheClient = Mockito.mock(CacheClient.class);
+        nearCache = new TinyLfuNearCache(new NearCacheConfiguration());
+        invalidationBroadcaster = Mockito.mock(InvalidationBroadcaster.class);
+        cache = new CacheImpl("someCache", ImmutableSet.of("alias1"), cacheClient, SerializationType.PROVIDER,
+                Mockito.mock(JsonTranscoder.class), Mockito.mock(JavaTranscoder.class), null, new CacheProperties(), nearCache,
+                invalidationBroadcaster, null);
+    }
+
+    @Test
+    public void shouldReadFromNearCacheAfterFirstGet() throws TimeoutException, CacheException {
+        final Point value = new Point(1, 2);
+        Mockito.when(cacheClient.get("key1")).thenReturn(value);
+
+        assertEquals(value, cache.get("key1", SerializationType.PROVIDER));
+        assertEquals(value, cache.get("key1", SerializationType.PROVIDER));
+
+        Mockito.verify(cacheClient, Mockito.times(1)).get("key1");
+    }
+
+    @Test
+    public void shouldNotCacheMisses() throws TimeoutException, CacheException {
+        assertNull(cache.get("key1", SerializationType.PROVIDER));
+        assertNull(cache.get("key1", SerializationType.PROVIDER));
+
+        Mockito.verify(cacheClient, Mockito.times(2)).get("key1");
+    }
+
+    @Test
+    public void shouldNotPopulateNearCacheIfInvalidatedDuringGet() throws TimeoutException, CacheException {
+        Mockito.when(cacheClient.get("key1")).thenAnswer(new Answer<Object>() {
+            @Override
+            public Object answer(final InvocationOnMock invocation) throws Throwable {
+                // invalidation received from other JVM while the old value is being read
+                nearCache.invalidate("key1");
+                return "oldValue";
+            }
+        });
+
+        assertEquals("oldValue", cache.get("key1", SerializationType.PROVIDER));
+
+        assertEquals(0, nearCache.size());
+    }
+
+    @Test
+    public void shouldPopulateNearCacheOnSetAndAdd() throws TimeoutException, CacheException {
+        final Point value = new Point(1, 2);
+        Mockito.when(cacheClient.add("key2", 10, value)).thenReturn(true);
+
+        cache.set("key1", 10, value, SerializationType.PROVIDER);
+        cache.add("key2", 10, value, SerializationType.PROVIDER);
+        cache.add("key3", 10, value, SerializationType.PROVIDER);
+
+        assertEquals(value, cache.get("key1", SerializationType.PROVIDER));
+        assertEquals(value, cache.get("key2", SerializationType.PROVIDER));
+        assertNull(cache.get("key3", SerializationType.PROVIDER));
+        Mockito.verify(cacheClient, Mockito.never()).get("key1");
+        Mockito.verify(cacheClient, Mockito.never()).get("key2");
+    }
+
+    @Test
+    public void shouldInvalidateNearCacheOnDelete() throws TimeoutException, CacheException {
+        cache.set("key1", 10, "value1", SerializationType.PROVIDER);
+        cache.set("key2", 10, "value2", SerializationType.PROVIDER);
+        cache.set("key3", 10, "value3", SerializationType.PROVIDER);
+
+        cache.delete("key1");
+        cache.delete(Arrays.asList("key2", "key3"));
+
+        assertEquals(0, nearCache.size());
+    }
+
+    @Test
+    public void shouldUpdateNearCacheOnNoReplyWrites() throws TimeoutException, CacheException {
+        cache.set("key2", 10, "value2", SerializationType.PROVIDER);
+        cache.set("key3", 10, "value3", SerializationType.PROVIDER);
+        Mockito.doThrow(new CacheException(new RuntimeException())).when(cacheClient).setWithNoReply("key4", 10, "value4");
+
+        cache.setWithNoReply("key1", 10, "value1", SerializationType.PROVIDER);
+        cache.addWithNoReply("key2", 10, "value5", SerializationType.PROVIDER);
+        cache.deleteWithNoReply("key3");
+        cache.setWithNoReply("key4", 10, "value4", SerializationType.PROVIDER);
+
+        assertEquals(1, nearCache.size());
+        assertEquals("value1", cache.get("key1", SerializationType.PROVIDER));
+        Mockito.verify(cacheClient, Mockito.never()).get("key1");
+        Mockito.verify(invalidationBroadcaster).publish("someCache", Collections.singleton("key1"));
+        Mockito.verify(invalidationBroadcaster, Mockito.times(2)).publish("someCache", Collections.singleton("key2"));
+        Mockito.verify(invalidationBroadcaster, Mockito.times(2)).publish("someCache", Collections.singleton("key3"));
+        Mockito.verify(invalidationBroadcaster).publish("someCache", Collections.singleton("key4"));
+    }
+
+    @Test
+    public void shouldInvalidateNearCacheOnAsyncModifications() throws Exception {
+        Mockito.when(cacheClient.asyncSet("key1", 10, "value5")).thenReturn(CompletableFuture.completedFuture(true));
+        Mockito.when(cacheClient.asyncAdd("key2", 10, "value6")).thenReturn(CompletableFuture.completedFuture(true));
+        Mockito.when(cacheClient.asyncDelete("key3")).thenReturn(CompletableFuture.completedFuture(true));
+        cache.set("key1", 10, "value1", SerializationType.PROVIDER);
+        cache.set("key2", 10, "value2", SerializationType.PROVIDER);
+        cache.set("key3", 10, "value3", SerializationType.PROVIDER);
+        cache.set("key4", 10, "value4", SerializationType.PROVIDER);
+
+        final Future<Boolean> set = cache.asyncSet("key1", 10, "value5", SerializationType.PROVIDER);
+        final Future<Boolean> add = cache.asyncAdd("key2", 10, "value6", SerializationType.PROVIDER);
+        final Future<Boolean> delete = cache.asyncDelete("key3");
+        cache.asyncIncr("key4", 1);
+
+        assertEquals(0, nearCache.size());
+        // other near caches are invalidated only after the modifications complete
+        Mockito.verify(invalidationBroadcaster).publish("someCache", Collections.singleton("key1"));
+        Mockito.verify(invalidationBroadcaster).publish("someCache", Collections.singleton("key2"));
+        Mockito.verify(invalidationBroadcaster).publish("someCache", Collections.singleton("key3"));
+
+        assertTrue(set.get());
+        assertTrue(add.isDone());
+        assertTrue(delete.get(1, TimeUnit.SECONDS));
+        add.get();
+
+        Mockito.verify(invalidationBroadcaster, Mockito.times(2)).publish("someCache", Collections.singleton("key1"));
+        Mockito.verify(invalidationBroadcaster, Mockito.times(2)).publish("someCache", Collections.singleton("key2"));
+        Mockito.verify(invalidationBroadcaster, Mockito.times(2)).publish("someCache", Collections.singleton("key3"));
+    }
+
+    @Test
+    public void shouldInvalidateNearCacheAgainWhenAsyncSetCompletes() throws Exception {
+        final CompletableFuture<Boolean> future = new CompletableFuture<Boolean>();
+        Mockito.when(cacheClient.asyncSet("key1", 10, "value2")).thenReturn(future);
+
+        final Future<Boolean> set = cache.asyncSet("key1", 10, "value2", SerializationType.PROVIDER);
+        // old value read and put to near cache before the set lands in memcached
+        Mockito.when(cacheClient.get("key1")).thenReturn("value1");
+        assertEquals("value1", cache.get("key1", SerializationType.PROVIDER));
+        assertEquals(1, nearCache.size());
+
+        future.complete(true);
+        assertTrue(set.get());
+
+        assertEquals(0, nearCache.size());
+    }
+
+    @Test
+    public void shouldPublishInvalidations() throws TimeoutException, CacheException {
+        cache.set("key1", 10, "value1", SerializationType.PROVIDER);
+        cache.delete("key2");
+        cache.delete(Arrays.asList("key3", "key4"));
+        cache.flush();
+
+        Mockito.verify(invalidationBroadcaster).publish("someCache", Collections.singleton("key1"));
+        Mockito.verify(invalidationBroadcaster).publish("someCache", Collections.singleton("key2"));
+        Mockito.verify(invalidationBroadcaster).publish("someCache", Arrays.asList("key3", "key4"));
+        Mockito.verify(invalidationBroadcaster).publishClear("someCache");
+    }
+
+    @Test
+    public void shouldPublishInvalidationAfterDelete() throws TimeoutException, CacheException {
+        cache.delete("key1");
+        cache.delete(Arrays.asList("key2", "key3"));
+
+        final InOrder inOrder = Mockito.inOrder(cacheClient, invalidationBroadcaster);
+        inOrder.verify(cacheClient).delete("key1");
+        inOrder.verify(invalidationBroadcaster).publish("someCache", Collections.singleton("key1"));
+        inOrder.verify(cacheClient).delete(Arrays.asList("key2", "key3"));
+        inOrder.verify(invalidationBroadcaster).publish("someCache", Arrays.asList("key2", "key3"));
+    }
+
+    @Test
+    public void shouldInvalidateNearCacheIfSetFails() throws TimeoutException, CacheException {
+        cache.set("key1", 10, "value1", SerializationType.PROVIDER);
+        Mockito.doThrow(new CacheException(new RuntimeException())).when(cacheClient).set("key1", 10, "value2");
+
+        try {
+            cache.set("key1", 10, "value2", SerializationType.PROVIDER);
+        } catch (CacheException ex) {
+            // expected
+        }
+
+        assertNull(nearCache.get("key1", null));
+    }
+
+    @Test
+    public void shouldGetBulkOnlyMissedKeys() throws TimeoutException, CacheException {
+        cache.set("key1", 10, "value1", SerializationType.PROVIDER);
+        final Map<String, Object> fromClient = new HashMap<String, Object>();
+        fromClient.put("key2", "value2");
+        Mockito.when(cacheClient.getBulk(Arrays.asList("key2", "key3"))).thenReturn(fromClient);
+
+        final Map<String, Object> expected = new HashMap<String, Object>();
+        expected.put("key1", "value1");
+        expected.put("key2", "value2");
+        assertEquals(expected, cache.getBulk(Arrays.asList("key1", "key2", "key3"), SerializationType.PROVIDER));
+
+        // all keys are available in near cache
+        assertEquals(Collections.singletonMap("key2", "value2"), cache.getBulk(Arrays.asList("key2"), SerializationType.PROVIDER));
+        Mockito.verify(cacheClient, Mockito.times(1)).getBulk(Mockito.anyCollectionOf(String.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void shouldNotifyCallbackWithNearCacheAndClientValues() throws TimeoutException, CacheException {
+        cache.set("key1", 10, "value1", SerializationType.PROVIDER);
+        Mockito.doAnswer(new Answer<Void>() {
+
+            @Override
+            public Void answer(final InvocationOnMock invocation) throws Throwable {
+                ((BulkGetCallback<Object>) invocation.getArguments()[1]).onComplete(Collections.<String, Object> singletonMap("key2",
+                        "value2"));
+                return null;
+            }
+
+        }).when(cacheClient).getBulk(Mockito.eq(Arrays.asList("key2", "key3")), Mockito.any(BulkGetCallback.class));
+        final BulkGetCallback<Object> callback = Mockito.mock(BulkGetCallback.class);
+
+        cache.getBulk(Arrays.asList("key1", "key2", "key3"), SerializationType.PROVIDER, callback);
+
+        final Map<String, Object> expected = new HashMap<String, Object>();
+        expected.put("key1", "value1");
+        expected.put("key2", "value2");
+        Mockito.verify(callback).onComplete(expected);
+        assertEquals("value2", nearCache.get("key2", null));
+    }
+
+    @Test
+    public void shouldInvalidateNearCacheOnCounterOperations() throws TimeoutException, CacheException {
+        cache.set("key1", 10, "value1", SerializationType.PROVIDER);
+        cache.set("key2", 10, "value2", SerializationType.PROVIDER);
+        cache.set("key3", 10, "value3", SerializationType.PROVIDER);
+
+        cache.incr("key1", 1, 0);
+        cache.decr("key2", 1);
+        cache.setCounter("key3", 10, 5);
+
+        assertEquals(0, nearCache.size());
+    }
+
+}
@@ -17,20 +17,34 @@
 package com.google.code.ssm;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
 import java.net.SocketAddress;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeoutException;
 
+import org.hamcrest.CoreMatchers;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.ArgumentMatcher;
 import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 
 import com.google.code.ssm.api.format.SerializationType;
+import com.google.code.ssm.providers.BulkGetCallback;
+import com.google.code.ssm.providers.CASValue;
 import com.google.code.ssm.providers.CacheClient;
 import com.google.code.ssm.providers.CacheException;
 import com.google.code.ssm.test.Point;
@@ -116,6 +130,84 @@ public class CacheImplTest {
 
     }
 
+    @Test
+    public void addBulk() throws TimeoutException, CacheException {
+        int expiration = 900;
+        Map<String, Object> values = new HashMap<String, Object>();
+        values.put("key1", new Point(66, 99));
+        values.put("key2", new Point(1, 2));
+        Mockito.when(cacheClient.addBulk(getKeys(values), expiration)).thenReturn(Collections.singleton(getKey("key2")));
+
+        assertEquals(Collections.singleton("key2"), cache.addBulk(values, expiration, defaultSerializationType));
+
+        cache.addBulk(values, expiration, SerializationType.JSON);
+        Mockito.verify(cacheClient).addBulk(getKeys(values), expiration, jsonTranscoder);
+    }
+
+    @Test
+    public void addBulkSilently() throws TimeoutException, CacheException {
+        int expiration = 900;
+        Map<String, Object> values = Collections.<String, Object> singletonMap("key1", new Point(66, 99));
+        Mockito.when(cacheClient.addBulk(getKeys(values), expiration)).thenThrow(new CacheException(new RuntimeException()));
+
+        assertTrue(cache.addBulkSilently(values, expiration, defaultSerializationType).isEmpty());
+    }
+
+    @Test
+    public void cas() throws TimeoutException, CacheException {
+        String cacheKey = "key1";
+        int exp = 900;
+        Object value = new Point(66, 99);
+        Mockito.when(cacheClient.cas(getKey(cacheKey), 5L, exp, value)).thenReturn(true);
+
+        assertTrue(cache.cas(cacheKey, 5L, exp, value, SerializationType.PROVIDER));
+        assertFalse(cache.cas(cacheKey, 5L, exp, value, SerializationType.JSON));
+        Mockito.verify(cacheClient).cas(getKey(cacheKey), 5L, exp, value, jsonTranscoder);
+    }
+
+    @Test
+    public void computeWithCas() throws TimeoutException, CacheException {
+        String cacheKey = "key1";
+        Mockito.when(cacheClient.gets(getKey(cacheKey))).thenReturn(new CASValue<Object>(1L, 10), new CASValue<Object>(2L, 11));
+        Mockito.when(cacheClient.cas(getKey(cacheKey), 1L, 100, 11)).thenReturn(false);
+        Mockito.when(cacheClient.cas(getKey(cacheKey), 2L, 100, 12)).thenReturn(true);
+
+        assertEquals(Integer.valueOf(12), cache.compute(cacheKey, 100, new IncrementFunction(), 1, SerializationType.PROVIDER));
+        Mockito.verify(cacheClient, Mockito.times(2)).gets(getKey(cacheKey));
+    }
+
+    @Test
+    public void computeWithAdd() throws TimeoutException, CacheException {
+        String cacheKey = "key1";
+        Mockito.when(cacheClient.add(getKey(cacheKey), 100, 0)).thenReturn(true);
+
+        assertEquals(Integer.valueOf(0), cache.compute(cacheKey, 100, new IncrementFunction(), 0, SerializationType.PROVIDER));
+        Mockito.verify(cacheClient, Mockito.never()).cas(Mockito.anyString(), Mockito.anyLong(), Mockito.anyInt(), Mockito.any());
+    }
+
+    @Test
+    public void computeRetriesExhausted() throws TimeoutException, CacheException {
+        String cacheKey = "key1";
+        Mockito.when(cacheClient.gets(getKey(cacheKey))).thenReturn(new CASValue<Object>(1L, 10));
+
+        assertNull(cache.compute(cacheKey, 100, new IncrementFunction(), 2, SerializationType.PROVIDER));
+        Mockito.verify(cacheClient, Mockito.times(3)).cas(getKey(cacheKey), 1L, 100, 11);
+    }
+
+    @Test
+    public void computeWithoutModification() throws TimeoutException, CacheException {
+        String cacheKey = "key1";
+        Mockito.when(cacheClient.gets(getKey(cacheKey))).thenReturn(new CASValue<Object>(1L, 10));
+
+        assertNull(cache.compute(cacheKey, 100, new ComputeFunction<Integer>() {
+            @Override
+            public Integer apply(final Integer currentValue) {
+                return null;
+            }
+        }, 2, SerializationType.PROVIDER));
+        Mockito.verify(cacheClient, Mockito.never()).cas(Mockito.anyString(), Mockito.anyLong(), Mockito.anyInt(), Mockito.any());
+    }
+
     @Test
     public void decr() throws TimeoutException, CacheException {
         String cacheKey = "key1";
@@ -158,6 +250,27 @@ public class CacheImplTest {
         Mockito.verify(cacheClient).get(getKey(cacheKey), jsonTranscoder);
     }
 
+    @Test
+    public void gets() throws TimeoutException, CacheException {
+        String cacheKey = "key1";
+        CASValue<Object> value = new CASValue<Object>(3L, "value");
+        Mockito.when(cacheClient.gets(getKey(cacheKey))).thenReturn(value);
+
+        assertSame(value, cache.gets(cacheKey, SerializationType.PROVIDER));
+        cache.gets(cacheKey, SerializationType.JSON);
+        Mockito.verify(cacheClient).gets(getKey(cacheKey), jsonTranscoder);
+    }
+
+    @Test
+    public void getAndTouch() throws TimeoutException, CacheException {
+        String cacheKey = "key1";
+        Mockito.when(cacheClient.getAndTouch(getKey(cacheKey), 100)).thenReturn("value");
+
+        assertEquals("value", cache.getAndTouch(cacheKey, 100, SerializationType.PROVIDER));
+        cache.getAndTouch(cacheKey, 100, SerializationType.JSON);
+        Mockito.verify(cacheClient).getAndTouch(getKey(cacheKey), 100, jsonTranscoder);
+    }
+
     @Test
     public void getBulk() throws TimeoutException, CacheException {
         Collection<String> keys = ImmutableSet.of("key1", "key2");
@@ -169,6 +282,108 @@ public class CacheImplTest {
         Mockito.verify(cacheClient).getBulk(sameItems(getKeys(keys)), Mockito.eq(jsonTranscoder));
     }
 
+    @Test
+    public void getBulkWithTimeout() throws TimeoutException, CacheException {
+        Collection<String> keys = ImmutableSet.of("key1", "key2");
+
+        cache.getBulk(keys, SerializationType.PROVIDER, 100);
+        Mockito.verify(cacheClient).getBulk(sameItems(getKeys(keys)), Mockito.eq(100L));
+
+        cache.getBulk(keys, SerializationType.JSON, 100);
+        Mockito.verify(cacheClient).getBulk(sameItems(getKeys(keys)), Mockito.eq(jsonTranscoder), Mockito.eq(100L));
+
+        // not positive timeout means operation timeout of the client
+        cache.getBulk(keys, SerializationType.PROVIDER, 0);
+        Mockito.verify(cacheClient).getBulk(sameItems(getKeys(keys)));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void getBulkWithCallback() {
+        Collection<String> keys = ImmutableSet.of("key1", "key2");
+        BulkGetCallback<Object> callback = Mockito.mock(BulkGetCallback.class);
+
+        cache.getBulk(keys, SerializationType.PROVIDER, callback);
+        Mockito.verify(cacheClient).getBulk(sameItems(getKeys(keys)), Mockito.any(BulkGetCallback.class));
+
+        cache.getBulk(keys, SerializationType.JSON, callback);
+        Mockito.verify(cacheClient).getBulk(sameItems(getKeys(keys)), Mockito.eq(jsonTranscoder), Mockito.any(BulkGetCallback.class));
+    }
+
+    @Test
+    public void asyncAdd() {
+        String cacheKey = "key1";
+        int exp = 60000;
+        Object value = new Point(11, 22);
+
+        cache.asyncAdd(cacheKey, exp, value, SerializationType.PROVIDER);
+        Mockito.verify(cacheClient).asyncAdd(getKey(cacheKey), exp, value);
+
+        cache.asyncAdd(cacheKey, exp, value, SerializationType.JSON);
+        Mockito.verify(cacheClient).asyncAdd(getKey(cacheKey), exp, value, jsonTranscoder);
+    }
+
+    @Test
+    public void asyncDelete() {
+        cache.asyncDelete("key1");
+        Mockito.verify(cacheClient).asyncDelete(getKey("key1"));
+    }
+
+    @Test
+    public void asyncGet() {
+        cache.asyncGet("key1", SerializationType.PROVIDER);
+        Mockito.verify(cacheClient).asyncGet(getKey("key1"));
+
+        cache.asyncGet("key1", SerializationType.JSON);
+        Mockito.verify(cacheClient).asyncGet(getKey("key1"), jsonTranscoder);
+    }
+
+    @Test
+    public void asyncGetBulk() throws Exception {
+        Collection<String> keys = ImmutableSet.of("key1", "key2");
+        Map<String, Object> values = new HashMap<String, Object>();
+        values.put(getKey("key1"), "value1");
+        CompletableFuture<Map<String, Object>> future = CompletableFuture.completedFuture(values);
+        Mockito.when(cacheClient.asyncGetBulk(sameItems(getKeys(keys)))).thenReturn(future);
+
+        assertEquals(Collections.<String, Object> singletonMap("key1", "value1"), cache.asyncGetBulk(keys, SerializationType.PROVIDER)
+                .get());
+
+        cache.asyncGetBulk(keys, SerializationType.JSON);
+        Mockito.verify(cacheClient).asyncGetBulk(sameItems(getKeys(keys)), Mockito.eq(jsonTranscoder));
+    }
+
+    @Test
+    public void asyncIncr() {
+        cache.asyncIncr("key1", 5);
+        Mockito.verify(cacheClient).asyncIncr(getKey("key1"), 5);
+    }
+
+    @Test
+    public void asyncIncrWithDefault() {
+        cache.asyncIncr("key1", 0, 10, 100);
+        Mockito.verify(cacheClient).asyncIncr(getKey("key1"), 0, 10, 100);
+    }
+
+    @Test
+    public void asyncDecr() {
+        cache.asyncDecr("key1", 5);
+        Mockito.verify(cacheClient).asyncDecr(getKey("key1"), 5);
+    }
+
+    @Test
+    public void asyncSet() {
+        String cacheKey = "key1";
+        int exp = 60000;
+        Object value = new Point(11, 22);
+
+        cache.asyncSet(cacheKey, exp, value, SerializationType.PROVIDER);
+        Mockito.verify(cacheClient).asyncSet(getKey(cacheKey), exp, value);
+
+        cache.asyncSet(cacheKey, exp, value, SerializationType.JSON);
+        Mockito.verify(cacheClient).asyncSet(getKey(cacheKey), exp, value, jsonTranscoder);
+    }
+
     @Test
     public void incr() throws TimeoutException, CacheException {
         String cacheKey = "key1";
@@ -203,6 +418,30 @@ public class CacheImplTest {
         Mockito.verify(cacheClient).set(getKey(cacheKey), exp, value, jsonTranscoder);
     }
 
+    @Test
+    public void setBulk() throws TimeoutException, CacheException {
+        int exp = 60000;
+        Map<String, Object> values = new HashMap<String, Object>();
+        values.put("key1", new Point(11, 22));
+        values.put("key2", new Point(33, 44));
+
+        cache.setBulk(values, exp, SerializationType.PROVIDER);
+        Mockito.verify(cacheClient).setBulk(getKeys(values), exp);
+
+        cache.setBulk(values, exp, SerializationType.JSON);
+        Mockito.verify(cacheClient).setBulk(getKeys(values), exp, jsonTranscoder);
+    }
+
+    @Test
+    public void setBulkSilently() throws TimeoutException, CacheException {
+        int exp = 60000;
+        Map<String, Object> values = Collections.<String, Object> singletonMap("key1", new Point(11, 22));
+        Mockito.doThrow(new TimeoutException()).when(cacheClient).setBulk(getKeys(values), exp);
+
+        cache.setBulkSilently(values, exp, SerializationType.PROVIDER);
+        Mockito.verify(cacheClient).setBulk(getKeys(values), exp);
+    }
+
     @Test
     public void setSilently() throws TimeoutException, CacheException {
         String cacheKey = "key1";
@@ -216,6 +455,99 @@ public class CacheImplTest {
         Mockito.verify(cacheClient).set(getKey(cacheKey), exp, value, jsonTranscoder);
     }
 
+    @Test
+    public void setWithNoReply() throws CacheException {
+        String cacheKey = "key1";
+        int exp = 60000;
+        Object value = new Point(11, 22);
+
+        cache.setWithNoReply(cacheKey, exp, value, SerializationType.PROVIDER);
+        Mockito.verify(cacheClient).setWithNoReply(getKey(cacheKey), exp, value);
+
+        cache.setWithNoReply(cacheKey, exp, value, SerializationType.JSON);
+        Mockito.verify(cacheClient).setWithNoReply(getKey(cacheKey), exp, value, jsonTranscoder);
+    }
+
+    @Test
+    public void setWithNoReplyFailure() throws CacheException {
+        Mockito.doThrow(new CacheException(new RuntimeException())).when(cacheClient)
+                .setWithNoReply(Mockito.anyString(), Mockito.anyInt(), Mockito.any());
+
+        cache.setWithNoReply("key1", 100, "value", SerializationType.PROVIDER);
+        Mockito.verify(cacheClient).setWithNoReply(getKey("key1"), 100, "value");
+    }
+
+    @Test
+    public void addWithNoReply() throws CacheException {
+        String cacheKey = "key1";
+        int exp = 60000;
+        Object value = new Point(11, 22);
+
+        cache.addWithNoReply(cacheKey, exp, value, SerializationType.PROVIDER);
+        Mockito.verify(cacheClient).addWithNoReply(getKey(cacheKey), exp, value);
+
+        cache.addWithNoReply(cacheKey, exp, value, SerializationType.JSON);
+        Mockito.verify(cacheClient).addWithNoReply(getKey(cacheKey), exp, value, jsonTranscoder);
+    }
+
+    @Test
+    public void deleteWithNoReply() throws CacheException {
+        cache.deleteWithNoReply("key1");
+        Mockito.verify(cacheClient).deleteWithNoReply(getKey("key1"));
+    }
+
+    @Test
+    public void setBulkWithNoReply() throws CacheException {
+        int exp = 900;
+        Map<String, Object> values = new HashMap<String, Object>();
+        values.put("key1", new Point(66, 99));
+        values.put("key2", new Point(1, 2));
+
+        cache.setBulkWithNoReply(values, exp, SerializationType.JSON);
+        Mockito.verify(cacheClient).setWithNoReply(getKey("key1"), exp, values.get("key1"), jsonTranscoder);
+        Mockito.verify(cacheClient).setWithNoReply(getKey("key2"), exp, values.get("key2"), jsonTranscoder);
+    }
+
+    @Test
+    public void addBulkWithNoReply() throws CacheException {
+        int exp = 900;
+        Map<String, Object> values = new HashMap<String, Object>();
+        values.put("key1", new Point(66, 99));
+        values.put("key2", new Point(1, 2));
+
+        cache.addBulkWithNoReply(values, exp, SerializationType.PROVIDER);
+        Mockito.verify(cacheClient).addWithNoReply(getKey("key1"), exp, values.get("key1"));
+        Mockito.verify(cacheClient).addWithNoReply(getKey("key2"), exp, values.get("key2"));
+    }
+
+    @Test
+    public void silentWritesWithNoReplyWritesEnabled() throws TimeoutException, CacheException {
+        Cache noReplyCache = new CacheImpl(name, aliases, cacheClient, defaultSerializationType, jsonTranscoder, javaTranscoder, null,
+                new CacheProperties(false, "#", -1, true));
+        Object value = new Point(11, 22);
+
+        noReplyCache.setSilently("key1", 100, value, SerializationType.PROVIDER);
+        Mockito.verify(cacheClient).setWithNoReply("key1", 100, value);
+
+        assertFalse(noReplyCache.addSilently("key2", 100, value, SerializationType.PROVIDER));
+        Mockito.verify(cacheClient).addWithNoReply("key2", 100, value);
+
+        noReplyCache.setBulkSilently(Collections.singletonMap("key3", value), 100, SerializationType.PROVIDER);
+        Mockito.verify(cacheClient).setWithNoReply("key3", 100, value);
+
+        Mockito.verify(cacheClient, Mockito.never()).set(Mockito.anyString(), Mockito.anyInt(), Mockito.any());
+        Mockito.verify(cacheClient, Mockito.never()).add(Mockito.anyString(), Mockito.anyInt(), Mockito.any());
+        Mockito.verify(cacheClient, Mockito.never()).setBulk(Mockito.anyMapOf(String.class, Object.class), Mockito.anyInt());
+    }
+
+    @Test
+    public void touch() throws TimeoutException, CacheException {
+        Mockito.when(cacheClient.touch(getKey("key1"), 100)).thenReturn(true);
+
+        assertTrue(cache.touch("key1", 100));
+        assertFalse(cache.touch("key2", 100));
+    }
+
     @Test
     public void getCounter() throws TimeoutException, CacheException {
         String cacheKey = "key1";
@@ -224,6 +556,14 @@ public class CacheImplTest {
         Mockito.verify(cacheClient).get(Mockito.eq(getKey(cacheKey)), Mockito.any(LongToStringTranscoder.class));
     }
 
+    @Test
+    public void getCounters() throws TimeoutException, CacheException {
+        Collection<String> keys = ImmutableSet.of("key1", "key2");
+
+        cache.getCounters(keys);
+        Mockito.verify(cacheClient).getBulk(sameItems(getKeys(keys)), Mockito.any(LongToStringTranscoder.class));
+    }
+
     @Test
     public void setCounter() throws TimeoutException, CacheException {
         String cacheKey = "key1";
@@ -235,6 +575,152 @@ public class CacheImplTest {
                 Mockito.any(LongToStringTranscoder.class));
     }
 
+    @Test
+    public void incrSharded() throws TimeoutException, CacheException {
+        Mockito.when(cacheClient.incr(Mockito.anyString(), Mockito.eq(1), Mockito.eq(1L))).thenReturn(5L);
+
+        for (int i = 0; i < 20; i++) {
+            assertEquals(5L, cache.incrSharded("key1", 1, 4));
+        }
+        Mockito.verify(cacheClient, Mockito.times(20)).incr(
+                Mockito.argThat(CoreMatchers.anyOf(CoreMatchers.equalTo(getKey("key1")), CoreMatchers.equalTo(getKey("key1") + "#1"),
+                        CoreMatchers.equalTo(getKey("key1") + "#2"), CoreMatchers.equalTo(getKey("key1") + "#3"))), Mockito.eq(1),
+                Mockito.eq(1L));
+    }
+
+    @Test
+    public void incrShardedWithOneShard() throws TimeoutException, CacheException {
+        cache.incrSharded("key1", 2, 1);
+        Mockito.verify(cacheClient).incr(getKey("key1"), 2, 2L);
+
+        cache.decrSharded("key1", 3, 1);
+        Mockito.verify(cacheClient).decr(getKey("key1"), 3);
+    }
+
+    @Test
+    public void getShardedCounter() throws TimeoutException, CacheException {
+        Map<String, Long> values = new HashMap<String, Long>();
+        values.put(getKey("key1"), 10L);
+        values.put(getKey("key1") + "#2", 5L);
+        values.put(getKey("key1") + "#-1", 4L);
+        Mockito.when(
+                cacheClient.<Long> getBulk(Mockito.eq(Arrays.asList(getKey("key1"), getKey("key1") + "#1", getKey("key1") + "#2",
+                        getKey("key1") + "#-0", getKey("key1") + "#-1", getKey("key1") + "#-2")), Mockito.any(LongToStringTranscoder.class)))
+                .thenReturn(values);
+
+        assertEquals(Long.valueOf(11L), cache.getShardedCounter("key1", 3));
+    }
+
+    @Test
+    public void getShardedCounterWithoutFirstShard() throws TimeoutException, CacheException {
+        Mockito.when(
+                cacheClient.<Long> getBulk(
+                        Mockito.eq(Arrays.asList(getKey("key1"), getKey("key1") + "#1", getKey("key1") + "#-0", getKey("key1") + "#-1")),
+                        Mockito.any(LongToStringTranscoder.class))).thenReturn(Collections.singletonMap(getKey("key1") + "#1", 5L));
+
+        assertNull(cache.getShardedCounter("key1", 2));
+    }
+
+    @Test
+    public void setShardedCounter() throws TimeoutException, CacheException {
+        cache.setShardedCounter("key1", 900, 60, 3);
+
+        Mockito.verify(cacheClient).set(Mockito.eq(getKey("key1")), Mockito.eq(900), Mockito.eq(60L),
+                Mockito.any(LongToStringTranscoder.class));
+        Mockito.verify(cacheClient).set(Mockito.eq(getKey("key1") + "#1"), Mockito.eq(900), Mockito.eq(0L),
+                Mockito.any(LongToStringTranscoder.class));
+        Mockito.verify(cacheClient).set(Mockito.eq(getKey("key1") + "#2"), Mockito.eq(900), Mockito.eq(0L),
+                Mockito.any(LongToStringTranscoder.class));
+        for (int shard = 0; shard < 3; shard++) {
+            Mockito.verify(cacheClient).set(Mockito.eq(getKey("key1") + "#-" + shard), Mockito.eq(900), Mockito.eq(0L),
+                    Mockito.any(LongToStringTranscoder.class));
+        }
+    }
+
+    @Test
+    public void decrShardedCounter() throws TimeoutException, CacheException {
+        simulateCounters();
+
+        cache.setShardedCounter("key1", 900, 10, 4);
+        for (int i = 0; i < 4; i++) {
+            cache.decrSharded("key1", 1, 4);
+        }
+        cache.incrSharded("key1", 2, 4);
+
+        assertEquals(Long.valueOf(8L), cache.getShardedCounter("key1", 4));
+        Mockito.verify(cacheClient, Mockito.never()).decr(Mockito.anyString(), Mockito.anyInt());
+    }
+
+    @Test
+    public void decrShardedCounterBelowZero() throws TimeoutException, CacheException {
+        simulateCounters();
+
+        cache.setShardedCounter("key1", 900, 1, 4);
+        for (int i = 0; i < 3; i++) {
+            cache.decrSharded("key1", 1, 4);
+        }
+
+        assertEquals(Long.valueOf(0L), cache.getShardedCounter("key1", 4));
+    }
+
+    @Test
+    public void windowIncr() throws TimeoutException, CacheException {
+        Mockito.when(cacheClient.incr(Mockito.anyString(), Mockito.eq(2), Mockito.eq(2L), Mockito.eq(140))).thenReturn(7L);
+
+        long before = System.currentTimeMillis() / 1000 / 20;
+        assertEquals(7L, cache.windowIncr("key1", 2, 120, 6));
+        long after = System.currentTimeMillis() / 1000 / 20;
+
+        ArgumentCaptor<String> captor = ArgumentCaptor.forClass(String.class);
+        Mockito.verify(cacheClient).incr(captor.capture(), Mockito.eq(2), Mockito.eq(2L), Mockito.eq(140));
+        assertTrue(captor.getValue().equals(getKey("key1") + "@" + before) || captor.getValue().equals(getKey("key1") + "@" + after));
+    }
+
+    @Test
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    public void getWindowCounter() throws TimeoutException, CacheException {
+        Mockito.when(cacheClient.<Long> getBulk(Mockito.anyCollection(), Mockito.any(LongToStringTranscoder.class))).thenAnswer(
+                new Answer<Map<String, Long>>() {
+                    @Override
+                    public Map<String, Long> answer(InvocationOnMock invocation) {
+                        Iterator<String> keys = ((Collection<String>) invocation.getArguments()[0]).iterator();
+                        Map<String, Long> values = new HashMap<String, Long>();
+                        values.put(keys.next(), 3L);
+                        keys.next();
+                        values.put(keys.next(), 4L);
+                        return values;
+                    }
+                });
+
+        assertEquals(7L, cache.getWindowCounter("key1", 60, 3));
+
+        ArgumentCaptor<Collection> captor = ArgumentCaptor.forClass(Collection.class);
+        Mockito.verify(cacheClient).getBulk(captor.capture(), Mockito.any(LongToStringTranscoder.class));
+        Iterator<String> keys = ((Collection<String>) captor.getValue()).iterator();
+        long first = Long.parseLong(keys.next().substring((getKey("key1") + "@").length()));
+        assertEquals(getKey("key1") + "@" + (first + 1), keys.next());
+        assertEquals(getKey("key1") + "@" + (first + 2), keys.next());
+        assertFalse(keys.hasNext());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void windowIncrWithTooManyBuckets() throws TimeoutException, CacheException {
+        cache.windowIncr("key1", 1, 5, 10);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void windowIncrWithTooLongWindow() throws TimeoutException, CacheException {
+        // buckets expire after 33 days, memcached would treat such expiration as unix time
+        cache.windowIncr("key1", 1, 60 * 60 * 24 * 30, 10);
+    }
+
+    @Test
+    public void windowIncrWithLongestWindow() throws TimeoutException, CacheException {
+        cache.windowIncr("key1", 1, 60 * 60 * 24 * 27, 9);
+
+        Mockito.verify(cacheClient).incr(Mockito.anyString(), Mockito.eq(1), Mockito.eq(1L), Mockito.eq(60 * 60 * 24 * 30));
+    }
+
     @Test
     public void shutdown() {
         cache.shutdown();
@@ -247,6 +733,44 @@ public class CacheImplTest {
         Mockito.verify(cacheClient).getNativeClient();
     }
 
+    /**
+     * Makes the mocked cache client store counters in memory like memcached does.
+     */
+    @SuppressWarnings("unchecked")
+    private void simulateCounters() throws TimeoutException, CacheException {
+        final Map<String, Long> memcached = new HashMap<String, Long>();
+        Mockito.doAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(InvocationOnMock invocation) {
+                memcached.put((String) invocation.getArguments()[0], (Long) invocation.getArguments()[2]);
+                return null;
+            }
+        }).when(cacheClient).set(Mockito.anyString(), Mockito.anyInt(), Mockito.anyLong(), Mockito.any(LongToStringTranscoder.class));
+        Mockito.when(cacheClient.incr(Mockito.anyString(), Mockito.anyInt(), Mockito.anyLong())).thenAnswer(new Answer<Long>() {
+            @Override
+            public Long answer(InvocationOnMock invocation) {
+                final String key = (String) invocation.getArguments()[0];
+                final Long current = memcached.get(key);
+                final long value = (current == null) ? (Long) invocation.getArguments()[2] : current + (Integer) invocation.getArguments()[1];
+                memcached.put(key, value);
+                return value;
+            }
+        });
+        Mockito.when(cacheClient.<Long> getBulk(Mockito.anyCollection(), Mockito.any(LongToStringTranscoder.class))).thenAnswer(
+                new Answer<Map<String, Long>>() {
+                    @Override
+                    public Map<String, Long> answer(InvocationOnMock invocation) {
+                        final Map<String, Long> values = new HashMap<String, Long>();
+                        for (String key : (Collection<String>) invocation.getArguments()[0]) {
+                            if (memcached.containsKey(key)) {
+                                values.put(key, memcached.get(key));
+                            }
+                        }
+                        return values;
+                    }
+                });
+    }
+
     protected String getKey(String key) {
         return key;
     }
@@ -260,6 +784,15 @@ public class CacheImplTest {
         return cacheKeys;
     }
 
+    protected Map<String, Object> getKeys(Map<String, Object> values) {
+        final Map<String, Object> cacheValues = new HashMap<String, Object>();
+        for (Map.Entry<String, Object> entry : values.entrySet()) {
+            cacheValues.put(getKey(entry.getKey()), entry.getValue());
+        }
+
+        return cacheValues;
+    }
+
     private static Collection<String> sameItems(Collection<String> items) {
         class CollectionOfItemssMatcher extends ArgumentMatcher<Collection<String>> {
 
@@ -295,4 +828,13 @@ public class CacheImplTest {
         return Mockito.argThat(new CollectionOfItemssMatcher(items));
     }
 
+    private static class IncrementFunction implements ComputeFunction<Integer> {
+
+        @Override
+        public Integer apply(final Integer currentValue) {
+            return (currentValue != null) ? currentValue + 1 : 0;
+        }
+
+    }
+
 }
@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2015 Jakub Białek
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.util.Collections;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import com.google.code.ssm.providers.CacheException;
+
+/**
+ * 
+ * @author Jakub Białek
+ * 
+ */
+public class NamespaceVersionManagerTest {
+
+    private static final String VERSION_KEY = "ssm-namespace-version:ns";
+
+    private long now;
+
+    private Cache cache;
+
+    private NamespaceVersionManager manager;
+
+    @Before
+    public void setUp() throws Exception {
+        now = 1000000L;
+        cache = Mockito.mock(Cache.class);
+        manager = new NamespaceVersionManager() {
+            @Override
+            long now() {
+                return now;
+            }
+        };
+        manager.setCache(cache);
+        manager.setNamespaces(Collections.singleton("ns"));
+        manager.setRefreshInterval(1000);
+        manager.afterPropertiesSet();
+    }
+
+    @Test
+    public void shouldInitializeVersionWithCurrentTime() throws TimeoutException, CacheException {
+        Mockito.when(cache.getCounter(VERSION_KEY)).thenReturn(null);
+        Mockito.when(cache.incr(VERSION_KEY, 0, now)).thenReturn(now);
+
+        assertEquals(now, manager.getVersion("ns"));
+    }
+
+    @Test
+    public void shouldCacheVersionLocally() throws TimeoutException, CacheException {
+        Mockito.when(cache.getCounter(VERSION_KEY)).thenReturn(5L, 6L);
+
+        assertEquals(5L, manager.getVersion("ns"));
+        now += 999;
+        assertEquals(5L, manager.getVersion("ns"));
+
+        now += 1;
+        assertEquals(6L, manager.getVersion("ns"));
+        Mockito.verify(cache, Mockito.times(2)).getCounter(VERSION_KEY);
+    }
+
+    @Test
+    public void shouldIncrementVersion() throws TimeoutException, CacheException {
+        Mockito.when(cache.getCounter(VERSION_KEY)).thenReturn(5L);
+        Mockito.when(cache.incr(VERSION_KEY, 1, now)).thenReturn(6L);
+
+        assertEquals(5L, manager.getVersion("ns"));
+        assertEquals(6L, manager.incrementVersion("ns"));
+        assertEquals(6L, manager.getVersion("ns"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotIncrementVersionOfNotVersionedNamespace() throws TimeoutException, CacheException {
+        manager.incrementVersion("other");
+    }
+
+    @Test
+    public void shouldUseCachedVersionIfRefreshFails() throws TimeoutException, CacheException {
+        Mockito.when(cache.getCounter(VERSION_KEY)).thenReturn(5L).thenThrow(new TimeoutException());
+
+        assertEquals(5L, manager.getVersion("ns"));
+        now += 1000;
+        assertEquals(5L, manager.getVersion("ns"));
+    }
+
+    @Test
+    public void shouldFailIfVersionCannotBeRead() throws TimeoutException, CacheException {
+        Mockito.when(cache.getCounter(VERSION_KEY)).thenThrow(new TimeoutException());
+
+        try {
+            manager.getVersion("ns");
+            fail("Expected exception.");
+        } catch (IllegalStateException ex) {
+            // expected
+        }
+    }
+
+}
@@ -16,18 +16,28 @@
 
 package com.google.code.ssm.aop;
 
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.reflect.MethodSignature;
 import org.junit.runner.RunWith;
 import org.junit.runners.Parameterized;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
 import com.google.code.ssm.Cache;
 import com.google.code.ssm.CacheProperties;
 import com.google.code.ssm.api.AnnotationConstants;
+import com.google.code.ssm.api.format.SerializationType;
 
 /**
  * 
@@ -103,8 +113,38 @@ public abstract class AbstractCacheTest<T extends CacheAdvice> {
         return sb.toString();
     }
 
+    /**
+     * Gets all values stored in cache by bulk set operations with given expiration.
+     */
+    @SuppressWarnings("rawtypes")
+    protected Map<String, Object> getBulkSetValues(final int expiration) {
+        final ArgumentCaptor<Map> captor = ArgumentCaptor.forClass(Map.class);
+        verify(cache, atLeast(0)).setBulkSilently(captor.capture(), eq(expiration), any(SerializationType.class));
+        return merge(captor.getAllValues());
+    }
+
+    /**
+     * Gets all values added to cache by bulk add operations with given expiration.
+     */
+    @SuppressWarnings("rawtypes")
+    protected Map<String, Object> getBulkAddedValues(final int expiration) {
+        final ArgumentCaptor<Map> captor = ArgumentCaptor.forClass(Map.class);
+        verify(cache, atLeast(0)).addBulkSilently(captor.capture(), eq(expiration), any(SerializationType.class));
+        return merge(captor.getAllValues());
+    }
+
     protected abstract T createAdvice();
 
     protected abstract String getNamespace();
 
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    private Map<String, Object> merge(final List<Map> maps) {
+        final Map<String, Object> merged = new HashMap<String, Object>();
+        for (Map map : maps) {
+            merged.putAll(map);
+        }
+
+        return merged;
+    }
+
 }
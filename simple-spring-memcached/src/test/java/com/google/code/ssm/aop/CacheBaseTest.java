@@ -19,7 +19,9 @@ package com.google.code.ssm.aop;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
@@ -30,12 +32,21 @@ import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
+import net.vidageek.mirror.dsl.Mirror;
+
+import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.reflect.MethodSignature;
 import org.hamcrest.BaseMatcher;
 import org.hamcrest.Description;
 import org.junit.Before;
@@ -44,10 +55,17 @@ import org.mockito.Mockito;
 
 import com.google.code.ssm.Cache;
 import com.google.code.ssm.CacheProperties;
+import com.google.code.ssm.Settings;
+import com.google.code.ssm.aop.support.AdvicePlan;
 import com.google.code.ssm.aop.support.AnnotationData;
 import com.google.code.ssm.aop.support.InvalidAnnotationException;
+import com.google.code.ssm.aop.support.PertinentNegativeNull;
+import com.google.code.ssm.aop.support.RefreshableValue;
 import com.google.code.ssm.api.CacheKeyMethod;
+import com.google.code.ssm.api.ParameterValueKeyProvider;
 import com.google.code.ssm.api.ReadThroughMultiCache;
+import com.google.code.ssm.api.ReadThroughSingleCache;
+import com.google.code.ssm.api.RefreshCache;
 import com.google.code.ssm.api.format.Serialization;
 import com.google.code.ssm.api.format.SerializationType;
 import com.google.code.ssm.providers.CacheException;
@@ -135,6 +153,52 @@ public class CacheBaseTest {
         assertEquals(SerializationType.JSON, serializationType);
     }
 
+    @Test
+    public void getAdvicePlan() throws Exception {
+        final JoinPoint jp = Mockito.mock(JoinPoint.class);
+        final MethodSignature signature = Mockito.mock(MethodSignature.class);
+        Mockito.when(jp.getSignature()).thenReturn(signature);
+        Mockito.when(jp.getTarget()).thenReturn(new AdvicePlanTestObject());
+        Mockito.when(signature.getName()).thenReturn("getList");
+        Mockito.when(signature.getParameterTypes()).thenReturn(new Class<?>[] { List.class, boolean.class });
+
+        final AdvicePlan<ReadThroughMultiCache> plan = cut.getAdvicePlan(jp, ReadThroughMultiCache.class);
+        assertEquals(AdvicePlanTestObject.class.getMethod("getList", List.class, boolean.class), plan.getMethod());
+        assertEquals("bubba", plan.getAnnotation().namespace());
+        assertEquals("bubba", plan.getAnnotationData().getNamespace());
+        assertEquals(10, plan.getAnnotationData().getExpiration());
+        assertEquals(SerializationType.JSON, plan.getSerializationType());
+        assertEquals(1, plan.getRefreshCacheIndex());
+        assertEquals(plan.getMethod().toString(), plan.getMethodDesc());
+        assertTrue(plan.isRefreshCache(new Object[] { null, true }));
+        assertFalse(plan.isRefreshCache(new Object[] { null, false }));
+
+        // plan is computed only once
+        assertSame(plan, cut.getAdvicePlan(jp, ReadThroughMultiCache.class));
+    }
+
+    @Test
+    public void getAdvicePlanOfCompletionStage() throws Exception {
+        final JoinPoint jp = mockAdvicePlanJoinPoint("getFuture", int.class);
+
+        final AdvicePlan<ReadThroughSingleCache> plan = cut.getAdvicePlan(jp, ReadThroughSingleCache.class);
+        assertNotNull(plan.getFutureAdapter());
+    }
+
+    @Test(expected = InvalidAnnotationException.class)
+    public void getAdvicePlanRejectsPlainFuture() throws Exception {
+        final JoinPoint jp = mockAdvicePlanJoinPoint("getPlainFuture", int.class);
+
+        cut.getAdvicePlan(jp, ReadThroughSingleCache.class);
+    }
+
+    @Test(expected = InvalidAnnotationException.class)
+    public void getAdvicePlanRejectsFutureInMultiCache() throws Exception {
+        final JoinPoint jp = mockAdvicePlanJoinPoint("getListFuture", List.class);
+
+        cut.getAdvicePlan(jp, ReadThroughMultiCache.class);
+    }
+
     @Test
     public void addAndGetCacheNoPrefixed() {
         String cacheName = "cache1";
@@ -259,6 +323,77 @@ public class CacheBaseTest {
         assertFalse(cut.verifyTypeIsList(Set.class));
     }
 
+    @Test
+    public void getResult() {
+        final Object value = new Object();
+
+        assertSame(value, cut.getResult(value));
+        assertNull(cut.getResult(PertinentNegativeNull.NULL));
+        assertSame(value, cut.getResult(new RefreshableValue(value, 1, 1)));
+        assertNull(cut.getResult(new RefreshableValue(PertinentNegativeNull.NULL, 1, 1)));
+    }
+
+    @Test
+    public void getExpiration() {
+        final CacheProperties properties = new CacheProperties();
+        final Cache cache = Mockito.mock(Cache.class);
+        Mockito.when(cache.getName()).thenReturn("cache1");
+        Mockito.when(cache.getAliases()).thenReturn(Collections.<String> emptyList());
+        Mockito.when(cache.getProperties()).thenReturn(properties);
+        cut.addCache(cache);
+
+        final AnnotationData data = new AnnotationData();
+        data.setCacheName("cache1");
+        data.setExpiration(600);
+
+        assertEquals(600, cut.getExpiration(data, new Object()));
+        assertEquals(600, cut.getExpiration(data, PertinentNegativeNull.NULL));
+
+        properties.setNegativeExpiration(30);
+        assertEquals(600, cut.getExpiration(data, new Object()));
+        assertEquals(30, cut.getExpiration(data, PertinentNegativeNull.NULL));
+
+        data.setNegativeExpiration(5);
+        assertEquals(600, cut.getExpiration(data, new Object()));
+        assertEquals(5, cut.getExpiration(data, PertinentNegativeNull.NULL));
+        assertEquals(5, cut.getNegativeExpiration(data));
+    }
+
+    @Test
+    public void executeInBackground() throws Exception {
+        final Settings settings = new Settings();
+        settings.setBackgroundThreads(1);
+        settings.setBackgroundQueueSize(1);
+        new Mirror().on(cut).set().field("settings").withValue(settings);
+
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(2);
+        final Runnable task = new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    release.await();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+                done.countDown();
+            }
+        };
+
+        try {
+            // first task is executed, second waits in queue, third is dropped
+            assertTrue(cut.executeInBackground(task));
+            assertTrue(cut.executeInBackground(task));
+            assertFalse(cut.executeInBackground(task));
+            assertEquals(1, cut.getDroppedBackgroundTasks());
+
+            release.countDown();
+            assertTrue(done.await(5, TimeUnit.SECONDS));
+        } finally {
+            cut.destroy();
+        }
+    }
+
     @Test
     public void getUpdateData() throws Exception {
         AnnotationData annotationData = new AnnotationData();
@@ -296,6 +431,41 @@ public class CacheBaseTest {
 
     }
 
+    private JoinPoint mockAdvicePlanJoinPoint(final String methodName, final Class<?>... parameterTypes) {
+        final JoinPoint jp = Mockito.mock(JoinPoint.class);
+        final MethodSignature signature = Mockito.mock(MethodSignature.class);
+        Mockito.when(jp.getSignature()).thenReturn(signature);
+        Mockito.when(jp.getTarget()).thenReturn(new AdvicePlanTestObject());
+        Mockito.when(signature.getName()).thenReturn(methodName);
+        Mockito.when(signature.getParameterTypes()).thenReturn(parameterTypes);
+        return jp;
+    }
+
+    @Serialization(SerializationType.JSON)
+    private static class AdvicePlanTestObject {
+
+        @ReadThroughMultiCache(namespace = "bubba", expiration = 10)
+        public List<String> getList(@ParameterValueKeyProvider final List<Integer> ids, @RefreshCache final boolean refresh) {
+            return null;
+        }
+
+        @ReadThroughSingleCache(namespace = "bubba", expiration = 10)
+        public CompletableFuture<String> getFuture(@ParameterValueKeyProvider final int id) {
+            return null;
+        }
+
+        @ReadThroughSingleCache(namespace = "bubba", expiration = 10)
+        public Future<String> getPlainFuture(@ParameterValueKeyProvider final int id) {
+            return null;
+        }
+
+        @ReadThroughMultiCache(namespace = "bubba", expiration = 10)
+        public CompletableFuture<List<String>> getListFuture(@ParameterValueKeyProvider final List<Integer> ids) {
+            return null;
+        }
+
+    }
+
     @SuppressWarnings("unused")
     private static class UpdateData {
 
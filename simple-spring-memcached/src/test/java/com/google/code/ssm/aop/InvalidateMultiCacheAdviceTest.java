@@ -19,6 +19,7 @@ package com.google.code.ssm.aop;
 import static org.junit.Assert.assertEquals;
 import static org.mockito.Mockito.argThat;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.mockito.Matchers.any;
@@ -70,6 +71,8 @@ public class InvalidateMultiCacheAdviceTest extends AbstractCacheTest<Invalidate
                         { true, "method5", new Class[] { int.class }, new Object[] { 5 },
                                 Arrays.asList(new Point(1, 2), new Point(2, 3), new Point(3, 4), new Point(4, 5)),
                                 new String[] { NS + ":(1,2)", NS + ":(2,3)", NS + ":(3,4)", NS + ":(4,5)" } }, //
+                        { true, "method7", new Class[] { List.class }, new Object[] { Arrays.asList(1, 2, 3, 4) },
+                                Arrays.asList(2, 4, 6, 8), new String[] { NS + ":1", NS + ":2", NS + ":3", NS + ":4" } }, //
 
                         { false, "method50", new Class[] { List.class }, new Object[] { Arrays.asList(1, 2, 3, 4) },
                                 Arrays.asList(1, 2, 3, 4), null }, //
@@ -106,7 +109,7 @@ public class InvalidateMultiCacheAdviceTest extends AbstractCacheTest<Invalidate
         assertEquals(expectedValue, advice.cacheInvalidateMulti(pjp));
 
         verify(pjp).proceed();
-        verify(cache).delete(argThat(new BaseMatcher<Set<String>>() {
+        verify(cache, timeout(1000)).delete(argThat(new BaseMatcher<Set<String>>() {
 
             @Override
             public boolean matches(Object arg0) {
@@ -184,6 +187,11 @@ public class InvalidateMultiCacheAdviceTest extends AbstractCacheTest<Invalidate
             return Collections.<Integer> emptyList();
         }
 
+        @InvalidateMultiCache(namespace = NS, asyncDelete = true)
+        public List<Integer> method7(@ParameterValueKeyProvider List<Integer> id1) {
+            return Collections.<Integer> emptyList();
+        }
+
         // no @ParameterValueKeyProvider or @ReturnValueKeyProvider
         @InvalidateMultiCache(namespace = NS)
         public List<Integer> method50(List<Integer> id1) {
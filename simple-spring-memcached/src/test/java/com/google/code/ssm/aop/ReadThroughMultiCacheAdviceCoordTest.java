@@ -20,8 +20,9 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.anyMapOf;
 import static org.mockito.Matchers.anyObject;
-import static org.mockito.Matchers.anyString;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
@@ -34,12 +35,15 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeoutException;
 
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.Answers;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.invocation.InvocationOnMock;
@@ -47,7 +51,9 @@ import org.mockito.runners.MockitoJUnitRunner;
 import org.mockito.stubbing.Answer;
 
 import com.google.code.ssm.Cache;
+import com.google.code.ssm.aop.support.AdvicePlan;
 import com.google.code.ssm.aop.support.AnnotationData;
+import com.google.code.ssm.aop.support.AnnotationDataBuilder;
 import com.google.code.ssm.aop.support.PertinentNegativeNull;
 import com.google.code.ssm.api.ParameterValueKeyProvider;
 import com.google.code.ssm.api.ReadThroughMultiCache;
@@ -97,10 +103,12 @@ public class ReadThroughMultiCacheAdviceCoordTest {
         assertNotNull(result);
         assertEquals(expected, result);
         verify(pjp).proceed(args);
-        verify(cache).getBulk(eq(new HashSet<String>(cacheKeys)), any(SerializationType.class));
+        verify(cache).getBulk(eq(new HashSet<String>(cacheKeys)), any(SerializationType.class), anyLong());
+        final Map<String, Object> toCache = new HashMap<String, Object>();
         for (int i = 0; i < expected.size(); i++) {
-            verify(cache).setSilently(cacheKeys.get(i), EXPIRATION, expected.get(i), null);
+            toCache.put(cacheKeys.get(i), expected.get(i));
         }
+        verify(cache).setBulkSilently(toCache, EXPIRATION, null);
     }
 
     @Test
@@ -117,8 +125,8 @@ public class ReadThroughMultiCacheAdviceCoordTest {
         assertNotNull(result);
         assertEquals(expected, result);
         verify(pjp).proceed(modifiedArgs);
-        verify(cache).getBulk(eq(new HashSet<String>(cacheKeys)), any(SerializationType.class));
-        verify(cache).setSilently(NS + ":" + 2, EXPIRATION, "b", null);
+        verify(cache).getBulk(eq(new HashSet<String>(cacheKeys)), any(SerializationType.class), anyLong());
+        verify(cache).setBulkSilently(Collections.<String, Object> singletonMap(NS + ":" + 2, "b"), EXPIRATION, null);
     }
 
     @Test
@@ -134,9 +142,9 @@ public class ReadThroughMultiCacheAdviceCoordTest {
 
         assertNotNull(result);
         assertEquals(expected, result);
-        verify(cache).getBulk(eq(new HashSet<String>(cacheKeys)), any(SerializationType.class));
+        verify(cache).getBulk(eq(new HashSet<String>(cacheKeys)), any(SerializationType.class), anyLong());
         verify(pjp, never()).proceed(any(Object[].class));
-        verify(cache, never()).setSilently(anyString(), anyInt(), anyObject(), any(SerializationType.class));
+        verify(cache, never()).setBulkSilently(anyMapOf(String.class, Object.class), anyInt(), any(SerializationType.class));
     }
 
     @Test
@@ -152,9 +160,9 @@ public class ReadThroughMultiCacheAdviceCoordTest {
         assertNotNull(result);
         assertEquals(expected, result);
         verify(pjp).proceed(args);
-        verify(cache).getBulk(eq(new HashSet<String>(cacheKeys)), any(SerializationType.class));
-        verify(cache, never()).setSilently(anyString(), anyInt(), anyObject(), any(SerializationType.class));
-        verify(cache, never()).addSilently(anyString(), anyInt(), anyObject(), any(SerializationType.class));
+        verify(cache).getBulk(eq(new HashSet<String>(cacheKeys)), any(SerializationType.class), anyLong());
+        verify(cache, never()).setBulkSilently(anyMapOf(String.class, Object.class), anyInt(), any(SerializationType.class));
+        verify(cache, never()).addBulkSilently(anyMapOf(String.class, Object.class), anyInt(), any(SerializationType.class));
     }
 
     @Test
@@ -170,17 +178,140 @@ public class ReadThroughMultiCacheAdviceCoordTest {
         assertNotNull(result);
         assertEquals(expected, result);
         verify(pjp).proceed(args);
-        verify(cache).getBulk(eq(new HashSet<String>(cacheKeys)), any(SerializationType.class));
-        verify(cache, never()).setSilently(anyString(), anyInt(), anyObject(), any(SerializationType.class));
-        verify(cache).addSilently(eq(cacheKeys.get(0)), eq(EXPIRATION), eq(PertinentNegativeNull.NULL), any(SerializationType.class));
-        verify(cache).addSilently(eq(cacheKeys.get(1)), eq(EXPIRATION), eq(PertinentNegativeNull.NULL), any(SerializationType.class));
+        verify(cache).getBulk(eq(new HashSet<String>(cacheKeys)), any(SerializationType.class), anyLong());
+        final Map<String, Object> nullValues = new HashMap<String, Object>();
+        nullValues.put(cacheKeys.get(0), PertinentNegativeNull.NULL);
+        nullValues.put(cacheKeys.get(1), PertinentNegativeNull.NULL);
+        verify(cache, never()).setBulkSilently(anyMapOf(String.class, Object.class), anyInt(), any(SerializationType.class));
+        verify(cache).addBulkSilently(eq(nullValues), eq(EXPIRATION), any(SerializationType.class));
+    }
+
+    @Test
+    public void shouldAddNullsToCacheInBackground() throws Throwable {
+        final Method methodToCache = TestService.class.getMethod("getListCacheNullsAsync", List.class);
+
+        initMocks(methodToCache, Collections.<String, Object> emptyMap());
+        when(pjp.proceed(args)).thenReturn(Collections.emptyList());
+        final ArgumentCaptor<Runnable> write = ArgumentCaptor.forClass(Runnable.class);
+        when(cacheBase.executeInBackground(write.capture())).thenReturn(true);
+
+        advice.cacheMulti(pjp);
+
+        verify(cache, never()).addBulkSilently(anyMapOf(String.class, Object.class), anyInt(), any(SerializationType.class));
+
+        write.getValue().run();
+
+        final Map<String, Object> nullValues = new HashMap<String, Object>();
+        nullValues.put(cacheKeys.get(0), PertinentNegativeNull.NULL);
+        nullValues.put(cacheKeys.get(1), PertinentNegativeNull.NULL);
+        verify(cache).addBulkSilently(eq(nullValues), eq(EXPIRATION), any(SerializationType.class));
+    }
+
+    @Test
+    public void shouldGetChunksConcurrently() throws Throwable {
+        final Method methodToCache = TestService.class.getMethod("getListInChunks", List.class);
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            initMocks(methodToCache, Collections.<String, Object> emptyMap());
+            when(cacheBase.getBulkExecutor()).thenReturn(executor);
+            when(cache.getBulk(eq(Collections.singletonList(cacheKeys.get(0))), any(SerializationType.class), anyLong())).thenReturn(
+                    Collections.<String, Object> singletonMap(cacheKeys.get(0), expected.get(0)));
+            when(cache.getBulk(eq(Collections.singletonList(cacheKeys.get(1))), any(SerializationType.class), anyLong())).thenReturn(
+                    Collections.<String, Object> singletonMap(cacheKeys.get(1), expected.get(1)));
+
+            final Object result = advice.cacheMulti(pjp);
+
+            assertEquals(expected, result);
+            verify(cache).getBulk(eq(Collections.singletonList(cacheKeys.get(0))), any(SerializationType.class), anyLong());
+            verify(cache).getBulk(eq(Collections.singletonList(cacheKeys.get(1))), any(SerializationType.class), anyLong());
+            verify(cache, never()).getBulk(eq(new HashSet<String>(cacheKeys)), any(SerializationType.class), anyLong());
+            verify(pjp, never()).proceed(any(Object[].class));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void shouldTreatValuesNotGotBeforeDeadlineAsMisses() throws Throwable {
+        final Method methodToCache = TestService.class.getMethod("getListWithDeadline", List.class);
+        final Object[] modifiedArgs = new Object[] { Arrays.asList(2) };
+        // the value of second key hasn't arrived before the deadline
+        final Map<String, Object> cacheResponse = Collections.<String, Object> singletonMap(cacheKeys.get(0), expected.get(0));
+
+        initMocks(methodToCache, cacheResponse);
+        when(pjp.proceed(modifiedArgs)).thenReturn(Collections.singletonList("b"));
+
+        final Object result = advice.cacheMulti(pjp);
+
+        assertEquals(expected, result);
+        verify(cache).getBulk(eq(new HashSet<String>(cacheKeys)), any(SerializationType.class), eq(50L));
+        verify(pjp).proceed(modifiedArgs);
+    }
+
+    @Test
+    public void shouldInvokeMethodForChunksConcurrently() throws Throwable {
+        final Method methodToCache = TestService.class.getMethod("getListInvokedInChunks", List.class);
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            initMocks(methodToCache, Collections.<String, Object> emptyMap());
+            when(cacheBase.getInvocationExecutor()).thenReturn(executor);
+            when(pjp.proceed(new Object[] { Arrays.asList(1) })).thenReturn(Collections.singletonList("a"));
+            when(pjp.proceed(new Object[] { Arrays.asList(2) })).thenReturn(Collections.singletonList("b"));
+
+            final Object result = advice.cacheMulti(pjp);
+
+            assertEquals(expected, result);
+            verify(pjp, never()).proceed(args);
+            verify(cache).setBulkSilently(Collections.<String, Object> singletonMap(cacheKeys.get(0), "a"), EXPIRATION, null);
+            verify(cache).setBulkSilently(Collections.<String, Object> singletonMap(cacheKeys.get(1), "b"), EXPIRATION, null);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void shouldPropagateExceptionOfChunkInvocation() throws Throwable {
+        final Method methodToCache = TestService.class.getMethod("getListInvokedInChunks", List.class);
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            initMocks(methodToCache, Collections.<String, Object> emptyMap());
+            when(cacheBase.getInvocationExecutor()).thenReturn(executor);
+            when(pjp.proceed(new Object[] { Arrays.asList(1) })).thenReturn(Collections.singletonList("a"));
+            when(pjp.proceed(new Object[] { Arrays.asList(2) })).thenThrow(new IllegalStateException());
+
+            advice.cacheMulti(pjp);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void shouldNotCacheNullsForUncorrelatedChunk() throws Throwable {
+        final Method methodToCache = TestService.class.getMethod("getListInvokedInChunksCacheNulls", List.class);
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            initMocks(methodToCache, Collections.<String, Object> emptyMap());
+            when(cacheBase.getInvocationExecutor()).thenReturn(executor);
+            when(pjp.proceed(new Object[] { Arrays.asList(1) })).thenReturn(Collections.emptyList());
+            when(pjp.proceed(new Object[] { Arrays.asList(2) })).thenReturn(Arrays.asList("b", "c"));
+
+            advice.cacheMulti(pjp);
+
+            verify(cache).addBulkSilently(Collections.<String, Object> singletonMap(cacheKeys.get(0), PertinentNegativeNull.NULL),
+                    EXPIRATION, null);
+        } finally {
+            executor.shutdown();
+        }
     }
 
     private void initMocks(final Method methodToCache, final Map<String, Object> cacheResponse) throws NoSuchMethodException,
             TimeoutException, CacheException {
         when(pjp.getArgs()).thenReturn(args);
 
-        when(cacheBase.getMethodToCache(pjp)).thenReturn(methodToCache);
+        final ReadThroughMultiCache cacheAnnotation = methodToCache.getAnnotation(ReadThroughMultiCache.class);
+        final AnnotationData data = AnnotationDataBuilder.buildAnnotationData(cacheAnnotation, ReadThroughMultiCache.class, methodToCache);
+        when(cacheBase.getAdvicePlan(pjp, ReadThroughMultiCache.class)).thenReturn(
+                new AdvicePlan<ReadThroughMultiCache>(methodToCache, cacheAnnotation, data, null));
         when(cacheBase.getCache(any(AnnotationData.class))).thenReturn(cache);
         when(cacheBase.getSubmission(anyObject())).thenAnswer(new Answer<Object>() {
 
@@ -190,9 +321,11 @@ public class ReadThroughMultiCacheAdviceCoordTest {
             }
 
         });
+        when(cacheBase.getExpiration(any(AnnotationData.class), anyObject())).thenReturn(EXPIRATION);
+        when(cacheBase.getNegativeExpiration(any(AnnotationData.class))).thenReturn(EXPIRATION);
         when(cacheBase.getCacheKeyBuilder().getCacheKeys(any(AnnotationData.class), eq(args), eq(methodToCache.toString()))).thenReturn(
                 cacheKeys);
-        when(cache.getBulk(eq(new HashSet<String>(cacheKeys)), any(SerializationType.class))).thenReturn(cacheResponse);
+        when(cache.getBulk(eq(new HashSet<String>(cacheKeys)), any(SerializationType.class), anyLong())).thenReturn(cacheResponse);
     }
 
     private static class TestService {
@@ -207,6 +340,33 @@ public class ReadThroughMultiCacheAdviceCoordTest {
             return Collections.<String> emptyList();
         }
 
+        @ReadThroughMultiCache(namespace = NS, expiration = EXPIRATION, option = @ReadThroughMultiCacheOption(addNullsToCache = true,
+                asyncWrite = true))
+        public List<String> getListCacheNullsAsync(@ParameterValueKeyProvider final List<Integer> id1) {
+            return Collections.<String> emptyList();
+        }
+
+        @ReadThroughMultiCache(namespace = NS, expiration = EXPIRATION, option = @ReadThroughMultiCacheOption(maxBatchSize = 1))
+        public List<String> getListInChunks(@ParameterValueKeyProvider final List<Integer> id1) {
+            return Collections.<String> emptyList();
+        }
+
+        @ReadThroughMultiCache(namespace = NS, expiration = EXPIRATION, option = @ReadThroughMultiCacheOption(invocationChunkSize = 1))
+        public List<String> getListInvokedInChunks(@ParameterValueKeyProvider final List<Integer> id1) {
+            return Collections.<String> emptyList();
+        }
+
+        @ReadThroughMultiCache(namespace = NS, expiration = EXPIRATION, option = @ReadThroughMultiCacheOption(invocationChunkSize = 1,
+                addNullsToCache = true))
+        public List<String> getListInvokedInChunksCacheNulls(@ParameterValueKeyProvider final List<Integer> id1) {
+            return Collections.<String> emptyList();
+        }
+
+        @ReadThroughMultiCache(namespace = NS, expiration = EXPIRATION, option = @ReadThroughMultiCacheOption(getBulkTimeout = 50))
+        public List<String> getListWithDeadline(@ParameterValueKeyProvider final List<Integer> id1) {
+            return Collections.<String> emptyList();
+        }
+
     }
 
 }
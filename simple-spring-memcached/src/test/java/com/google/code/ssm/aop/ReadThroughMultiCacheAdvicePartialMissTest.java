@@ -18,6 +18,7 @@ package com.google.code.ssm.aop;
 
 import static org.junit.Assert.assertEquals;
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -147,7 +148,7 @@ public class ReadThroughMultiCacheAdvicePartialMissTest extends AbstractCacheTes
     public void validCachePartialMiss() throws Throwable {
         Assume.assumeTrue(isValid);
 
-        when(cache.getBulk(eq(new HashSet<String>(Arrays.asList(cacheKeys))), any(SerializationType.class))).thenReturn(cacheHits);
+        when(cache.getBulk(eq(new HashSet<String>(Arrays.asList(cacheKeys))), any(SerializationType.class), anyLong())).thenReturn(cacheHits);
         when(pjp.proceed(missParams)).thenReturn(missValues);
 
         List<Object> result = (List<Object>) expectedValue;
@@ -161,11 +162,11 @@ public class ReadThroughMultiCacheAdvicePartialMissTest extends AbstractCacheTes
         }
         assertEquals(result, advice.cacheMulti(pjp));
 
-        verify(cache).getBulk(eq(new HashSet<String>(Arrays.asList(cacheKeys))), any(SerializationType.class));
+        verify(cache).getBulk(eq(new HashSet<String>(Arrays.asList(cacheKeys))), any(SerializationType.class), anyLong());
         if (expectedValue.size() == cacheKeys.length) {
+            final Map<String, Object> setValues = getBulkSetValues(EXPIRATION);
             for (int element : missedIndex) {
-                verify(cache).setSilently(eq(cacheKeys[element]), eq(EXPIRATION), eq(expectedValue.get(element)),
-                        any(SerializationType.class));
+                assertEquals(expectedValue.get(element), setValues.get(cacheKeys[element]));
             }
         }
         verify(pjp).proceed(missParams);
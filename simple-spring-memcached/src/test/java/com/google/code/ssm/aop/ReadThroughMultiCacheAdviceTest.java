@@ -19,9 +19,12 @@ package com.google.code.ssm.aop;
 import static org.junit.Assert.assertEquals;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.anyMapOf;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -41,6 +44,7 @@ import org.junit.runners.Parameterized.Parameters;
 
 import com.google.code.ssm.api.ParameterValueKeyProvider;
 import com.google.code.ssm.api.ReadThroughMultiCache;
+import com.google.code.ssm.api.ReadThroughMultiCacheOption;
 import com.google.code.ssm.api.ReturnValueKeyProvider;
 import com.google.code.ssm.api.format.SerializationType;
 import com.google.code.ssm.test.Point;
@@ -69,6 +73,8 @@ public class ReadThroughMultiCacheAdviceTest extends AbstractCacheTest<ReadThrou
                         { true, "method4", new Class[] { int.class, String.class, List.class },
                                 new Object[] { 4, "xyz", Arrays.asList(1, 2, 3, 4) }, Arrays.asList(1, 2, 3, 4),
                                 new String[] { NS + ":1/xyz", NS + ":2/xyz", NS + ":3/xyz", NS + ":4/xyz" } }, //
+                        { true, "method5", new Class[] { List.class }, new Object[] { Arrays.asList(1, 2, 3, 4) },
+                                Arrays.asList(2, 4, 6, 8), new String[] { NS + ":1", NS + ":2", NS + ":3", NS + ":4" } }, //
 
                         { false, "method50", new Class[] { List.class }, new Object[] { Arrays.asList(1, 2, 3, 4) },
                                 Arrays.asList(1, 2, 3, 4), null }, //
@@ -109,9 +115,11 @@ public class ReadThroughMultiCacheAdviceTest extends AbstractCacheTest<ReadThrou
 
         assertEquals(expectedValue, advice.cacheMulti(pjp));
 
-        verify(cache).getBulk(eq(new HashSet<String>(Arrays.asList(cacheKeys))), any(SerializationType.class));
+        verify(cache).getBulk(eq(new HashSet<String>(Arrays.asList(cacheKeys))), any(SerializationType.class), anyLong());
+        verify(cache, timeout(1000)).setBulkSilently(anyMapOf(String.class, Object.class), eq(EXPIRATION), any(SerializationType.class));
+        final Map<String, Object> setValues = getBulkSetValues(EXPIRATION);
         for (int i = 0; i < cacheKeys.length; i++) {
-            verify(cache).setSilently(eq(cacheKeys[i]), eq(EXPIRATION), eq(expectedValue.get(i)), any(SerializationType.class));
+            assertEquals(expectedValue.get(i), setValues.get(cacheKeys[i]));
         }
         verify(pjp).proceed(params);
     }
@@ -124,12 +132,12 @@ public class ReadThroughMultiCacheAdviceTest extends AbstractCacheTest<ReadThrou
             map.put(cacheKeys[i], expectedValue.get(i));
         }
 
-        when(cache.getBulk(eq(new HashSet<String>(Arrays.asList(cacheKeys))), any(SerializationType.class))).thenReturn(map);
+        when(cache.getBulk(eq(new HashSet<String>(Arrays.asList(cacheKeys))), any(SerializationType.class), anyLong())).thenReturn(map);
 
         assertEquals(expectedValue, advice.cacheMulti(pjp));
 
-        verify(cache).getBulk(eq(new HashSet<String>(Arrays.asList(cacheKeys))), any(SerializationType.class));
-        verify(cache, never()).setSilently(anyString(), anyInt(), any(), any(SerializationType.class));
+        verify(cache).getBulk(eq(new HashSet<String>(Arrays.asList(cacheKeys))), any(SerializationType.class), anyLong());
+        verify(cache, never()).setBulkSilently(anyMapOf(String.class, Object.class), anyInt(), any(SerializationType.class));
         verify(pjp, never()).proceed(params);
     }
 
@@ -142,7 +150,7 @@ public class ReadThroughMultiCacheAdviceTest extends AbstractCacheTest<ReadThrou
 
         assertEquals(expectedValue, advice.cacheMulti(pjp));
 
-        verify(cache, never()).getBulk(any(Collection.class), any(SerializationType.class));
+        verify(cache, never()).getBulk(any(Collection.class), any(SerializationType.class), anyLong());
         verify(cache, never()).set(anyString(), anyInt(), any(), any(SerializationType.class));
         verify(pjp).proceed();
     }
@@ -182,6 +190,11 @@ public class ReadThroughMultiCacheAdviceTest extends AbstractCacheTest<ReadThrou
             return Collections.<Integer> emptyList();
         }
 
+        @ReadThroughMultiCache(namespace = NS, expiration = EXPIRATION, option = @ReadThroughMultiCacheOption(asyncWrite = true))
+        public List<Integer> method5(@ParameterValueKeyProvider final List<Integer> id1) {
+            return Collections.<Integer> emptyList();
+        }
+
         // no @ParameterValueKeyProvider
         @ReadThroughMultiCache(namespace = NS, expiration = EXPIRATION)
         public List<Integer> method50(final List<Integer> id1) {
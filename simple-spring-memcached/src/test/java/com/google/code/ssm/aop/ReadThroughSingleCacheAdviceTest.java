@@ -22,6 +22,7 @@ import static org.mockito.Matchers.anyInt;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -35,6 +36,7 @@ import org.junit.Test;
 import org.junit.runners.Parameterized.Parameters;
 
 import com.google.code.ssm.api.ParameterValueKeyProvider;
+import com.google.code.ssm.api.ReadThroughCacheOption;
 import com.google.code.ssm.api.ReadThroughSingleCache;
 import com.google.code.ssm.api.ReturnValueKeyProvider;
 import com.google.code.ssm.api.format.SerializationType;
@@ -52,6 +54,8 @@ public class ReadThroughSingleCacheAdviceTest extends AbstractCacheTest<ReadThro
                 { true, "method1", new Class[] { int.class }, new Object[] { 1 }, 1 }, //
                         { true, "method2", new Class[] { int.class }, new Object[] { 2 }, "2" }, //
                         { true, "method3", new Class[] { int.class, int.class }, new Object[] { 3, 44 }, 3 }, //
+                        { true, "method4", new Class[] { int.class }, new Object[] { 4 }, 4 }, //
+                        { true, "method5", new Class[] { int.class }, new Object[] { 5 }, 5 }, //
 
                         { false, "method50", new Class[] { int.class }, new Object[] { 50 }, 50 }, //
                         { false, "method51", new Class[] { int.class }, new Object[] { 51 }, null }, //
@@ -85,7 +89,7 @@ public class ReadThroughSingleCacheAdviceTest extends AbstractCacheTest<ReadThro
         assertEquals(expectedValue, advice.cacheGetSingle(pjp));
 
         verify(cache).get(eq(cacheKey), any(SerializationType.class));
-        verify(cache).set(eq(cacheKey), eq(EXPIRATION), eq(expectedValue), any(SerializationType.class));
+        verify(cache, timeout(1000)).set(eq(cacheKey), eq(EXPIRATION), eq(expectedValue), any(SerializationType.class));
         verify(pjp).proceed();
     }
 
@@ -142,6 +146,16 @@ public class ReadThroughSingleCacheAdviceTest extends AbstractCacheTest<ReadThro
             return 3;
         }
 
+        @ReadThroughSingleCache(namespace = NS, expiration = EXPIRATION, option = @ReadThroughCacheOption(coalesceMisses = true))
+        public int method4(@ParameterValueKeyProvider final int id1) {
+            return 4;
+        }
+
+        @ReadThroughSingleCache(namespace = NS, expiration = EXPIRATION, option = @ReadThroughCacheOption(asyncWrite = true))
+        public int method5(@ParameterValueKeyProvider final int id1) {
+            return 5;
+        }
+
         // no @ParameterValueKeyProvider
         @ReadThroughSingleCache(namespace = NS, expiration = EXPIRATION)
         public int method50(final int id1) {
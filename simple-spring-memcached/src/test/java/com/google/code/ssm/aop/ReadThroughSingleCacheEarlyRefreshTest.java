@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2015 Jakub Białek
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.aop;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runners.Parameterized.Parameters;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import com.google.code.ssm.aop.support.RefreshableValue;
+import com.google.code.ssm.api.ParameterValueKeyProvider;
+import com.google.code.ssm.api.ReadThroughCacheOption;
+import com.google.code.ssm.api.ReadThroughSingleCache;
+import com.google.code.ssm.api.format.SerializationType;
+
+/**
+ * 
+ * @author Jakub Białek
+ * 
+ */
+public class ReadThroughSingleCacheEarlyRefreshTest extends AbstractCacheTest<ReadThroughSingleCacheAdvice> {
+
+    @Parameters
+    public static Collection<Object[]> data() {
+        return Arrays.asList(new Object[][] { //
+                { "method1", new Object[] { 1 } }, //
+                });
+    }
+
+    private static final String NS = "TEST_NS";
+
+    private static final int EXPIRATION = 110;
+
+    private static final String OLD_VALUE = "old";
+
+    private static final String NEW_VALUE = "new";
+
+    private final CountDownLatch refreshStarted = new CountDownLatch(1);
+
+    private final CountDownLatch refreshAllowed = new CountDownLatch(1);
+
+    public ReadThroughSingleCacheEarlyRefreshTest(final String methodName, final Object[] params) {
+        super(true, methodName, new Class[] { int.class }, params, null);
+    }
+
+    @Before
+    public void setUp() throws Throwable {
+        super.setUp(new TestService());
+        // the value has already logically expired so each hit wants to refresh it
+        when(cache.get(eq(cacheKey), any(SerializationType.class))).thenReturn(
+                new RefreshableValue(OLD_VALUE, 100, System.currentTimeMillis() - 1000));
+        when(pjp.proceed()).thenAnswer(new Answer<Object>() {
+            @Override
+            public Object answer(final InvocationOnMock invocation) throws Throwable {
+                refreshStarted.countDown();
+                refreshAllowed.await(5, TimeUnit.SECONDS);
+                return NEW_VALUE;
+            }
+        });
+    }
+
+    @After
+    public void tearDown() {
+        refreshAllowed.countDown();
+    }
+
+    @Test
+    public void hitsDuringRefreshInvokeMethodOnce() throws Throwable {
+        assertEquals(OLD_VALUE, advice.cacheGetSingle(pjp));
+        refreshStarted.await(5, TimeUnit.SECONDS);
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(OLD_VALUE, advice.cacheGetSingle(pjp));
+        }
+
+        verify(pjp, after(200).times(1)).proceed();
+
+        refreshAllowed.countDown();
+        verify(cache, timeout(1000)).set(eq(cacheKey), eq(EXPIRATION), any(RefreshableValue.class), any(SerializationType.class));
+        verify(pjp, times(1)).proceed();
+    }
+
+    @Test
+    public void hitAfterRefreshRefreshesAgain() throws Throwable {
+        refreshAllowed.countDown();
+
+        assertEquals(OLD_VALUE, advice.cacheGetSingle(pjp));
+        verify(cache, timeout(1000)).set(eq(cacheKey), eq(EXPIRATION), any(RefreshableValue.class), any(SerializationType.class));
+
+        // the refresh is finished once the value is stored, wait until the key is released
+        Thread.sleep(100);
+        assertEquals(OLD_VALUE, advice.cacheGetSingle(pjp));
+
+        verify(pjp, timeout(1000).times(2)).proceed();
+    }
+
+    @Override
+    protected ReadThroughSingleCacheAdvice createAdvice() {
+        return new ReadThroughSingleCacheAdvice();
+    }
+
+    @Override
+    protected String getNamespace() {
+        return NS;
+    }
+
+    private static class TestService {
+
+        @ReadThroughSingleCache(namespace = NS, expiration = EXPIRATION, option = @ReadThroughCacheOption(earlyRefresh = true))
+        public String method1(@ParameterValueKeyProvider final int id1) {
+            return NEW_VALUE;
+        }
+
+    }
+
+}
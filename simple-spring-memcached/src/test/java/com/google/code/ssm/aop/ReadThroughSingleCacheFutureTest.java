@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) 2015 Jakub Białek
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.aop;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Future;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runners.Parameterized.Parameters;
+
+import com.google.code.ssm.api.ParameterValueKeyProvider;
+import com.google.code.ssm.api.ReadThroughSingleCache;
+import com.google.code.ssm.api.format.SerializationType;
+
+/**
+ * 
+ * @author Jakub Białek
+ * 
+ */
+public class ReadThroughSingleCacheFutureTest extends AbstractCacheTest<ReadThroughSingleCacheAdvice> {
+
+    @Parameters
+    public static Collection<Object[]> data() {
+        return Arrays.asList(new Object[][] { //
+                { "method1", new Object[] { 1 } }, //
+                        { "method2", new Object[] { 2 } }, //
+                });
+    }
+
+    private static final String NS = "TEST_NS";
+
+    private static final int EXPIRATION = 110;
+
+    private static final String VALUE = "value";
+
+    public ReadThroughSingleCacheFutureTest(final String methodName, final Object[] params) {
+        super(true, methodName, new Class[] { int.class }, params, null);
+    }
+
+    @Before
+    public void setUp() {
+        super.setUp(new TestService());
+    }
+
+    @Test
+    public void cacheHitReturnsCompletedFuture() throws Throwable {
+        when(cache.get(eq(cacheKey), any(SerializationType.class))).thenReturn(VALUE);
+
+        final Future<?> result = (Future<?>) advice.cacheGetSingle(pjp);
+
+        assertTrue(result.isDone());
+        assertEquals(VALUE, result.get());
+        verify(pjp, never()).proceed();
+    }
+
+    @Test
+    public void cacheMissStoresValueOnCompletion() throws Throwable {
+        final CompletableFuture<Object> future = new CompletableFuture<Object>();
+        when(pjp.proceed()).thenReturn(future);
+
+        assertSame(future, advice.cacheGetSingle(pjp));
+        verify(cache, after(100).never()).set(anyString(), anyInt(), any(), any(SerializationType.class));
+
+        future.complete(VALUE);
+
+        verify(cache, timeout(1000)).set(eq(cacheKey), eq(EXPIRATION), eq(VALUE), any(SerializationType.class));
+    }
+
+    @Test
+    public void cacheMissDoesNotStoreFailedFuture() throws Throwable {
+        final CompletableFuture<Object> future = new CompletableFuture<Object>();
+        when(pjp.proceed()).thenReturn(future);
+
+        assertSame(future, advice.cacheGetSingle(pjp));
+        future.completeExceptionally(new IllegalStateException("FORCE FOR TEST"));
+
+        verify(cache, after(200).never()).set(anyString(), anyInt(), any(), any(SerializationType.class));
+    }
+
+    @Override
+    protected ReadThroughSingleCacheAdvice createAdvice() {
+        return new ReadThroughSingleCacheAdvice();
+    }
+
+    @Override
+    protected String getNamespace() {
+        return NS;
+    }
+
+    private static class TestService {
+
+        @ReadThroughSingleCache(namespace = NS, expiration = EXPIRATION)
+        public CompletableFuture<String> method1(@ParameterValueKeyProvider final int id1) {
+            return CompletableFuture.completedFuture(VALUE);
+        }
+
+        @ReadThroughSingleCache(namespace = NS, expiration = EXPIRATION)
+        public CompletionStage<String> method2(@ParameterValueKeyProvider final int id1) {
+            return CompletableFuture.completedFuture(VALUE);
+        }
+
+    }
+
+}
@@ -16,10 +16,11 @@
 
 package com.google.code.ssm.aop;
 
+import static org.junit.Assert.assertEquals;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyMapOf;
 import static org.mockito.Matchers.anyString;
-import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 
@@ -27,6 +28,7 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 import org.hamcrest.CoreMatchers;
 import org.junit.Assume;
@@ -167,14 +169,17 @@ public class UpdateMultiCacheAdvice2Test extends AbstractCacheTest<UpdateMultiCa
 
         advice.cacheUpdateMulti(pjp, returnValue);
 
+        final Map<String, Object> setValues = getBulkSetValues(EXPIRATION);
+        final Map<String, Object> addedValues = getBulkAddedValues(EXPIRATION);
+
         for (int i = 0; i < cacheKeys.length; i++) {
             if (advice.getCacheBase().getMethodToCache(pjp).getAnnotation(UpdateMultiCache.class).option().overwriteNoNulls()) {
-                verify(cache).setSilently(eq(cacheKeys[i]), eq(EXPIRATION), eq(expectedValue.get(i)), any(SerializationType.class));
+                assertEquals(expectedValue.get(i), setValues.get(cacheKeys[i]));
             } else if (advice.getCacheBase().getMethodToCache(pjp).getAnnotation(UpdateMultiCache.class).option().addNullsToCache()
                     && expectedValue.get(i) instanceof PertinentNegativeNull) {
-                verify(cache).addSilently(eq(cacheKeys[i]), eq(EXPIRATION), eq(expectedValue.get(i)), any(SerializationType.class));
+                assertEquals(expectedValue.get(i), addedValues.get(cacheKeys[i]));
             } else {
-                verify(cache).setSilently(eq(cacheKeys[i]), eq(EXPIRATION), eq(expectedValue.get(i)), any(SerializationType.class));
+                assertEquals(expectedValue.get(i), setValues.get(cacheKeys[i]));
             }
 
         }
@@ -188,6 +193,7 @@ public class UpdateMultiCacheAdvice2Test extends AbstractCacheTest<UpdateMultiCa
 
         verify(cache, never()).setSilently(anyString(), anyInt(), any(), any(SerializationType.class));
         verify(cache, never()).set(anyString(), anyInt(), any(), any(SerializationType.class));
+        verify(cache, never()).setBulkSilently(anyMapOf(String.class, Object.class), anyInt(), any(SerializationType.class));
     }
 
     @Override
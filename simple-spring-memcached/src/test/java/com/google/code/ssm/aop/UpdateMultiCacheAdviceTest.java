@@ -24,7 +24,9 @@ import static org.junit.Assert.fail;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.apache.commons.lang.RandomStringUtils;
 import org.easymock.EasyMock;
@@ -101,15 +103,16 @@ public class UpdateMultiCacheAdviceTest {
         EasyMock.expect(cache.getName()).andReturn(AnnotationConstants.DEFAULT_CACHE_NAME);
         EasyMock.expect(cache.getAliases()).andReturn(Collections.<String> emptyList()).anyTimes();
         EasyMock.expect(cache.getProperties()).andReturn(new CacheProperties()).anyTimes();
+        final Map<String, Object> toCache = new HashMap<String, Object>();
         for (final String key : keys) {
             final String value = "ValueFor-" + key;
             objs.add(value);
-            cache.setSilently(key, data.getExpiration(), value, null);
-            EasyMock.expectLastCall();
+            toCache.put(key, value);
         }
         keys.add("BigFatNull");
         objs.add(null);
-        cache.setSilently(keys.get(2), data.getExpiration(), new PertinentNegativeNull(), null);
+        toCache.put(keys.get(2), new PertinentNegativeNull());
+        cache.setBulkSilently(toCache, data.getExpiration(), null);
         EasyMock.expectLastCall();
 
         EasyMock.replay(cache);
@@ -21,10 +21,12 @@ import static org.mockito.Matchers.anyInt;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.verify;
 
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
 
 import org.hamcrest.CoreMatchers;
 import org.junit.Assume;
@@ -62,6 +64,10 @@ public class UpdateSingleCacheAdviceTest extends AbstractCacheTest<UpdateSingleC
                                 new Point(1, 1), new Point(1, 2), NS + ":8/7" }, //
                         { true, "method8", new Class[] { int.class }, new Object[] { 8 }, 9, 9, null }, //
                         { true, "method9", new Class[] { String.class }, new Object[] { "9" }, "9", "9", null }, //
+                        { true, "method10", new Class[] { int.class }, new Object[] { 10 }, CompletableFuture.completedFuture("10"), "10",
+                                null }, //
+                        { true, "method11", new Class[] { String.class }, new Object[] { "11" }, CompletableFuture.completedFuture("11"),
+                                "11", null }, //
 
                         { false, "method50", new Class[] { int.class }, new Object[] { 50 }, 50, null, null }, //
                         { false, "method51", new Class[] { int.class }, new Object[] { 51 }, 51, null, null }, //
@@ -95,7 +101,7 @@ public class UpdateSingleCacheAdviceTest extends AbstractCacheTest<UpdateSingleC
 
         advice.cacheUpdateSingle(pjp, returnValue);
 
-        verify(cache).set(eq(cacheKey), eq(EXPIRATION), eq(expectedValue), any(SerializationType.class));
+        verify(cache, timeout(1000)).set(eq(cacheKey), eq(EXPIRATION), eq(expectedValue), any(SerializationType.class));
     }
 
     @Test
@@ -174,6 +180,20 @@ public class UpdateSingleCacheAdviceTest extends AbstractCacheTest<UpdateSingleC
             return "9";
         }
 
+        // value of returned future is stored in cache
+        @ReturnDataUpdateContent
+        @UpdateSingleCache(namespace = NS, expiration = EXPIRATION)
+        public CompletableFuture<String> method10(@ParameterValueKeyProvider final int id1) {
+            return CompletableFuture.completedFuture("10");
+        }
+
+        @ReturnValueKeyProvider
+        @ReturnDataUpdateContent
+        @UpdateSingleCache(namespace = NS, expiration = EXPIRATION)
+        public CompletableFuture<String> method11(final String s) {
+            return CompletableFuture.completedFuture("11");
+        }
+
         // no @ParameterValueKeyProvider
         @ReturnDataUpdateContent
         @UpdateSingleCache(namespace = NS, expiration = EXPIRATION)
@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2015 Jakub Białek
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.aop.counter;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runners.Parameterized.Parameters;
+
+import com.google.code.ssm.api.ParameterValueKeyProvider;
+import com.google.code.ssm.api.counter.ReadMultiCounterFromCache;
+
+/**
+ * 
+ * @author Jakub Białek
+ * 
+ */
+public class ReadMultiCounterFromCacheAdviceTest extends AbstractCounterTest<ReadMultiCounterFromCacheAdvice> {
+
+    @Parameters
+    public static Collection<Object[]> data() {
+        return Arrays.asList(new Object[][] { //
+                        { "readCounters1", new Class[] { List.class }, new Object[] { Arrays.asList(1, 2, 3) },
+                                new String[] { NS + ":1", NS + ":2", NS + ":3" }, Arrays.asList(10, 20, 30),
+                                new Object[] { Arrays.asList(2) }, new int[] { 1 } }, //
+                        { "readCounters2", new Class[] { List.class, String.class }, new Object[] { Arrays.asList(1, 2, 3, 4), "xyz" },
+                                new String[] { NS + ":1/xyz", NS + ":2/xyz", NS + ":3/xyz", NS + ":4/xyz" }, Arrays.asList(5L, 6L, 7L, 8L),
+                                new Object[] { Arrays.asList(1, 4), "xyz" }, new int[] { 0, 3 } }, //
+                });
+    }
+
+    private static final int EXPIRATION = 100;
+
+    private final String[] cacheKeys;
+
+    private final List<? extends Number> expectedValue;
+
+    private final Object[] missParams;
+
+    private final int[] missedIndex;
+
+    public ReadMultiCounterFromCacheAdviceTest(final String methodName, final Class<?>[] paramTypes, final Object[] params,
+            final String[] cacheKeys, final List<? extends Number> expectedValue, final Object[] missParams, final int[] missedIndex) {
+        super(true, methodName, paramTypes, params, null);
+        this.cacheKeys = cacheKeys;
+        this.expectedValue = expectedValue;
+        this.missParams = missParams;
+        this.missedIndex = missedIndex;
+    }
+
+    @Before
+    public void setUp() {
+        super.setUp(new TestService());
+        when(cache.asyncIncr(anyString(), anyInt(), anyLong(), anyInt())).thenReturn(CompletableFuture.completedFuture(1L));
+    }
+
+    @Test
+    public void readCountersAllHits() throws Throwable {
+        final Map<String, Long> counters = new HashMap<String, Long>();
+        for (int i = 0; i < cacheKeys.length; i++) {
+            counters.put(cacheKeys[i], expectedValue.get(i).longValue());
+        }
+        when(cache.getCounters(new HashSet<String>(Arrays.asList(cacheKeys)))).thenReturn(counters);
+
+        assertEquals(expectedValue, advice.readCounters(pjp));
+
+        verify(pjp, never()).proceed(missParams);
+        verify(cache, never()).asyncIncr(anyString(), anyInt(), anyLong(), anyInt());
+    }
+
+    @Test
+    public void readCountersPartialMiss() throws Throwable {
+        final Map<String, Long> counters = new HashMap<String, Long>();
+        for (int i = 0; i < cacheKeys.length; i++) {
+            counters.put(cacheKeys[i], expectedValue.get(i).longValue());
+        }
+        final List<Object> missValues = new ArrayList<Object>();
+        for (int index : missedIndex) {
+            counters.remove(cacheKeys[index]);
+            missValues.add(expectedValue.get(index));
+        }
+        when(cache.getCounters(new HashSet<String>(Arrays.asList(cacheKeys)))).thenReturn(counters);
+        when(pjp.proceed(missParams)).thenReturn(missValues);
+
+        assertEquals(expectedValue, advice.readCounters(pjp));
+
+        verify(pjp).proceed(missParams);
+        for (int index : missedIndex) {
+            verify(cache).asyncIncr(cacheKeys[index], 0, expectedValue.get(index).longValue(), EXPIRATION);
+        }
+    }
+
+    @Override
+    protected ReadMultiCounterFromCacheAdvice createAdvice() {
+        return new ReadMultiCounterFromCacheAdvice();
+    }
+
+    private static class TestService {
+
+        @ReadMultiCounterFromCache(namespace = NS, expiration = EXPIRATION)
+        public List<Integer> readCounters1(@ParameterValueKeyProvider final List<Integer> id1) {
+            return Collections.<Integer> emptyList();
+        }
+
+        @ReadMultiCounterFromCache(namespace = NS, expiration = EXPIRATION)
+        public List<Long> readCounters2(@ParameterValueKeyProvider final List<Integer> id1,
+                @ParameterValueKeyProvider(order = 1) final String id2) {
+            return Collections.<Long> emptyList();
+        }
+
+    }
+
+}
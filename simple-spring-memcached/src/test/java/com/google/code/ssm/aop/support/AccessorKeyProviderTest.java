@@ -0,0 +1,164 @@
+/*
+ * Copyright (c) 2015 Jakub Białek
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.aop.support;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.security.InvalidParameterException;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.code.ssm.api.CacheKeyMethod;
+
+/**
+ * 
+ * @author Jakub Białek
+ * 
+ */
+public class AccessorKeyProviderTest {
+
+    private AccessorKeyProvider cut;
+
+    @Before
+    public void setUp() {
+        cut = new AccessorKeyProvider();
+    }
+
+    @Test
+    public void shouldGenerateKeyFromBuiltInTypes() {
+        assertEquals("abc", cut.generateKey("abc"));
+        assertEquals("123", cut.generateKey(123L));
+        assertEquals("-45", cut.generateKey(-45));
+        assertEquals("FIRST", cut.generateKey(KeyEnum.FIRST));
+        assertEquals("second-overridden", cut.generateKey(KeyEnum.SECOND));
+    }
+
+    @Test
+    public void shouldGenerateKeyUsingCacheKeyMethod() {
+        assertEquals(KeyObject01.RESULT, cut.generateKey(new KeyObject01()));
+        assertEquals("toString", cut.generateKey(new KeyObject02("toString")));
+        assertEquals("from subclass", cut.generateKey(new KeyObject03("from subclass")));
+    }
+
+    @Test
+    public void shouldReuseKeyAccessor() throws Exception {
+        assertSame(cut.getKeyAccessor(KeyObject01.class), cut.getKeyAccessor(KeyObject01.class));
+        assertSame(cut.getKeyAccessor(KeyObject02.class), cut.getKeyAccessor(String.class.getSuperclass()));
+    }
+
+    @Test
+    public void shouldGenerateTheSameKeysAsDefaultProvider() {
+        final DefaultKeyProvider defaultKeyProvider = new DefaultKeyProvider();
+        final Object[] keyObjects = new Object[] { "a", 2L, 3, KeyEnum.SECOND, new KeyObject01(), new KeyObject02("b"),
+                new KeyObject03("c") };
+
+        assertArrayEquals(defaultKeyProvider.generateKeys(keyObjects), cut.generateKeys(keyObjects));
+    }
+
+    @Test
+    public void shouldPropagateExceptionFromCacheKeyMethod() {
+        try {
+            cut.generateKey(new KeyObject04());
+            fail("Expected exception.");
+        } catch (IllegalStateException ex) {
+            assertEquals("broken", ex.getMessage());
+        }
+    }
+
+    @Test
+    public void shouldNotAcceptEmptyKeys() {
+        try {
+            cut.generateKey(new KeyObject02(""));
+            fail("Expected exception.");
+        } catch (RuntimeException ex) {
+            assertTrue(ex.getMessage().indexOf("empty key value") != -1);
+        }
+
+        try {
+            cut.generateKey(new KeyObject02(null));
+            fail("Expected exception.");
+        } catch (RuntimeException ex) {
+            assertTrue(ex.getMessage().indexOf("empty key value") != -1);
+        }
+    }
+
+    @Test(expected = InvalidParameterException.class)
+    public void shouldNotAcceptNullKeyObject() {
+        cut.generateKey(null);
+    }
+
+    private static enum KeyEnum {
+        FIRST, SECOND {
+            @Override
+            public String toString() {
+                return "second-overridden";
+            }
+        };
+    }
+
+    private static class KeyObject01 {
+
+        public static final String RESULT = "shrimp";
+
+        @CacheKeyMethod
+        public String doIt() {
+            return RESULT;
+        }
+
+        @Override
+        public String toString() {
+            return "ignored";
+        }
+    }
+
+    private static class KeyObject02 {
+
+        private final String result;
+
+        private KeyObject02(final String result) {
+            this.result = result;
+        }
+
+        @Override
+        public String toString() {
+            return result;
+        }
+    }
+
+    private static class KeyObject03 extends KeyObject02 {
+
+        private KeyObject03(final String result) {
+            super(result);
+        }
+
+    }
+
+    private static class KeyObject04 {
+
+        @CacheKeyMethod
+        public String doIt() {
+            throw new IllegalStateException("broken");
+        }
+    }
+
+}
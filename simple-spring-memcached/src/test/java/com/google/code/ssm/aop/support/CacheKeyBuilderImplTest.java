@@ -1,14 +1,18 @@
 package com.google.code.ssm.aop.support;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.security.InvalidParameterException;
+import java.util.Arrays;
 
 import org.apache.commons.lang.RandomStringUtils;
 import org.junit.BeforeClass;
 import org.junit.Test;
+import org.mockito.Mockito;
 
+import com.google.code.ssm.NamespaceVersionManager;
 import com.google.code.ssm.aop.support.AnnotationData;
 import com.google.code.ssm.aop.support.CacheKeyBuilderImpl;
 
@@ -55,5 +59,24 @@ public class CacheKeyBuilderImplTest {
         assertTrue(result.indexOf(objectId) != -1);
         assertTrue(result.indexOf(namespace) != -1);
     }
-    
+
+    @Test
+    public void getVersionedCacheKey() throws Exception {
+        final NamespaceVersionManager namespaceVersionManager = Mockito.mock(NamespaceVersionManager.class);
+        Mockito.when(namespaceVersionManager.isVersioned("versioned")).thenReturn(true);
+        Mockito.when(namespaceVersionManager.getVersion("versioned")).thenReturn(7L);
+        final CacheKeyBuilderImpl versionedCacheKeyBuilder = new CacheKeyBuilderImpl();
+        versionedCacheKeyBuilder.setNamespaceVersionManager(namespaceVersionManager);
+
+        assertEquals("versioned@7:1", versionedCacheKeyBuilder.getCacheKey(1, "versioned"));
+        assertEquals("other:1", versionedCacheKeyBuilder.getCacheKey(1, "other"));
+        assertEquals(Arrays.asList("versioned@7:1", "versioned@7:2"),
+                versionedCacheKeyBuilder.getCacheKeys(Arrays.<Object> asList(1, 2), "versioned"));
+
+        final AnnotationData data = new AnnotationData();
+        data.setNamespace("versioned");
+        data.setAssignedKey("all");
+        assertEquals("versioned@7:all", versionedCacheKeyBuilder.getAssignCacheKey(data));
+    }
+
 }
@@ -0,0 +1,172 @@
+/*
+ * Copyright (c) 2015 Jakub Białek
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.aop.support;
+
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.code.ssm.Cache;
+
+/**
+ * 
+ * @author Jakub Białek
+ * 
+ */
+public class CounterBatcherTest {
+
+    private CounterBatcher cut;
+
+    private Cache cache;
+
+    @Before
+    public void setUp() {
+        cut = new CounterBatcher();
+        cache = mock(Cache.class);
+        when(cache.asyncIncr(anyString(), anyInt())).thenReturn(CompletableFuture.completedFuture(10L));
+        when(cache.asyncDecr(anyString(), anyInt())).thenReturn(CompletableFuture.completedFuture(10L));
+    }
+
+    @Test
+    public void flushMergesDeltasOfTheSameCounter() throws Exception {
+        cut.add(cache, "key1", 1);
+        cut.add(cache, "key1", 1);
+        cut.add(cache, "key1", 1);
+        cut.add(cache, "key2", 1);
+
+        cut.flush();
+
+        verify(cache).asyncIncr("key1", 3);
+        verify(cache).asyncIncr("key2", 1);
+        verify(cache, never()).incr(anyString(), anyInt(), anyLong());
+    }
+
+    @Test
+    public void flushDecrementsNegativeDelta() throws Exception {
+        cut.add(cache, "key1", 1);
+        cut.add(cache, "key1", -3);
+
+        cut.flush();
+
+        verify(cache).asyncDecr("key1", 2);
+        verify(cache, never()).asyncIncr(anyString(), anyInt());
+    }
+
+    @Test
+    public void flushSkipsZeroDelta() throws Exception {
+        cut.add(cache, "key1", 1);
+        cut.add(cache, "key1", -1);
+
+        cut.flush();
+
+        verify(cache, never()).asyncIncr(anyString(), anyInt());
+        verify(cache, never()).asyncDecr(anyString(), anyInt());
+    }
+
+    @Test
+    public void flushInitializesMissingCounter() throws Exception {
+        when(cache.asyncIncr("key1", 2)).thenReturn(CompletableFuture.completedFuture(-1L));
+        cut.add(cache, "key1", 2);
+
+        cut.flush();
+
+        verify(cache).incr("key1", 2, 2L);
+    }
+
+    @Test
+    public void flushSendsOnlyNewDeltas() throws Exception {
+        cut.add(cache, "key1", 1);
+        cut.flush();
+
+        cut.flush();
+        cut.add(cache, "key1", 4);
+        cut.flush();
+
+        verify(cache, times(1)).asyncIncr("key1", 1);
+        verify(cache, times(1)).asyncIncr("key1", 4);
+    }
+
+    @Test
+    public void flushContinuesAfterError() throws Exception {
+        when(cache.asyncIncr("key1", 1)).thenThrow(new IllegalStateException());
+        cut.add(cache, "key1", 1);
+        cut.add(cache, "key2", 1);
+
+        cut.flush();
+
+        verify(cache).asyncIncr("key2", 1);
+    }
+
+    @Test
+    public void flushSplitsTooLargeDelta() throws Exception {
+        cut.add(cache, "key1", Integer.MAX_VALUE);
+        cut.add(cache, "key1", 5);
+
+        cut.flush();
+        verify(cache).asyncIncr("key1", Integer.MAX_VALUE);
+
+        cut.flush();
+        verify(cache).asyncIncr("key1", 5);
+    }
+
+    @Test
+    public void flushInitializesMissingCounterWithSentDelta() throws Exception {
+        when(cache.asyncIncr("key1", Integer.MAX_VALUE)).thenReturn(CompletableFuture.completedFuture(-1L));
+        cut.add(cache, "key1", Integer.MAX_VALUE);
+        cut.add(cache, "key1", 5);
+
+        cut.flush();
+        verify(cache).incr("key1", Integer.MAX_VALUE, (long) Integer.MAX_VALUE);
+
+        // the rest of delta is sent in next flush
+        cut.flush();
+        verify(cache).asyncIncr("key1", 5);
+        verify(cache, times(1)).incr(anyString(), anyInt(), anyLong());
+    }
+
+    @Test
+    public void closeFlushesDeltas() throws Exception {
+        cut.add(cache, "key1", 2);
+
+        cut.close();
+
+        verify(cache).asyncIncr("key1", 2);
+    }
+
+    @Test
+    public void addAfterCloseAppliesDeltaImmediately() throws Exception {
+        cut.close();
+
+        cut.add(cache, "key1", 3);
+        cut.add(cache, "key1", -1);
+
+        verify(cache).asyncIncr("key1", 3);
+        verify(cache).asyncDecr("key1", 1);
+    }
+
+}
@@ -0,0 +1,198 @@
+/*
+ * Copyright (c) 2015 Jakub Białek
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.aop.support;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.code.ssm.aop.support.InvocationCoalescer.Invocation;
+
+/**
+ * 
+ * @author Jakub Białek
+ * 
+ */
+public class InvocationCoalescerTest {
+
+    private InvocationCoalescer cut;
+
+    private ExecutorService executor;
+
+    @Before
+    public void setUp() {
+        cut = new InvocationCoalescer();
+        executor = Executors.newFixedThreadPool(2);
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void shouldShareResultOfInFlightInvocation() throws Throwable {
+        final Object result = new Object();
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger invocations = new AtomicInteger();
+
+        final Future<Object> leader = executor.submit(new Callable<Object>() {
+            @Override
+            public Object call() throws Exception {
+                return invoke("key", 5000, new Invocation() {
+                    @Override
+                    public Object invoke() throws Throwable {
+                        invocations.incrementAndGet();
+                        started.countDown();
+                        release.await();
+                        return result;
+                    }
+                });
+            }
+        });
+
+        started.await();
+        final Future<Object> follower = executor.submit(new Callable<Object>() {
+            @Override
+            public Object call() throws Exception {
+                return invoke("key", 5000, new Invocation() {
+                    @Override
+                    public Object invoke() throws Throwable {
+                        invocations.incrementAndGet();
+                        return new Object();
+                    }
+                });
+            }
+        });
+
+        // give the follower a chance to join in-flight invocation
+        Thread.sleep(100);
+        release.countDown();
+
+        assertSame(result, leader.get(5, TimeUnit.SECONDS));
+        assertSame(result, follower.get(5, TimeUnit.SECONDS));
+        assertEquals(1, invocations.get());
+        assertEquals(0, cut.getInFlightCount());
+    }
+
+    @Test
+    public void shouldInvokeIfTimeoutElapsed() throws Throwable {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        final Future<Object> leader = executor.submit(new Callable<Object>() {
+            @Override
+            public Object call() throws Exception {
+                return invoke("key", 5000, new Invocation() {
+                    @Override
+                    public Object invoke() throws Throwable {
+                        started.countDown();
+                        release.await();
+                        return "leader";
+                    }
+                });
+            }
+        });
+
+        started.await();
+        final Object result = cut.invoke("cache", "key", 10, new Invocation() {
+            @Override
+            public Object invoke() throws Throwable {
+                return "follower";
+            }
+        });
+        release.countDown();
+
+        assertEquals("follower", result);
+        assertEquals("leader", leader.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void shouldNotCoalesceDifferentKeys() throws Throwable {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        final Future<Object> leader = executor.submit(new Callable<Object>() {
+            @Override
+            public Object call() throws Exception {
+                return invoke("key1", 5000, new Invocation() {
+                    @Override
+                    public Object invoke() throws Throwable {
+                        started.countDown();
+                        release.await();
+                        return "key1";
+                    }
+                });
+            }
+        });
+
+        started.await();
+        final Object result = cut.invoke("cache", "key2", 5000, new Invocation() {
+            @Override
+            public Object invoke() throws Throwable {
+                return "key2";
+            }
+        });
+        release.countDown();
+
+        assertEquals("key2", result);
+        assertEquals("key1", leader.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void shouldPropagateException() throws Throwable {
+        final IllegalStateException exception = new IllegalStateException();
+        try {
+            cut.invoke("cache", "key", 1000, new Invocation() {
+                @Override
+                public Object invoke() throws Throwable {
+                    throw exception;
+                }
+            });
+            fail("Expected exception.");
+        } catch (IllegalStateException ex) {
+            assertSame(exception, ex);
+        }
+
+        assertEquals(0, cut.getInFlightCount());
+    }
+
+    private Object invoke(final String key, final long timeout, final Invocation invocation) throws Exception {
+        try {
+            return cut.invoke("cache", key, timeout, invocation);
+        } catch (Exception ex) {
+            throw ex;
+        } catch (Throwable ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+
+}
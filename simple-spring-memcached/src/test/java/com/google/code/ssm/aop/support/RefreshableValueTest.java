@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2015 Jakub Białek
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.aop.support;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.google.code.ssm.mapper.JsonObjectMapper;
+import com.google.code.ssm.providers.CacheTranscoder;
+import com.google.code.ssm.test.Point;
+import com.google.code.ssm.transcoders.JavaTranscoder;
+import com.google.code.ssm.transcoders.JsonTranscoder;
+
+/**
+ * 
+ * @author Jakub Białek
+ * 
+ */
+public class RefreshableValueTest {
+
+    @Test
+    public void shouldComputeRelativeExpiry() {
+        final long before = System.currentTimeMillis();
+        final RefreshableValue value = RefreshableValue.of("value", 10, 60);
+        final long after = System.currentTimeMillis();
+
+        assertTrue(value.getExpiry() >= before + 60000);
+        assertTrue(value.getExpiry() <= after + 60000);
+        assertEquals(10, value.getComputeTime());
+    }
+
+    @Test
+    public void shouldComputeAbsoluteExpiry() {
+        final int unixTime = 2000000000;
+
+        assertEquals(unixTime * 1000L, RefreshableValue.of("value", 10, unixTime).getExpiry());
+    }
+
+    @Test
+    public void shouldNeverRefreshValueWithoutExpiration() {
+        final RefreshableValue value = RefreshableValue.of("value", 100, 0);
+
+        assertEquals(RefreshableValue.NO_EXPIRY, value.getExpiry());
+        assertFalse(value.isRefreshTime(1.0));
+        assertFalse(value.isRefreshTime(1.0, System.currentTimeMillis(), 0.0));
+    }
+
+    @Test
+    public void shouldRefreshOnlyCloseToExpiry() {
+        final RefreshableValue value = new RefreshableValue("value", 100, 10000);
+
+        // -100 * ln(0.5) ~= 69
+        assertFalse(value.isRefreshTime(1.0, 9900, 0.5));
+        assertTrue(value.isRefreshTime(1.0, 9940, 0.5));
+        assertFalse(value.isRefreshTime(0.5, 9940, 0.5));
+        assertTrue(value.isRefreshTime(1.0, 10000, 1.0));
+        assertTrue(value.isRefreshTime(1.0, 0, 0.0));
+    }
+
+    @Test
+    public void shouldBeTranscoded() {
+        final RefreshableValue value = new RefreshableValue(new Point(1, 2), 15, 123456789L);
+
+        assertEquals(value, transcode(new JsonTranscoder(new JsonObjectMapper()), value));
+        assertEquals(value, transcode(new JavaTranscoder(), value));
+
+        final RefreshableValue nullValue = new RefreshableValue(PertinentNegativeNull.NULL, 15, 123456789L);
+
+        assertEquals(nullValue, transcode(new JsonTranscoder(new JsonObjectMapper()), nullValue));
+        assertEquals(nullValue, transcode(new JavaTranscoder(), nullValue));
+    }
+
+    private Object transcode(final CacheTranscoder transcoder, final Object value) {
+        return transcoder.decode(transcoder.encode(value));
+    }
+
+}
@@ -36,6 +36,7 @@ import org.junit.Test;
 
 import com.google.code.ssm.aop.support.AnnotationData;
 import com.google.code.ssm.api.InvalidateAssignCache;
+import com.google.code.ssm.api.InvalidateNamespace;
 import com.google.code.ssm.api.InvalidateSingleCache;
 import com.google.code.ssm.api.ParameterValueKeyProvider;
 import com.google.code.ssm.api.ReturnValueKeyProvider;
@@ -66,6 +67,17 @@ public class KeyIndexesBuilderTest {
         assertFalse(data.isReturnKeyIndex());
     }
 
+    @Test
+    public void shouldNotPopulateIfExpectedAnnotationIsNamespaceOperation() throws Exception {
+        final Class<? extends Annotation> expected = InvalidateNamespace.class;
+        final Method targetMethod = null;
+
+        builder.populate(data, null, expected, targetMethod);
+
+        assertTrue(data.getKeyIndexes().isEmpty());
+        assertFalse(data.isReturnKeyIndex());
+    }
+
     @Test(expected = InvalidParameterException.class)
     public void shouldThrowExceptionIfNoKeyProviderAnnotation() throws Exception {
         final Class<? extends Annotation> expected = InvalidateSingleCache.class;
@@ -0,0 +1,213 @@
+/*
+ * Copyright (c) 2015 Jakub Białek
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.aop.support.builder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.security.InvalidParameterException;
+
+import net.vidageek.mirror.dsl.Mirror;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.code.ssm.aop.support.AnnotationData;
+import com.google.code.ssm.api.ReadThroughAssignCache;
+import com.google.code.ssm.api.ReadThroughCacheOption;
+import com.google.code.ssm.api.ReadThroughSingleCache;
+import com.google.code.ssm.api.counter.ReadCounterFromCache;
+
+/**
+ * 
+ * @author Jakub Białek
+ * 
+ */
+public class ReadThroughOptionBuilderTest {
+
+    private final ReadThroughOptionBuilder builder = new ReadThroughOptionBuilder();
+    private AnnotationData data;
+
+    @Before
+    public void init() {
+        data = new AnnotationData();
+    }
+
+    @Test
+    public void shouldNotPopulateIfAnnotationNotSupportOption() throws Exception {
+        final String method = "populateOption01";
+        final Class<? extends Annotation> expected = ReadCounterFromCache.class;
+        final Method targetMethod = new Mirror().on(AnnotationDataDummy.class).reflect().method(method).withArgs(String.class);
+        final Annotation annotation = new Mirror().on(AnnotationDataDummy.class).reflect().annotation(expected).atMethod(method)
+                .withArgs(String.class);
+
+        builder.populate(data, annotation, expected, targetMethod);
+
+        assertFalse(data.isCoalesceMisses());
+        assertEquals(0, data.getCoalesceTimeout());
+    }
+
+    @Test
+    public void shouldPopulateDefaultOption() throws Exception {
+        final String method = "populateOption02";
+        final Class<? extends Annotation> expected = ReadThroughSingleCache.class;
+        final Method targetMethod = new Mirror().on(AnnotationDataDummy.class).reflect().method(method).withArgs(String.class);
+        final Annotation annotation = new Mirror().on(AnnotationDataDummy.class).reflect().annotation(expected).atMethod(method)
+                .withArgs(String.class);
+
+        builder.populate(data, annotation, expected, targetMethod);
+
+        assertFalse(data.isCoalesceMisses());
+        assertEquals(1000, data.getCoalesceTimeout());
+    }
+
+    @Test
+    public void shouldPopulateCoalesceMisses() throws Exception {
+        final String method = "populateOption03";
+        final Class<? extends Annotation> expected = ReadThroughAssignCache.class;
+        final Method targetMethod = new Mirror().on(AnnotationDataDummy.class).reflect().method(method).withArgs(String.class);
+        final Annotation annotation = new Mirror().on(AnnotationDataDummy.class).reflect().annotation(expected).atMethod(method)
+                .withArgs(String.class);
+
+        builder.populate(data, annotation, expected, targetMethod);
+
+        assertTrue(data.isCoalesceMisses());
+        assertEquals(AnnotationDataDummy.SAMPLE_TIMEOUT, data.getCoalesceTimeout());
+    }
+
+    @Test(expected = InvalidParameterException.class)
+    public void shouldThrowExceptionIfTimeoutNotPositive() throws Exception {
+        final String method = "populateOption04";
+        final Class<? extends Annotation> expected = ReadThroughSingleCache.class;
+        final Method targetMethod = new Mirror().on(AnnotationDataDummy.class).reflect().method(method).withArgs(String.class);
+        final Annotation annotation = new Mirror().on(AnnotationDataDummy.class).reflect().annotation(expected).atMethod(method)
+                .withArgs(String.class);
+
+        builder.populate(data, annotation, expected, targetMethod);
+    }
+
+    @Test
+    public void shouldPopulateEarlyRefresh() throws Exception {
+        final String method = "populateOption05";
+        final Class<? extends Annotation> expected = ReadThroughSingleCache.class;
+        final Method targetMethod = new Mirror().on(AnnotationDataDummy.class).reflect().method(method).withArgs(String.class);
+        final Annotation annotation = new Mirror().on(AnnotationDataDummy.class).reflect().annotation(expected).atMethod(method)
+                .withArgs(String.class);
+        data.setExpiration(10);
+
+        builder.populate(data, annotation, expected, targetMethod);
+
+        assertTrue(data.isEarlyRefresh());
+        assertEquals(2.0, data.getEarlyRefreshBeta(), 0.0);
+    }
+
+    @Test(expected = InvalidParameterException.class)
+    public void shouldThrowExceptionIfEarlyRefreshWithoutExpiration() throws Exception {
+        final String method = "populateOption05";
+        final Class<? extends Annotation> expected = ReadThroughSingleCache.class;
+        final Method targetMethod = new Mirror().on(AnnotationDataDummy.class).reflect().method(method).withArgs(String.class);
+        final Annotation annotation = new Mirror().on(AnnotationDataDummy.class).reflect().annotation(expected).atMethod(method)
+                .withArgs(String.class);
+
+        builder.populate(data, annotation, expected, targetMethod);
+    }
+
+    @Test
+    public void shouldPopulateNoReplyWrite() throws Exception {
+        final String method = "populateOption06";
+        final Class<? extends Annotation> expected = ReadThroughSingleCache.class;
+        final Method targetMethod = new Mirror().on(AnnotationDataDummy.class).reflect().method(method).withArgs(String.class);
+        final Annotation annotation = new Mirror().on(AnnotationDataDummy.class).reflect().annotation(expected).atMethod(method)
+                .withArgs(String.class);
+
+        builder.populate(data, annotation, expected, targetMethod);
+
+        assertTrue(data.isNoReplyWrite());
+        assertFalse(data.isAsyncWrite());
+    }
+
+    @Test
+    public void shouldPopulateSlidingExpiration() throws Exception {
+        final String method = "populateOption07";
+        final Class<? extends Annotation> expected = ReadThroughSingleCache.class;
+        final Method targetMethod = new Mirror().on(AnnotationDataDummy.class).reflect().method(method).withArgs(String.class);
+        final Annotation annotation = new Mirror().on(AnnotationDataDummy.class).reflect().annotation(expected).atMethod(method)
+                .withArgs(String.class);
+        data.setExpiration(10);
+
+        builder.populate(data, annotation, expected, targetMethod);
+
+        assertTrue(data.isSlidingExpiration());
+    }
+
+    @Test(expected = InvalidParameterException.class)
+    public void shouldThrowExceptionIfSlidingExpirationWithoutExpiration() throws Exception {
+        final String method = "populateOption07";
+        final Class<? extends Annotation> expected = ReadThroughSingleCache.class;
+        final Method targetMethod = new Mirror().on(AnnotationDataDummy.class).reflect().method(method).withArgs(String.class);
+        final Annotation annotation = new Mirror().on(AnnotationDataDummy.class).reflect().annotation(expected).atMethod(method)
+                .withArgs(String.class);
+
+        builder.populate(data, annotation, expected, targetMethod);
+    }
+
+    private static class AnnotationDataDummy {
+
+        public static final long SAMPLE_TIMEOUT = 250;
+
+        @ReadCounterFromCache
+        public long populateOption01(final String key1) {
+            return 0;
+        }
+
+        @ReadThroughSingleCache
+        public String populateOption02(final String key1) {
+            return null;
+        }
+
+        @ReadThroughAssignCache(assignedKey = "key", option = @ReadThroughCacheOption(coalesceMisses = true, coalesceTimeout = SAMPLE_TIMEOUT))
+        public String populateOption03(final String key1) {
+            return null;
+        }
+
+        @ReadThroughSingleCache(option = @ReadThroughCacheOption(coalesceMisses = true, coalesceTimeout = 0))
+        public String populateOption04(final String key1) {
+            return null;
+        }
+
+        @ReadThroughSingleCache(expiration = 10, option = @ReadThroughCacheOption(earlyRefresh = true, earlyRefreshBeta = 2.0))
+        public String populateOption05(final String key1) {
+            return null;
+        }
+
+        @ReadThroughSingleCache(option = @ReadThroughCacheOption(noReplyWrite = true))
+        public String populateOption06(final String key1) {
+            return null;
+        }
+
+        @ReadThroughSingleCache(expiration = 10, option = @ReadThroughCacheOption(slidingExpiration = true))
+        public String populateOption07(final String key1) {
+            return null;
+        }
+
+    }
+
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2015 Jakub Białek
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.hotkey;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * 
+ * @author Jakub Białek
+ * 
+ */
+public class HotKeyDetectorTest {
+
+    private long now;
+
+    private HotKeyConfiguration configuration;
+
+    @Before
+    public void setUp() {
+        now = 1000000L;
+        configuration = new HotKeyConfiguration();
+        configuration.setThreshold(10);
+        configuration.setWindow(1000);
+        configuration.setReplicas(2);
+        configuration.setReplicaExpiration(10);
+    }
+
+    @Test
+    public void shouldDetectHotKey() {
+        final HotKeyDetector detector = create();
+
+        for (int i = 0; i < 9; i++) {
+            assertFalse(detector.record("key1"));
+        }
+        assertTrue(detector.record("key1"));
+        assertTrue(detector.isHot("key1"));
+        assertFalse(detector.isHot("key2"));
+    }
+
+    @Test
+    public void shouldKeepKeyHotUntilEndOfNextWindow() {
+        final HotKeyDetector detector = create();
+        for (int i = 0; i < 10; i++) {
+            detector.record("key1");
+        }
+
+        now += 1999;
+        assertTrue(detector.record("key1"));
+
+        now += 1;
+        assertFalse(detector.record("key1"));
+    }
+
+    @Test
+    public void shouldSpreadReadsAcrossReplicas() {
+        final HotKeyDetector detector = create();
+
+        final Set<String> readKeys = new HashSet<String>();
+        for (int i = 0; i < 3; i++) {
+            readKeys.add(detector.getReadKey("key1"));
+        }
+
+        assertEquals(new HashSet<String>(Arrays.asList("key1", "key1#replica1", "key1#replica2")), readKeys);
+        assertEquals(Arrays.asList("key1#replica1", "key1#replica2"), detector.getReplicaKeys("key1"));
+    }
+
+    @Test
+    public void shouldNotReplicateTooLongKey() {
+        final HotKeyDetector detector = create();
+        final char[] chars = new char[245];
+        Arrays.fill(chars, 'a');
+        final String key = new String(chars);
+
+        assertEquals(Collections.emptyList(), detector.getReplicaKeys(key));
+        for (int i = 0; i < 3; i++) {
+            assertEquals(key, detector.getReadKey(key));
+        }
+    }
+
+    @Test
+    public void shouldLimitReplicaExpiration() {
+        final HotKeyDetector detector = create();
+
+        assertEquals(5, detector.getReplicaExpiration(5));
+        assertEquals(10, detector.getReplicaExpiration(60));
+        assertEquals(10, detector.getReplicaExpiration(0));
+    }
+
+    private HotKeyDetector create() {
+        return new HotKeyDetector(configuration) {
+            @Override
+            long now() {
+                return now;
+            }
+        };
+    }
+
+}
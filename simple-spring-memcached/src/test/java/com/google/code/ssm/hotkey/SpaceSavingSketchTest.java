@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2015 Jakub Białek
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.hotkey;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * 
+ * @author Jakub Białek
+ * 
+ */
+public class SpaceSavingSketchTest {
+
+    @Test
+    public void shouldCountExactlyBelowCapacity() {
+        final SpaceSavingSketch sketch = new SpaceSavingSketch(10);
+
+        for (int i = 0; i < 5; i++) {
+            for (int j = 0; j <= i; j++) {
+                sketch.add("key" + i);
+            }
+        }
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(i + 1, sketch.estimate("key" + i));
+        }
+        assertEquals(0, sketch.estimate("key5"));
+        assertEquals(5, sketch.size());
+    }
+
+    @Test
+    public void shouldReplaceMinimalCounter() {
+        final SpaceSavingSketch sketch = new SpaceSavingSketch(2);
+
+        sketch.add("key1");
+        sketch.add("key1");
+        sketch.add("key2");
+
+        // key3 takes over counter of key2 and its count
+        assertEquals(2, sketch.add("key3"));
+        assertEquals(0, sketch.estimate("key2"));
+        assertEquals(2, sketch.estimate("key1"));
+        assertEquals(2, sketch.size());
+    }
+
+    @Test
+    public void shouldFindFrequentKeysInLongTail() {
+        final SpaceSavingSketch sketch = new SpaceSavingSketch(64);
+        final Random random = new Random(1);
+
+        for (int i = 0; i < 100000; i++) {
+            if (i % 10 == 0) {
+                sketch.add("hot");
+            } else {
+                sketch.add("cold" + random.nextInt(100000));
+            }
+        }
+
+        // estimate is never less than real count
+        assertTrue(sketch.estimate("hot") >= 10000);
+    }
+
+    @Test
+    public void shouldClear() {
+        final SpaceSavingSketch sketch = new SpaceSavingSketch(2);
+        sketch.add("key1");
+        sketch.add("key2");
+
+        sketch.clear();
+
+        assertEquals(0, sketch.size());
+        assertEquals(1, sketch.add("key1"));
+    }
+
+}
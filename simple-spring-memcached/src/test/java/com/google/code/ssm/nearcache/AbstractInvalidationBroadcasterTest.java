@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2015 Jakub Białek
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.nearcache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * 
+ * @author Jakub Białek
+ * 
+ */
+public class AbstractInvalidationBroadcasterTest {
+
+    private RecordingBroadcaster local;
+
+    private RecordingBroadcaster remote;
+
+    private NearCache remoteNearCache;
+
+    @Before
+    public void setUp() {
+        local = new RecordingBroadcaster();
+        remote = new RecordingBroadcaster();
+        remoteNearCache = new TinyLfuNearCache(new NearCacheConfiguration());
+        remote.register("cache1", remoteNearCache);
+
+        for (int i = 0; i < 5; i++) {
+            remoteNearCache.put("key" + i, i, 0, null);
+        }
+    }
+
+    @Test
+    public void shouldBatchInvalidations() {
+        local.publish("cache1", Collections.singleton("key1"));
+        local.publish("cache1", Arrays.asList("key2", "key3"));
+        local.flush();
+
+        assertEquals(1, local.messages.size());
+        remote.receive(local.messages.get(0));
+
+        assertNull(remoteNearCache.get("key1", null));
+        assertNull(remoteNearCache.get("key2", null));
+        assertNull(remoteNearCache.get("key3", null));
+        assertEquals(4, remoteNearCache.get("key4", null));
+    }
+
+    @Test
+    public void shouldNotSendEmptyBatch() {
+        local.flush();
+
+        assertEquals(0, local.messages.size());
+    }
+
+    @Test
+    public void shouldClear() {
+        local.publish("cache1", Collections.singleton("key1"));
+        local.publishClear("cache1");
+        local.flush();
+
+        remote.receive(local.messages.get(0));
+
+        assertEquals(0, remoteNearCache.size());
+    }
+
+    @Test
+    public void shouldClearIfTooManyKeys() {
+        local.setMaxKeysPerCache(2);
+        local.publish("cache1", Arrays.asList("key1", "key2", "key3"));
+        local.flush();
+
+        remote.receive(local.messages.get(0));
+
+        assertEquals(0, remoteNearCache.size());
+    }
+
+    @Test
+    public void shouldIgnoreOwnMessages() {
+        remote.publish("cache1", Collections.singleton("key1"));
+        remote.flush();
+
+        remote.receive(remote.messages.get(0));
+
+        assertEquals(1, remoteNearCache.get("key1", null));
+    }
+
+    @Test
+    public void shouldIgnoreUnregisteredCache() {
+        local.publish("cache2", Collections.singleton("key1"));
+        remote.unregister("cache1");
+        local.publishClear("cache1");
+        local.flush();
+
+        remote.receive(local.messages.get(0));
+
+        assertEquals(5, remoteNearCache.size());
+    }
+
+    private static class RecordingBroadcaster extends AbstractInvalidationBroadcaster {
+
+        private final List<byte[]> messages = new ArrayList<byte[]>();
+
+        @Override
+        protected void send(final byte[] message) {
+            messages.add(message);
+        }
+
+    }
+
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2015 Jakub Białek
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.nearcache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * 
+ * @author Jakub Białek
+ * 
+ */
+public class FrequencySketchTest {
+
+    @Test
+    public void shouldCountFrequency() {
+        final FrequencySketch sketch = new FrequencySketch(512);
+        final int hash = 0x12345678;
+
+        assertEquals(0, sketch.frequency(hash));
+        for (int i = 1; i <= 5; i++) {
+            sketch.increment(hash);
+            assertEquals(i, sketch.frequency(hash));
+        }
+    }
+
+    @Test
+    public void shouldNotExceedMaxFrequency() {
+        final FrequencySketch sketch = new FrequencySketch(512);
+        final int hash = 42;
+
+        for (int i = 0; i < 100; i++) {
+            sketch.increment(hash);
+        }
+
+        assertEquals(15, sketch.frequency(hash));
+    }
+
+    @Test
+    public void shouldAgeCounters() {
+        final FrequencySketch sketch = new FrequencySketch(16);
+        final int hotHash = 42;
+        for (int i = 0; i < 10; i++) {
+            sketch.increment(hotHash);
+        }
+
+        // sample size is 10 * 16, after reaching it all counters are halved
+        for (int i = 0; i < 200; i++) {
+            sketch.increment(i * 0x9e3779b9);
+        }
+
+        assertTrue(sketch.frequency(hotHash) < 10);
+    }
+
+}
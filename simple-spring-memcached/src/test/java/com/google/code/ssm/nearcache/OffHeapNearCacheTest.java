@@ -0,0 +1,234 @@
+/*
+ * Copyright (c) 2015 Jakub Białek
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.nearcache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.code.ssm.providers.CacheTranscoder;
+import com.google.code.ssm.transcoders.JavaTranscoder;
+
+/**
+ * 
+ * @author Jakub Białek
+ * 
+ */
+public class OffHeapNearCacheTest {
+
+    private long now;
+
+    private NearCacheConfiguration configuration;
+
+    private final CacheTranscoder transcoder = new JavaTranscoder();
+
+    @Before
+    public void setUp() {
+        now = 1000000L;
+        configuration = new NearCacheConfiguration();
+        configuration.setOffHeap(true);
+        configuration.setMaxEntries(100);
+        configuration.setTimeToLive(5000);
+        configuration.setOffHeapCapacity(4096);
+        configuration.setSlabSize(1024);
+    }
+
+    @Test
+    public void shouldPutAndGet() {
+        final NearCache cut = create();
+        final List<Integer> value = new ArrayList<Integer>(Arrays.asList(1, 2, 3));
+
+        cut.put("key1", value, 0, transcoder);
+        cut.put("key2", "value2", 0, transcoder);
+
+        final Object cached = cut.get("key1", transcoder);
+        assertEquals(value, cached);
+        assertNotSame(value, cached);
+        assertEquals("value2", cut.get("key2", transcoder));
+        assertNull(cut.get("key3", transcoder));
+        assertEquals(2, cut.size());
+    }
+
+    @Test
+    public void shouldReplaceValue() {
+        final NearCache cut = create();
+
+        cut.put("key1", "value1", 0, transcoder);
+        cut.put("key1", "value2", 0, transcoder);
+
+        assertEquals("value2", cut.get("key1", transcoder));
+        assertEquals(1, cut.size());
+    }
+
+    @Test
+    public void shouldNotStoreWithoutTranscoder() {
+        final NearCache cut = create();
+
+        cut.put("key1", "value1", 0, transcoder);
+        cut.put("key1", "value2", 0, null);
+
+        assertNull(cut.get("key1", transcoder));
+        assertEquals(0, cut.size());
+    }
+
+    @Test
+    public void shouldExpireAfterTimeToLive() {
+        final NearCache cut = create();
+
+        cut.put("key1", "value1", 0, transcoder);
+        now += 4999;
+        assertEquals("value1", cut.get("key1", transcoder));
+
+        now += 1;
+        assertNull(cut.get("key1", transcoder));
+        assertEquals(0, cut.size());
+    }
+
+    @Test
+    public void shouldCapTimeToLiveByExpiration() {
+        final NearCache cut = create();
+
+        cut.put("key1", "value1", 2, transcoder);
+        now += 1999;
+        assertEquals("value1", cut.get("key1", transcoder));
+
+        now += 1;
+        assertNull(cut.get("key1", transcoder));
+    }
+
+    @Test
+    public void shouldInvalidate() {
+        final NearCache cut = create();
+
+        cut.put("key1", "value1", 0, transcoder);
+        cut.put("key2", "value2", 0, transcoder);
+        cut.put("key3", "value3", 0, transcoder);
+
+        cut.invalidate("key1");
+        assertNull(cut.get("key1", transcoder));
+
+        cut.invalidateAll(Arrays.asList("key2", "key3"));
+        assertNull(cut.get("key2", transcoder));
+        assertNull(cut.get("key3", transcoder));
+        assertEquals(0, cut.size());
+    }
+
+    @Test
+    public void shouldClear() {
+        final NearCache cut = create();
+
+        for (int i = 0; i < 50; i++) {
+            cut.put("key" + i, i, 0, transcoder);
+        }
+        cut.clear();
+
+        assertEquals(0, cut.size());
+        assertNull(cut.get("key1", transcoder));
+    }
+
+    @Test
+    public void shouldBoundNumberOfEntries() {
+        configuration.setOffHeapCapacity(1024 * 1024);
+        configuration.setSlabSize(1024);
+        final NearCache cut = create();
+
+        for (int i = 0; i < 1000; i++) {
+            cut.put("key" + i, i, 0, transcoder);
+            assertTrue(cut.size() <= 100);
+        }
+        assertEquals(999, cut.get("key999", transcoder));
+    }
+
+    @Test
+    public void shouldEvictOldestValuesWhenMemoryIsFull() {
+        final NearCache cut = create();
+
+        for (int i = 0; i < 1000; i++) {
+            cut.put("key" + i, "0123456789", 0, transcoder);
+        }
+
+        assertTrue(cut.size() < 1000);
+        assertNull(cut.get("key0", transcoder));
+        assertEquals("0123456789", cut.get("key999", transcoder));
+    }
+
+    @Test
+    public void shouldNotStoreValueGreaterThanSlab() {
+        final NearCache cut = create();
+        final char[] chars = new char[2048];
+        Arrays.fill(chars, 'a');
+
+        cut.put("big", "small", 0, transcoder);
+        cut.put("big", new String(chars), 0, transcoder);
+
+        assertNull(cut.get("big", transcoder));
+        assertEquals(0, cut.size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectNullConfiguration() {
+        new OffHeapNearCache(null);
+    }
+
+    @Test
+    public void shouldBehaveLikeMap() {
+        configuration.setMaxEntries(10000);
+        configuration.setOffHeapCapacity(1024 * 1024);
+        configuration.setSlabSize(64 * 1024);
+        final NearCache cut = create();
+        final Map<String, Integer> expected = new HashMap<String, Integer>();
+        final Random random = new Random(1);
+
+        for (int i = 0; i < 20000; i++) {
+            final String key = "key" + random.nextInt(500);
+            if (random.nextInt(4) == 0) {
+                cut.invalidate(key);
+                expected.remove(key);
+            } else {
+                cut.put(key, i, 0, transcoder);
+                expected.put(key, i);
+            }
+        }
+
+        assertEquals(expected.size(), cut.size());
+        for (int i = 0; i < 500; i++) {
+            assertEquals(expected.get("key" + i), cut.get("key" + i, transcoder));
+        }
+    }
+
+    private NearCache create() {
+        return new OffHeapNearCache(configuration) {
+            @Override
+            long now() {
+                return now;
+            }
+        };
+    }
+
+}
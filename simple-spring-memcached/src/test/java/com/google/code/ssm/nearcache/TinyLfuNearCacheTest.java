@@ -0,0 +1,224 @@
+/*
+ * Copyright (c) 2015 Jakub Białek
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.google.code.ssm.nearcache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * 
+ * @author Jakub Białek
+ * 
+ */
+public class TinyLfuNearCacheTest {
+
+    private long now;
+
+    private NearCacheConfiguration configuration;
+
+    @Before
+    public void setUp() {
+        now = 1000000L;
+        configuration = new NearCacheConfiguration();
+        configuration.setMaxEntries(100);
+        configuration.setTimeToLive(5000);
+    }
+
+    @Test
+    public void shouldPutAndGet() {
+        final NearCache cut = create();
+
+        cut.put("key1", "value1", 0, null);
+        cut.put("key2", "value2", 0, null);
+
+        assertEquals("value1", cut.get("key1", null));
+        assertEquals("value2", cut.get("key2", null));
+        assertNull(cut.get("key3", null));
+        assertEquals(2, cut.size());
+    }
+
+    @Test
+    public void shouldReplaceValue() {
+        final NearCache cut = create();
+
+        cut.put("key1", "value1", 0, null);
+        cut.put("key1", "value2", 0, null);
+
+        assertEquals("value2", cut.get("key1", null));
+        assertEquals(1, cut.size());
+    }
+
+    @Test
+    public void shouldExpireAfterTimeToLive() {
+        final NearCache cut = create();
+
+        cut.put("key1", "value1", 0, null);
+        now += 4999;
+        assertEquals("value1", cut.get("key1", null));
+
+        now += 1;
+        assertNull(cut.get("key1", null));
+        assertEquals(0, cut.size());
+    }
+
+    @Test
+    public void shouldCapTimeToLiveByExpiration() {
+        final NearCache cut = create();
+
+        cut.put("key1", "value1", 2, null);
+        now += 1999;
+        assertEquals("value1", cut.get("key1", null));
+
+        now += 1;
+        assertNull(cut.get("key1", null));
+    }
+
+    @Test
+    public void shouldCapTimeToLiveByUnixTimeExpiration() {
+        now = 2000000000000L;
+        final NearCache cut = create();
+
+        cut.put("key1", "value1", (int) ((now + 1000) / 1000), null);
+        assertEquals("value1", cut.get("key1", null));
+
+        now += 1000;
+        assertNull(cut.get("key1", null));
+    }
+
+    @Test
+    public void shouldInvalidate() {
+        final NearCache cut = create();
+
+        cut.put("key1", "value1", 0, null);
+        cut.put("key2", "value2", 0, null);
+        cut.put("key3", "value3", 0, null);
+
+        cut.invalidate("key1");
+        assertNull(cut.get("key1", null));
+
+        cut.invalidateAll(Arrays.asList("key2", "key3"));
+        assertNull(cut.get("key2", null));
+        assertNull(cut.get("key3", null));
+        assertEquals(0, cut.size());
+    }
+
+    @Test
+    public void shouldClear() {
+        final NearCache cut = create();
+
+        for (int i = 0; i < 50; i++) {
+            cut.put("key" + i, i, 0, null);
+        }
+        cut.clear();
+
+        assertEquals(0, cut.size());
+        assertNull(cut.get("key1", null));
+    }
+
+    @Test
+    public void shouldNotPutValueReadBeforeInvalidation() {
+        final NearCache cut = create();
+
+        final long invalidationCount = cut.getInvalidationCount();
+        cut.put("key1", "value1", 0, null);
+        cut.putIfNotInvalidated("key2", "value2", 0, null, invalidationCount);
+        assertEquals("value2", cut.get("key2", null));
+
+        cut.invalidate("key1");
+        cut.putIfNotInvalidated("key3", "value3", 0, null, invalidationCount);
+        assertNull(cut.get("key3", null));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectNullConfiguration() {
+        new TinyLfuNearCache(null);
+    }
+
+    @Test
+    public void shouldBoundNumberOfEntries() {
+        final NearCache cut = create();
+
+        for (int i = 0; i < 1000; i++) {
+            cut.put("key" + i, i, 0, null);
+            assertTrue(cut.size() <= 100);
+        }
+    }
+
+    @Test
+    public void shouldBoundWeight() {
+        configuration.setMaxWeight(100);
+        configuration.setWeigher(new Weigher() {
+            @Override
+            public int weigh(final String key, final Object value) {
+                return ((String) value).length();
+            }
+        });
+        final NearCache cut = create();
+
+        for (int i = 0; i < 100; i++) {
+            cut.put("key" + i, "0123456789", 0, null);
+            assertTrue(cut.size() <= 10);
+        }
+
+        cut.put("big", "01234567890123456789012345678901234567890123456789012345678901234567890123456789012345678901234567890", 0, null);
+        assertNull(cut.get("big", null));
+    }
+
+    @Test
+    public void shouldRetainFrequentlyUsedEntries() {
+        final NearCache cut = create();
+
+        for (int i = 0; i < 50; i++) {
+            cut.put("hot" + i, i, 0, null);
+        }
+        for (int round = 0; round < 5; round++) {
+            for (int i = 0; i < 50; i++) {
+                cut.get("hot" + i, null);
+            }
+        }
+
+        // scan of keys used only once shouldn't evict frequently used entries
+        for (int i = 0; i < 1000; i++) {
+            cut.put("cold" + i, i, 0, null);
+        }
+
+        int retained = 0;
+        for (int i = 0; i < 50; i++) {
+            if (cut.get("hot" + i, null) != null) {
+                retained++;
+            }
+        }
+        assertEquals(50, retained);
+    }
+
+    private NearCache create() {
+        return new TinyLfuNearCache(configuration) {
+            @Override
+            long now() {
+                return now;
+            }
+        };
+    }
+
+}
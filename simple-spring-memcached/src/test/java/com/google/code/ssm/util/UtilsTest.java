@@ -25,6 +25,7 @@ import static org.junit.Assert.fail;
 import java.lang.reflect.Method;
 import java.security.InvalidParameterException;
 import java.util.Arrays;
+import java.util.Collections;
 
 import org.junit.Test;
 
@@ -118,6 +119,19 @@ public class UtilsTest {
         assertArrayEquals(answer, Utils.getMethodArgs(Arrays.asList(2, 1), args, method.toString()));
     }
 
+    @Test
+    public void partition() {
+        assertEquals(Arrays.asList(Arrays.asList(1, 2), Arrays.asList(3, 4), Arrays.asList(5)),
+                Utils.partition(Arrays.asList(1, 2, 3, 4, 5), 2));
+        assertEquals(Arrays.asList(Arrays.asList(1, 2)), Utils.partition(Arrays.asList(1, 2), 2));
+        assertEquals(Collections.emptyList(), Utils.partition(Collections.<Integer> emptyList(), 2));
+    }
+
+    @Test(expected = InvalidParameterException.class)
+    public void partitionInvalidSize() {
+        Utils.partition(Arrays.asList(1, 2), 0);
+    }
+
     public static class AOPTargetClass1 {
 
         public String doIt(final String s1, final String s2, final String s3) {
@@ -0,0 +1,170 @@
+package com.google.code.ssm.zookeeper;
+
+import java.util.LinkedList;
+import java.util.Queue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.recipes.cache.PathChildrenCache;
+import org.apache.curator.framework.recipes.cache.PathChildrenCache.StartMode;
+import org.apache.curator.framework.recipes.cache.PathChildrenCacheEvent;
+import org.apache.curator.framework.recipes.cache.PathChildrenCacheListener;
+import org.apache.zookeeper.CreateMode;
+import org.apache.zookeeper.KeeperException;
+import org.apache.zookeeper.ZooDefs;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.code.ssm.nearcache.AbstractInvalidationBroadcaster;
+
+/**
+ * Propagates invalidations of near caches through ZooKeeper using Curator
+ * client of started {@link ZooKeeperServerManagerImpl}. Each batch of
+ * invalidations is stored as ephemeral sequential node under given path and
+ * all JVMs watching the path apply it to their near caches. Nodes are removed
+ * by the publisher after {@link #messageRetention} milliseconds. After
+ * reconnection to ZooKeeper all near caches are cleared because some
+ * invalidations could be missed.
+ * 
+ * @author Jakub Białek
+ * @since 3.6.0
+ */
+public class ZooKeeperInvalidationBroadcaster extends
+        AbstractInvalidationBroadcaster {
+
+    private static final Logger LOGGER = LoggerFactory
+            .getLogger(ZooKeeperInvalidationBroadcaster.class);
+
+    private final ZooKeeperServerManagerImpl serverManager;
+
+    private final String zkPath;
+
+    /**
+     * Time in milliseconds after published message is removed from ZooKeeper.
+     */
+    @Getter
+    @Setter
+    private long messageRetention = 60000;
+
+    private final Queue<SentMessage> sentMessages = new LinkedList<SentMessage>();
+
+    private CuratorFramework zkClient;
+
+    private PathChildrenCache pathChildrenCache;
+
+    private ExecutorService listenerExecutor;
+
+    /**
+     * @param serverManager
+     *            started server manager which ZooKeeper client is used
+     * @param zkPath
+     *            path in ZooKeeper used to exchange invalidations, shouldn't be
+     *            used for anything else
+     */
+    public ZooKeeperInvalidationBroadcaster(
+            final ZooKeeperServerManagerImpl serverManager, final String zkPath) {
+        this.serverManager = serverManager;
+        this.zkPath = zkPath;
+    }
+
+    @Override
+    public void start() throws Exception {
+        zkClient = serverManager.getZkClient();
+        if (zkClient == null) {
+            throw new IllegalStateException(
+                    "Server manager has to be started before invalidation broadcaster");
+        }
+
+        try {
+            zkClient.create().creatingParentsIfNeeded()
+                    .withACL(ZooDefs.Ids.OPEN_ACL_UNSAFE).forPath(zkPath);
+        } catch (KeeperException.NodeExistsException ignored) {}
+
+        listenerExecutor = Executors
+                .newSingleThreadExecutor(new ThreadFactory() {
+                    @Override
+                    public Thread newThread(final Runnable runnable) {
+                        final Thread thread = new Thread(runnable,
+                                "ssm-zookeeper-invalidation-listener");
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+        pathChildrenCache = new PathChildrenCache(zkClient, zkPath, true);
+        pathChildrenCache.getListenable().addListener(
+                new InvalidationListener(), listenerExecutor);
+        pathChildrenCache.start(StartMode.BUILD_INITIAL_CACHE);
+        super.start();
+    }
+
+    @Override
+    public void shutdown() {
+        super.shutdown();
+        pathChildrenCache.getListenable().clear();
+        IOUtils.closeQuietly(pathChildrenCache);
+        if (listenerExecutor != null) {
+            listenerExecutor.shutdown();
+        }
+    }
+
+    @Override
+    protected void send(final byte[] message) throws Exception {
+        final String path = zkClient.create()
+                .withMode(CreateMode.EPHEMERAL_SEQUENTIAL)
+                .withACL(ZooDefs.Ids.OPEN_ACL_UNSAFE)
+                .forPath(zkPath + "/invalidation-", message);
+        final long now = System.currentTimeMillis();
+        sentMessages.add(new SentMessage(path, now));
+        removeExpiredMessages(now);
+    }
+
+    // invoked only by the single thread sending messages
+    private void removeExpiredMessages(final long now) throws Exception {
+        while (!sentMessages.isEmpty()
+                && sentMessages.peek().sentAt + messageRetention <= now) {
+            try {
+                zkClient.delete().forPath(sentMessages.peek().path);
+            } catch (KeeperException.NoNodeException ignored) {}
+            sentMessages.poll();
+        }
+    }
+
+    private static class SentMessage {
+        private final String path;
+
+        private final long sentAt;
+
+        SentMessage(final String path, final long sentAt) {
+            this.path = path;
+            this.sentAt = sentAt;
+        }
+    }
+
+    class InvalidationListener implements PathChildrenCacheListener {
+        @Override
+        public void childEvent(final CuratorFramework client,
+                final PathChildrenCacheEvent event) throws Exception {
+            switch (event.getType()) {
+                case CHILD_ADDED:
+                    if (event.getData().getData() != null) {
+                        receive(event.getData().getData());
+                    }
+                    // message is needed only once, don't keep it in memory
+                    pathChildrenCache.clearDataBytes(event.getData().getPath());
+                    break;
+                case CONNECTION_RECONNECTED:
+                    LOGGER.info("Reconnected to ZooKeeper, clearing near caches");
+                    clearAll();
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+}
@@ -17,24 +17,35 @@
 package com.google.code.ssm.providers.spymemcached;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import java.net.SocketAddress;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
+import net.spy.memcached.CASResponse;
+import net.spy.memcached.internal.BulkFuture;
+import net.spy.memcached.internal.BulkGetCompletionListener;
 import net.spy.memcached.MemcachedClientIF;
 import net.spy.memcached.transcoders.Transcoder;
 
+import org.easymock.Capture;
 import org.easymock.EasyMock;
 import org.junit.Before;
 import org.junit.Test;
 
+import com.google.code.ssm.providers.BulkGetCallback;
+import com.google.code.ssm.providers.CASValue;
 import com.google.code.ssm.providers.CacheException;
 import com.google.code.ssm.providers.CacheTranscoder;
 
@@ -55,6 +66,58 @@ public class MemcacheClientWrapperTest {
         clientWrapper = new MemcacheClientWrapper(client);
     }
 
+    @Test
+    public void asyncGet() {
+        Future<Object> future = getFuture((Object) "value1");
+        EasyMock.expect(client.asyncGet("key1")).andReturn(future);
+        EasyMock.replay(client);
+        assertSame(future, clientWrapper.asyncGet("key1"));
+        EasyMock.verify(client);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void asyncSetWithTranscoder() throws Exception {
+        CacheTranscoder transcoder = EasyMock.createMock(CacheTranscoder.class);
+        EasyMock.expect(client.set(EasyMock.eq("key1"), EasyMock.eq(1000), EasyMock.eq("value1"), EasyMock.anyObject(Transcoder.class)))
+                .andReturn(getFuture(true));
+        EasyMock.replay(client, transcoder);
+        assertTrue(clientWrapper.asyncSet("key1", 1000, "value1", transcoder).get());
+        EasyMock.verify(client, transcoder);
+    }
+
+    @Test
+    public void setWithNoReply() throws CacheException {
+        EasyMock.expect(client.set("key1", 1000, "value1")).andReturn(getFuture(true));
+        EasyMock.replay(client);
+        clientWrapper.setWithNoReply("key1", 1000, "value1");
+        EasyMock.verify(client);
+    }
+
+    @Test
+    public void asyncIncr() throws Exception {
+        EasyMock.expect(client.asyncIncr("key1", 1)).andReturn(getFuture(2L));
+        EasyMock.replay(client);
+        assertEquals(Long.valueOf(2L), clientWrapper.asyncIncr("key1", 1).get());
+        EasyMock.verify(client);
+    }
+
+    @Test
+    public void asyncIncrWithDefault() throws Exception {
+        EasyMock.expect(client.asyncIncr("key1", 0, 10L, 100)).andReturn(getFuture(10L));
+        EasyMock.replay(client);
+        assertEquals(Long.valueOf(10L), clientWrapper.asyncIncr("key1", 0, 10L, 100).get());
+        EasyMock.verify(client);
+    }
+
+    @Test
+    public void asyncDecr() throws Exception {
+        EasyMock.expect(client.asyncDecr("key1", 1)).andReturn(getFuture(2L));
+        EasyMock.replay(client);
+        assertEquals(Long.valueOf(2L), clientWrapper.asyncDecr("key1", 1).get());
+        EasyMock.verify(client);
+    }
+
     @Test
     public void addStringIntObject() throws TimeoutException, CacheException {
         EasyMock.expect(client.add("test", 1000, "value")).andReturn(getFuture(true));
@@ -74,6 +137,16 @@ public class MemcacheClientWrapperTest {
         EasyMock.verify(client, transcoder);
     }
 
+    @Test
+    public void cas() throws TimeoutException, CacheException {
+        EasyMock.expect(client.cas("key1", 5L, 1000, "value1")).andReturn(CASResponse.OK);
+        EasyMock.expect(client.cas("key2", 5L, 1000, "value1")).andReturn(CASResponse.EXISTS);
+        EasyMock.replay(client);
+        assertTrue(clientWrapper.cas("key1", 5L, 1000, "value1"));
+        assertFalse(clientWrapper.cas("key2", 5L, 1000, "value1"));
+        EasyMock.verify(client);
+    }
+
     @Test
     public void decrStringInt() throws TimeoutException, CacheException {
         EasyMock.expect(client.decr("key1", 1)).andReturn(2L);
@@ -98,6 +171,15 @@ public class MemcacheClientWrapperTest {
         EasyMock.verify(client);
     }
 
+    @Test
+    public void deleteCollection() throws TimeoutException, CacheException {
+        EasyMock.expect(client.delete("key1")).andReturn(getFuture(true));
+        EasyMock.expect(client.delete("key2")).andReturn(getFuture(false));
+        EasyMock.replay(client);
+        clientWrapper.delete(Arrays.asList("key1", "key2"));
+        EasyMock.verify(client);
+    }
+
     @Test
     public void flush() throws CacheException {
         EasyMock.expect(client.flush()).andReturn(getFuture(true));
@@ -106,6 +188,28 @@ public class MemcacheClientWrapperTest {
         EasyMock.verify(client);
     }
 
+    @Test
+    public void gets() throws TimeoutException, CacheException {
+        EasyMock.expect(client.gets("key1")).andReturn(new net.spy.memcached.CASValue<Object>(5L, "test-value"));
+        EasyMock.expect(client.gets("key2")).andReturn(null);
+        EasyMock.replay(client);
+        CASValue<Object> value = clientWrapper.gets("key1");
+        assertEquals(5L, value.getCas());
+        assertEquals("test-value", value.getValue());
+        assertNull(clientWrapper.gets("key2"));
+        EasyMock.verify(client);
+    }
+
+    @Test
+    public void getAndTouch() throws TimeoutException, CacheException {
+        EasyMock.expect(client.getAndTouch("key1", 100)).andReturn(new net.spy.memcached.CASValue<Object>(5L, "test-value"));
+        EasyMock.expect(client.getAndTouch("key2", 100)).andReturn(null);
+        EasyMock.replay(client);
+        assertEquals("test-value", clientWrapper.getAndTouch("key1", 100));
+        assertNull(clientWrapper.getAndTouch("key2", 100));
+        EasyMock.verify(client);
+    }
+
     @Test
     public void getString() throws TimeoutException, CacheException {
         EasyMock.expect(client.get("key1")).andReturn("test-value");
@@ -169,6 +273,40 @@ public class MemcacheClientWrapperTest {
         EasyMock.verify(client);
     }
 
+    @Test
+    @SuppressWarnings("unchecked")
+    public void getBulkWithTimeout() throws TimeoutException, CacheException, InterruptedException, ExecutionException {
+        Collection<String> keys = Arrays.asList("key1", "key2");
+        Map<String, Object> results = Collections.<String, Object> singletonMap("key1", "value1");
+        BulkFuture<Map<String, Object>> future = EasyMock.createMock(BulkFuture.class);
+
+        EasyMock.expect(client.asyncGetBulk(keys)).andReturn(future);
+        EasyMock.expect(future.getSome(100, TimeUnit.MILLISECONDS)).andReturn(results);
+        EasyMock.replay(client, future);
+        assertEquals(results, clientWrapper.getBulk(keys, 100));
+        EasyMock.verify(client, future);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void getBulkWithCallback() throws Exception {
+        Collection<String> keys = Arrays.asList("key1", "key2");
+        Map<String, Object> results = Collections.<String, Object> singletonMap("key1", "value1");
+        BulkFuture<Map<String, Object>> future = EasyMock.createMock(BulkFuture.class);
+        BulkGetCallback<Object> callback = EasyMock.createMock(BulkGetCallback.class);
+        Capture<BulkGetCompletionListener> listener = EasyMock.newCapture();
+
+        EasyMock.expect(client.asyncGetBulk(keys)).andReturn(future);
+        EasyMock.expect(future.addListener(EasyMock.capture(listener))).andReturn(future);
+        EasyMock.expect(future.get()).andReturn(results);
+        callback.onComplete(results);
+        EasyMock.expectLastCall();
+        EasyMock.replay(client, future, callback);
+        clientWrapper.getBulk(keys, callback);
+        listener.getValue().onComplete(null);
+        EasyMock.verify(client, future, callback);
+    }
+
     @Test
     public void incrStringInt() throws TimeoutException, CacheException {
         EasyMock.expect(client.incr("key1", 1)).andReturn(2L);
@@ -212,6 +350,51 @@ public class MemcacheClientWrapperTest {
         EasyMock.verify(client);
     }
 
+    @Test
+    public void setBulk() throws TimeoutException, CacheException {
+        Map<String, Object> values = new HashMap<String, Object>();
+        values.put("key1", "value1");
+        values.put("key2", "value2");
+        EasyMock.expect(client.set("key1", 1, "value1")).andReturn(getFuture(true));
+        EasyMock.expect(client.set("key2", 1, "value2")).andReturn(getFuture(true));
+        EasyMock.replay(client);
+        clientWrapper.setBulk(values, 1);
+        EasyMock.verify(client);
+    }
+
+    @Test
+    public void addBulk() throws TimeoutException, CacheException {
+        Map<String, Object> values = new HashMap<String, Object>();
+        values.put("key1", "value1");
+        values.put("key2", "value2");
+        EasyMock.expect(client.add("key1", 1, "value1")).andReturn(getFuture(true));
+        EasyMock.expect(client.add("key2", 1, "value2")).andReturn(getFuture(false));
+        EasyMock.replay(client);
+        assertEquals(Collections.singleton("key1"), clientWrapper.addBulk(values, 1));
+        EasyMock.verify(client);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void addBulkWithTranscoder() throws TimeoutException, CacheException {
+        CacheTranscoder transcoder = EasyMock.createMock(CacheTranscoder.class);
+        Map<String, Object> values = new HashMap<String, Object>();
+        values.put("key1", "value1");
+        EasyMock.expect(client.add(EasyMock.eq("key1"), EasyMock.eq(1), EasyMock.eq("value1"), EasyMock.anyObject(Transcoder.class)))
+                .andReturn(getFuture(true));
+        EasyMock.replay(client);
+        assertEquals(Collections.singleton("key1"), clientWrapper.addBulk(values, 1, transcoder));
+        EasyMock.verify(client);
+    }
+
+    @Test
+    public void touch() throws TimeoutException, CacheException {
+        EasyMock.expect(client.touch("key1", 100)).andReturn(getFuture(true));
+        EasyMock.replay(client);
+        assertTrue(clientWrapper.touch("key1", 100));
+        EasyMock.verify(client);
+    }
+
     @Test
     public void shutdown() {
         client.shutdown();
@@ -28,6 +28,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeoutException;
 
+import net.rubyeye.xmemcached.GetsResponse;
 import net.rubyeye.xmemcached.MemcachedClient;
 import net.rubyeye.xmemcached.exception.MemcachedException;
 import net.rubyeye.xmemcached.transcoders.CachedData;
@@ -37,6 +38,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.google.code.ssm.providers.AbstractMemcacheClientWrapper;
+import com.google.code.ssm.providers.CASValue;
 import com.google.code.ssm.providers.CacheException;
 import com.google.code.ssm.providers.CacheTranscoder;
 import com.google.code.ssm.providers.CachedObject;
@@ -83,6 +85,51 @@ class MemcacheClientWrapper extends AbstractMemcacheClientWrapper {
         }
     }
 
+    @Override
+    public void addWithNoReply(final String key, final int exp, final Object value) throws CacheException {
+        try {
+            memcachedClient.addWithNoReply(key, exp, value);
+        } catch (InterruptedException e) {
+            throw new CacheException(e);
+        } catch (MemcachedException e) {
+            throw new CacheException(e);
+        }
+    }
+
+    @Override
+    public <T> void addWithNoReply(final String key, final int exp, final T value, final CacheTranscoder transcoder) throws CacheException {
+        try {
+            memcachedClient.addWithNoReply(key, exp, value, this.<T> getTranscoder(transcoder));
+        } catch (InterruptedException e) {
+            throw new CacheException(e);
+        } catch (MemcachedException e) {
+            throw new CacheException(e);
+        }
+    }
+
+    @Override
+    public boolean cas(final String key, final long cas, final int exp, final Object value) throws TimeoutException, CacheException {
+        try {
+            return memcachedClient.cas(key, exp, value, cas);
+        } catch (InterruptedException e) {
+            throw new CacheException(e);
+        } catch (MemcachedException e) {
+            throw new CacheException(e);
+        }
+    }
+
+    @Override
+    public <T> boolean cas(final String key, final long cas, final int exp, final T value, final CacheTranscoder transcoder)
+            throws TimeoutException, CacheException {
+        try {
+            return memcachedClient.cas(key, exp, value, this.<T> getTranscoder(transcoder), cas);
+        } catch (InterruptedException e) {
+            throw new CacheException(e);
+        } catch (MemcachedException e) {
+            throw new CacheException(e);
+        }
+    }
+
     @Override
     public long decr(final String key, final int by) throws TimeoutException, CacheException {
         try {
@@ -116,6 +163,40 @@ class MemcacheClientWrapper extends AbstractMemcacheClientWrapper {
         }
     }
 
+    /**
+     * All keys are removed using no reply mode, the method doesn't wait for server's responses and failures of
+     * particular keys aren't reported.
+     */
+    @Override
+    public void delete(final Collection<String> keys) throws TimeoutException, CacheException {
+        if (keys == null || keys.isEmpty()) {
+            return;
+        }
+
+        try {
+            for (final String key : keys) {
+                if (key != null) {
+                    memcachedClient.deleteWithNoReply(key);
+                }
+            }
+        } catch (InterruptedException e) {
+            throw new CacheException(e);
+        } catch (MemcachedException e) {
+            throw new CacheException(e);
+        }
+    }
+
+    @Override
+    public void deleteWithNoReply(final String key) throws CacheException {
+        try {
+            memcachedClient.deleteWithNoReply(key);
+        } catch (InterruptedException e) {
+            throw new CacheException(e);
+        } catch (MemcachedException e) {
+            throw new CacheException(e);
+        }
+    }
+
     @Override
     public void flush() throws TimeoutException, CacheException {
         try {
@@ -199,6 +280,67 @@ class MemcacheClientWrapper extends AbstractMemcacheClientWrapper {
         }
     }
 
+    /**
+     * Xmemcached doesn't return partial results of bulk get, if the timeout is exceeded all keys are treated as cache
+     * misses.
+     */
+    @Override
+    public Map<String, Object> getBulk(final Collection<String> keys, final long timeout) throws TimeoutException, CacheException {
+        Map<String, Object> result = null;
+        try {
+            result = memcachedClient.get(keys, timeout);
+            return (result == null) ? Collections.<String, Object> emptyMap() : result;
+        } catch (TimeoutException e) {
+            return Collections.emptyMap();
+        } catch (InterruptedException e) {
+            throw new CacheException(e);
+        } catch (MemcachedException e) {
+            throw new CacheException(e);
+        }
+    }
+
+    /**
+     * Xmemcached doesn't return partial results of bulk get, if the timeout is exceeded all keys are treated as cache
+     * misses.
+     */
+    @Override
+    public <T> Map<String, T> getBulk(final Collection<String> keys, final CacheTranscoder transcoder, final long timeout)
+            throws TimeoutException, CacheException {
+        Map<String, T> result = null;
+        try {
+            result = memcachedClient.get(keys, timeout, this.<T> getTranscoder(transcoder));
+            return (result == null) ? Collections.<String, T> emptyMap() : result;
+        } catch (TimeoutException e) {
+            return Collections.emptyMap();
+        } catch (InterruptedException e) {
+            throw new CacheException(e);
+        } catch (MemcachedException e) {
+            throw new CacheException(e);
+        }
+    }
+
+    @Override
+    public CASValue<Object> gets(final String key) throws TimeoutException, CacheException {
+        try {
+            return toCASValue(memcachedClient.<Object> gets(key));
+        } catch (InterruptedException e) {
+            throw new CacheException(e);
+        } catch (MemcachedException e) {
+            throw new CacheException(e);
+        }
+    }
+
+    @Override
+    public <T> CASValue<T> gets(final String key, final CacheTranscoder transcoder) throws TimeoutException, CacheException {
+        try {
+            return toCASValue(memcachedClient.<T> gets(key, this.<T> getTranscoder(transcoder)));
+        } catch (InterruptedException e) {
+            throw new CacheException(e);
+        } catch (MemcachedException e) {
+            throw new CacheException(e);
+        }
+    }
+
     @Override
     public long incr(final String key, final int by) throws TimeoutException, CacheException {
         try {
@@ -255,6 +397,75 @@ class MemcacheClientWrapper extends AbstractMemcacheClientWrapper {
         }
     }
 
+    /**
+     * Xmemcached doesn't expose asynchronous store operations so all items are stored using no reply mode, the method
+     * doesn't wait for server's responses and failures of particular items aren't reported.
+     */
+    @Override
+    public void setBulk(final Map<String, ?> values, final int exp) throws TimeoutException, CacheException {
+        try {
+            for (final Map.Entry<String, ?> entry : values.entrySet()) {
+                memcachedClient.setWithNoReply(entry.getKey(), exp, entry.getValue());
+            }
+        } catch (InterruptedException e) {
+            throw new CacheException(e);
+        } catch (MemcachedException e) {
+            throw new CacheException(e);
+        }
+    }
+
+    /**
+     * Xmemcached doesn't expose asynchronous store operations so all items are stored using no reply mode, the method
+     * doesn't wait for server's responses and failures of particular items aren't reported.
+     */
+    @Override
+    public <T> void setBulk(final Map<String, T> values, final int exp, final CacheTranscoder transcoder) throws TimeoutException,
+            CacheException {
+        final Transcoder<T> transcoderAdapter = getTranscoder(transcoder);
+        try {
+            for (final Map.Entry<String, T> entry : values.entrySet()) {
+                memcachedClient.setWithNoReply(entry.getKey(), exp, entry.getValue(), transcoderAdapter);
+            }
+        } catch (InterruptedException e) {
+            throw new CacheException(e);
+        } catch (MemcachedException e) {
+            throw new CacheException(e);
+        }
+    }
+
+    @Override
+    public void setWithNoReply(final String key, final int exp, final Object value) throws CacheException {
+        try {
+            memcachedClient.setWithNoReply(key, exp, value);
+        } catch (InterruptedException e) {
+            throw new CacheException(e);
+        } catch (MemcachedException e) {
+            throw new CacheException(e);
+        }
+    }
+
+    @Override
+    public <T> void setWithNoReply(final String key, final int exp, final T value, final CacheTranscoder transcoder) throws CacheException {
+        try {
+            memcachedClient.setWithNoReply(key, exp, value, this.<T> getTranscoder(transcoder));
+        } catch (InterruptedException e) {
+            throw new CacheException(e);
+        } catch (MemcachedException e) {
+            throw new CacheException(e);
+        }
+    }
+
+    @Override
+    public boolean touch(final String key, final int exp) throws TimeoutException, CacheException {
+        try {
+            return memcachedClient.touch(key, exp);
+        } catch (InterruptedException e) {
+            throw new CacheException(e);
+        } catch (MemcachedException e) {
+            throw new CacheException(e);
+        }
+    }
+
     @Override
     public void shutdown() {
         try {
@@ -264,6 +475,32 @@ class MemcacheClientWrapper extends AbstractMemcacheClientWrapper {
         }
     }
 
+    @Override
+    public Object getAndTouch(final String key, final int exp) throws TimeoutException, CacheException {
+        try {
+            return memcachedClient.getAndTouch(key, exp);
+        } catch (InterruptedException e) {
+            throw new CacheException(e);
+        } catch (MemcachedException e) {
+            throw new CacheException(e);
+        }
+    }
+
+    /**
+     * xmemcached doesn't support custom transcoder in get and touch operation so the value is retrieved and then the key
+     * is touched if the value exists. The operation is not atomic, value can be changed or removed between get and
+     * touch.
+     */
+    @Override
+    public <T> T getAndTouch(final String key, final int exp, final CacheTranscoder transcoder) throws TimeoutException, CacheException {
+        final T value = this.<T> get(key, transcoder);
+        if (value != null) {
+            touch(key, exp);
+        }
+
+        return value;
+    }
+
     @Override
     @SuppressWarnings("unchecked")
     public CacheTranscoder getTranscoder() {
@@ -275,6 +512,10 @@ class MemcacheClientWrapper extends AbstractMemcacheClientWrapper {
         return memcachedClient;
     }
 
+    private <T> CASValue<T> toCASValue(final GetsResponse<T> response) {
+        return (response != null) ? new CASValue<T>(response.getCas(), response.getValue()) : null;
+    }
+
     @SuppressWarnings("unchecked")
     private <T> Transcoder<T> getTranscoder(final CacheTranscoder transcoder) {
         Transcoder<T> transcoderAdapter = (Transcoder<T>) adapters.get(transcoder);
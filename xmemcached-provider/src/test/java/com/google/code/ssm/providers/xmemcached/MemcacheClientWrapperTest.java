@@ -17,16 +17,22 @@
 package com.google.code.ssm.providers.xmemcached;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import java.io.IOException;
 import java.net.InetSocketAddress;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeoutException;
 
+import net.rubyeye.xmemcached.GetsResponse;
 import net.rubyeye.xmemcached.MemcachedClient;
 import net.rubyeye.xmemcached.exception.MemcachedException;
 import net.rubyeye.xmemcached.transcoders.Transcoder;
@@ -35,6 +41,7 @@ import org.easymock.EasyMock;
 import org.junit.Before;
 import org.junit.Test;
 
+import com.google.code.ssm.providers.CASValue;
 import com.google.code.ssm.providers.CacheException;
 import com.google.code.ssm.providers.CacheTranscoder;
 
@@ -74,6 +81,14 @@ public class MemcacheClientWrapperTest {
         EasyMock.verify(client, transcoder);
     }
 
+    @Test
+    public void cas() throws TimeoutException, InterruptedException, MemcachedException, CacheException {
+        EasyMock.expect(client.cas("key1", 1000, "value1", 5L)).andReturn(true);
+        EasyMock.replay(client);
+        assertTrue(clientWrapper.cas("key1", 5L, 1000, "value1"));
+        EasyMock.verify(client);
+    }
+
     @Test
     public void decrStringInt() throws TimeoutException, InterruptedException, MemcachedException, CacheException {
         EasyMock.expect(client.decr("key1", 1)).andReturn(2L);
@@ -98,6 +113,43 @@ public class MemcacheClientWrapperTest {
         EasyMock.verify(client);
     }
 
+    @Test
+    public void deleteWithNoReply() throws CacheException, InterruptedException, MemcachedException {
+        client.deleteWithNoReply("key1");
+        EasyMock.expectLastCall();
+        EasyMock.replay(client);
+        clientWrapper.deleteWithNoReply("key1");
+        EasyMock.verify(client);
+    }
+
+    @Test
+    public void setWithNoReply() throws CacheException, InterruptedException, MemcachedException {
+        client.setWithNoReply("key1", 1000, "value1");
+        EasyMock.expectLastCall();
+        EasyMock.replay(client);
+        clientWrapper.setWithNoReply("key1", 1000, "value1");
+        EasyMock.verify(client);
+    }
+
+    @Test(expected = CacheException.class)
+    public void addWithNoReplyFailure() throws CacheException, InterruptedException, MemcachedException {
+        client.addWithNoReply("key1", 1000, "value1");
+        EasyMock.expectLastCall().andThrow(new MemcachedException());
+        EasyMock.replay(client);
+        clientWrapper.addWithNoReply("key1", 1000, "value1");
+    }
+
+    @Test
+    public void deleteCollection() throws TimeoutException, InterruptedException, MemcachedException, CacheException {
+        client.deleteWithNoReply("key1");
+        EasyMock.expectLastCall();
+        client.deleteWithNoReply("key2");
+        EasyMock.expectLastCall();
+        EasyMock.replay(client);
+        clientWrapper.delete(Arrays.asList("key1", "key2"));
+        EasyMock.verify(client);
+    }
+
     @Test
     public void flush() throws TimeoutException, InterruptedException, MemcachedException, CacheException {
         client.flushAll();
@@ -107,6 +159,37 @@ public class MemcacheClientWrapperTest {
         EasyMock.verify(client);
     }
 
+    @Test
+    public void gets() throws TimeoutException, InterruptedException, MemcachedException, CacheException {
+        EasyMock.expect(client.<Object> gets("key1")).andReturn(new GetsResponse<Object>(5L, "test-value"));
+        EasyMock.replay(client);
+        CASValue<Object> value = clientWrapper.gets("key1");
+        assertEquals(5L, value.getCas());
+        assertEquals("test-value", value.getValue());
+        EasyMock.verify(client);
+    }
+
+    @Test
+    public void getAndTouch() throws TimeoutException, InterruptedException, MemcachedException, CacheException {
+        EasyMock.expect(client.getAndTouch("key1", 100)).andReturn("test-value");
+        EasyMock.replay(client);
+        assertEquals("test-value", clientWrapper.getAndTouch("key1", 100));
+        EasyMock.verify(client);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void getAndTouchWithTranscoder() throws TimeoutException, InterruptedException, MemcachedException, CacheException {
+        CacheTranscoder transcoder = EasyMock.createMock(CacheTranscoder.class);
+        EasyMock.expect(client.get(EasyMock.eq("key1"), EasyMock.anyObject(Transcoder.class))).andReturn("test-value");
+        EasyMock.expect(client.touch("key1", 100)).andReturn(true);
+        EasyMock.expect(client.get(EasyMock.eq("key2"), EasyMock.anyObject(Transcoder.class))).andReturn(null);
+        EasyMock.replay(client);
+        assertEquals("test-value", clientWrapper.getAndTouch("key1", 100, transcoder));
+        assertNull(clientWrapper.getAndTouch("key2", 100, transcoder));
+        EasyMock.verify(client);
+    }
+
     @Test
     public void getString() throws TimeoutException, InterruptedException, MemcachedException, CacheException {
         EasyMock.expect(client.get("key1")).andReturn("test-value");
@@ -115,6 +198,31 @@ public class MemcacheClientWrapperTest {
         EasyMock.verify(client);
     }
 
+    @Test
+    public void asyncGetShouldReturnCompletedFuture() throws Exception {
+        EasyMock.expect(client.get("key1")).andReturn("test-value");
+        EasyMock.replay(client);
+        Future<Object> future = clientWrapper.asyncGet("key1");
+        assertTrue(future.isDone());
+        assertEquals("test-value", future.get());
+        EasyMock.verify(client);
+    }
+
+    @Test
+    public void asyncGetShouldReportFailureByFuture() throws Exception {
+        EasyMock.expect(client.get("key1")).andThrow(new TimeoutException());
+        EasyMock.replay(client);
+        try {
+            clientWrapper.asyncGet("key1").get();
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof TimeoutException);
+            EasyMock.verify(client);
+            return;
+        }
+
+        throw new AssertionError("ExecutionException expected");
+    }
+
     @Test
     @SuppressWarnings("unchecked")
     public void getStringMemcacheTranscoderOfT() throws TimeoutException, InterruptedException, MemcachedException, CacheException {
@@ -170,6 +278,16 @@ public class MemcacheClientWrapperTest {
         EasyMock.verify(client);
     }
 
+    @Test
+    public void getBulkWithTimeout() throws TimeoutException, InterruptedException, MemcachedException, CacheException {
+        Collection<String> keys = Arrays.asList("key1", "key2");
+
+        EasyMock.expect(client.<Object> get(keys, 100)).andThrow(new TimeoutException());
+        EasyMock.replay(client);
+        assertEquals(Collections.emptyMap(), clientWrapper.getBulk(keys, 100));
+        EasyMock.verify(client);
+    }
+
     @Test
     public void incrStringInt() throws TimeoutException, InterruptedException, MemcachedException, CacheException {
         EasyMock.expect(client.incr("key1", 1)).andReturn(2L);
@@ -214,6 +332,32 @@ public class MemcacheClientWrapperTest {
         EasyMock.verify(client);
     }
 
+    @Test
+    public void setBulk() throws TimeoutException, InterruptedException, MemcachedException, CacheException {
+        Map<String, Object> values = new HashMap<String, Object>();
+        values.put("key1", "value1");
+        values.put("key2", "value2");
+        client.setWithNoReply("key1", 1, "value1");
+        EasyMock.expectLastCall();
+        client.setWithNoReply("key2", 1, "value2");
+        EasyMock.expectLastCall();
+        EasyMock.replay(client);
+        clientWrapper.setBulk(values, 1);
+        EasyMock.verify(client);
+    }
+
+    @Test
+    public void addBulk() throws TimeoutException, InterruptedException, MemcachedException, CacheException {
+        Map<String, Object> values = new HashMap<String, Object>();
+        values.put("key1", "value1");
+        values.put("key2", "value2");
+        EasyMock.expect(client.add("key1", 1, "value1")).andReturn(true);
+        EasyMock.expect(client.add("key2", 1, "value2")).andReturn(false);
+        EasyMock.replay(client);
+        assertEquals(Collections.singleton("key1"), clientWrapper.addBulk(values, 1));
+        EasyMock.verify(client);
+    }
+
     @Test
     public void shutdown() throws IOException {
         client.shutdown();